@@ -59,6 +59,31 @@ public interface OutputMonitor<T, P extends Position<? extends P>> extends Seria
      */
     default void initialized(@Nonnull final Environment<T, P> environment) { }
 
+    /**
+     * The simulation invokes {@link #stepDone(Environment, Actionable, Time, long)} only for the steps sampled by
+     * this policy, so that monitors interested in few steps do not get notified of every event.
+     * The policy is queried once, when the monitor is attached to a simulation.
+     *
+     * @return the {@link SamplingPolicy} of this monitor, by default {@link SamplingPolicy#everyStep()}
+     */
+    @Nonnull
+    default SamplingPolicy getSamplingPolicy() {
+        return SamplingPolicy.everyStep();
+    }
+
+    /**
+     * Simulations executing reactions in parallel may have already executed the reactions following a step
+     * when notifying it. They only do so for monitors that do not read the environment in
+     * {@link #stepDone(Environment, Actionable, Time, long)}, e.g., monitors only recording reactions, times,
+     * and steps: the steps sampled by the other monitors are the last of their batch.
+     *
+     * @return whether {@link #stepDone(Environment, Actionable, Time, long)} reads the environment,
+     *         true by default
+     */
+    default boolean observesEnvironment() {
+        return true;
+    }
+
     /**
      * This method will be called by the simulation every time a simulation step is
      * done. Thread safety note: no specific policy is defined for the control flow
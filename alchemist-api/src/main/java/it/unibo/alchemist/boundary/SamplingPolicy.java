@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.boundary;
+
+import it.unibo.alchemist.model.Actionable;
+import it.unibo.alchemist.model.Time;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Declares which simulation steps an {@link OutputMonitor} should be notified of
+ * (see {@link OutputMonitor#getSamplingPolicy()}).
+ * The simulation asks the policy for a new {@link Sampler} for each monitor,
+ * and skips the notification of the steps the sampler discards.
+ * Samplers may declare the next step and time they could sample (see {@link Sampler#nextStep()}),
+ * so that the simulation does not even consult them before.
+ */
+public abstract class SamplingPolicy {
+
+    private static final double TIME_TOLERANCE = 0x1p-50;
+    private static final SamplingPolicy EVERY_STEP = new SamplingPolicy() {
+        @Override
+        public Sampler newSampler() {
+            return (reaction, time, step) -> true;
+        }
+
+        @Override
+        public String toString() {
+            return "every step";
+        }
+    };
+
+    /**
+     * @return a new, stateful {@link Sampler}, whose first invocation refers to the first simulation step
+     */
+    @Nonnull
+    public abstract Sampler newSampler();
+
+    /**
+     * @return a policy sampling every step
+     */
+    @Nonnull
+    public static SamplingPolicy everyStep() {
+        return EVERY_STEP;
+    }
+
+    /**
+     * @param steps the number of steps between two samples
+     * @return a policy sampling the first step, and then a step every {@code steps}
+     */
+    @Nonnull
+    public static SamplingPolicy everySteps(final long steps) {
+        if (steps < 1) {
+            throw new IllegalArgumentException("At least one step must elapse between samples, but got " + steps);
+        }
+        return new SamplingPolicy() {
+            @Override
+            public Sampler newSampler() {
+                return new Sampler() {
+                    private long next = Long.MIN_VALUE;
+
+                    @Override
+                    public boolean shouldSample(final Actionable<?> reaction, final Time time, final long step) {
+                        if (step >= next) {
+                            next = step + steps;
+                            return true;
+                        }
+                        return false;
+                    }
+
+                    @Override
+                    public long nextStep() {
+                        return next;
+                    }
+
+                    @Override
+                    public double nextTime() {
+                        return Double.POSITIVE_INFINITY;
+                    }
+                };
+            }
+
+            @Override
+            public String toString() {
+                return "every " + steps + " steps";
+            }
+        };
+    }
+
+    /**
+     * @param interval the simulated time between two samples
+     * @return a policy sampling the first step, and then the first step reaching each multiple of {@code interval}
+     */
+    @Nonnull
+    public static SamplingPolicy everyTime(final double interval) {
+        if (!(interval > 0) || Double.isInfinite(interval)) {
+            throw new IllegalArgumentException(
+                "The sampling interval must be positive and finite, but got " + interval
+            );
+        }
+        return new SamplingPolicy() {
+            @Override
+            public Sampler newSampler() {
+                return new Sampler() {
+                    private long last = -1;
+                    /*
+                     * Slightly lower than the next multiple of the interval,
+                     * so that rounding errors in the division can not make the threshold skip a sample.
+                     */
+                    private double next = Double.NEGATIVE_INFINITY;
+
+                    @Override
+                    public boolean shouldSample(final Actionable<?> reaction, final Time time, final long step) {
+                        final long sample = (long) (time.toDouble() / interval);
+                        if (sample > last) {
+                            last = sample;
+                            next = (last + 1) * interval * (1 - TIME_TOLERANCE);
+                            return true;
+                        }
+                        return false;
+                    }
+
+                    @Override
+                    public long nextStep() {
+                        return Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public double nextTime() {
+                        return next;
+                    }
+                };
+            }
+
+            @Override
+            public String toString() {
+                return "every " + interval + " time units";
+            }
+        };
+    }
+
+    /**
+     * @param filter the reactions whose execution should be sampled
+     * @return a policy sampling the steps executing reactions that satisfy {@code filter}
+     */
+    @Nonnull
+    public static SamplingPolicy onReactions(@Nonnull final Predicate<? super Actionable<?>> filter) {
+        Objects.requireNonNull(filter);
+        return new SamplingPolicy() {
+            @Override
+            public Sampler newSampler() {
+                return (reaction, time, step) -> reaction != null && filter.test(reaction);
+            }
+
+            @Override
+            public String toString() {
+                return "on reactions matching " + filter;
+            }
+        };
+    }
+
+    /**
+     * @param policies the policies to combine
+     * @return a policy sampling the steps sampled by any of {@code policies}
+     */
+    @Nonnull
+    public static SamplingPolicy anyOf(@Nonnull final Collection<SamplingPolicy> policies) {
+        if (policies.contains(EVERY_STEP)) {
+            return EVERY_STEP;
+        }
+        final List<SamplingPolicy> alternatives = List.copyOf(policies);
+        return new SamplingPolicy() {
+            @Override
+            public Sampler newSampler() {
+                return new AnyOf(alternatives);
+            }
+
+            @Override
+            public String toString() {
+                return "any of " + alternatives;
+            }
+        };
+    }
+
+    /**
+     * Decides, step by step, whether an {@link OutputMonitor} should be notified.
+     * Samplers are stateful, and get invoked in order of step.
+     * Steps preceding both {@link #nextStep()} and {@link #nextTime()} may be skipped:
+     * the sampler must discard them, and their skipping must not alter its state.
+     * By default, no step is skipped.
+     */
+    @FunctionalInterface
+    public interface Sampler {
+
+        /**
+         * @param reaction the reaction executed in this step, if any
+         * @param time the time of this step
+         * @param step the step number
+         * @return true if the monitor should be notified of this step
+         */
+        boolean shouldSample(@Nullable Actionable<?> reaction, @Nonnull Time time, long step);
+
+        /**
+         * Can only change when {@link #shouldSample(Actionable, Time, long)} gets invoked.
+         *
+         * @return the first step this sampler may sample, unless {@link #nextTime()} is reached before
+         */
+        default long nextStep() {
+            return Long.MIN_VALUE;
+        }
+
+        /**
+         * Can only change when {@link #shouldSample(Actionable, Time, long)} gets invoked.
+         *
+         * @return a lower bound of the first time this sampler may sample, unless {@link #nextStep()} is reached before
+         */
+        default double nextTime() {
+            return Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /*
+     * Consults only the samplers whose next step or time is reached,
+     * tracking their thresholds in primitive arrays.
+     */
+    private static final class AnyOf implements Sampler {
+
+        private final Sampler[] samplers;
+        private final long[] steps;
+        private final double[] times;
+        private long nextStep = Long.MIN_VALUE;
+        private double nextTime = Double.NEGATIVE_INFINITY;
+
+        private AnyOf(final List<SamplingPolicy> policies) {
+            samplers = new Sampler[policies.size()];
+            steps = new long[samplers.length];
+            times = new double[samplers.length];
+            for (int i = 0; i < samplers.length; i++) {
+                samplers[i] = policies.get(i).newSampler();
+                steps[i] = Long.MIN_VALUE;
+                times[i] = Double.NEGATIVE_INFINITY;
+            }
+        }
+
+        @Override
+        public boolean shouldSample(final Actionable<?> reaction, final Time time, final long step) {
+            final double now = time.toDouble();
+            boolean result = false;
+            long firstStep = Long.MAX_VALUE;
+            double firstTime = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < samplers.length; i++) {
+                if (step >= steps[i] || now >= times[i]) {
+                    result |= samplers[i].shouldSample(reaction, time, step);
+                    steps[i] = samplers[i].nextStep();
+                    times[i] = samplers[i].nextTime();
+                }
+                firstStep = Math.min(firstStep, steps[i]);
+                firstTime = Math.min(firstTime, times[i]);
+            }
+            nextStep = firstStep;
+            nextTime = firstTime;
+            return result;
+        }
+
+        @Override
+        public long nextStep() {
+            return nextStep;
+        }
+
+        @Override
+        public double nextTime() {
+            return nextTime;
+        }
+    }
+}
@@ -11,6 +11,9 @@ package it.unibo.alchemist.core;
 
 import it.unibo.alchemist.model.Actionable;
 
+import java.util.Collections;
+import java.util.Iterator;
+
 /**
  * The type which describes the concentration of a molecule
  * 
@@ -36,6 +39,23 @@ public interface Scheduler<T> {
      */
     Actionable<T> getNext();
 
+    /**
+     * Allows to inspect the reactions that are going to be executed next, in order.
+     * The returned iterator starts from {@link #getNext()} and proceeds in the same order
+     * in which subsequent calls to {@link #getNext()} would return the reactions,
+     * assuming that each of them is rescheduled after all the others once executed.
+     * The scheduler must not be modified while iterating.
+     * Implementations that cannot predict the order of reactions scheduled at the same time
+     * (e.g., because it depends on the layout of the underlying data structure)
+     * may only return the next reaction, which is the default behavior.
+     *
+     * @return an iterator over the upcoming reactions
+     */
+    default Iterator<Actionable<T>> getUpcoming() {
+        final Actionable<T> next = getNext();
+        return next == null ? Collections.emptyIterator() : Collections.singletonList(next).iterator();
+    }
+
     /**
      * Removes a reaction from the structure. If the reaction is not present,
      * nothing is done and an Exception is thrown.
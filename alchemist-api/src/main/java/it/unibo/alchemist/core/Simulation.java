@@ -9,6 +9,9 @@
 
 package it.unibo.alchemist.core;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -38,6 +41,19 @@ public interface Simulation<T, P extends Position<? extends P>> extends Runnable
      */
     void addOutputMonitor(OutputMonitor<T, P> op);
 
+    /**
+     * Writes on output a checkpoint of this simulation, from which it can later be restored.
+     * The checkpoint includes the environment (and thus the random generators it uses),
+     * the scheduler, the dependency graph, and the current time and step, but no {@link OutputMonitor}.
+     * This method must be called from the simulation thread while no step is being executed,
+     * e.g., through {@link #schedule(CheckedRunnable)}.
+     * The output stream is flushed, but not closed.
+     *
+     * @param output the stream to write the checkpoint to
+     * @throws IOException if the checkpoint can not be written
+     */
+    void checkpoint(OutputStream output) throws IOException;
+
     /**
      * Allows to access the current environment.
      *
@@ -148,6 +164,18 @@ public interface Simulation<T, P extends Position<? extends P>> extends Runnable
      */
     void nodeMoved(Node<T> node);
 
+    /**
+     * This method must get called in case many nodes are moved at once,
+     * after all their neighborhoods have been updated,
+     * and it is equivalent to calling {@link #nodeMoved(Node)} for each of them.
+     * Implementations may update the reactions depending on the movements once, rather than once per node.
+     *
+     * @param nodes the nodes
+     */
+    default void nodesMoved(final Collection<Node<T>> nodes) {
+        nodes.forEach(this::nodeMoved);
+    }
+
     /**
      * This method must get called in case a node is removed from the
      * environment during the simulation and after its neighborhood has been
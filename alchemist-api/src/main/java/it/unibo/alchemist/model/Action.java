@@ -51,4 +51,13 @@ public interface Action<T> extends Serializable {
     @Nonnull
     ListSet<? extends Dependency> getOutboundDependencies();
 
+    /**
+     * @return true if this action can get executed concurrently with the actions of other nodes,
+     *         namely, if its {@link #execute()} neither draws from shared random generators
+     *         nor modifies state shared with other nodes. Defaults to false.
+     */
+    default boolean isParallelizable() {
+        return false;
+    }
+
 }
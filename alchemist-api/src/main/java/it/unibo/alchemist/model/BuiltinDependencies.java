@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model;
+
+/**
+ * The special dependencies built into {@link Dependency}.
+ * Each one resolves to its constant when deserialized,
+ * hence they can be compared by identity after restoring a checkpoint as well.
+ */
+final class BuiltinDependencies {
+
+    private BuiltinDependencies() { }
+
+    /**
+     * See {@link Dependency#EVERYTHING}.
+     */
+    static final class Everything implements Dependency {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public boolean dependsOn(final Dependency dependency) {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "Everything";
+        }
+
+        private Object readResolve() {
+            return EVERYTHING;
+        }
+    }
+
+    /**
+     * See {@link Dependency#EVERY_MOLECULE}.
+     */
+    static final class EveryMolecule implements Dependency {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public boolean dependsOn(final Dependency dependency) {
+            return equals(dependency) || dependency instanceof Molecule;
+        }
+
+        @Override
+        public String toString() {
+            return "Every_molecule";
+        }
+
+        private Object readResolve() {
+            return EVERY_MOLECULE;
+        }
+    }
+
+    /**
+     * See {@link Dependency#MOVEMENT}.
+     */
+    static final class Movement implements Dependency {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String toString() {
+            return "Movement";
+        }
+
+        private Object readResolve() {
+            return MOVEMENT;
+        }
+    }
+}
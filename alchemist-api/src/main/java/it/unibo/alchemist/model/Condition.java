@@ -66,6 +66,15 @@ public interface Condition<T> extends Serializable {
      */
     boolean isValid();
 
+    /**
+     * @return true if this condition can get evaluated concurrently with the conditions of other nodes,
+     *         namely, if its {@link #isValid()} neither draws from shared random generators
+     *         nor modifies state shared with other nodes. Defaults to false.
+     */
+    default boolean isParallelizable() {
+        return false;
+    }
+
     /**
      * This method is called by the {@link Simulation} once the {@link Reaction}
      * whose this {@link Condition} belongs to is the next one to be executed, and
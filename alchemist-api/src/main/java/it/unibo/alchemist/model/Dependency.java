@@ -14,46 +14,23 @@ import java.io.Serializable;
 /**
  * This interface represents a token that may generate a dependency between two reactions. Some special built-in tokens
  * are EVERYTHING, EVERY_MOLECULE, MOVEMENT, and NEIGHBORHOOD_CHANGE. Molecules are dependencies as well.
+ * The built-in tokens are singletons even once deserialized, and can be compared by identity.
  */
 public interface Dependency extends Serializable {
     /**
      * Declares a dependency towards any other reaction in the reachable scope.
      */
-    Dependency EVERYTHING = new Dependency() {
-        @Override
-        public boolean dependsOn(final Dependency dependency) {
-            return true;
-        }
-
-        @Override
-        public String toString() {
-            return "Everything";
-        }
-    };
+    Dependency EVERYTHING = new BuiltinDependencies.Everything();
 
     /**
      * Declares a dependency towards any modified molecule in the reachable scope.
      */
-    Dependency EVERY_MOLECULE = new Dependency() {
-        @Override
-        public boolean dependsOn(final Dependency dependency) {
-            return equals(dependency) || dependency instanceof Molecule;
-        }
-        @Override
-        public String toString() {
-            return "Every_molecule";
-        }
-    };
+    Dependency EVERY_MOLECULE = new BuiltinDependencies.EveryMolecule();
 
     /**
      * Declares a dependency on movement of nodes in the reachable scope.
      */
-    Dependency MOVEMENT = new Dependency() {
-        @Override
-        public String toString() {
-            return "Movement";
-        }
-    };
+    Dependency MOVEMENT = new BuiltinDependencies.Movement();
 
     /**
      * Determines whether this dependency depends on the provided dependency.
@@ -9,12 +9,18 @@
 package it.unibo.alchemist.model;
 
 import it.unibo.alchemist.core.Simulation;
+import org.danilopianini.util.ArrayListSet;
 import org.danilopianini.util.ListSet;
 
 import javax.annotation.Nonnull;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * Interface for an environment. Every environment must implement this
@@ -71,6 +77,24 @@ public interface Environment<T, P extends Position<? extends P>> extends Seriali
      */
     boolean addNode(Node<T> node, P p);
 
+    /**
+     * Adds many nodes at once, as {@link #addNode(Node, Position)} would do for each of them, in iteration order.
+     * Implementations may compute the neighborhoods once all the nodes have been placed,
+     * which is much faster than updating them after each insertion when deploying large populations.
+     *
+     * @param nodes the nodes to add, with the positions where to place them
+     * @return the nodes actually added to the environment
+     */
+    default List<Node<T>> addNodes(final Map<Node<T>, P> nodes) {
+        final List<Node<T>> added = new ArrayList<>(nodes.size());
+        nodes.forEach((node, position) -> {
+            if (addNode(node, position)) {
+                added.add(node);
+            }
+        });
+        return added;
+    }
+
     /**
      * @param terminator
      *            a {@link Predicate} indicating whether the simulation should
@@ -186,6 +210,50 @@ public interface Environment<T, P extends Position<? extends P>> extends Seriali
      */
     ListSet<Node<T>> getNodesWithinRange(P center, double range);
 
+    /**
+     * Returns the k nodes closest to the provided center, excluding the center itself,
+     * sorted by increasing distance.
+     * Fewer nodes are returned if the environment does not contain enough nodes.
+     *
+     * @param center
+     *            the node to consider as center
+     * @param k
+     *            the number of nodes to find
+     * @return the k nodes closest to the center, closest first
+     */
+    default ListSet<Node<T>> getKNearestNodes(final Node<T> center, final int k) {
+        return getKNearestNodes(center, k, node -> true);
+    }
+
+    /**
+     * Returns the k nodes closest to the provided center that satisfy the provided filter,
+     * excluding the center itself, sorted by increasing distance.
+     * Fewer nodes are returned if the environment does not contain enough such nodes.
+     * This implementation sorts all the nodes: implementations backed by a spatial index should override it.
+     *
+     * @param center
+     *            the node to consider as center
+     * @param k
+     *            the number of nodes to find
+     * @param filter
+     *            the condition nodes must satisfy to be considered
+     * @return the k nodes closest to the center satisfying the filter, closest first
+     */
+    default ListSet<Node<T>> getKNearestNodes(
+        final Node<T> center,
+        final int k,
+        final Predicate<? super Node<T>> filter
+    ) {
+        if (k < 1) {
+            throw new IllegalArgumentException("The number of nodes to find must be positive, got " + k);
+        }
+        return getNodes().stream()
+            .filter(node -> !node.equals(center) && filter.test(node))
+            .sorted(Comparator.comparingDouble(node -> getDistanceBetweenNodes(center, node)))
+            .limit(k)
+            .collect(Collectors.toCollection(ArrayListSet::new));
+    }
+
     /**
      * This method allows to know which are the smallest coordinates
      * represented.
@@ -254,6 +322,20 @@ public interface Environment<T, P extends Position<? extends P>> extends Seriali
      */
     @Nonnull void moveNodeToPosition(@Nonnull Node<T> node, @Nonnull P position);
 
+    /**
+     * Moves many nodes at once, as {@link #moveNodeToPosition(Node, Position)} would do for each of them,
+     * in iteration order.
+     * Implementations may update the neighborhoods and notify the simulation once all the nodes have been moved,
+     * which is much faster than doing it after each movement when most nodes move together
+     * (e.g., at each step of a physics simulation).
+     *
+     * @param positions
+     *            the nodes to move, with the absolute positions in which they will be moved
+     */
+    default void moveNodes(@Nonnull final Map<Node<T>, P> positions) {
+        positions.forEach(this::moveNodeToPosition);
+    }
+
     /**
      * This method allows to remove a node. If node removal is unsupported, it
      * does nothing.
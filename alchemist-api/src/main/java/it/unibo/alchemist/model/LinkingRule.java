@@ -47,4 +47,18 @@ public interface LinkingRule<T, P extends Position<? extends P>> extends Seriali
      */
     boolean isLocallyConsistent();
 
+    /**
+     * Environments may compute the neighborhoods of many nodes concurrently
+     * (e.g., when nodes are added or moved in batch), if the rule allows it.
+     * Rules allowing it must support concurrent invocations of {@link #computeNeighborhood(Node, Environment)}
+     * for distinct nodes, as long as the environment is not modified meanwhile:
+     * they must not mutate shared state, and they must only query the environment.
+     * By default, neighborhoods are computed one at a time.
+     *
+     * @return true if this rule can compute multiple neighborhoods concurrently
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
 }
@@ -37,6 +37,29 @@ public interface TimeDistribution<T> extends Cloneable, Serializable {
      */
     Time getNextOccurence();
 
+    /**
+     * The next time at which the event will occur, as a double.
+     * The scheduling path of the engine relies on this method,
+     * which implementations should override to avoid building {@link Time} objects.
+     *
+     * @return the next time at which the event will occur, as a double
+     */
+    default double getNextOccurrenceAsDouble() {
+        return getNextOccurence().toDouble();
+    }
+
+    /**
+     * The period of a strictly periodic distribution:
+     * once executed at time t, its next occurrence is t plus the period,
+     * and it is not changed otherwise.
+     * Schedulers may rely on it to process together the reactions sharing period and next occurrence.
+     *
+     * @return the period, or {@link Double#NaN} if the distribution is not strictly periodic
+     */
+    default double getPeriod() {
+        return Double.NaN;
+    }
+
     /**
      * @return how many times per time unit the event will happen on average
      */
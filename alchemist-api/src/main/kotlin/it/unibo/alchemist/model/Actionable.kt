@@ -82,6 +82,12 @@ sealed interface Actionable<T> : Comparable<Actionable<T>>, Serializable {
      */
     val tau: Time get() = timeDistribution.nextOccurence
 
+    /**
+     * The global time at which this reaction is scheduled to be executed, as a double,
+     * without necessarily building a [Time] (see [TimeDistribution.getNextOccurrenceAsDouble]).
+     */
+    val tauAsDouble: Double get() = timeDistribution.nextOccurrenceAsDouble
+
     /**
      * @return the [TimeDistribution] for this [Reaction]
      */
@@ -36,6 +36,14 @@ interface Reaction<T> : Actionable<T> {
      */
     val node: Node<T>
 
+    /**
+     * Whether this [Reaction] can get executed concurrently with other reactions whose nodes do not interfere with
+     * its own. Parallelizable reactions (along with their [Condition]s and [Action]s) must not draw from shared
+     * random generators, nor modify state shared with reactions of other nodes, while executing.
+     * Defaults to false: the parallel engine executes non-parallelizable reactions on the simulation thread.
+     */
+    val isParallelizable: Boolean get() = false
+
     /**
      * This method allows to clone this reaction on a new node. It may result
      * useful to support runtime creation of nodes with the same reaction
@@ -119,6 +119,12 @@ class EnvironmentWithDynamics<T> @JvmOverloads constructor(
         return false
     }
 
+    override fun addNodes(nodes: Map<Node<T>, Euclidean2DPosition>): List<Node<T>> =
+        backingEnvironment.addNodes(nodes).onEach { node ->
+            addNodeBody(node)
+            moveNodeBodyToPosition(node, nodes.getValue(node))
+        }
+
     private fun addNodeBody(node: Node<T>) {
         val nodeBody = Body()
         addPhysicalProperties(nodeBody, node.asProperty<T, AreaProperty<T>>().shape.radius)
@@ -163,11 +169,9 @@ class EnvironmentWithDynamics<T> @JvmOverloads constructor(
     override fun updatePhysics(elapsedTime: Double) {
         world.update(elapsedTime, Int.MAX_VALUE)
         /*
-         * Make world and environment position consistent
+         * Make world and environment position consistent, updating the neighborhoods once
          */
-        nodeToBody.forEach { (node, body) ->
-            moveNodeToPosition(node, body.position)
-        }
+        moveNodes(nodeToBody.mapValues { (_, body) -> body.position })
     }
 
     override fun getPosition(node: Node<T>): Euclidean2DPosition = nodeToBody[node]?.position
@@ -18,14 +18,13 @@ import it.unibo.alchemist.model.geometry.navigationgraph.DirectedEuclidean2DNavi
 import it.unibo.alchemist.model.geometry.navigationgraph.Euclidean2DNavigationGraph
 import it.unibo.alchemist.model.geometry.navigationgraph.Euclidean2DPassage
 import it.unibo.alchemist.model.geometry.navigationgraph.NaviGator.generateNavigationGraph
+import it.unibo.alchemist.model.geometry.navigationgraph.NavigationGraph
 import it.unibo.alchemist.model.obstacles.RectObstacle2D
 import it.unibo.alchemist.model.physics.environments.EuclideanPhysics2DEnvironmentWithGraph
 import it.unibo.alchemist.model.physics.environments.ImageEnvironment
 import it.unibo.alchemist.model.positions.Euclidean2DPosition
-import org.kaikikm.threadresloader.ResourceLoader
+import it.unibo.alchemist.util.SharedResources
 import java.awt.Color
-import java.io.File
-import javax.imageio.ImageIO
 
 /**
  * An [ImageEnvironment] providing an [Euclidean2DNavigationGraph].
@@ -33,6 +32,8 @@ import javax.imageio.ImageIO
  * The positions where to plant initial seeds should be specified directly in the image,
  * marking each area of the environment with one or more pixels of a given color (defaults
  * to blue).
+ * The graph is shared among all the environments built from the same image with the same parameters
+ * in the same JVM (see [SharedResources]), and must not be modified.
  */
 class ImageEnvironmentWithGraph<T> @JvmOverloads constructor(
     incarnation: Incarnation<T, Euclidean2DPosition>,
@@ -48,20 +49,21 @@ class ImageEnvironmentWithGraph<T> @JvmOverloads constructor(
     override val graph: Euclidean2DNavigationGraph
 
     init {
-        val resource = ResourceLoader.getResourceAsStream(path)
-        val img = if (resource == null) {
-            ImageIO.read(File(path))
-        } else {
-            ImageIO.read(resource)
+        val obstacles = loadMarkedRegions(path, obstaclesColor)
+        val rooms = loadMarkedRegions(path, roomsColor)
+        graph = SharedResources.acquire(
+            this,
+            NavigationGraph::class.java,
+            obstacles.contentHash,
+            listOf(javaClass, obstaclesColor, roomsColor, zoom, dx, dy),
+        ) {
+            generateNavigationGraph(
+                width = obstacles.width.toDouble(),
+                height = obstacles.height.toDouble(),
+                obstacles = obstacles.regions,
+                rooms = rooms.regions.map { Euclidean2DPosition(it.x, it.y) },
+            ).map { Euclidean2DPosition(it.x * zoom + dx, (obstacles.height - it.y) * zoom + dy) }
         }
-        val obstacles = findMarkedRegions(obstaclesColor, img)
-        val rooms = findMarkedRegions(roomsColor, img).map { Euclidean2DPosition(it.x, it.y) }
-        graph = generateNavigationGraph(
-            width = img.width.toDouble(),
-            height = img.height.toDouble(),
-            obstacles = obstacles,
-            rooms = rooms,
-        ).map { Euclidean2DPosition(it.x * zoom + dx, (img.height - it.y) * zoom + dy) }
     }
 
     private fun Euclidean2DNavigationGraph.map(
@@ -35,6 +35,15 @@ class TestEnvironmentWithDynamics<T, P> : StringSpec({
             },
         )
     }
+    "deployed nodes should get a physical body" {
+        val environment = loadYamlSimulation<T, P>("testSquareExit.yml")
+        environment as Dynamics2DEnvironment
+        environment.nodeCount shouldBe 100
+        environment.nodes.forEach { node ->
+            environment.setVelocity(node, environment.makePosition(1.0, 0.0))
+            environment.getVelocity(node) shouldBe environment.makePosition(1.0, 0.0)
+        }
+    }
     "Environemnt should allow physics update rate customization" {
         val environment = loadYamlSimulation<T, P>("testCustomizeGlobalReactionRate.yml")
         environment.globalReactions.size shouldBe 1
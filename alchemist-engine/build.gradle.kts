@@ -18,6 +18,10 @@ import Libs.incarnation
  * as described in the file LICENSE in the Alchemist distribution"s top directory.
  */
 
+plugins {
+    alias(libs.plugins.jmh)
+}
+
 dependencies {
     api(alchemist("api"))
 
@@ -30,6 +34,16 @@ dependencies {
     testImplementation(alchemist("implementationbase"))
     testImplementation(alchemist("loading"))
     testImplementation(incarnation("biochemistry"))
+
+    jmhImplementation(alchemist("euclidean-geometry"))
+    jmhImplementation(alchemist("implementationbase"))
+    jmhImplementation(incarnation("biochemistry"))
+}
+
+jmh {
+    includeTests.set(false)
+    resultFormat.set("JSON")
+    profilers.add("gc")
 }
 
 publishing.publications {
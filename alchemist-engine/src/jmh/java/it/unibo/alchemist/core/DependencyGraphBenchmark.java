@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core;
+
+import it.unibo.alchemist.model.Actionable;
+import it.unibo.alchemist.model.Environment;
+import it.unibo.alchemist.model.Node;
+import it.unibo.alchemist.model.Reaction;
+import it.unibo.alchemist.model.biochemistry.BiochemistryIncarnation;
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.linkingrules.ConnectWithinDistance;
+import it.unibo.alchemist.model.positions.Euclidean2DPosition;
+import it.unibo.alchemist.model.timedistributions.ExponentialTime;
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares the available {@link DependencyGraph} implementations on a grid of nodes,
+ * each hosting a local reaction and a reaction writing its neighborhood.
+ * Run with {@code -prof gc}: the normalized allocation rate of {@link #createDependencies()}
+ * approximates the memory footprint of each graph.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DependencyGraphBenchmark {
+
+    private static final int SEED = 1;
+    private static final double RANGE = 1.5;
+
+    /**
+     * Dependency graph implementation under test.
+     */
+    @Param({ "JGRAPHT", "COMPACT" })
+    private Implementation implementation;
+
+    /**
+     * Side of the grid of nodes.
+     */
+    @Param({ "30", "100" })
+    private int side;
+
+    private Environment<Double, Euclidean2DPosition> environment;
+    private List<Actionable<Double>> reactions;
+    private DependencyGraph<Double> graph;
+
+    /**
+     * Builds the grid of nodes, and a dependency graph tracking all their reactions.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        final RandomGenerator randomGenerator = new MersenneTwister(SEED);
+        final BiochemistryIncarnation incarnation = new BiochemistryIncarnation();
+        environment = new Continuous2DEnvironment<>(incarnation);
+        environment.setLinkingRule(new ConnectWithinDistance<>(RANGE));
+        reactions = new ArrayList<>();
+        for (int x = 0; x < side; x++) {
+            for (int y = 0; y < side; y++) {
+                final Node<Double> node = incarnation.createNode(randomGenerator, environment, null);
+                for (final String descriptor : List.of("[a] --> [b]", "[b] --> [a in neighbor]")) {
+                    final Reaction<Double> reaction = incarnation.createReaction(
+                        randomGenerator,
+                        environment,
+                        node,
+                        new ExponentialTime<>(1, randomGenerator),
+                        descriptor
+                    );
+                    node.addReaction(reaction);
+                    reactions.add(reaction);
+                }
+                environment.addNode(node, new Euclidean2DPosition(x, y));
+            }
+        }
+        graph = createDependencies();
+    }
+
+    /**
+     * Builds a dependency graph tracking all the reactions.
+     *
+     * @return the dependency graph
+     */
+    @Benchmark
+    public DependencyGraph<Double> createDependencies() {
+        final DependencyGraph<Double> result = implementation.create(environment);
+        reactions.forEach(result::createDependencies);
+        return result;
+    }
+
+    /**
+     * Retrieves the reactions depending on each reaction, as the engine does after every execution.
+     *
+     * @return the total number of dependencies
+     */
+    @Benchmark
+    public long outboundDependencies() {
+        long dependencies = 0;
+        for (final Actionable<Double> reaction : reactions) {
+            dependencies += graph.outboundDependencies(reaction).size();
+        }
+        return dependencies;
+    }
+
+    /**
+     * Available dependency graph implementations.
+     */
+    public enum Implementation {
+        /**
+         * {@link JGraphTDependencyGraph}.
+         */
+        JGRAPHT(JGraphTDependencyGraph::new),
+        /**
+         * {@link CompactDependencyGraph}.
+         */
+        COMPACT(CompactDependencyGraph::new);
+
+        private final Function<Environment<Double, ?>, DependencyGraph<Double>> factory;
+
+        Implementation(final Function<Environment<Double, ?>, DependencyGraph<Double>> factory) {
+            this.factory = factory;
+        }
+
+        DependencyGraph<Double> create(final Environment<Double, ?> environment) {
+            return factory.apply(environment);
+        }
+    }
+}
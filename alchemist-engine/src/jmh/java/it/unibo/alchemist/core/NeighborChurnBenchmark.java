@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core;
+
+import it.unibo.alchemist.model.Environment;
+import it.unibo.alchemist.model.Node;
+import it.unibo.alchemist.model.Reaction;
+import it.unibo.alchemist.model.Time;
+import it.unibo.alchemist.model.actions.BrownianMove;
+import it.unibo.alchemist.model.biochemistry.BiochemistryIncarnation;
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.linkingrules.ConnectWithinDistance;
+import it.unibo.alchemist.model.positions.Euclidean2DPosition;
+import it.unibo.alchemist.model.reactions.Event;
+import it.unibo.alchemist.model.timedistributions.ExponentialTime;
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the engine on a high-churn scenario: nodes on a grid exchange molecules with their neighbors
+ * while moving with a {@link BrownianMove}, so that links are continuously created and destroyed,
+ * and the {@link DependencyGraph} must be updated accordingly.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class NeighborChurnBenchmark {
+
+    private static final int SEED = 1;
+    private static final int SIDE = 30;
+    private static final long STEPS = 50_000;
+    private static final double RANGE = 1.5;
+    private static final double MOVEMENT_RANGE = 0.5;
+
+    /**
+     * Dependency graph implementation under test.
+     */
+    @Param({ "JGRAPHT", "COMPACT" })
+    private DependencyGraphBenchmark.Implementation implementation;
+
+    /**
+     * Rate of the movement of each node, relative to the rate of the exchange of molecules.
+     */
+    @Param({ "0.1", "1" })
+    private double movementRate;
+
+    private Engine<Double, Euclidean2DPosition> engine;
+
+    /**
+     * Builds a fresh simulation, as the previous run changed the environment.
+     */
+    @Setup(Level.Invocation)
+    public void setUp() {
+        final RandomGenerator randomGenerator = new MersenneTwister(SEED);
+        final BiochemistryIncarnation incarnation = new BiochemistryIncarnation();
+        final Environment<Double, Euclidean2DPosition> environment = new Continuous2DEnvironment<>(incarnation);
+        environment.setLinkingRule(new ConnectWithinDistance<>(RANGE));
+        for (int x = 0; x < SIDE; x++) {
+            for (int y = 0; y < SIDE; y++) {
+                final Node<Double> node = incarnation.createNode(randomGenerator, environment, null);
+                node.setConcentration(incarnation.createMolecule("a"), 1.0);
+                for (final String descriptor : List.of("[a] --> [a in neighbor]", "[a in neighbor] --> [a]")) {
+                    node.addReaction(incarnation.createReaction(
+                        randomGenerator,
+                        environment,
+                        node,
+                        new ExponentialTime<>(1, randomGenerator),
+                        descriptor
+                    ));
+                }
+                final Reaction<Double> move = new Event<>(node, new ExponentialTime<>(movementRate, randomGenerator));
+                move.setActions(List.of(new BrownianMove<>(environment, node, randomGenerator, MOVEMENT_RANGE)));
+                node.addReaction(move);
+                environment.addNode(node, new Euclidean2DPosition(x, y));
+            }
+        }
+        engine = new Engine<>(
+            environment,
+            implementation.create(environment),
+            new ArrayIndexedPriorityQueue<>(),
+            STEPS,
+            Time.INFINITY
+        );
+        engine.play();
+    }
+
+    /**
+     * Runs the simulation for a fixed number of steps.
+     *
+     * @return the simulation
+     */
+    @Benchmark
+    public Engine<Double, Euclidean2DPosition> run() {
+        engine.run();
+        return engine;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core;
+
+import it.unibo.alchemist.model.Actionable;
+import it.unibo.alchemist.model.Environment;
+import it.unibo.alchemist.model.Node;
+import it.unibo.alchemist.model.biochemistry.BiochemistryIncarnation;
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.nodes.GenericNode;
+import it.unibo.alchemist.model.positions.Euclidean2DPosition;
+import it.unibo.alchemist.model.reactions.Event;
+import it.unibo.alchemist.model.timedistributions.DiracComb;
+import it.unibo.alchemist.model.times.DoubleTime;
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the available {@link Scheduler} implementations on the engine access pattern:
+ * the next reaction is picked, executed, and rescheduled,
+ * while some other reactions get their putative time updated as a consequence.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SchedulerBenchmark {
+
+    private static final int SEED = 1;
+
+    /**
+     * Scheduler implementation under test.
+     */
+    @Param({ "BINARY_HEAP", "QUATERNARY_HEAP", "CALENDAR_QUEUE", "COHORT" })
+    private Implementation implementation;
+
+    /**
+     * Number of scheduled reactions.
+     */
+    @Param({ "1000", "100000" })
+    private int reactions;
+
+    /**
+     * Whether all reactions share start time and rate, as in synchronous-round simulations.
+     */
+    @Param({ "false", "true" })
+    private boolean synchronous;
+
+    private Environment<Double, Euclidean2DPosition> environment;
+    private Scheduler<Double> scheduler;
+    private List<Actionable<Double>> scheduled;
+    private RandomGenerator randomGenerator;
+
+    /**
+     * Builds a population of reactions hosted by a single node,
+     * with random start times and rates unless {@link #synchronous}.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        randomGenerator = new MersenneTwister(SEED);
+        environment = new Continuous2DEnvironment<>(new BiochemistryIncarnation());
+        final Node<Double> node = new GenericNode<>(environment);
+        scheduler = implementation.create();
+        scheduled = new ArrayList<>(reactions);
+        for (int i = 0; i < reactions; i++) {
+            final var timeDistribution = synchronous
+                ? new DiracComb<Double>(1)
+                : new DiracComb<Double>(new DoubleTime(randomGenerator.nextDouble()), 1 + randomGenerator.nextDouble());
+            final Actionable<Double> reaction = new Event<>(node, timeDistribution);
+            scheduled.add(reaction);
+            scheduler.addReaction(reaction);
+        }
+    }
+
+    /**
+     * Executes the next reaction and reschedules it.
+     *
+     * @return the executed reaction
+     */
+    @Benchmark
+    public Actionable<Double> executeNext() {
+        final Actionable<Double> next = scheduler.getNext();
+        next.update(next.getTau(), true, environment);
+        scheduler.updateReaction(next);
+        return next;
+    }
+
+    /**
+     * Executes the next reaction, reschedules it, and notifies the scheduler
+     * that a random dependent reaction has been updated.
+     *
+     * @return the executed reaction
+     */
+    @Benchmark
+    public Actionable<Double> executeNextWithDependency() {
+        final Actionable<Double> next = executeNext();
+        scheduler.updateReaction(scheduled.get(randomGenerator.nextInt(reactions)));
+        return next;
+    }
+
+    /**
+     * Available scheduler implementations.
+     */
+    public enum Implementation {
+        /**
+         * {@link ArrayIndexedPriorityQueue}.
+         */
+        BINARY_HEAP(ArrayIndexedPriorityQueue::new),
+        /**
+         * {@link QuaternaryHeapScheduler}.
+         */
+        QUATERNARY_HEAP(QuaternaryHeapScheduler::new),
+        /**
+         * {@link CalendarQueueScheduler}.
+         */
+        CALENDAR_QUEUE(CalendarQueueScheduler::new),
+        /**
+         * {@link CohortScheduler}.
+         */
+        COHORT(CohortScheduler::new);
+
+        private final Supplier<Scheduler<Double>> factory;
+
+        Implementation(final Supplier<Scheduler<Double>> factory) {
+            this.factory = factory;
+        }
+
+        Scheduler<Double> create() {
+            return factory.get();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core;
+
+import it.unibo.alchemist.model.Actionable;
+import it.unibo.alchemist.model.Environment;
+import it.unibo.alchemist.model.Node;
+import it.unibo.alchemist.model.Time;
+import it.unibo.alchemist.model.TimeDistribution;
+import it.unibo.alchemist.model.biochemistry.BiochemistryIncarnation;
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.nodes.GenericNode;
+import it.unibo.alchemist.model.positions.Euclidean2DPosition;
+import it.unibo.alchemist.model.reactions.Event;
+import it.unibo.alchemist.model.timedistributions.AbstractDistribution;
+import it.unibo.alchemist.model.timedistributions.ExponentialTime;
+import it.unibo.alchemist.model.times.DoubleTime;
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.util.FastMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the scheduling path of Markovian reactions:
+ * the next reaction is rescheduled after its execution,
+ * and a dependent reaction has its putative time rescaled after a change of its propensity.
+ * {@link ExponentialTime} computes on doubles,
+ * while the baseline reproduces the computation on {@link Time} objects.
+ * The allocation rate is reported by the GC profiler (see gc.alloc.rate.norm, in bytes per operation).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TimeArithmeticBenchmark {
+
+    private static final int SEED = 1;
+    private static final int REACTIONS = 10_000;
+
+    /**
+     * How the next occurrences are computed.
+     */
+    @Param({ "TIME_OBJECTS", "PRIMITIVE" })
+    private Arithmetic arithmetic;
+
+    private Environment<Double, Euclidean2DPosition> environment;
+    private Scheduler<Double> scheduler;
+    private List<Actionable<Double>> scheduled;
+    private RandomGenerator randomGenerator;
+
+    /**
+     * Builds a population of Markovian reactions hosted by a single node.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        randomGenerator = new MersenneTwister(SEED);
+        environment = new Continuous2DEnvironment<>(new BiochemistryIncarnation());
+        final Node<Double> node = new GenericNode<>(environment);
+        scheduler = new QuaternaryHeapScheduler<>();
+        scheduled = new ArrayList<>(REACTIONS);
+        for (int i = 0; i < REACTIONS; i++) {
+            final TimeDistribution<Double> timeDistribution = arithmetic.create(randomGenerator);
+            timeDistribution.update(Time.ZERO, true, propensity(), environment);
+            final Actionable<Double> reaction = new Event<>(node, timeDistribution);
+            scheduled.add(reaction);
+            scheduler.addReaction(reaction);
+        }
+    }
+
+    /**
+     * Executes the next reaction, and changes the propensity of a random dependent one.
+     *
+     * @return the executed reaction
+     */
+    @Benchmark
+    public Actionable<Double> executeNextWithDependency() {
+        final Actionable<Double> next = scheduler.getNext();
+        final Time now = next.getTau();
+        next.getTimeDistribution().update(now, true, propensity(), environment);
+        scheduler.updateReaction(next);
+        final Actionable<Double> dependent = scheduled.get(randomGenerator.nextInt(REACTIONS));
+        dependent.getTimeDistribution().update(now, false, propensity(), environment);
+        scheduler.updateReaction(dependent);
+        return next;
+    }
+
+    private double propensity() {
+        return 1 + randomGenerator.nextDouble();
+    }
+
+    /**
+     * Available ways of computing the next occurrence.
+     */
+    public enum Arithmetic {
+        /**
+         * Operations on {@link Time} objects, as {@link ExponentialTime} used to do.
+         */
+        TIME_OBJECTS {
+            @Override
+            TimeDistribution<Double> create(final RandomGenerator randomGenerator) {
+                return new TimeObjectsExponentialTime(randomGenerator);
+            }
+        },
+        /**
+         * Operations on doubles, as done by {@link ExponentialTime}.
+         */
+        PRIMITIVE {
+            @Override
+            TimeDistribution<Double> create(final RandomGenerator randomGenerator) {
+                return new ExponentialTime<>(1, randomGenerator);
+            }
+        };
+
+        abstract TimeDistribution<Double> create(RandomGenerator randomGenerator);
+    }
+
+    /*
+     * The former implementation of ExponentialTime, building a Time for each operation.
+     */
+    private static final class TimeObjectsExponentialTime extends AbstractDistribution<Double> {
+
+        private static final long serialVersionUID = 1L;
+        private final RandomGenerator randomGenerator;
+        private double oldPropensity = -1;
+
+        private TimeObjectsExponentialTime(final RandomGenerator randomGenerator) {
+            super(Time.ZERO);
+            this.randomGenerator = randomGenerator;
+        }
+
+        @Override
+        protected void updateStatus(
+            final Time currentTime,
+            final boolean executed,
+            final double propensity,
+            final Environment<Double, ?> environment
+        ) {
+            if (executed || oldPropensity <= 0) {
+                final Time dt = new DoubleTime(-FastMath.log1p(-randomGenerator.nextDouble()) / propensity);
+                setNextOccurrence(currentTime.plus(dt));
+            } else if (oldPropensity != propensity) {
+                final Time sub = getNextOccurence().minus(currentTime);
+                final Time mul = sub.times(oldPropensity / propensity);
+                setNextOccurrence(mul.plus(currentTime));
+            }
+            oldPropensity = propensity;
+        }
+
+        @Override
+        public AbstractDistribution<Double> cloneOnNewNode(final Node<Double> destination, final Time currentTime) {
+            return new TimeObjectsExponentialTime(randomGenerator);
+        }
+
+        @Override
+        public double getRate() {
+            return 1;
+        }
+    }
+}
@@ -10,25 +10,40 @@
 package it.unibo.alchemist.core;
 
 import gnu.trove.impl.Constants;
+import gnu.trove.list.array.TDoubleArrayList;
 import gnu.trove.map.TObjectIntMap;
 import gnu.trove.map.hash.TObjectIntHashMap;
 import it.unibo.alchemist.model.Actionable;
-import it.unibo.alchemist.model.Time;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Queue;
 
 /**
  * This class implements the indexed priority queue through an Array.
+ * Reactions scheduled at the very same time are executed in an order that depends on the layout of the heap:
+ * other schedulers break such ties by insertion order, and may thus produce a different (equally valid) trajectory.
+ * For the same reason, {@link #getUpcoming()} stops before the first reaction tied with another one
+ * whose order depends on the layout, so that reactions scheduled at the same time are seldom executed in parallel.
+ * Once serialized, the heap is written as a sequence of reactions with their putative time,
+ * preserving its layout and hence the order of ties.
  * 
  * @param <T> concentration type
  */
-public final class ArrayIndexedPriorityQueue<T> implements Scheduler<T> {
+public final class ArrayIndexedPriorityQueue<T> implements Scheduler<T>, Serializable {
 
-    private final TObjectIntMap<Actionable<T>> indexes =
-            new TObjectIntHashMap<>(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1);
-    private final List<Time> times = new ArrayList<>();
-    private final List<Actionable<T>> tree = new ArrayList<>();
+    private static final long serialVersionUID = 1L;
+
+    private transient TObjectIntMap<Actionable<T>> indexes = newIndexes();
+    private transient TDoubleArrayList times = new TDoubleArrayList();
+    private transient List<Actionable<T>> tree = new ArrayList<>();
 
     private static int getParent(final int i) {
         if (i == 0) {
@@ -40,7 +55,7 @@ public final class ArrayIndexedPriorityQueue<T> implements Scheduler<T> {
     @Override
     public void addReaction(final Actionable<T> reaction) {
         tree.add(reaction);
-        times.add(reaction.getTau());
+        times.add(reaction.getTauAsDouble());
         final int index = tree.size() - 1;
         indexes.put(reaction, index);
         updateEffectively(reaction, index);
@@ -48,24 +63,24 @@ public final class ArrayIndexedPriorityQueue<T> implements Scheduler<T> {
 
     private void down(final Actionable<T> reaction, final int reactionIndex) {
         int index = reactionIndex;
-        final Time newTime = reaction.getTau();
+        final double newTime = reaction.getTauAsDouble();
         while (true) {
             int minIndex = 2 * index + 1;
             if (minIndex > tree.size() - 1) {
                 return;
             }
-            Time minTime = times.get(minIndex);
+            double minTime = times.get(minIndex);
             Actionable<T> min = tree.get(minIndex);
             final int right = minIndex + 1;
             if (right < tree.size()) {
-                final Time rr = times.get(right);
-                if (rr.compareTo(minTime) < 0) {
+                final double rr = times.get(right);
+                if (Double.compare(rr, minTime) < 0) {
                     min = tree.get(right);
                     minIndex = right;
                     minTime = rr;
                 }
             }
-            if (newTime.compareTo(minTime) > 0) {
+            if (Double.compare(newTime, minTime) > 0) {
                 swap(index, reaction, minIndex, min);
                 index = minIndex;
             } else {
@@ -83,6 +98,18 @@ public final class ArrayIndexedPriorityQueue<T> implements Scheduler<T> {
         return result;
     }
 
+    /**
+     * Walks the heap best-first, as the subsequent calls to {@link #getNext()} would do,
+     * stopping before the first reaction scheduled at the same time as another candidate:
+     * the order of such reactions depends on how the heap gets rearranged.
+     *
+     * @return an iterator over the upcoming reactions, whose order does not depend on the layout of the heap
+     */
+    @Override
+    public Iterator<Actionable<T>> getUpcoming() {
+        return new UpcomingIterator();
+    }
+
     @Override
     public void removeReaction(final Actionable<T> reaction) {
         final int index = indexes.get(reaction);
@@ -90,14 +117,14 @@ public final class ArrayIndexedPriorityQueue<T> implements Scheduler<T> {
         if (index == last) {
             tree.remove(index);
             indexes.remove(reaction);
-            times.remove(index);
+            times.removeAt(index);
         } else {
             final Actionable<T> swapped = tree.get(last);
             indexes.put(swapped, index);
             tree.set(index, swapped);
-            times.set(index, swapped.getTau());
+            times.set(index, swapped.getTauAsDouble());
             tree.remove(last);
-            times.remove(last);
+            times.removeAt(last);
             indexes.remove(reaction);
             updateEffectively(swapped, index);
         }
@@ -108,11 +135,80 @@ public final class ArrayIndexedPriorityQueue<T> implements Scheduler<T> {
         indexes.put(r2, i1);
         tree.set(i1, r2);
         tree.set(i2, r1);
-        final Time t = times.get(i1);
+        final double t = times.get(i1);
         times.set(i1, times.get(i2));
         times.set(i2, t);
     }
 
+    private void writeObject(final ObjectOutputStream output) throws IOException {
+        output.defaultWriteObject();
+        output.writeInt(tree.size());
+        for (int index = 0; index < tree.size(); index++) {
+            output.writeObject(tree.get(index));
+            output.writeDouble(times.get(index));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        final int size = input.readInt();
+        indexes = newIndexes();
+        times = new TDoubleArrayList(size);
+        tree = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            final Actionable<T> reaction = (Actionable<T>) input.readObject();
+            tree.add(reaction);
+            times.add(input.readDouble());
+            indexes.put(reaction, index);
+        }
+    }
+
+    private static <T> TObjectIntMap<Actionable<T>> newIndexes() {
+        return new TObjectIntHashMap<>(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1);
+    }
+
+    /*
+     * The frontier holds the children of the visited reactions, none an ancestor of another:
+     * the next reaction is known only if its time is strictly lower than the time of the others
+     * (an ancestor always precedes its descendants, even if their times are equal).
+     */
+    private final class UpcomingIterator implements Iterator<Actionable<T>> {
+
+        private final Queue<Integer> frontier = new PriorityQueue<>(
+            (first, second) -> Double.compare(times.get(first), times.get(second))
+        );
+        private boolean determined = true;
+
+        private UpcomingIterator() {
+            if (!tree.isEmpty()) {
+                frontier.add(0);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return determined && !frontier.isEmpty();
+        }
+
+        @Override
+        public Actionable<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final int index = frontier.remove();
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < tree.size(); child++) {
+                frontier.add(child);
+            }
+            if (frontier.size() > 1) {
+                final int first = frontier.remove();
+                determined = Double.compare(times.get(first), times.get(frontier.element())) < 0;
+                frontier.add(first);
+            }
+            return tree.get(index);
+        }
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
@@ -136,12 +232,12 @@ public final class ArrayIndexedPriorityQueue<T> implements Scheduler<T> {
     private boolean up(final Actionable<T> reaction, final int reactionIndex) {
         int index = reactionIndex;
         int parentIndex = getParent(index);
-        final Time newTime = reaction.getTau();
+        final double newTime = reaction.getTauAsDouble();
         if (parentIndex == -1) {
             return false;
         } else {
             Actionable<T> parent = tree.get(parentIndex);
-            if (newTime.compareTo(times.get(parentIndex)) >= 0) {
+            if (Double.compare(newTime, times.get(parentIndex)) >= 0) {
                 return false;
             } else {
                 do {
@@ -152,7 +248,7 @@ public final class ArrayIndexedPriorityQueue<T> implements Scheduler<T> {
                         return true;
                     }
                     parent = tree.get(parentIndex);
-                } while (newTime.compareTo(times.get(parentIndex)) < 0);
+                } while (Double.compare(newTime, times.get(parentIndex)) < 0);
                 return true;
             }
         }
@@ -168,7 +264,7 @@ public final class ArrayIndexedPriorityQueue<T> implements Scheduler<T> {
     public void updateReaction(final Actionable<T> reaction) {
         final int index = indexes.get(reaction);
         if (index != indexes.getNoEntryValue()) {
-            times.set(index, reaction.getTau());
+            times.set(index, reaction.getTauAsDouble());
             updateEffectively(reaction, index);
         }
     }
@@ -0,0 +1,507 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core;
+
+import it.unibo.alchemist.model.Actionable;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements the indexed priority queue as a calendar queue
+ * (R. Brown, "Calendar queues: a fast O(1) priority queue implementation for the
+ * simulation event set problem", CACM 31(10), 1988).
+ * Time is split in buckets of fixed width, each holding the reactions whose putative time falls
+ * in the bucket's window modulo a "year" (the number of buckets times their width).
+ * The number of buckets follows the number of scheduled reactions,
+ * and their width is re-estimated from the distribution of the putative times at every resize,
+ * hence only a few reactions share a bucket and operations take amortised constant time.
+ * Reactions sharing a bucket are kept in a small heap, so that reactions scheduled at
+ * exactly the same time (e.g., synchronous rounds) degrade gracefully to logarithmic cost.
+ * Reactions scheduled at the very same time are executed in the order they were added,
+ * so this scheduler produces exactly the same sequence of events as {@link QuaternaryHeapScheduler},
+ * and the same as {@link ArrayIndexedPriorityQueue} unless there are ties.
+ * Once serialized, only the reactions and their insertion order are written:
+ * the calendar gets rebuilt when the scheduler is read back.
+ *
+ * @param <T> concentration type
+ */
+public final class CalendarQueueScheduler<T> implements Scheduler<T>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int MIN_BUCKETS = 16;
+    private static final int MAX_SAMPLE_SIZE = 1024;
+    private static final double DEFAULT_WIDTH = 1.0;
+    private static final double REACTIONS_PER_BUCKET = 3.0;
+    private transient Map<Actionable<T>, Handle<T>> handles = new IdentityHashMap<>();
+    private transient Bucket<T> infinite = new Bucket<>();
+    private transient Bucket<T>[] buckets = newBuckets(MIN_BUCKETS);
+    private transient double width = DEFAULT_WIDTH;
+    /*
+     * No scheduled reaction has a putative time lower than this value.
+     */
+    private transient double lowerBound = Double.POSITIVE_INFINITY;
+    private transient Handle<T> next;
+    private long insertions;
+
+    @Override
+    public void addReaction(final Actionable<T> reaction) {
+        schedule(reaction, insertions);
+        insertions++;
+    }
+
+    private void schedule(final Actionable<T> reaction, final long order) {
+        final Handle<T> handle = new Handle<>(reaction, order);
+        if (handles.putIfAbsent(reaction, handle) != null) {
+            throw new IllegalArgumentException(reaction + " is already scheduled");
+        }
+        handle.time = reaction.getTauAsDouble();
+        bucketFor(handle.time).add(handle);
+        lowerBound = Math.min(lowerBound, handle.time);
+        if (next != null && handle.precedes(next)) {
+            next = handle;
+        }
+        resizeIfNeeded();
+    }
+
+    @Override
+    public Actionable<T> getNext() {
+        if (next == null && !handles.isEmpty()) {
+            next = findNext();
+        }
+        return next == null ? null : next.reaction;
+    }
+
+    @Override
+    public Iterator<Actionable<T>> getUpcoming() {
+        return new UpcomingIterator();
+    }
+
+    @Override
+    public void removeReaction(final Actionable<T> reaction) {
+        final Handle<T> handle = handles.remove(reaction);
+        if (handle == null) {
+            throw new IllegalArgumentException(reaction + " is not scheduled");
+        }
+        handle.bucket.remove(handle);
+        if (handle == next) {
+            next = null;
+        }
+        if (handles.isEmpty()) {
+            lowerBound = Double.POSITIVE_INFINITY;
+        }
+        resizeIfNeeded();
+    }
+
+    @Override
+    public void updateReaction(final Actionable<T> reaction) {
+        final Handle<T> handle = handles.get(reaction);
+        if (handle != null) {
+            final double time = reaction.getTauAsDouble();
+            if (time != handle.time) {
+                final Bucket<T> destination = bucketFor(time);
+                if (destination == handle.bucket) {
+                    handle.time = time;
+                    destination.update(handle);
+                } else {
+                    handle.bucket.remove(handle);
+                    handle.time = time;
+                    destination.add(handle);
+                }
+                lowerBound = Math.min(lowerBound, time);
+                if (handle == next) {
+                    next = null;
+                } else if (next != null && handle.precedes(next)) {
+                    next = handle;
+                }
+            }
+        }
+    }
+
+    private Handle<T> findNext() {
+        if (handles.size() == infinite.size) {
+            return infinite.peek();
+        }
+        /*
+         * Scan one year of buckets, starting from the one containing the lower bound.
+         * The first bucket whose minimum falls within its current window holds the next reaction.
+         */
+        final long start = virtualBucket(lowerBound);
+        for (int i = 0; i < buckets.length; i++) {
+            final long current = start + i;
+            final Handle<T> candidate = buckets[bucketIndex(current)].peek();
+            if (candidate != null && virtualBucket(candidate.time) == current) {
+                lowerBound = candidate.time;
+                return candidate;
+            }
+        }
+        /*
+         * The next reaction is more than a year ahead: direct search among the bucket minima.
+         */
+        Handle<T> result = null;
+        for (final Bucket<T> bucket : buckets) {
+            final Handle<T> candidate = bucket.peek();
+            if (candidate != null && (result == null || candidate.precedes(result))) {
+                result = candidate;
+            }
+        }
+        assert result != null;
+        lowerBound = result.time;
+        return result;
+    }
+
+    private Bucket<T> bucketFor(final double time) {
+        if (time == Double.POSITIVE_INFINITY) {
+            return infinite;
+        }
+        return buckets[bucketIndex(virtualBucket(time))];
+    }
+
+    private int bucketIndex(final long virtualBucket) {
+        // The number of buckets is always a power of two
+        return (int) (virtualBucket & (buckets.length - 1));
+    }
+
+    private long virtualBucket(final double time) {
+        return (long) Math.floor(time / width);
+    }
+
+    private void resizeIfNeeded() {
+        final int finite = handles.size() - infinite.size;
+        if (finite > 2 * buckets.length) {
+            resize(buckets.length * 2);
+        } else if (buckets.length > MIN_BUCKETS && finite < buckets.length / 2) {
+            resize(buckets.length / 2);
+        }
+    }
+
+    private void resize(final int bucketCount) {
+        final int finite = handles.size() - infinite.size;
+        @SuppressWarnings("unchecked")
+        final Handle<T>[] scheduled = (Handle<T>[]) new Handle<?>[finite];
+        int copied = 0;
+        for (final Bucket<T> bucket : buckets) {
+            System.arraycopy(bucket.heap, 0, scheduled, copied, bucket.size);
+            copied += bucket.size;
+        }
+        width = estimateWidth(scheduled);
+        buckets = newBuckets(bucketCount);
+        for (final Handle<T> handle : scheduled) {
+            bucketFor(handle.time).add(handle);
+        }
+    }
+
+    /*
+     * Estimates the average separation among putative times on a sample, looking at its lower half
+     * in order to be robust to far-future outliers. Falls back to the whole sample if the lower half
+     * is made of ties, and keeps the current width if all the sampled times are equal.
+     */
+    private double estimateWidth(final Handle<T>[] scheduled) {
+        final int sampleSize = Math.min(scheduled.length, MAX_SAMPLE_SIZE);
+        if (sampleSize < 2) {
+            return width;
+        }
+        final double[] sample = new double[sampleSize];
+        final int stride = scheduled.length / sampleSize;
+        for (int i = 0; i < sampleSize; i++) {
+            sample[i] = scheduled[i * stride].time;
+        }
+        Arrays.sort(sample);
+        final double lowerHalfSpan = sample[sampleSize / 2] - sample[0];
+        if (lowerHalfSpan > 0) {
+            return REACTIONS_PER_BUCKET * lowerHalfSpan / (scheduled.length / 2.0);
+        }
+        final double span = sample[sampleSize - 1] - sample[0];
+        if (span > 0) {
+            return REACTIONS_PER_BUCKET * span / scheduled.length;
+        }
+        return width;
+    }
+
+    private void writeObject(final ObjectOutputStream output) throws IOException {
+        output.defaultWriteObject();
+        output.writeInt(handles.size());
+        final List<Handle<T>> scheduled = new ArrayList<>(handles.values());
+        scheduled.sort(Comparator.comparingLong(handle -> handle.order));
+        for (final Handle<T> handle : scheduled) {
+            output.writeObject(handle.reaction);
+            output.writeLong(handle.order);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        handles = new IdentityHashMap<>();
+        infinite = new Bucket<>();
+        buckets = newBuckets(MIN_BUCKETS);
+        width = DEFAULT_WIDTH;
+        lowerBound = Double.POSITIVE_INFINITY;
+        final int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+            final Actionable<T> reaction = (Actionable<T>) input.readObject();
+            schedule(reaction, input.readLong());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Bucket<T>[] newBuckets(final int count) {
+        final Bucket<T>[] result = (Bucket<T>[]) new Bucket<?>[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = new Bucket<>();
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder()
+            .append(getClass().getSimpleName())
+            .append("[width=").append(width)
+            .append(", buckets=").append(buckets.length)
+            .append(", reactions=").append(handles.size())
+            .append("]\n");
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i].size > 0) {
+                sb.append(i).append(": ").append(buckets[i]).append('\n');
+            }
+        }
+        if (infinite.size > 0) {
+            sb.append("∞: ").append(infinite).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /*
+     * Visits the calendar one virtual bucket at a time, sorting the (few) reactions found in each of them.
+     * Infinite-time reactions are visited last.
+     */
+    private final class UpcomingIterator implements Iterator<Actionable<T>> {
+
+        private final List<Handle<T>> pending = new ArrayList<>();
+        private int position;
+        private int remaining = handles.size() - infinite.size;
+        private long current = remaining == 0 ? 0 : virtualBucket(lowerBound) - 1;
+        private boolean infiniteVisited;
+
+        @Override
+        public boolean hasNext() {
+            return position < pending.size() || remaining > 0 || !infiniteVisited && infinite.size > 0;
+        }
+
+        @Override
+        public Actionable<T> next() {
+            if (position == pending.size()) {
+                fill();
+            }
+            final Handle<T> result = pending.get(position);
+            position++;
+            return result.reaction;
+        }
+
+        private void fill() {
+            pending.clear();
+            position = 0;
+            if (remaining > 0) {
+                int scanned = 0;
+                while (pending.isEmpty()) {
+                    if (scanned == buckets.length) {
+                        // A whole year is empty: jump directly to the first non-empty virtual bucket
+                        current = firstVirtualBucketAfter(current) - 1;
+                        scanned = 0;
+                    }
+                    current++;
+                    collect(buckets[bucketIndex(current)], 0);
+                    scanned++;
+                }
+                remaining -= pending.size();
+            } else if (!infiniteVisited && infinite.size > 0) {
+                pending.addAll(Arrays.asList(infinite.heap).subList(0, infinite.size));
+                infiniteVisited = true;
+            } else {
+                throw new NoSuchElementException();
+            }
+            pending.sort((first, second) -> first.precedes(second) ? -1 : 1);
+        }
+
+        /*
+         * Collects the reactions in the current virtual bucket, exploiting the heap property for pruning.
+         */
+        private void collect(final Bucket<T> bucket, final int index) {
+            if (index < bucket.size) {
+                final Handle<T> handle = bucket.heap[index];
+                final long virtualBucket = virtualBucket(handle.time);
+                if (virtualBucket <= current) {
+                    if (virtualBucket == current) {
+                        pending.add(handle);
+                    }
+                    collect(bucket, 2 * index + 1);
+                    collect(bucket, 2 * index + 2);
+                }
+            }
+        }
+
+        private long firstVirtualBucketAfter(final long virtualBucket) {
+            long result = Long.MAX_VALUE;
+            for (final Bucket<T> bucket : buckets) {
+                result = Math.min(result, firstVirtualBucketAfter(bucket, 0, virtualBucket));
+            }
+            return result;
+        }
+
+        private long firstVirtualBucketAfter(final Bucket<T> bucket, final int index, final long virtualBucket) {
+            if (index >= bucket.size) {
+                return Long.MAX_VALUE;
+            }
+            final long candidate = virtualBucket(bucket.heap[index].time);
+            if (candidate > virtualBucket) {
+                return candidate;
+            }
+            return Math.min(
+                firstVirtualBucketAfter(bucket, 2 * index + 1, virtualBucket),
+                firstVirtualBucketAfter(bucket, 2 * index + 2, virtualBucket)
+            );
+        }
+    }
+
+    /*
+     * Scheduler-side handle of a reaction, storing its putative time, its insertion order
+     * (used to break ties), and its current position.
+     */
+    private static final class Handle<T> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Actionable<T> reaction;
+        private final long order;
+        private double time;
+        private Bucket<T> bucket;
+        private int index;
+
+        private Handle(final Actionable<T> reaction, final long order) {
+            this.reaction = reaction;
+            this.order = order;
+        }
+
+        private boolean precedes(final Handle<T> other) {
+            return time < other.time || time == other.time && order < other.order;
+        }
+
+        @Override
+        public String toString() {
+            return time + " -> " + reaction;
+        }
+    }
+
+    /*
+     * A bucket, implemented as an indexed binary heap of handles.
+     */
+    private static final class Bucket<T> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final int INITIAL_CAPACITY = 4;
+        private Handle<T>[] heap = newHeap(INITIAL_CAPACITY);
+        private int size;
+
+        private void add(final Handle<T> handle) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            handle.bucket = this;
+            size++;
+            up(handle, size - 1);
+        }
+
+        private Handle<T> peek() {
+            return size == 0 ? null : heap[0];
+        }
+
+        private void remove(final Handle<T> handle) {
+            final int index = handle.index;
+            handle.bucket = null;
+            size--;
+            final Handle<T> last = heap[size];
+            heap[size] = null;
+            if (index != size) {
+                update(last, index);
+            }
+        }
+
+        private void update(final Handle<T> handle) {
+            update(handle, handle.index);
+        }
+
+        private void update(final Handle<T> handle, final int index) {
+            if (!up(handle, index)) {
+                down(handle, index);
+            }
+        }
+
+        private boolean up(final Handle<T> handle, final int startIndex) {
+            int index = startIndex;
+            while (index > 0) {
+                final int parent = (index - 1) / 2;
+                if (!handle.precedes(heap[parent])) {
+                    break;
+                }
+                place(heap[parent], index);
+                index = parent;
+            }
+            place(handle, index);
+            return index != startIndex;
+        }
+
+        private void down(final Handle<T> handle, final int startIndex) {
+            int index = startIndex;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1].precedes(heap[child])) {
+                    child++;
+                }
+                if (handle.precedes(heap[child])) {
+                    break;
+                }
+                place(heap[child], index);
+                index = child;
+            }
+            place(handle, index);
+        }
+
+        private void place(final Handle<T> handle, final int index) {
+            heap[index] = handle;
+            handle.index = index;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Handle<T>[] newHeap(final int capacity) {
+            return (Handle<T>[]) new Handle<?>[capacity];
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(Arrays.copyOf(heap, size));
+        }
+    }
+}
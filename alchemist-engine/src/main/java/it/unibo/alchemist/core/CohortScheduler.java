@@ -0,0 +1,484 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core;
+
+import gnu.trove.list.array.TLongArrayList;
+import it.unibo.alchemist.model.Actionable;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * A scheduler that moves whole cohorts of periodic reactions at once.
+ * Reactions whose time distribution is strictly periodic
+ * (see {@link it.unibo.alchemist.model.TimeDistribution#getPeriod()})
+ * and that share period and putative time form a cohort, stored as a single entry of a binary heap:
+ * executing its members moves them, one by one, to the cohort of the next round,
+ * which enters the heap once, when its first member arrives.
+ * As long as the members of a cohort are executed in a row,
+ * the heap is thus rearranged once per round rather than once per reaction,
+ * and {@link #getUpcoming()} yields them consecutively,
+ * so that the parallel engine can batch the whole round.
+ * Any other reaction gets a cohort of its own.
+ * <p>
+ * Reactions scheduled at the very same time are executed in the order they were added,
+ * hence the sequence of events is the same as with {@link QuaternaryHeapScheduler} and
+ * {@link CalendarQueueScheduler}, and the same as with {@link ArrayIndexedPriorityQueue} unless there are ties.
+ * Once serialized, only the reactions and their insertion order are written:
+ * cohorts get rebuilt when the scheduler is read back.
+ *
+ * @param <T> concentration type
+ */
+public final class CohortScheduler<T> implements Scheduler<T>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private transient Map<Actionable<T>, Member<T>> members = new IdentityHashMap<>();
+    private transient Map<CohortKey, Cohort<T>> cohorts = new HashMap<>();
+    private transient Cohort<T>[] heap = newHeap(INITIAL_CAPACITY);
+    private transient int size;
+    private long insertions;
+
+    @Override
+    public void addReaction(final Actionable<T> reaction) {
+        add(reaction, insertions);
+        insertions++;
+    }
+
+    private void add(final Actionable<T> reaction, final long order) {
+        final Member<T> member = new Member<>(reaction, order);
+        if (members.putIfAbsent(reaction, member) != null) {
+            throw new IllegalArgumentException(reaction + " is already scheduled");
+        }
+        schedule(member);
+    }
+
+    @Override
+    public Actionable<T> getNext() {
+        return size == 0 ? null : heap[0].first().reaction;
+    }
+
+    @Override
+    public Iterator<Actionable<T>> getUpcoming() {
+        return new UpcomingIterator();
+    }
+
+    @Override
+    public void removeReaction(final Actionable<T> reaction) {
+        final Member<T> member = members.remove(reaction);
+        if (member == null) {
+            throw new IllegalArgumentException(reaction + " is not scheduled");
+        }
+        leave(member);
+    }
+
+    @Override
+    public void updateReaction(final Actionable<T> reaction) {
+        final Member<T> member = members.get(reaction);
+        if (member == null) {
+            return;
+        }
+        final Cohort<T> cohort = member.cohort;
+        final double time = reaction.getTauAsDouble();
+        final double period = reaction.getTimeDistribution().getPeriod();
+        if (cohort.key == null) {
+            if (!isPeriodic(time, period)) {
+                cohort.time = time;
+                reposition(cohort);
+                return;
+            }
+        } else if (Double.compare(period, cohort.period) == 0) {
+            if (Double.compare(time, cohort.time) == 0) {
+                return;
+            }
+            if (Double.compare(time, cohort.time + period) == 0) {
+                /*
+                 * Next round: the successor is looked up once per cohort, not once per member.
+                 */
+                Cohort<T> successor = cohort.successor;
+                if (successor == null || successor.dropped) {
+                    successor = cohortOf(time, period);
+                    cohort.successor = successor;
+                }
+                leave(member);
+                enter(successor, member);
+                return;
+            }
+        }
+        leave(member);
+        schedule(member);
+    }
+
+    private void schedule(final Member<T> member) {
+        final double time = member.reaction.getTauAsDouble();
+        final double period = member.reaction.getTimeDistribution().getPeriod();
+        enter(isPeriodic(time, period) ? cohortOf(time, period) : new Cohort<>(time, Double.NaN, null), member);
+    }
+
+    private Cohort<T> cohortOf(final double time, final double period) {
+        return cohorts.computeIfAbsent(new CohortKey(time, period), key -> new Cohort<>(time, period, key));
+    }
+
+    private void enter(final Cohort<T> cohort, final Member<T> member) {
+        final boolean first = cohort.add(member);
+        if (cohort.index < 0) {
+            push(cohort);
+        } else if (first) {
+            up(cohort.index);
+        }
+    }
+
+    private void leave(final Member<T> member) {
+        final Cohort<T> cohort = member.cohort;
+        final boolean first = cohort.remove(member);
+        if (cohort.live == 0) {
+            removeFromHeap(cohort);
+            if (cohort.key != null) {
+                cohorts.remove(cohort.key);
+            }
+            cohort.dropped = true;
+        } else if (first) {
+            down(cohort.index);
+        }
+    }
+
+    private void push(final Cohort<T> cohort) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        heap[size] = cohort;
+        cohort.index = size;
+        size++;
+        up(size - 1);
+    }
+
+    private void removeFromHeap(final Cohort<T> cohort) {
+        final int index = cohort.index;
+        size--;
+        final Cohort<T> last = heap[size];
+        heap[size] = null;
+        cohort.index = -1;
+        if (index != size) {
+            heap[index] = last;
+            last.index = index;
+            reposition(last);
+        }
+    }
+
+    private void reposition(final Cohort<T> cohort) {
+        if (!up(cohort.index)) {
+            down(cohort.index);
+        }
+    }
+
+    private boolean up(final int startIndex) {
+        final Cohort<T> cohort = heap[startIndex];
+        int index = startIndex;
+        while (index > 0) {
+            final int parent = (index - 1) / 2;
+            if (!cohort.precedes(heap[parent])) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(cohort, index);
+        return index != startIndex;
+    }
+
+    private void down(final int startIndex) {
+        final Cohort<T> cohort = heap[startIndex];
+        int index = startIndex;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].precedes(heap[child])) {
+                child++;
+            }
+            if (!heap[child].precedes(cohort)) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(cohort, index);
+    }
+
+    private void place(final Cohort<T> cohort, final int index) {
+        heap[index] = cohort;
+        cohort.index = index;
+    }
+
+    private static boolean isPeriodic(final double time, final double period) {
+        return period > 0 && Double.isFinite(period) && Double.isFinite(time);
+    }
+
+    private void writeObject(final ObjectOutputStream output) throws IOException {
+        output.defaultWriteObject();
+        output.writeInt(members.size());
+        final List<Member<T>> scheduled = new ArrayList<>(members.values());
+        scheduled.sort(Comparator.comparingLong(member -> member.order));
+        for (final Member<T> member : scheduled) {
+            output.writeObject(member.reaction);
+            output.writeLong(member.order);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        members = new IdentityHashMap<>();
+        cohorts = new HashMap<>();
+        heap = newHeap(INITIAL_CAPACITY);
+        size = 0;
+        final int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+            final Actionable<T> reaction = (Actionable<T>) input.readObject();
+            add(reaction, input.readLong());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Cohort<T>[] newHeap(final int capacity) {
+        return (Cohort<T>[]) new Cohort<?>[capacity];
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            final Cohort<T> cohort = heap[i];
+            sb.append(i).append(": ").append(cohort.time);
+            if (cohort.key != null) {
+                sb.append(" (every ").append(cohort.period).append(')');
+            }
+            sb.append(" ->");
+            for (final Member<T> member : cohort.members) {
+                if (member != null) {
+                    sb.append(' ').append(member.reaction);
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /*
+     * Visits the heap best-first, merging the members of the cohorts visited so far:
+     * the children of a cohort get visited once its first member has been returned.
+     */
+    private final class UpcomingIterator implements Iterator<Actionable<T>> {
+
+        private final Queue<Cursor<T>> frontier = new PriorityQueue<>(
+            (first, second) -> first.precedes(second) ? -1 : 1
+        );
+
+        private UpcomingIterator() {
+            if (size > 0) {
+                frontier.add(new Cursor<>(heap[0]));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !frontier.isEmpty();
+        }
+
+        @Override
+        public Actionable<T> next() {
+            final Cursor<T> cursor = frontier.poll();
+            if (cursor == null) {
+                throw new NoSuchElementException();
+            }
+            final Cohort<T> cohort = cursor.cohort;
+            if (cursor.position == cohort.first) {
+                for (int child = 2 * cohort.index + 1; child < Math.min(2 * cohort.index + 3, size); child++) {
+                    frontier.add(new Cursor<>(heap[child]));
+                }
+            }
+            final Actionable<T> reaction = cohort.members.get(cursor.position).reaction;
+            if (cursor.advance()) {
+                frontier.add(cursor);
+            }
+            return reaction;
+        }
+    }
+
+    /*
+     * Position within a cohort while visiting the upcoming reactions.
+     */
+    private static final class Cursor<T> {
+
+        private final Cohort<T> cohort;
+        private int position;
+
+        private Cursor(final Cohort<T> cohort) {
+            this.cohort = cohort;
+            this.position = cohort.first;
+        }
+
+        private boolean advance() {
+            do {
+                position++;
+            } while (position < cohort.members.size() && cohort.members.get(position) == null);
+            return position < cohort.members.size();
+        }
+
+        private boolean precedes(final Cursor<T> other) {
+            return cohort.time < other.cohort.time || cohort.time == other.cohort.time
+                && cohort.orders.getQuick(position) < other.cohort.orders.getQuick(other.position);
+        }
+    }
+
+    /*
+     * Reactions sharing putative time and, unless the key is null, period.
+     * Members are kept sorted by insertion order; removed members leave an empty slot behind,
+     * as cohorts last at most one round.
+     */
+    private static final class Cohort<T> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final double period;
+        private final CohortKey key;
+        private final List<Member<T>> members = new ArrayList<>();
+        private final TLongArrayList orders = new TLongArrayList();
+        private double time;
+        private int first;
+        private int live;
+        private int index = -1;
+        private boolean dropped;
+        private Cohort<T> successor;
+
+        private Cohort(final double time, final double period, final CohortKey key) {
+            this.time = time;
+            this.period = period;
+            this.key = key;
+        }
+
+        private Member<T> first() {
+            return members.get(first);
+        }
+
+        private boolean precedes(final Cohort<T> other) {
+            return time < other.time
+                || time == other.time && orders.getQuick(first) < other.orders.getQuick(other.first);
+        }
+
+        /*
+         * Returns true if the member became the first one.
+         */
+        private boolean add(final Member<T> member) {
+            final int count = members.size();
+            member.cohort = this;
+            live++;
+            if (count == 0 || member.order > orders.getQuick(count - 1)) {
+                member.position = count;
+                members.add(member);
+                orders.add(member.order);
+                return live == 1;
+            }
+            final int search = orders.binarySearch(member.order, first, count);
+            final int position = search < 0 ? -search - 1 : search;
+            members.add(position, member);
+            orders.insert(position, member.order);
+            for (int i = position; i <= count; i++) {
+                final Member<T> shifted = members.get(i);
+                if (shifted != null) {
+                    shifted.position = i;
+                }
+            }
+            if (position == first) {
+                first = position;
+                return true;
+            }
+            return false;
+        }
+
+        /*
+         * Returns true if the member was the first one.
+         */
+        private boolean remove(final Member<T> member) {
+            final int position = member.position;
+            members.set(position, null);
+            member.cohort = null;
+            live--;
+            if (position != first) {
+                return false;
+            }
+            if (live > 0) {
+                do {
+                    first++;
+                } while (members.get(first) == null);
+            }
+            return true;
+        }
+    }
+
+    /*
+     * Scheduler-side handle of a reaction, storing its cohort and its position therein,
+     * and its insertion order, used to break ties deterministically.
+     */
+    private static final class Member<T> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Actionable<T> reaction;
+        private final long order;
+        private Cohort<T> cohort;
+        private int position;
+
+        private Member(final Actionable<T> reaction, final long order) {
+            this.reaction = reaction;
+            this.order = order;
+        }
+    }
+
+    private static final class CohortKey implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final double time;
+        private final double period;
+
+        private CohortKey(final double time, final double period) {
+            this.time = time;
+            this.period = period;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof CohortKey
+                && Double.compare(time, ((CohortKey) obj).time) == 0
+                && Double.compare(period, ((CohortKey) obj).period) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Double.hashCode(time) + Double.hashCode(period);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the computation of the dependencies of a new reaction
+ * in an {@link AbstractDependencyGraph}.
+ */
+@Name(DependencyCreationEvent.NAME)
+@Label("Dependency Creation")
+@Category({ "Alchemist", "Dependency Graph" })
+@Description("The computation of the dependencies of a reaction added to the dependency graph")
+final class DependencyCreationEvent extends Event {
+
+    /**
+     * The name of the event.
+     */
+    static final String NAME = "it.unibo.alchemist.DependencyCreation";
+    private static final EventType TYPE = EventType.getEventType(DependencyCreationEvent.class);
+
+    @Label("Reaction Type")
+    private Class<?> reactionType;
+
+    @Label("Dependencies")
+    @Description("The number of dependencies found, inbound and outbound")
+    private int dependencies;
+
+    /**
+     * @return a new event, already begun, or null if the event is not being recorded
+     */
+    static DependencyCreationEvent start() {
+        if (TYPE.isEnabled()) {
+            final DependencyCreationEvent event = new DependencyCreationEvent();
+            event.begin();
+            return event;
+        }
+        return null;
+    }
+
+    /**
+     * Ends and commits the event.
+     *
+     * @param reaction the reaction added
+     * @param dependencies the number of dependencies found
+     */
+    void end(final Object reaction, final int dependencies) {
+        end();
+        if (shouldCommit()) {
+            this.reactionType = reaction.getClass();
+            this.dependencies = dependencies;
+            commit();
+        }
+    }
+}
@@ -12,6 +12,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import it.unibo.alchemist.boundary.OutputMonitor;
+import it.unibo.alchemist.boundary.SamplingPolicy;
 import it.unibo.alchemist.model.Actionable;
 import it.unibo.alchemist.model.Context;
 import it.unibo.alchemist.model.Dependency;
@@ -27,15 +28,37 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -45,6 +68,8 @@ import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BooleanSupplier;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static it.unibo.alchemist.core.Status.PAUSED;
@@ -54,6 +79,63 @@ import static it.unibo.alchemist.core.Status.TERMINATED;
 /**
  * This class implements a simulation. It offers a wide number of static
  * factories to ease the creation process.
+ * <p>
+ * The engine can optionally execute independent reactions in parallel (see
+ * {@link #Engine(Environment, Scheduler, long, Time, int, double)}).
+ * The reactions scheduled within a lookahead window from the next one are collected in scheduling order,
+ * stopping at the first one whose effects cannot be bounded: global reactions, reactions with global
+ * input or output contexts, and reactions that may move, add, or remove nodes
+ * (namely, declaring a {@link Dependency#MOVEMENT} outbound dependency).
+ * Collection also stops at the first reaction depending on a collected one,
+ * as committing the latter reschedules the former.
+ * A reaction may write its node (or its neighborhood, depending on its output context),
+ * and its execution and the updates of its dependents (as per the {@link DependencyGraph})
+ * read the nodes hosting such reactions (and their neighborhoods, depending on their input context).
+ * {@link Reaction#isParallelizable() Parallelizable} reactions whose footprints do not interfere with those
+ * of the reactions preceding them are executed on a {@link ForkJoinPool},
+ * the others are executed on the simulation thread.
+ * The pool is started by {@link #run()} and shut down once the simulation terminates.
+ * Effects are then committed in scheduling order, updating the dependencies and notifying the
+ * {@link OutputMonitor}s exactly as the sequential engine does,
+ * hence the sequence of events is the same as in sequential mode, provided that:
+ * <ul>
+ *     <li>the {@link Scheduler} can predict its upcoming reactions (see {@link Scheduler#getUpcoming()});</li>
+ *     <li>reactions declared parallelizable do not draw from shared random generators while executing;</li>
+ *     <li>reactions rescheduled within the lookahead window while committing do not interfere with the reactions
+ *     of the batch executed in parallel after them
+ *     (with a lookahead of zero, only reactions scheduled at the very same time are batched).</li>
+ * </ul>
+ * Reactions rescheduled within the window (e.g., a reaction of the batch whose next occurrence precedes the end
+ * of the batch) are executed and committed in between, as the sequential engine would do:
+ * the last condition is verified at that point, and the simulation fails if it does not hold,
+ * or if the reactions executed this way would make the batch exceed the final step or time.
+ * Batches end with the steps that {@link OutputMonitor}s {@link OutputMonitor#observesEnvironment() observing
+ * the environment} may sample, so that they observe it as the sequential engine would;
+ * the simulation fails if reactions executed in between make such monitors sample an earlier step.
+ * Commands are processed between batches.
+ * <p>
+ * The parallel engine can also partition the environment into square tiles
+ * (see {@link #Engine(Environment, Scheduler, long, Time, int, double, double)}).
+ * Reactions whose footprint lies within a single tile are executed by one task per tile,
+ * in scheduling order, so reactions sharing a tile need not be independent:
+ * a reaction only needs not to write the nodes read while committing the preceding reactions of its tile.
+ * Reactions whose footprint crosses the border of a tile act as ghosts and are executed on the simulation thread.
+ * The side of the tiles should be several times the communication range,
+ * so that most footprints (spanning up to two hops) lie within a tile.
+ * <p>
+ * A simulation can be {@link #checkpoint(OutputStream) checkpointed} and later {@link #restore(Path) restored},
+ * resuming from the very same state:
+ * the checkpoint starts with a small header (see {@link #CHECKPOINT_MAGIC}) with the step and time,
+ * followed by a single stream of serialized objects, so that objects shared by the environment,
+ * the scheduler, and the dependency graph are written once.
+ * The bulkiest structures (the scheduler, the dependency graph, and the positions of the nodes) write
+ * only their essential contents, and rebuild their indexes when read back.
+ * The scheduler and the dependency graph are thus restored as they were,
+ * ties between reactions scheduled at the same time included.
+ * <p>
+ * When a Java Flight Recorder recording is running, the engine emits events (under the "Alchemist" category)
+ * for its steps, for the execution and the update of each reaction, and for the notification of output monitors.
+ * Disabled events are not even instanced. Recordings can be summarized with {@link FlightRecordingSummary}.
  *
  * @param <T>
  *            concentration type
@@ -63,6 +145,15 @@ import static it.unibo.alchemist.core.Status.TERMINATED;
 public final class Engine<T, P extends Position<? extends P>> implements Simulation<T, P> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Engine.class);
+    private static final int MAX_BATCH_SIZE = 4096;
+    private static final int TASKS_PER_THREAD = 4;
+    /**
+     * The first four bytes of a checkpoint, "ALCK" in ASCII.
+     * They are followed by the version of the format (an int), the step (a long), and the time (a double).
+     */
+    public static final int CHECKPOINT_MAGIC = 0x414C434B;
+    private static final int CHECKPOINT_VERSION = 2;
+    private static final int CHECKPOINT_BUFFER = 1 << 16;
     private final Lock statusLock = new ReentrantLock();
     private final ImmutableMap<Status, SynchBox> statusLocks = Arrays.stream(Status.values())
             .collect(ImmutableMap.toImmutableMap(Function.identity(), it -> new SynchBox()));
@@ -72,13 +163,20 @@ public final class Engine<T, P extends Position<? extends P>> implements Simulat
     private final DependencyGraph<T> dependencyGraph;
     private final Scheduler<T> scheduler;
     private final Time finalTime;
-    private final List<OutputMonitor<T, P>> monitors = new CopyOnWriteArrayList<>();
+    private final List<SampledMonitor<T, P>> monitors = new CopyOnWriteArrayList<>();
     private final long finalStep;
+    private final double lookahead;
+    private final double tileSize; // 0 if the environment is not partitioned
+    private final int parallelism;
+    private ForkJoinPool parallelExecutor; // created when running, if the simulation runs in parallel
+    private final ThreadLocal<ParallelEvent<T>> parallelEvent = new ThreadLocal<>();
+    private long parallelExecutions; // reactions executed on the pool
     private volatile Status status = Status.INIT;
     private Optional<Throwable> error = Optional.empty();
     private Time currentTime = Time.ZERO;
     private long currentStep;
     private Thread simulationThread;
+    private boolean restored; // true if the reactions got scheduled before the checkpoint this engine comes from
 
     /**
      * Builds a simulation for a given environment. By default, it uses a
@@ -121,18 +219,201 @@ public final class Engine<T, P extends Position<? extends P>> implements Simulat
      * @param t
      *            the maximum time to reach
      */
+    public Engine(final Environment<T, P> e, final long maxSteps, final Time t) {
+        this(e, new ArrayIndexedPriorityQueue<>(), maxSteps, t);
+    }
+
+    /**
+     * Builds a simulation for a given environment, using the provided {@link Scheduler}.
+     * By default, it uses a DependencyGraph internally.
+     *
+     * @param e
+     *            the environment at the initial time
+     * @param scheduler
+     *            the {@link Scheduler} used to pick the next reaction to execute
+     * @param t
+     *            the maximum time to reach
+     */
+    public Engine(final Environment<T, P> e, final Scheduler<T> scheduler, final Time t) {
+        this(e, scheduler, Long.MAX_VALUE, t);
+    }
+
+    /**
+     * Builds a simulation for a given environment, using the provided {@link Scheduler}.
+     * By default, it uses a DependencyGraph internally.
+     *
+     * @param e
+     *            the environment at the initial time
+     * @param scheduler
+     *            the {@link Scheduler} used to pick the next reaction to execute
+     * @param maxSteps
+     *            the maximum number of steps to take
+     * @param t
+     *            the maximum time to reach
+     */
+    public Engine(final Environment<T, P> e, final Scheduler<T> scheduler, final long maxSteps, final Time t) {
+        this(e, scheduler, maxSteps, t, 1, 0);
+    }
+
+    /**
+     * Builds a simulation for a given environment, using the provided {@link Scheduler},
+     * and executing independent reactions in parallel.
+     * By default, it uses a DependencyGraph internally.
+     *
+     * @param e
+     *            the environment at the initial time
+     * @param scheduler
+     *            the {@link Scheduler} used to pick the next reaction to execute
+     * @param maxSteps
+     *            the maximum number of steps to take
+     * @param t
+     *            the maximum time to reach
+     * @param parallelism
+     *            the number of threads used to execute reactions, 1 runs the simulation sequentially
+     * @param lookahead
+     *            reactions scheduled within this time from the next one are candidates for parallel execution,
+     *            0 only allows reactions scheduled at the very same time to get executed in parallel
+     */
     @SuppressFBWarnings(
-        value = { "EI_EXPOSE_REP", "MC_OVERRIDABLE_METHOD_CALL_IN_CONSTRUCTOR" },
-        justification = "The environment is stored intentionally, and this class is final"
+        value = { "EI_EXPOSE_REP", "EI_EXPOSE_REP2", "MC_OVERRIDABLE_METHOD_CALL_IN_CONSTRUCTOR" },
+        justification = "The environment and the scheduler are stored intentionally, and this class is final"
     )
-    public Engine(final Environment<T, P> e, final long maxSteps, final Time t) {
+    public Engine(
+        final Environment<T, P> e,
+        final Scheduler<T> scheduler,
+        final long maxSteps,
+        final Time t,
+        final int parallelism,
+        final double lookahead
+    ) {
+        this(e, scheduler, maxSteps, t, parallelism, lookahead, 0);
+    }
+
+    /**
+     * Builds a simulation for a given environment, using the provided {@link Scheduler},
+     * and executing independent reactions in parallel, grouped by the tile of the environment they act upon.
+     * By default, it uses a DependencyGraph internally.
+     *
+     * @param e
+     *            the environment at the initial time
+     * @param scheduler
+     *            the {@link Scheduler} used to pick the next reaction to execute
+     * @param maxSteps
+     *            the maximum number of steps to take
+     * @param t
+     *            the maximum time to reach
+     * @param parallelism
+     *            the number of threads used to execute reactions, 1 runs the simulation sequentially
+     * @param lookahead
+     *            reactions scheduled within this time from the next one are candidates for parallel execution,
+     *            0 only allows reactions scheduled at the very same time to get executed in parallel
+     * @param tileSize
+     *            the side of the square tiles the environment is partitioned into, 0 disables partitioning.
+     *            Only bidimensional environments can be partitioned
+     */
+    @SuppressFBWarnings(
+        value = { "EI_EXPOSE_REP", "EI_EXPOSE_REP2", "MC_OVERRIDABLE_METHOD_CALL_IN_CONSTRUCTOR" },
+        justification = "The environment and the scheduler are stored intentionally, and this class is final"
+    )
+    public Engine(
+        final Environment<T, P> e,
+        final Scheduler<T> scheduler,
+        final long maxSteps,
+        final Time t,
+        final int parallelism,
+        final double lookahead,
+        final double tileSize
+    ) {
+        this(e, new JGraphTDependencyGraph<>(e), scheduler, maxSteps, t, parallelism, lookahead, tileSize);
+    }
+
+    /**
+     * Builds a simulation for a given environment, using the provided {@link DependencyGraph} and {@link Scheduler}.
+     *
+     * @param e
+     *            the environment at the initial time
+     * @param dependencyGraph
+     *            the {@link DependencyGraph} tracking the reactions of the environment, which must be empty
+     * @param scheduler
+     *            the {@link Scheduler} used to pick the next reaction to execute
+     * @param maxSteps
+     *            the maximum number of steps to take
+     * @param t
+     *            the maximum time to reach
+     */
+    public Engine(
+        final Environment<T, P> e,
+        final DependencyGraph<T> dependencyGraph,
+        final Scheduler<T> scheduler,
+        final long maxSteps,
+        final Time t
+    ) {
+        this(e, dependencyGraph, scheduler, maxSteps, t, 1, 0, 0);
+    }
+
+    /**
+     * Builds a simulation for a given environment, using the provided {@link DependencyGraph} and {@link Scheduler},
+     * and executing independent reactions in parallel, grouped by the tile of the environment they act upon.
+     *
+     * @param e
+     *            the environment at the initial time
+     * @param dependencyGraph
+     *            the {@link DependencyGraph} tracking the reactions of the environment, which must be empty
+     * @param scheduler
+     *            the {@link Scheduler} used to pick the next reaction to execute
+     * @param maxSteps
+     *            the maximum number of steps to take
+     * @param t
+     *            the maximum time to reach
+     * @param parallelism
+     *            the number of threads used to execute reactions, 1 runs the simulation sequentially
+     * @param lookahead
+     *            reactions scheduled within this time from the next one are candidates for parallel execution,
+     *            0 only allows reactions scheduled at the very same time to get executed in parallel
+     * @param tileSize
+     *            the side of the square tiles the environment is partitioned into, 0 disables partitioning.
+     *            Only bidimensional environments can be partitioned
+     */
+    @SuppressFBWarnings(
+        value = { "EI_EXPOSE_REP", "EI_EXPOSE_REP2", "MC_OVERRIDABLE_METHOD_CALL_IN_CONSTRUCTOR" },
+        justification = "The environment, the dependency graph, and the scheduler are stored intentionally,"
+            + " and this class is final"
+    )
+    public Engine(
+        final Environment<T, P> e,
+        final DependencyGraph<T> dependencyGraph,
+        final Scheduler<T> scheduler,
+        final long maxSteps,
+        final Time t,
+        final int parallelism,
+        final double lookahead,
+        final double tileSize
+    ) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("At least one thread is required, but parallelism is " + parallelism);
+        }
+        if (Double.isNaN(lookahead) || lookahead < 0) {
+            throw new IllegalArgumentException("The lookahead must be non-negative, but it is " + lookahead);
+        }
+        if (!Double.isFinite(tileSize) || tileSize < 0) {
+            throw new IllegalArgumentException("The tile size must be finite and non-negative, but it is " + tileSize);
+        }
+        if (tileSize > 0 && e.getDimensions() != 2) {
+            throw new IllegalArgumentException(
+                "Only bidimensional environments can be partitioned into tiles, but the environment has "
+                    + e.getDimensions() + " dimensions"
+            );
+        }
         LOGGER.trace("Engine created");
         environment = e;
         environment.setSimulation(this);
-        dependencyGraph = new JGraphTDependencyGraph<>(environment);
-        scheduler = new ArrayIndexedPriorityQueue<>();
+        this.dependencyGraph = dependencyGraph;
+        this.scheduler = scheduler;
         this.finalStep = maxSteps;
         this.finalTime = t;
+        this.lookahead = lookahead;
+        this.tileSize = tileSize;
+        this.parallelism = parallelism;
     }
 
     /**
@@ -152,7 +433,124 @@ public final class Engine<T, P extends Position<? extends P>> implements Simulat
 
     @Override
     public void addOutputMonitor(final OutputMonitor<T, P> op) {
-        monitors.add(op);
+        monitors.add(new SampledMonitor<>(op));
+    }
+
+    @Override
+    public void checkpoint(@Nonnull final OutputStream output) throws IOException {
+        checkCaller();
+        final BufferedOutputStream buffered = new BufferedOutputStream(output, CHECKPOINT_BUFFER);
+        final DataOutputStream header = new DataOutputStream(buffered);
+        header.writeInt(CHECKPOINT_MAGIC);
+        header.writeInt(CHECKPOINT_VERSION);
+        header.writeLong(currentStep);
+        header.writeDouble(currentTime.toDouble());
+        final ObjectOutputStream objects = new ObjectOutputStream(buffered);
+        objects.writeObject(currentTime);
+        objects.writeObject(finalTime);
+        objects.writeLong(finalStep);
+        objects.writeInt(parallelism);
+        objects.writeDouble(lookahead);
+        objects.writeDouble(tileSize);
+        objects.writeObject(environment);
+        objects.writeObject(dependencyGraph);
+        objects.writeObject(scheduler);
+        objects.flush();
+        LOGGER.info("Checkpoint written at step {}, time {}", currentStep, currentTime);
+    }
+
+    /**
+     * Restores a simulation from a checkpoint (see {@link #checkpoint(OutputStream)}).
+     * The simulation is ready to {@link #run()}, and, once played, it continues from the step the checkpoint
+     * was taken at, reproducing the sequence of events of the original simulation.
+     * {@link OutputMonitor}s are not part of the checkpoint, and should be added again.
+     *
+     * @param input the stream to read the checkpoint from, which is not closed
+     * @param <T> concentration type
+     * @param <P> position type
+     * @return the restored simulation
+     * @throws IOException if the checkpoint can not be read, or if it is not a valid checkpoint
+     * @throws ClassNotFoundException if the checkpoint refers to classes that are not available
+     */
+    public static <T, P extends Position<? extends P>> Engine<T, P> restore(
+        @Nonnull final InputStream input
+    ) throws IOException, ClassNotFoundException {
+        return restore(input, UnaryOperator.identity());
+    }
+
+    /**
+     * Restores a simulation from a checkpoint (see {@link #restore(InputStream)}),
+     * passing each object read to a {@code resolver}, which can replace or alter it.
+     * The resolver is called once per object, so objects shared in the original simulation remain shared.
+     * For instance, several simulations can be forked from the same checkpoint by reseeding their random generators.
+     *
+     * @param input the stream to read the checkpoint from, which is not closed
+     * @param resolver the function returning the object to use in place of each object read
+     * @param <T> concentration type
+     * @param <P> position type
+     * @return the restored simulation
+     * @throws IOException if the checkpoint can not be read, or if it is not a valid checkpoint
+     * @throws ClassNotFoundException if the checkpoint refers to classes that are not available
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, P extends Position<? extends P>> Engine<T, P> restore(
+        @Nonnull final InputStream input,
+        @Nonnull final UnaryOperator<Object> resolver
+    ) throws IOException, ClassNotFoundException {
+        final BufferedInputStream buffered = new BufferedInputStream(input, CHECKPOINT_BUFFER);
+        final DataInputStream header = new DataInputStream(buffered);
+        final int magic = header.readInt();
+        if (magic != CHECKPOINT_MAGIC) {
+            throw new IOException("Not a simulation checkpoint: unexpected magic number " + Integer.toHexString(magic));
+        }
+        final int version = header.readInt();
+        if (version != CHECKPOINT_VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version);
+        }
+        final long step = header.readLong();
+        header.readDouble(); // The time is stored in the header for inspection, its actual type follows
+        final ObjectInputStream objects = new ResolvingInputStream(buffered, resolver);
+        final Time time = (Time) objects.readObject();
+        final Time finalTime = (Time) objects.readObject();
+        final long finalStep = objects.readLong();
+        final int parallelism = objects.readInt();
+        final double lookahead = objects.readDouble();
+        final double tileSize = objects.readDouble();
+        final Environment<T, P> environment = (Environment<T, P>) objects.readObject();
+        final DependencyGraph<T> dependencyGraph = (DependencyGraph<T>) objects.readObject();
+        final Scheduler<T> scheduler = (Scheduler<T>) objects.readObject();
+        final Engine<T, P> engine = new Engine<>(
+            environment,
+            dependencyGraph,
+            scheduler,
+            finalStep,
+            finalTime,
+            parallelism,
+            lookahead,
+            tileSize
+        );
+        engine.currentStep = step;
+        engine.currentTime = time;
+        engine.restored = true;
+        return engine;
+    }
+
+    /**
+     * Restores a simulation from a checkpoint file (see {@link #restore(InputStream)}).
+     *
+     * @param file the checkpoint file
+     * @param <T> concentration type
+     * @param <P> position type
+     * @return the restored simulation
+     * @throws IOException if the checkpoint can not be read, or if it is not a valid checkpoint
+     * @throws ClassNotFoundException if the checkpoint refers to classes that are not available
+     */
+    public static <T, P extends Position<? extends P>> Engine<T, P> restore(
+        @Nonnull final Path file
+    ) throws IOException, ClassNotFoundException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return restore(input);
+        }
     }
 
     private void checkCaller() {
@@ -178,53 +576,367 @@ public final class Engine<T, P extends Position<? extends P>> implements Simulat
     }
 
     private void doStep() {
+        final StepEvent record = StepEvent.start();
+        final long step = currentStep;
+        if (parallelism > 1) {
+            final List<ParallelEvent<T>> batch = collectBatch();
+            if (batch.stream().filter(it -> !it.deferred).count() > 1) {
+                doBatchStep(batch);
+                if (record != null) {
+                    record.end(step, currentTime.toDouble(), batch.size());
+                }
+                return;
+            }
+        }
         final Actionable<T> nextEvent = scheduler.getNext();
         if (nextEvent == null) {
             this.newStatus(TERMINATED);
             LOGGER.info("No more reactions.");
         } else {
-            final Time scheduledTime = nextEvent.getTau();
-            if (scheduledTime.compareTo(currentTime) < 0) {
+            final double scheduledTime = nextEvent.getTauAsDouble();
+            if (Double.compare(scheduledTime, currentTime.toDouble()) < 0) {
                 throw new IllegalStateException(
                     nextEvent + " is scheduled in the past at time " + scheduledTime
                         + ", current time is " + currentTime
                         + ". Problem occurred at step " + currentStep
                 );
             }
-            currentTime = scheduledTime;
-            if (nextEvent.canExecute()) {
-                /*
-                 * This must be taken before execution, because the reaction
-                 * might remove itself (or its node) from the environment.
-                 */
-                nextEvent.getConditions().forEach(it.unibo.alchemist.model.Condition::reactionReady);
-                nextEvent.execute();
-                Set<Actionable<T>> toUpdate = dependencyGraph.outboundDependencies(nextEvent);
-                if (!afterExecutionUpdates.isEmpty()) {
-                    afterExecutionUpdates.forEach(Update::performChanges);
-                    afterExecutionUpdates.clear();
-                    toUpdate = Sets.union(toUpdate, dependencyGraph.outboundDependencies(nextEvent));
+            currentTime = nextEvent.getTau();
+            commit(nextEvent, execute(nextEvent));
+        }
+        if (environment.isTerminated()) {
+            newStatus(TERMINATED);
+            LOGGER.info("Termination condition reached.");
+        }
+        currentStep++;
+        if (record != null) {
+            record.end(step, currentTime.toDouble(), 1);
+        }
+    }
+
+    private boolean execute(final Actionable<T> event) {
+        if (event.canExecute()) {
+            /*
+             * This must be taken before execution, because the reaction
+             * might remove itself (or its node) from the environment.
+             */
+            final ReactionExecutionEvent record = ReactionExecutionEvent.start();
+            event.getConditions().forEach(it.unibo.alchemist.model.Condition::reactionReady);
+            event.execute();
+            if (record != null) {
+                record.end(event);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void commit(final Actionable<T> event, final boolean executed) {
+        final ReactionUpdateEvent record = ReactionUpdateEvent.start();
+        int dependencies = 0;
+        if (executed) {
+            Set<Actionable<T>> toUpdate = dependencyGraph.outboundDependencies(event);
+            if (!afterExecutionUpdates.isEmpty()) {
+                afterExecutionUpdates.forEach(Update::performChanges);
+                afterExecutionUpdates.clear();
+                toUpdate = Sets.union(toUpdate, dependencyGraph.outboundDependencies(event));
+            }
+            toUpdate.forEach(this::updateReaction);
+            dependencies = record == null ? 0 : toUpdate.size();
+        }
+        event.update(currentTime, true, environment);
+        scheduler.updateReaction(event);
+        if (record != null) {
+            record.end(event, dependencies);
+        }
+        if (!monitors.isEmpty()) {
+            final double now = currentTime.toDouble();
+            for (final SampledMonitor<T, P> monitor : monitors) {
+                monitor.stepDone(environment, event, currentTime, now, currentStep);
+            }
+        }
+    }
+
+    /*
+     * Collects the upcoming reactions within the lookahead window, in scheduling order.
+     * Those that do not interfere with any reaction in the batch are executed in parallel,
+     * the others are deferred and executed while committing, after the reactions that precede them.
+     * Collection stops at the first reaction whose effects can not be bounded,
+     * or that depends on a reaction in the batch (its scheduled time is known only once the latter is committed),
+     * and after the first reaction whose step may be sampled by a monitor observing the environment.
+     * Reactions that are not parallelizable are deferred.
+     * If the environment is partitioned, reactions acting within a single tile are executed in order by its task,
+     * hence they only need not to write what the preceding reactions of the tile read while committing.
+     */
+    private List<ParallelEvent<T>> collectBatch() {
+        final List<ParallelEvent<T>> batch = new ArrayList<>();
+        final Iterator<Actionable<T>> upcoming = scheduler.getUpcoming();
+        if (!upcoming.hasNext()) {
+            return batch;
+        }
+        Actionable<T> candidate = upcoming.next();
+        final Time firstTime = candidate.getTau();
+        if (firstTime.isInfinite() || firstTime.compareTo(currentTime) < 0) {
+            return batch;
+        }
+        final double windowEnd = firstTime.toDouble() + lookahead;
+        final Set<Actionable<T>> dependents = new HashSet<>();
+        final Footprint<T> parallel = new Footprint<>();
+        final Footprint<T> deferred = new Footprint<>();
+        final Map<Tile, Footprint<T>> tiles = new HashMap<>();
+        Time previousTime = firstTime;
+        /*
+         * Each reaction of the batch leaves room for a reaction interleaved while committing.
+         */
+        while (batch.size() < MAX_BATCH_SIZE
+            && currentStep + 2L * (batch.size() + 1) <= finalStep
+            && previousTime.compareTo(finalTime) < 0
+        ) {
+            final Time time = candidate.getTau();
+            final Footprint<T> footprint = time.toDouble() > windowEnd ? null : footprintOf(candidate);
+            if (footprint == null || dependents.contains(candidate)) {
+                break;
+            }
+            final Tile tile = tileSize > 0 ? tileOf(footprint) : null;
+            final boolean parallelizable = ((Reaction<T>) candidate).isParallelizable();
+            final boolean independent;
+            if (tileSize > 0) {
+                final Footprint<T> claimedInTile = tile == null
+                    ? null
+                    : tiles.computeIfAbsent(tile, it -> new Footprint<>());
+                independent = parallelizable
+                    && claimedInTile != null
+                    && !footprint.writesReadBy(claimedInTile)
+                    && !footprint.interferesWith(deferred);
+                (independent ? claimedInTile : deferred).claim(footprint);
+            } else {
+                independent = parallelizable
+                    && !footprint.interferesWith(parallel)
+                    && !footprint.interferesWith(deferred);
+                (independent ? parallel : deferred).claim(footprint);
+            }
+            dependents.addAll(dependencyGraph.outboundDependencies(candidate));
+            final long step = currentStep + batch.size();
+            batch.add(new ParallelEvent<>(candidate, time, step, footprint, tile, !independent));
+            previousTime = time;
+            if (isObservable(step, time.toDouble()) || !upcoming.hasNext()) {
+                break;
+            }
+            candidate = upcoming.next();
+        }
+        return batch;
+    }
+
+    /*
+     * A reaction may write its node (and its neighbors, if its output context is the neighborhood);
+     * its execution, and the updates of the reactions depending on it, read the nodes hosting such reactions
+     * (and their neighbors, if their input context is the neighborhood).
+     * Returns null if the effects of the reaction can not be bounded.
+     */
+    @Nullable
+    private Footprint<T> footprintOf(final Actionable<T> actionable) {
+        if (!(actionable instanceof Reaction)) {
+            return null;
+        }
+        final Reaction<T> reaction = (Reaction<T>) actionable;
+        if (reaction.getInputContext() == Context.GLOBAL
+            || reaction.getOutputContext() == Context.GLOBAL
+            || reaction.getOutboundDependencies().stream().anyMatch(it -> it.dependsOn(Dependency.MOVEMENT))
+        ) {
+            return null;
+        }
+        final Footprint<T> result = new Footprint<>();
+        addNodes(result.written, reaction.getNode(), reaction.getOutputContext());
+        addNodes(result.read, reaction.getNode(), reaction.getInputContext());
+        for (final Actionable<T> dependent : dependencyGraph.outboundDependencies(reaction)) {
+            if (!(dependent instanceof Reaction) || ((Reaction<T>) dependent).getInputContext() == Context.GLOBAL) {
+                return null;
+            }
+            final Reaction<T> dependentReaction = (Reaction<T>) dependent;
+            addNodes(result.read, dependentReaction.getNode(), dependentReaction.getInputContext());
+        }
+        return result;
+    }
+
+    /*
+     * Returns the tile containing all the nodes of the footprint, or null if the footprint crosses tiles.
+     */
+    @Nullable
+    private Tile tileOf(final Footprint<T> footprint) {
+        Tile result = null;
+        for (final Set<Node<T>> nodes : List.of(footprint.written, footprint.read)) {
+            for (final Node<T> node : nodes) {
+                final Tile tile = new Tile(environment.getPosition(node).getCoordinates(), tileSize);
+                if (result == null) {
+                    result = tile;
+                } else if (!result.equals(tile)) {
+                    return null;
                 }
-                toUpdate.forEach(this::updateReaction);
             }
-            nextEvent.update(currentTime, true, environment);
-            scheduler.updateReaction(nextEvent);
-            for (final OutputMonitor<T, P> monitor : monitors) {
-                monitor.stepDone(environment, nextEvent, currentTime, currentStep);
+        }
+        return result;
+    }
+
+    private void addNodes(final Set<Node<T>> destination, final Node<T> node, final Context context) {
+        destination.add(node);
+        if (context == Context.NEIGHBORHOOD) {
+            destination.addAll(environment.getNeighborhood(node).getNeighbors());
+        }
+    }
+
+    private void doBatchStep(final List<ParallelEvent<T>> batch) {
+        final List<ParallelEvent<T>> independent = batch.stream()
+            .filter(it -> !it.deferred)
+            .collect(Collectors.toList());
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        if (tileSize > 0) {
+            final Map<Tile, List<ParallelEvent<T>>> byTile = new LinkedHashMap<>();
+            for (final ParallelEvent<T> event : independent) {
+                byTile.computeIfAbsent(event.tile, it -> new ArrayList<>()).add(event);
             }
+            for (final List<ParallelEvent<T>> tile : byTile.values()) {
+                tasks.add(() -> {
+                    tile.forEach(this::executeInParallel);
+                    return null;
+                });
+            }
+        } else {
+            final int chunkSize = Math.max(
+                1,
+                independent.size() / (parallelism * TASKS_PER_THREAD)
+            );
+            for (int from = 0; from < independent.size(); from += chunkSize) {
+                final List<ParallelEvent<T>> chunk = independent.subList(
+                    from,
+                    Math.min(from + chunkSize, independent.size())
+                );
+                tasks.add(() -> {
+                    chunk.forEach(this::executeInParallel);
+                    return null;
+                });
+            }
+        }
+        try {
+            for (final Future<Void> result : parallelExecutor.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while executing reactions in parallel", e);
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("A reaction failed while executing in parallel", e.getCause());
+        }
+        parallelExecutions += independent.size();
+        for (int index = 0; index < batch.size(); index++) {
+            final ParallelEvent<T> event = batch.get(index);
+            for (Actionable<T> next = scheduler.getNext(); next != event.reaction; next = scheduler.getNext()) {
+                interleave(next, batch.subList(index, batch.size()));
+            }
+            checkUnobserved(event.reaction, event.time, batch.subList(index + 1, batch.size()));
+            if (event.deferred) {
+                currentTime = event.reaction.getTau();
+                commit(event.reaction, execute(event.reaction));
+            } else {
+                currentTime = event.time;
+                commit(event.reaction, event.executed);
+            }
+            currentStep++;
         }
         if (environment.isTerminated()) {
             newStatus(TERMINATED);
             LOGGER.info("Termination condition reached.");
         }
+    }
+
+    /*
+     * Executes and commits a reaction rescheduled before the remaining reactions of the batch while committing it.
+     * This is what the sequential engine would do, provided that the reaction does not interfere with
+     * (nor reschedule) the remaining reactions already executed, and that they did not read the step,
+     * which is now greater than the one they observed.
+     * The remaining reactions must still fit within the final step and time.
+     */
+    private void interleave(final Actionable<T> reaction, final List<ParallelEvent<T>> remaining) {
+        if (currentStep + remaining.size() >= finalStep || reaction.getTau().compareTo(finalTime) >= 0) {
+            throw new IllegalStateException(
+                "The parallel engine could not preserve the final step and time: " + reaction
+                    + " got scheduled at time " + reaction.getTau() + " before " + remaining.get(0).reaction
+                    + " (step " + currentStep + ")."
+                    + " Reduce the lookahead, or run the simulation sequentially."
+            );
+        }
+        final Footprint<T> footprint = footprintOf(reaction);
+        final Set<Actionable<T>> dependents = dependencyGraph.outboundDependencies(reaction);
+        for (final ParallelEvent<T> event : remaining) {
+            if (footprint == null
+                || event.reaction == reaction
+                || dependents.contains(event.reaction)
+                || !event.deferred && (event.stepObserved || footprint.interferesWith(event.footprint))
+            ) {
+                throw new IllegalStateException(
+                    "The parallel engine could not preserve the sequential order of events: "
+                        + reaction + " got scheduled at time " + reaction.getTau() + " before " + event.reaction
+                        + ", scheduled at time " + event.time + " (step " + currentStep + ")."
+                        + " Reduce the lookahead, or run the simulation sequentially."
+                );
+            }
+        }
+        checkUnobserved(reaction, reaction.getTau(), remaining);
+        currentTime = reaction.getTau();
+        commit(reaction, execute(reaction));
         currentStep++;
     }
 
+    /*
+     * True if a monitor observing the environment may sample the step.
+     */
+    private boolean isObservable(final long step, final double time) {
+        for (final SampledMonitor<T, P> monitor : monitors) {
+            if (monitor.observesEnvironment && monitor.mayNotify(step, time)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Fails if a monitor observing the environment may sample the current step,
+     * but some of the following reactions have already been executed in parallel.
+     */
+    private void checkUnobserved(
+        final Actionable<T> reaction,
+        final Time time,
+        final List<ParallelEvent<T>> following
+    ) {
+        if (isObservable(currentStep, time.toDouble())) {
+            for (final ParallelEvent<T> event : following) {
+                if (!event.deferred) {
+                    throw new IllegalStateException(
+                        "The parallel engine could not preserve the state observed by the output monitors: "
+                            + reaction + " at time " + time + " (step " + currentStep + ") may be sampled, but "
+                            + event.reaction + " has already been executed."
+                            + " Sample by time, or run the simulation sequentially."
+                    );
+                }
+            }
+        }
+    }
+
+    private void executeInParallel(final ParallelEvent<T> event) {
+        parallelEvent.set(event);
+        try {
+            event.executed = execute(event.reaction);
+        } finally {
+            parallelEvent.remove();
+        }
+    }
+
     private void finalizeConstructor() {
-        this.environment.getGlobalReactions().forEach(this::reactionAdded);
-        for (final Node<T> n : environment) {
-            for (final Reaction<T> r : n.getReactions()) {
-                scheduleReaction(r);
+        if (!restored) {
+            this.environment.getGlobalReactions().forEach(this::reactionAdded);
+            for (final Node<T> n : environment) {
+                for (final Reaction<T> r : n.getReactions()) {
+                    scheduleReaction(r);
+                }
             }
         }
     }
@@ -240,6 +952,13 @@ public final class Engine<T, P extends Position<? extends P>> implements Simulat
         return error;
     }
 
+    /*
+     * The number of reactions executed on the pool so far, for testing purposes.
+     */
+    long getParallelExecutions() {
+        return parallelExecutions;
+    }
+
     @Override
     public long getFinalStep() {
         return finalStep;
@@ -257,11 +976,24 @@ public final class Engine<T, P extends Position<? extends P>> implements Simulat
 
     @Override
     public long getStep() {
+        if (parallelism > 1) {
+            final ParallelEvent<T> event = parallelEvent.get();
+            if (event != null) {
+                event.stepObserved = true;
+                return event.step;
+            }
+        }
         return currentStep;
     }
 
     @Override
     public Time getTime() {
+        if (parallelism > 1) {
+            final ParallelEvent<T> event = parallelEvent.get();
+            if (event != null) {
+                return event.time;
+            }
+        }
         return currentTime;
     }
 
@@ -318,7 +1050,21 @@ public final class Engine<T, P extends Position<? extends P>> implements Simulat
     @Override
     public void nodeMoved(final Node<T> node) {
         checkCaller();
-        afterExecutionUpdates.add(new Movement(node));
+        afterExecutionUpdates.add(new Movement(List.of(node)));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A single update is scheduled for all the nodes,
+     * hence the reactions related to many of them get collected once.
+     */
+    @Override
+    public void nodesMoved(final Collection<Node<T>> nodes) {
+        checkCaller();
+        if (!nodes.isEmpty()) {
+            afterExecutionUpdates.add(new Movement(List.copyOf(nodes)));
+        }
     }
 
     @Override
@@ -379,7 +1125,7 @@ public final class Engine<T, P extends Position<? extends P>> implements Simulat
 
     @Override
     public void removeOutputMonitor(final OutputMonitor<T, P> op) {
-        monitors.remove(op);
+        monitors.removeIf(it -> it.monitor.equals(op));
     }
 
     @Override
@@ -388,11 +1134,20 @@ public final class Engine<T, P extends Position<? extends P>> implements Simulat
             try {
                 simulationThread = Thread.currentThread();
                 finalizeConstructor();
+                if (parallelism > 1) {
+                    parallelExecutor = new ForkJoinPool(parallelism);
+                    if (scheduler.getClass().getMethod("getUpcoming").isDefault()) {
+                        LOGGER.warn(
+                            "{} can not predict its upcoming reactions: the simulation will run sequentially.",
+                            scheduler.getClass().getSimpleName()
+                        );
+                    }
+                }
                 status = Status.READY;
                 final long currentThread = Thread.currentThread().getId();
                 LOGGER.trace("Thread {} started running.", currentThread);
-                for (final OutputMonitor<T, P> m : monitors) {
-                    m.initialized(environment);
+                for (final SampledMonitor<T, P> m : monitors) {
+                    m.monitor.initialized(environment);
                 }
                 while (status.equals(Status.READY)) {
                     idleProcessSingleCommand();
@@ -414,9 +1169,12 @@ public final class Engine<T, P extends Position<? extends P>> implements Simulat
             } finally {
                 status = TERMINATED;
                 commands.clear();
+                if (parallelExecutor != null) {
+                    parallelExecutor.shutdown();
+                }
                 try {
-                    for (final OutputMonitor<T, P> m : monitors) {
-                        m.finished(environment, currentTime, currentStep);
+                    for (final SampledMonitor<T, P> m : monitors) {
+                        m.monitor.finished(environment, currentTime, currentStep);
                     }
                 } catch (Throwable e) { //NOPMD: we need to catch everything
                     error.ifPresentOrElse(
@@ -434,7 +1192,7 @@ public final class Engine<T, P extends Position<? extends P>> implements Simulat
             @Override
             public void initialized(@Nonnull final Environment<T, P> environment) {
                 if (condition.getAsBoolean()) {
-                    monitors.remove(this);
+                    removeOutputMonitor(this);
                     pause();
                 }
             }
@@ -476,9 +1234,9 @@ public final class Engine<T, P extends Position<? extends P>> implements Simulat
     }
 
     private void updateReaction(final Actionable<T> r) {
-        final Time t = r.getTau();
+        final double t = r.getTauAsDouble();
         r.update(currentTime, false, environment);
-        if (!r.getTau().equals(t)) {
+        if (Double.compare(r.getTauAsDouble(), t) != 0) {
             scheduler.updateReaction(r);
         }
     }
@@ -511,32 +1269,38 @@ public final class Engine<T, P extends Position<? extends P>> implements Simulat
 
     private final class Movement extends Update {
 
-        private final @Nonnull Node<T> sourceNode;
+        private final @Nonnull List<Node<T>> sourceNodes;
 
-        private Movement(final @Nonnull Node<T> sourceNode) {
-            this.sourceNode = sourceNode;
+        private Movement(final @Nonnull List<Node<T>> sourceNodes) {
+            this.sourceNodes = sourceNodes;
         }
 
         @Override
         public Stream<? extends Actionable<T>> getReactionsToUpdate() {
-            return getReactionsRelatedTo(this.sourceNode, environment.getNeighborhood(this.sourceNode))
+            return getReactionsRelatedTo(this.sourceNodes)
                 .filter(it ->
                     it.getInboundDependencies().stream()
                         .anyMatch(dependency -> dependency.dependsOn(Dependency.MOVEMENT))
                 );
         }
 
-        private Stream<? extends Actionable<T>> getReactionsRelatedTo(
-            final Node<T> source,
-            final Neighborhood<T> neighborhood
-        ) {
-            return Stream.of(
-                    source.getReactions().stream(),
-                    neighborhood.getNeighbors().stream()
-                        .flatMap(node -> node.getReactions().stream())
-                        .filter(it -> it.getInputContext() == Context.NEIGHBORHOOD),
-                    dependencyGraph.globalInputContextReactions().stream())
-                .reduce(Stream.empty(), Stream::concat);
+        private Stream<? extends Actionable<T>> getReactionsRelatedTo(final List<Node<T>> sources) {
+            final Stream<? extends Actionable<T>> local = sources.size() == 1
+                ? getReactionsRelatedTo(sources.get(0))
+                : sources.stream()
+                    .flatMap(this::getReactionsRelatedTo)
+                    .collect(Collectors.toCollection(LinkedHashSet::new))
+                    .stream();
+            return Stream.concat(local, dependencyGraph.globalInputContextReactions().stream());
+        }
+
+        private Stream<? extends Actionable<T>> getReactionsRelatedTo(final Node<T> source) {
+            return Stream.concat(
+                source.getReactions().stream(),
+                environment.getNeighborhood(source).getNeighbors().stream()
+                    .flatMap(node -> node.getReactions().stream())
+                    .filter(it -> it.getInputContext() == Context.NEIGHBORHOOD)
+            );
         }
     }
 
@@ -673,6 +1437,155 @@ public final class Engine<T, P extends Position<? extends P>> implements Simulat
         }
     }
 
+    /*
+     * Reads a checkpoint, letting a resolver replace the objects read.
+     */
+    private static final class ResolvingInputStream extends ObjectInputStream {
+
+        private final UnaryOperator<Object> resolver;
+
+        private ResolvingInputStream(
+            final InputStream input,
+            final UnaryOperator<Object> resolver
+        ) throws IOException {
+            super(input);
+            this.resolver = resolver;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(final Object object) {
+            return resolver.apply(object);
+        }
+    }
+
+    /*
+     * An output monitor, notified only of the steps sampled by its policy.
+     * The next step and time the sampler may sample are cached,
+     * so that the sampler is not consulted before either is reached.
+     */
+    private static final class SampledMonitor<T, P extends Position<? extends P>> {
+
+        private final OutputMonitor<T, P> monitor;
+        private final SamplingPolicy.Sampler sampler;
+        private final boolean observesEnvironment;
+        private long nextStep = Long.MIN_VALUE;
+        private double nextTime = Double.NEGATIVE_INFINITY;
+
+        private SampledMonitor(final OutputMonitor<T, P> monitor) {
+            this.monitor = monitor;
+            this.sampler = monitor.getSamplingPolicy().newSampler();
+            this.observesEnvironment = monitor.observesEnvironment();
+        }
+
+        private boolean mayNotify(final long step, final double now) {
+            return step >= nextStep || now >= nextTime;
+        }
+
+        private void stepDone(
+            final Environment<T, P> environment,
+            final Actionable<T> reaction,
+            final Time time,
+            final double now,
+            final long step
+        ) {
+            if (!mayNotify(step, now)) {
+                return;
+            }
+            final boolean sample = sampler.shouldSample(reaction, time, step);
+            nextStep = sampler.nextStep();
+            nextTime = sampler.nextTime();
+            if (sample) {
+                final OutputMonitorEvent record = OutputMonitorEvent.start();
+                monitor.stepDone(environment, reaction, time, step);
+                if (record != null) {
+                    record.end(monitor, step);
+                }
+            }
+        }
+    }
+
+    /*
+     * A reaction executed as part of a parallel batch, along with the time and step it is executed at.
+     * Deferred reactions interfere with some reaction preceding them, and are executed while committing.
+     * The tile is null if the environment is not partitioned, or if the reaction crosses tiles.
+     */
+    private static final class ParallelEvent<T> {
+
+        private final Actionable<T> reaction;
+        private final Time time;
+        private final long step;
+        private final Footprint<T> footprint;
+        private final Tile tile;
+        private final boolean deferred;
+        private boolean executed;
+        private boolean stepObserved;
+
+        private ParallelEvent(
+            final Actionable<T> reaction,
+            final Time time,
+            final long step,
+            final Footprint<T> footprint,
+            @Nullable final Tile tile,
+            final boolean deferred
+        ) {
+            this.reaction = reaction;
+            this.time = time;
+            this.step = step;
+            this.footprint = footprint;
+            this.tile = tile;
+            this.deferred = deferred;
+        }
+    }
+
+    /*
+     * Nodes that a group of reactions may read and write.
+     */
+    private static final class Footprint<T> {
+
+        private final Set<Node<T>> read = new HashSet<>();
+        private final Set<Node<T>> written = new HashSet<>();
+
+        private boolean interferesWith(final Footprint<T> other) {
+            return written.stream().anyMatch(it -> other.read.contains(it) || other.written.contains(it))
+                || read.stream().anyMatch(other.written::contains);
+        }
+
+        private boolean writesReadBy(final Footprint<T> other) {
+            return written.stream().anyMatch(other.read::contains);
+        }
+
+        private void claim(final Footprint<T> other) {
+            read.addAll(other.read);
+            written.addAll(other.written);
+        }
+    }
+
+    /*
+     * A square (hyper)cell of the environment.
+     */
+    private static final class Tile {
+
+        private final long[] indexes;
+
+        private Tile(final double[] coordinates, final double size) {
+            indexes = new long[coordinates.length];
+            for (int i = 0; i < coordinates.length; i++) {
+                indexes[i] = (long) Math.floor(coordinates[i] / size);
+            }
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Tile && Arrays.equals(indexes, ((Tile) other).indexes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(indexes);
+        }
+    }
+
     private final class SynchBox {
 
         private final AtomicInteger queueLength = new AtomicInteger();
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the notification of a step to an output monitor (e.g., an exporter)
+ * by the {@link Engine}.
+ */
+@Name(OutputMonitorEvent.NAME)
+@Label("Output Monitor")
+@Category({ "Alchemist", "Engine" })
+@Description("The notification of a step to an output monitor")
+final class OutputMonitorEvent extends Event {
+
+    /**
+     * The name of the event.
+     */
+    static final String NAME = "it.unibo.alchemist.OutputMonitor";
+    private static final EventType TYPE = EventType.getEventType(OutputMonitorEvent.class);
+
+    @Label("Monitor Type")
+    private Class<?> monitorType;
+
+    @Label("Step")
+    private long step;
+
+    /**
+     * @return a new event, already begun, or null if the event is not being recorded
+     */
+    static OutputMonitorEvent start() {
+        if (TYPE.isEnabled()) {
+            final OutputMonitorEvent event = new OutputMonitorEvent();
+            event.begin();
+            return event;
+        }
+        return null;
+    }
+
+    /**
+     * Ends and commits the event.
+     *
+     * @param monitor the monitor notified
+     * @param step the step notified
+     */
+    void end(final Object monitor, final long step) {
+        end();
+        if (shouldCommit()) {
+            this.monitorType = monitor.getClass();
+            this.step = step;
+            commit();
+        }
+    }
+}
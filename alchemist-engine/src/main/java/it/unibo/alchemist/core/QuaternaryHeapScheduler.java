@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core;
+
+import it.unibo.alchemist.model.Actionable;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * This class implements the indexed priority queue through an implicit 4-ary heap.
+ * Putative times are cached in a primitive array, hence sifting never compares boxed
+ * {@link it.unibo.alchemist.model.Time} objects.
+ * Every reaction is wrapped in a handle that keeps track of its position in the heap:
+ * the reaction is looked up once per operation, and moving it around costs no map updates.
+ * Reactions scheduled at the very same time are executed in the order they were added,
+ * whereas {@link ArrayIndexedPriorityQueue} breaks ties depending on the layout of its heap:
+ * with ties, the two schedulers may thus produce different (equally valid) trajectories.
+ * Once serialized, the heap is written as a sequence of reactions with their putative time and insertion order.
+ *
+ * @param <T> concentration type
+ */
+public final class QuaternaryHeapScheduler<T> implements Scheduler<T>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int ARITY = 4;
+    private static final int INITIAL_CAPACITY = 16;
+    private transient Map<Actionable<T>, Handle<T>> handles = new IdentityHashMap<>();
+    private transient double[] times = new double[INITIAL_CAPACITY];
+    private transient Handle<T>[] heap = newHeap(INITIAL_CAPACITY);
+    private transient int size;
+    private long insertions;
+
+    @Override
+    public void addReaction(final Actionable<T> reaction) {
+        final Handle<T> handle = new Handle<>(reaction, insertions);
+        insertions++;
+        if (handles.putIfAbsent(reaction, handle) != null) {
+            throw new IllegalArgumentException(reaction + " is already scheduled");
+        }
+        if (size == heap.length) {
+            final int capacity = heap.length * 2;
+            heap = Arrays.copyOf(heap, capacity);
+            times = Arrays.copyOf(times, capacity);
+        }
+        size++;
+        up(handle, reaction.getTauAsDouble(), size - 1);
+    }
+
+    @Override
+    public Actionable<T> getNext() {
+        return size == 0 ? null : heap[0].reaction;
+    }
+
+    @Override
+    public Iterator<Actionable<T>> getUpcoming() {
+        return new UpcomingIterator();
+    }
+
+    @Override
+    public void removeReaction(final Actionable<T> reaction) {
+        final Handle<T> handle = handles.remove(reaction);
+        if (handle == null) {
+            throw new IllegalArgumentException(reaction + " is not scheduled");
+        }
+        final int index = handle.index;
+        size--;
+        final int last = size;
+        final Handle<T> swapped = heap[last];
+        final double swappedTime = times[last];
+        heap[last] = null;
+        if (index != last) {
+            updateEffectively(swapped, swappedTime, index);
+        }
+    }
+
+    @Override
+    public void updateReaction(final Actionable<T> reaction) {
+        final Handle<T> handle = handles.get(reaction);
+        if (handle != null) {
+            updateEffectively(handle, reaction.getTauAsDouble(), handle.index);
+        }
+    }
+
+    private void updateEffectively(final Handle<T> handle, final double time, final int index) {
+        if (!up(handle, time, index)) {
+            down(handle, time, index);
+        }
+    }
+
+    private boolean up(final Handle<T> handle, final double time, final int startIndex) {
+        int index = startIndex;
+        while (index > 0) {
+            final int parent = (index - 1) / ARITY;
+            if (!precedes(time, handle.order, parent)) {
+                break;
+            }
+            move(parent, index);
+            index = parent;
+        }
+        place(handle, time, index);
+        return index != startIndex;
+    }
+
+    private void down(final Handle<T> handle, final double time, final int startIndex) {
+        int index = startIndex;
+        while (true) {
+            final int firstChild = ARITY * index + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            final int lastChild = Math.min(firstChild + ARITY, size);
+            int minIndex = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (precedes(times[child], heap[child].order, minIndex)) {
+                    minIndex = child;
+                }
+            }
+            if (precedes(time, handle.order, minIndex)) {
+                break;
+            }
+            move(minIndex, index);
+            index = minIndex;
+        }
+        place(handle, time, index);
+    }
+
+    private boolean precedes(final double time, final long order, final int index) {
+        final double other = times[index];
+        return time < other || time == other && order < heap[index].order;
+    }
+
+    private void move(final int from, final int to) {
+        final Handle<T> moved = heap[from];
+        heap[to] = moved;
+        times[to] = times[from];
+        moved.index = to;
+    }
+
+    private void place(final Handle<T> handle, final double time, final int index) {
+        heap[index] = handle;
+        times[index] = time;
+        handle.index = index;
+    }
+
+    private void writeObject(final ObjectOutputStream output) throws IOException {
+        output.defaultWriteObject();
+        output.writeInt(size);
+        for (int index = 0; index < size; index++) {
+            output.writeObject(heap[index].reaction);
+            output.writeDouble(times[index]);
+            output.writeLong(heap[index].order);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        size = input.readInt();
+        final int capacity = Math.max(INITIAL_CAPACITY, size);
+        handles = new IdentityHashMap<>(size);
+        times = new double[capacity];
+        heap = newHeap(capacity);
+        for (int index = 0; index < size; index++) {
+            final Actionable<T> reaction = (Actionable<T>) input.readObject();
+            final double time = input.readDouble();
+            final Handle<T> handle = new Handle<>(reaction, input.readLong());
+            handles.put(reaction, handle);
+            place(handle, time, index);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Handle<T>[] newHeap(final int capacity) {
+        return (Handle<T>[]) new Handle<?>[capacity];
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.append(i).append(": ").append(times[i]).append(" -> ").append(heap[i].reaction).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /*
+     * Visits the heap best-first: the next reaction is always the first among the children
+     * of the reactions visited so far.
+     */
+    private final class UpcomingIterator implements Iterator<Actionable<T>> {
+
+        private final Queue<Integer> frontier = new PriorityQueue<>(
+            (first, second) -> precedes(times[first], heap[first].order, second) ? -1 : 1
+        );
+
+        private UpcomingIterator() {
+            if (size > 0) {
+                frontier.add(0);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !frontier.isEmpty();
+        }
+
+        @Override
+        public Actionable<T> next() {
+            final int index = frontier.remove();
+            final int firstChild = ARITY * index + 1;
+            for (int child = firstChild; child < Math.min(firstChild + ARITY, size); child++) {
+                frontier.add(child);
+            }
+            return heap[index].reaction;
+        }
+    }
+
+    /*
+     * Scheduler-side handle of a reaction, storing its current position in the heap
+     * and its insertion order, used to break ties deterministically.
+     */
+    private static final class Handle<T> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Actionable<T> reaction;
+        private final long order;
+        private int index;
+
+        private Handle(final Actionable<T> reaction, final long order) {
+            this.reaction = reaction;
+            this.order = order;
+        }
+    }
+}
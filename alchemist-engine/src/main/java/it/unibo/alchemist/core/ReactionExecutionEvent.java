@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the execution of a reaction by the {@link Engine}.
+ */
+@Name(ReactionExecutionEvent.NAME)
+@Label("Reaction Execution")
+@Category({ "Alchemist", "Engine" })
+@Description("The execution of the actions of a reaction")
+final class ReactionExecutionEvent extends Event {
+
+    /**
+     * The name of the event.
+     */
+    static final String NAME = "it.unibo.alchemist.ReactionExecution";
+    private static final EventType TYPE = EventType.getEventType(ReactionExecutionEvent.class);
+
+    @Label("Reaction Type")
+    private Class<?> reactionType;
+
+    /**
+     * @return a new event, already begun, or null if the event is not being recorded
+     */
+    static ReactionExecutionEvent start() {
+        if (TYPE.isEnabled()) {
+            final ReactionExecutionEvent event = new ReactionExecutionEvent();
+            event.begin();
+            return event;
+        }
+        return null;
+    }
+
+    /**
+     * Ends and commits the event.
+     *
+     * @param reaction the reaction executed
+     */
+    void end(final Object reaction) {
+        end();
+        if (shouldCommit()) {
+            reactionType = reaction.getClass();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the update of the reactions depending on an executed reaction,
+ * and of the reaction itself, by the {@link Engine}.
+ */
+@Name(ReactionUpdateEvent.NAME)
+@Label("Reaction Update")
+@Category({ "Alchemist", "Engine" })
+@Description("The update and rescheduling of a reaction and of the reactions depending on it")
+final class ReactionUpdateEvent extends Event {
+
+    /**
+     * The name of the event.
+     */
+    static final String NAME = "it.unibo.alchemist.ReactionUpdate";
+    private static final EventType TYPE = EventType.getEventType(ReactionUpdateEvent.class);
+
+    @Label("Reaction Type")
+    private Class<?> reactionType;
+
+    @Label("Dependencies")
+    @Description("The number of dependent reactions updated, the fan-out in the dependency graph")
+    private int dependencies;
+
+    /**
+     * @return a new event, already begun, or null if the event is not being recorded
+     */
+    static ReactionUpdateEvent start() {
+        if (TYPE.isEnabled()) {
+            final ReactionUpdateEvent event = new ReactionUpdateEvent();
+            event.begin();
+            return event;
+        }
+        return null;
+    }
+
+    /**
+     * Ends and commits the event.
+     *
+     * @param reaction the reaction executed
+     * @param dependencies the number of dependent reactions updated
+     */
+    void end(final Object reaction, final int dependencies) {
+        end();
+        if (shouldCommit()) {
+            this.reactionType = reaction.getClass();
+            this.dependencies = dependencies;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a step of the {@link Engine}, or for a batch of steps if the engine runs in parallel.
+ * Output monitors are notified within the step.
+ */
+@Name(StepEvent.NAME)
+@Label("Simulation Step")
+@Category({ "Alchemist", "Engine" })
+@Description("A step of the simulation, or a batch of steps executed in parallel")
+final class StepEvent extends Event {
+
+    /**
+     * The name of the event.
+     */
+    static final String NAME = "it.unibo.alchemist.Step";
+    private static final EventType TYPE = EventType.getEventType(StepEvent.class);
+
+    @Label("Step")
+    @Description("The first step")
+    private long step;
+
+    @Label("Time")
+    @Description("The simulated time at the end of the step")
+    private double time;
+
+    @Label("Events")
+    @Description("The number of events executed")
+    private int events;
+
+    /**
+     * @return a new event, already begun, or null if the event is not being recorded
+     */
+    static StepEvent start() {
+        if (TYPE.isEnabled()) {
+            final StepEvent event = new StepEvent();
+            event.begin();
+            return event;
+        }
+        return null;
+    }
+
+    /**
+     * Ends and commits the event.
+     *
+     * @param step the first step
+     * @param time the simulated time at the end of the step
+     * @param events the number of events executed
+     */
+    void end(final long step, final double time, final int events) {
+        end();
+        if (shouldCommit()) {
+            this.step = step;
+            this.time = time;
+            this.events = events;
+            commit();
+        }
+    }
+}
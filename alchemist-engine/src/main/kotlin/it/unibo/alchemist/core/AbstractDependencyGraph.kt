@@ -0,0 +1,383 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core
+
+import it.unibo.alchemist.model.Actionable
+import it.unibo.alchemist.model.Context
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.Node
+import it.unibo.alchemist.model.Reaction
+import it.unibo.alchemist.util.BugReporting
+import org.danilopianini.util.ArrayListSet
+import org.danilopianini.util.ListSet
+import org.danilopianini.util.ListSets
+import java.io.ObjectInputStream
+import java.io.ObjectOutputStream
+import java.io.Serializable
+
+/**
+ * Base class for dependency graphs, namely data structures which can address
+ * in an efficient way the problem of finding those reactions affected by the execution of another reaction.
+ * This class computes which reactions depend on each other,
+ * subclasses decide how the resulting edges are stored.
+ * Once serialized, only the reactions are written, in the order they were added:
+ * the indexes used to compute dependencies get rebuilt when the graph is read back.
+ *
+ * @param <T> concentration type
+ */
+abstract class AbstractDependencyGraph<T>(
+    protected val environment: Environment<T, *>,
+) : DependencyGraph<T>, Serializable {
+    @Transient
+    private var inGlobals = ArrayListSet<Actionable<T>>()
+
+    @Transient
+    private var globalReaders = DependencyIndex.readers<T>()
+
+    @Transient
+    private var globalWriters = DependencyIndex.writers<T>()
+
+    @Transient
+    private var allReaders = DependencyIndex.readers<T>()
+
+    @Transient
+    private var allWriters = DependencyIndex.writers<T>()
+
+    @Transient
+    private var runtimeRemovalCache = mutableSetOf<Actionable<T>>()
+
+    @Transient
+    private var nodeIndexes = HashMap<Node<T>, NodeIndex<T>>()
+
+    /**
+     * Adds [reaction] to the graph, returning false if it was already there.
+     */
+    protected abstract fun addReaction(reaction: Actionable<T>): Boolean
+
+    /**
+     * Removes [reaction] and all its edges from the graph, returning false if it was not there.
+     */
+    protected abstract fun removeReaction(reaction: Actionable<T>): Boolean
+
+    /**
+     * Records that [target] depends on [source]. Adding an existing edge has no effect.
+     */
+    protected abstract fun addEdge(source: Actionable<T>, target: Actionable<T>)
+
+    /**
+     * Records that [target] no longer depends on [source]. Removing a missing edge has no effect.
+     */
+    protected abstract fun removeEdge(source: Actionable<T>, target: Actionable<T>)
+
+    /**
+     * The reactions depending on [reaction], or null if [reaction] is not in the graph.
+     */
+    protected abstract fun dependentsOf(reaction: Actionable<T>): ListSet<Actionable<T>>?
+
+    override fun createDependencies(newReaction: Actionable<T>) {
+        check(addReaction(newReaction)) {
+            "$newReaction was already in the dependency graph"
+        }
+        val record = DependencyCreationEvent.start()
+        var dependencies = 0
+        val addInbound: (Actionable<T>) -> Unit = {
+            addEdge(it, newReaction)
+            dependencies++
+        }
+        val addOutbound: (Actionable<T>) -> Unit = {
+            addEdge(newReaction, it)
+            dependencies++
+        }
+        if (newReaction.inputContext == Context.GLOBAL) {
+            allWriters.forEachRelatedTo(newReaction, addInbound)
+        } else {
+            globalWriters.forEachRelatedTo(newReaction, addInbound)
+            forEachIndexAround(newReaction.node, newReaction.inputContext, writers = true) { writers ->
+                writers.forEachRelatedTo(newReaction, addInbound)
+            }
+        }
+        if (newReaction.outputContext == Context.GLOBAL) {
+            allReaders.forEachRelatedTo(newReaction, addOutbound)
+        } else {
+            globalReaders.forEachRelatedTo(newReaction, addOutbound)
+            forEachIndexAround(newReaction.node, newReaction.outputContext, writers = false) { readers ->
+                readers.forEachRelatedTo(newReaction, addOutbound)
+            }
+        }
+        index(newReaction)
+        record?.end(newReaction, dependencies)
+    }
+
+    private fun index(reaction: Actionable<T>) {
+        allReaders.add(reaction)
+        allWriters.add(reaction)
+        if (reaction is Reaction) {
+            nodeIndexes.getOrPut(reaction.node) { NodeIndex() }.add(reaction)
+        }
+        if (reaction.inputContext == Context.GLOBAL) {
+            inGlobals.add(reaction)
+            globalReaders.add(reaction)
+        }
+        if (reaction.outputContext == Context.GLOBAL) {
+            globalWriters.add(reaction)
+        }
+    }
+
+    /*
+     * Runs [action] on the indexes of the writers (or readers) that may interact with a reaction hosted by [node],
+     * reading (or writing) with the given non-global [context]:
+     * - all those of the node itself;
+     * - those of the neighbors, restricted to the neighborhood context unless [context] is the neighborhood;
+     * - if [context] is the neighborhood, those of the neighbors of the neighbors,
+     *   restricted to the neighborhood context.
+     */
+    private fun forEachIndexAround(
+        node: Node<T>,
+        context: Context,
+        writers: Boolean,
+        action: (DependencyIndex<T>) -> Unit,
+    ) {
+        fun NodeIndex<T>.local() = if (writers) localWriters else localReaders
+        fun NodeIndex<T>.neighborhood() = if (writers) neighborhoodWriters else neighborhoodReaders
+        val spansNeighborhood = context == Context.NEIGHBORHOOD
+        nodeIndexes[node]?.let {
+            action(it.local())
+            action(it.neighborhood())
+        }
+        val neighborhood = environment.getNeighborhood(node)
+        neighborhood.neighbors.forEach { neighbor ->
+            nodeIndexes[neighbor]?.let {
+                if (spansNeighborhood) {
+                    action(it.local())
+                }
+                action(it.neighborhood())
+            }
+        }
+        if (spansNeighborhood) {
+            val visited = HashSet<Node<T>>()
+            neighborhood.neighbors.forEach { neighbor ->
+                neighbor.neighborhood.forEach { extended ->
+                    if (extended != node && extended !in neighborhood && visited.add(extended)) {
+                        nodeIndexes[extended]?.let { action(it.neighborhood()) }
+                    }
+                }
+            }
+        }
+    }
+
+    override fun removeDependencies(reaction: Actionable<T>) {
+        check(removeReaction(reaction)) {
+            BugReporting.reportBug(
+                "Reaction does not exists in the dependency graph.",
+                mapOf(
+                    "reaction" to reaction,
+                    "graph" to this,
+                    "incarnation" to environment.incarnation,
+                    "environment" to environment,
+                ),
+            )
+        }
+        check(reaction.inputContext != Context.GLOBAL || inGlobals.remove(reaction) && globalReaders.remove(reaction)) {
+            "Inconsistent state: $reaction, with global input context, was not in the appropriate pool."
+        }
+        check(reaction.outputContext != Context.GLOBAL || globalWriters.remove(reaction)) {
+            "Inconsistent state: $reaction, with global output context, was not in the appropriate pool."
+        }
+        allReaders.remove(reaction)
+        allWriters.remove(reaction)
+        if (reaction is Reaction) {
+            nodeIndexes[reaction.node]?.let { index ->
+                index.remove(reaction)
+                if (index.isEmpty) {
+                    nodeIndexes.remove(reaction.node)
+                }
+            }
+        }
+        runtimeRemovalCache += reaction
+    }
+
+    /*
+     * Runs [action] on every pair of writer and reader whose interaction may go through the link from n1 to n2:
+     * reactions on n2 reading their neighborhood read n1, and reactions on n1 writing their neighborhood write n2.
+     * Writers and readers are matched through the dependency index of each node, without materializing any set.
+     */
+    private fun forEachPairThrough(n1: Node<T>, n2: Node<T>, action: (Actionable<T>, Actionable<T>) -> Unit) {
+        val source = nodeIndexes[n1]
+        val destination = nodeIndexes[n2]
+        if (source != null && destination != null) {
+            // Reactions on n2 read n1, or reactions on n1 write n2
+            destination.localReaders.all.forEach { reader ->
+                source.neighborhoodWriters.forEachRelatedTo(reader) { action(it, reader) }
+            }
+            destination.neighborhoodReaders.all.forEach { reader ->
+                source.localWriters.forEachRelatedTo(reader) { action(it, reader) }
+                source.neighborhoodWriters.forEachRelatedTo(reader) { action(it, reader) }
+            }
+        }
+        if (source != null && !source.neighborhoodWriters.isEmpty) {
+            // Reactions on n1 write n2, which is read by the neighbors of n2
+            n2.neighborhood.forEach { neighbor ->
+                if (neighbor != n1) {
+                    nodeIndexes[neighbor]?.neighborhoodReaders?.all?.forEach { reader ->
+                        source.neighborhoodWriters.forEachRelatedTo(reader) { action(it, reader) }
+                    }
+                }
+            }
+        }
+        if (destination != null && !destination.neighborhoodReaders.isEmpty) {
+            // Reactions on n2 read n1, which is written by the neighbors of n1
+            n1.neighborhood.forEach { neighbor ->
+                if (neighbor != n2) {
+                    nodeIndexes[neighbor]?.neighborhoodWriters?.let { writers ->
+                        destination.neighborhoodReaders.all.forEach { reader ->
+                            writers.forEachRelatedTo(reader) { action(it, reader) }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** @see [DependencyGraph.addNeighbor] */
+    override fun addNeighbor(n1: Node<T>, n2: Node<T>) {
+        forEachPairThrough(n1, n2, ::addEdge)
+        forEachPairThrough(n2, n1, ::addEdge)
+    }
+
+    /**
+     * Removes the edges that were justified only by the link between [n1] and [n2].
+     * Reactions with global contexts are unaffected.
+     */
+    override fun removeNeighbor(n1: Node<T>, n2: Node<T>) {
+        val removeIfUnrelated: (Actionable<T>, Actionable<T>) -> Unit = { writer, reader ->
+            if (!writer.mayInfluence(reader)) {
+                removeEdge(writer, reader)
+            }
+        }
+        forEachPairThrough(n1, n2, removeIfUnrelated)
+        forEachPairThrough(n2, n1, removeIfUnrelated)
+    }
+
+    /*
+     * True if the nodes written by this reaction intersect those read by the other, in the current environment.
+     */
+    private fun Actionable<T>.mayInfluence(reader: Actionable<T>): Boolean {
+        if (outputContext == Context.GLOBAL || reader.inputContext == Context.GLOBAL) {
+            return true
+        }
+        val source = node
+        val destination = reader.node
+        if (source == destination) {
+            return true
+        }
+        val writesNeighbors = outputContext == Context.NEIGHBORHOOD
+        val readsNeighbors = reader.inputContext == Context.NEIGHBORHOOD
+        val sourceNeighborhood = environment.getNeighborhood(source)
+        val destinationNeighborhood = environment.getNeighborhood(destination)
+        return writesNeighbors && destination in sourceNeighborhood ||
+            readsNeighbors && source in destinationNeighborhood ||
+            writesNeighbors && readsNeighbors && sourceNeighborhood.neighbors.any { it in destinationNeighborhood }
+    }
+
+    override fun outboundDependencies(reaction: Actionable<T>?): ListSet<Actionable<T>> {
+        if (reaction != null) {
+            dependentsOf(reaction)?.let { return it }
+        }
+        require(runtimeRemovalCache.remove(reaction)) {
+            BugReporting.reportBug(
+                "A reaction that is being updated does not exists in the dependency graph, " +
+                    "nor has been scheduled for removal.",
+                mapOf(
+                    "graph" to this,
+                    "incarnation" to environment.incarnation,
+                    "environment" to environment,
+                    "reaction" to reaction,
+                ),
+            )
+        }
+        return ListSets.emptyListSet()
+    }
+
+    override fun globalInputContextReactions(): ListSet<Actionable<T>> = ListSets.unmodifiableListSet(inGlobals)
+
+    private fun writeObject(output: ObjectOutputStream) {
+        output.defaultWriteObject()
+        output.writeInt(allReaders.all.size)
+        allReaders.all.forEach { output.writeObject(it) }
+        output.writeInt(runtimeRemovalCache.size)
+        runtimeRemovalCache.forEach { output.writeObject(it) }
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun readObject(input: ObjectInputStream) {
+        input.defaultReadObject()
+        inGlobals = ArrayListSet()
+        globalReaders = DependencyIndex.readers()
+        globalWriters = DependencyIndex.writers()
+        allReaders = DependencyIndex.readers()
+        allWriters = DependencyIndex.writers()
+        runtimeRemovalCache = mutableSetOf()
+        nodeIndexes = HashMap()
+        repeat(input.readInt()) { index(input.readObject() as Actionable<T>) }
+        repeat(input.readInt()) { runtimeRemovalCache += input.readObject() as Actionable<T> }
+    }
+
+    private val Actionable<T>.node: Node<T> get() = checkNotNull(this as? Reaction).node
+
+    private val Node<T>.neighborhood get() = environment.getNeighborhood(this).neighbors
+
+    /*
+     * The reactions of a node, indexed by their contexts and dependencies. Global contexts are not indexed.
+     */
+    private class NodeIndex<T> {
+        val localReaders = DependencyIndex.readers<T>()
+        val neighborhoodReaders = DependencyIndex.readers<T>()
+        val localWriters = DependencyIndex.writers<T>()
+        val neighborhoodWriters = DependencyIndex.writers<T>()
+
+        val isEmpty: Boolean get() =
+            localReaders.isEmpty && neighborhoodReaders.isEmpty && localWriters.isEmpty && neighborhoodWriters.isEmpty
+
+        fun add(reaction: Reaction<T>) {
+            readers(reaction.inputContext)?.add(reaction)
+            writers(reaction.outputContext)?.add(reaction)
+        }
+
+        fun remove(reaction: Reaction<T>) {
+            readers(reaction.inputContext)?.remove(reaction)
+            writers(reaction.outputContext)?.remove(reaction)
+        }
+
+        private fun readers(context: Context) = when (context) {
+            Context.LOCAL -> localReaders
+            Context.NEIGHBORHOOD -> neighborhoodReaders
+            Context.GLOBAL -> null
+        }
+
+        private fun writers(context: Context) = when (context) {
+            Context.LOCAL -> localWriters
+            Context.NEIGHBORHOOD -> neighborhoodWriters
+            Context.GLOBAL -> null
+        }
+    }
+
+    companion object {
+        private const val serialVersionUID = 2L
+
+        private val Actionable<*>.inputContext get() = when (this) {
+            is Reaction -> inputContext
+            else -> Context.GLOBAL
+        }
+
+        private val Actionable<*>.outputContext get() = when (this) {
+            is Reaction -> outputContext
+            else -> Context.GLOBAL
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core
+
+import gnu.trove.impl.Constants
+import gnu.trove.list.array.TIntArrayList
+import gnu.trove.map.hash.TObjectIntHashMap
+import it.unibo.alchemist.model.Actionable
+import it.unibo.alchemist.model.Environment
+import org.danilopianini.util.ArrayListSet
+import org.danilopianini.util.ListSet
+import org.danilopianini.util.ListSets
+import java.io.ObjectInputStream
+import java.io.ObjectOutputStream
+
+/**
+ * A dependency graph assigning a dense integer id to each reaction,
+ * and storing the edges as adjacency lists of primitive ints.
+ * Ids of removed reactions leave a tombstone in the reaction table, and are recycled by later additions.
+ * No object is allocated per edge.
+ *
+ * The set returned by [outboundDependencies] is a read-only view that is built once and reused,
+ * until an edge leaving the reaction is added or removed.
+ * Changing the edges replaces the view rather than modifying it,
+ * so previously returned views can be safely iterated while the graph changes.
+ *
+ * Once serialized, only the reaction table and the outbound adjacency lists are written,
+ * the remaining structures get rebuilt when the graph is read back.
+ *
+ * @param <T> concentration type
+ */
+class CompactDependencyGraph<T>(environment: Environment<T, *>) : AbstractDependencyGraph<T>(environment) {
+    @Transient
+    private var ids = newIds<T>()
+
+    @Transient
+    private var freeIds = TIntArrayList()
+
+    @Transient
+    private var reactions = arrayOfNulls<Actionable<T>>(INITIAL_CAPACITY)
+
+    @Transient
+    private var outbound = arrayOfNulls<TIntArrayList>(INITIAL_CAPACITY)
+
+    @Transient
+    private var inbound = arrayOfNulls<TIntArrayList>(INITIAL_CAPACITY)
+
+    @Transient
+    private var views = arrayOfNulls<ListSet<Actionable<T>>>(INITIAL_CAPACITY)
+
+    @Transient
+    private var size = 0
+
+    override fun addReaction(reaction: Actionable<T>): Boolean {
+        if (ids.containsKey(reaction)) {
+            return false
+        }
+        val id = if (freeIds.isEmpty()) {
+            if (size == reactions.size) {
+                val capacity = size * 2
+                reactions = reactions.copyOf(capacity)
+                outbound = outbound.copyOf(capacity)
+                inbound = inbound.copyOf(capacity)
+                views = views.copyOf(capacity)
+            }
+            size++
+        } else {
+            freeIds.removeAt(freeIds.size() - 1)
+        }
+        ids.put(reaction, id)
+        reactions[id] = reaction
+        outbound[id] = TIntArrayList(INITIAL_DEGREE)
+        inbound[id] = TIntArrayList(INITIAL_DEGREE)
+        return true
+    }
+
+    override fun removeReaction(reaction: Actionable<T>): Boolean {
+        val id = ids.remove(reaction)
+        if (id < 0) {
+            return false
+        }
+        val sources = checkNotNull(inbound[id])
+        for (index in 0 until sources.size()) {
+            val source = sources[index]
+            if (source != id) {
+                checkNotNull(outbound[source]).remove(id)
+                views[source] = null
+            }
+        }
+        val targets = checkNotNull(outbound[id])
+        for (index in 0 until targets.size()) {
+            val target = targets[index]
+            if (target != id) {
+                checkNotNull(inbound[target]).remove(id)
+            }
+        }
+        reactions[id] = null
+        outbound[id] = null
+        inbound[id] = null
+        views[id] = null
+        freeIds.add(id)
+        return true
+    }
+
+    override fun addEdge(source: Actionable<T>, target: Actionable<T>) {
+        val sourceId = idOf(source)
+        val targetId = idOf(target)
+        val targets = checkNotNull(outbound[sourceId])
+        val sources = checkNotNull(inbound[targetId])
+        val exists = if (targets.size() <= sources.size()) targets.contains(targetId) else sources.contains(sourceId)
+        if (!exists) {
+            targets.add(targetId)
+            sources.add(sourceId)
+            views[sourceId] = null
+        }
+    }
+
+    override fun removeEdge(source: Actionable<T>, target: Actionable<T>) {
+        val sourceId = idOf(source)
+        val targetId = idOf(target)
+        if (checkNotNull(outbound[sourceId]).remove(targetId)) {
+            checkNotNull(inbound[targetId]).remove(sourceId)
+            views[sourceId] = null
+        }
+    }
+
+    override fun dependentsOf(reaction: Actionable<T>): ListSet<Actionable<T>>? {
+        val id = ids[reaction]
+        if (id < 0) {
+            return null
+        }
+        return views[id] ?: checkNotNull(outbound[id]).let { targets ->
+            val dependents = ArrayListSet<Actionable<T>>(targets.size())
+            for (index in 0 until targets.size()) {
+                dependents.add(checkNotNull(reactions[targets[index]]))
+            }
+            ListSets.unmodifiableListSet(dependents).also { views[id] = it }
+        }
+    }
+
+    private fun writeObject(output: ObjectOutputStream) {
+        output.defaultWriteObject()
+        output.writeInt(size)
+        for (id in 0 until size) {
+            output.writeObject(reactions[id])
+            outbound[id]?.let { targets ->
+                output.writeInt(targets.size())
+                for (index in 0 until targets.size()) {
+                    output.writeInt(targets[index])
+                }
+            }
+        }
+        output.writeInt(freeIds.size())
+        for (index in 0 until freeIds.size()) {
+            output.writeInt(freeIds[index])
+        }
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun readObject(input: ObjectInputStream) {
+        input.defaultReadObject()
+        size = input.readInt()
+        val capacity = maxOf(INITIAL_CAPACITY, size)
+        ids = newIds()
+        reactions = arrayOfNulls(capacity)
+        outbound = arrayOfNulls(capacity)
+        inbound = arrayOfNulls(capacity)
+        views = arrayOfNulls(capacity)
+        for (id in 0 until size) {
+            val reaction = input.readObject() as Actionable<T>?
+            if (reaction != null) {
+                ids.put(reaction, id)
+                reactions[id] = reaction
+                val degree = input.readInt()
+                outbound[id] = TIntArrayList(maxOf(INITIAL_DEGREE, degree)).apply {
+                    repeat(degree) { add(input.readInt()) }
+                }
+                inbound[id] = TIntArrayList(INITIAL_DEGREE)
+            }
+        }
+        for (id in 0 until size) {
+            outbound[id]?.let { targets ->
+                for (index in 0 until targets.size()) {
+                    checkNotNull(inbound[targets[index]]).add(id)
+                }
+            }
+        }
+        val freeCount = input.readInt()
+        freeIds = TIntArrayList(freeCount)
+        repeat(freeCount) { freeIds.add(input.readInt()) }
+    }
+
+    private fun idOf(reaction: Actionable<T>): Int = ids[reaction].also {
+        check(it >= 0) { "$reaction is not in the dependency graph" }
+    }
+
+    override fun toString() = (0 until size)
+        .mapNotNull { id -> reactions[id]?.let { "$it=${dependentsOf(it)}" } }
+        .joinToString(prefix = "{", postfix = "}")
+
+    private companion object {
+        private const val serialVersionUID = 2L
+        private const val INITIAL_CAPACITY = 16
+        private const val INITIAL_DEGREE = 4
+
+        private fun <T> newIds() =
+            TObjectIntHashMap<Actionable<T>>(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1)
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core
+
+import it.unibo.alchemist.model.Actionable
+import it.unibo.alchemist.model.Dependency
+
+/**
+ * An inverted index from [Dependency] to the reactions declaring it,
+ * either as inbound (readers) or as outbound (writers) dependency.
+ *
+ * Dependencies relying on the default, equality-based [Dependency.dependsOn] and [Dependency.makesDependent]
+ * are hashed: querying them costs work proportional to the matching reactions.
+ * Reactions declaring any other dependency (e.g., [Dependency.EVERYTHING], [Dependency.EVERY_MOLECULE],
+ * or pattern-matching molecules) are kept aside and always checked explicitly,
+ * as are all the reactions when the query itself contains such a dependency.
+ *
+ * Reactions are visited in the order they were added. A reaction may be visited more than once per query.
+ *
+ * @param <T> concentration type
+ */
+internal class DependencyIndex<T> private constructor(private val indexesReaders: Boolean) {
+    private val reactions = LinkedHashMap<Actionable<T>, List<Dependency>>()
+    private val byKey = HashMap<Dependency, LinkedHashSet<Actionable<T>>>()
+    private val unhashed = LinkedHashSet<Actionable<T>>()
+
+    /**
+     * True if no reaction is indexed.
+     */
+    val isEmpty: Boolean get() = reactions.isEmpty()
+
+    /**
+     * All the indexed reactions, in the order they were added.
+     */
+    val all: Set<Actionable<T>> get() = reactions.keys
+
+    /**
+     * Indexes [reaction]. Adding an indexed reaction has no effect.
+     */
+    fun add(reaction: Actionable<T>) {
+        if (!reactions.containsKey(reaction)) {
+            val dependencies = reaction.indexedDependencies.toList()
+            reactions[reaction] = dependencies
+            dependencies.forEach { dependency ->
+                if (dependency.isHashable) {
+                    byKey.getOrPut(dependency) { LinkedHashSet() }.add(reaction)
+                } else {
+                    unhashed.add(reaction)
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes [reaction] from the index, returning false if it was not indexed.
+     */
+    fun remove(reaction: Actionable<T>): Boolean {
+        val dependencies = reactions.remove(reaction) ?: return false
+        dependencies.forEach { dependency ->
+            if (dependency.isHashable) {
+                byKey[dependency]?.let { bucket ->
+                    bucket.remove(reaction)
+                    if (bucket.isEmpty()) {
+                        byKey.remove(dependency)
+                    }
+                }
+            } else {
+                unhashed.remove(reaction)
+            }
+        }
+        return true
+    }
+
+    /**
+     * Runs [action] on the indexed reactions related to [reaction]:
+     * if this index stores readers, those depending on [reaction];
+     * if it stores writers, those [reaction] depends on.
+     */
+    fun forEachRelatedTo(reaction: Actionable<T>, action: (Actionable<T>) -> Unit) {
+        val query = if (indexesReaders) reaction.outboundDependencies else reaction.inboundDependencies
+        if (query.all { it.isHashable }) {
+            query.forEach { dependency -> byKey[dependency]?.forEach(action) }
+            unhashed.forEach { if (it.isRelatedTo(query)) action(it) }
+        } else {
+            reactions.keys.forEach { if (it.isRelatedTo(query)) action(it) }
+        }
+    }
+
+    private val Actionable<T>.indexedDependencies: Collection<Dependency> get() =
+        if (indexesReaders) inboundDependencies else outboundDependencies
+
+    private fun Actionable<T>.isRelatedTo(query: Collection<Dependency>): Boolean =
+        checkNotNull(reactions[this]).any { indexed ->
+            query.any { queried ->
+                if (indexesReaders) {
+                    indexed.dependsOn(queried) || queried.makesDependent(indexed)
+                } else {
+                    queried.dependsOn(indexed) || indexed.makesDependent(queried)
+                }
+            }
+        }
+
+    companion object {
+        private val hashable = object : ClassValue<Boolean>() {
+            override fun computeValue(type: Class<*>): Boolean = listOf("dependsOn", "makesDependent").all {
+                type.getMethod(it, Dependency::class.java).declaringClass == Dependency::class.java
+            }
+        }
+
+        private val Dependency.isHashable: Boolean get() = hashable.get(javaClass)
+
+        /**
+         * An index of reactions by their inbound dependencies.
+         */
+        fun <T> readers() = DependencyIndex<T>(indexesReaders = true)
+
+        /**
+         * An index of reactions by their outbound dependencies.
+         */
+        fun <T> writers() = DependencyIndex<T>(indexesReaders = false)
+    }
+}
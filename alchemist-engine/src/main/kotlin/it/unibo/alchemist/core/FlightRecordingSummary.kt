@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core
+
+import jdk.jfr.consumer.RecordedEvent
+import jdk.jfr.consumer.RecordingFile
+import java.io.PrintStream
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.time.Duration
+
+/**
+ * Summarizes a Java Flight Recorder recording of a simulation,
+ * ranking the reaction types by the time spent executing and updating them.
+ * The [main] function prints the summary of the recording passed as first argument,
+ * listing as many reaction types as the optional second argument (10 by default).
+ * Recordings can be obtained, e.g., by running with `-XX:StartFlightRecording=filename=simulation.jfr`.
+ */
+object FlightRecordingSummary {
+
+    private const val DEFAULT_TOP = 10
+    private const val NANOS_PER_MILLI = 1e6
+    private const val NEIGHBORHOOD_UPDATE = "it.unibo.alchemist.NeighborhoodUpdate"
+    private const val HEADER = "%12s %12s %12s %12s %10s  %s"
+    private const val ROW = "%12.3f %12d %12.3f %12.3f %10.2f  %s"
+
+    /**
+     * The cost of the reactions of a [type]: the number of [executions] and their [executionTime],
+     * and the number of [updates] (each including the update of the dependent reactions) and their [updateTime].
+     * [dependencies] is the total number of dependent reactions updated.
+     */
+    data class ReactionCost(
+        val type: String,
+        val executions: Long = 0,
+        val executionTime: Duration = Duration.ZERO,
+        val updates: Long = 0,
+        val updateTime: Duration = Duration.ZERO,
+        val dependencies: Long = 0,
+    ) {
+        /**
+         * The overall time spent on reactions of this type.
+         */
+        val totalTime: Duration get() = executionTime + updateTime
+
+        /**
+         * The mean number of dependent reactions updated after an execution.
+         */
+        val meanFanOut: Double get() = if (updates == 0L) 0.0 else dependencies.toDouble() / updates
+    }
+
+    /**
+     * The number of events of some kind, and the overall time they took.
+     */
+    data class Cost(val count: Long = 0, val time: Duration = Duration.ZERO) {
+        internal operator fun plus(event: RecordedEvent) = Cost(count + 1, time + event.duration)
+    }
+
+    /**
+     * The summary of a recording.
+     *
+     * @property reactions the cost of each reaction type, most expensive first
+     * @property steps the simulation steps
+     * @property monitors the notifications to each output monitor type
+     * @property neighborhoodUpdates the recomputations of the neighborhoods
+     * @property dependencyCreations the computations of the dependencies of new reactions
+     */
+    data class Summary(
+        val reactions: List<ReactionCost>,
+        val steps: Cost,
+        val monitors: Map<String, Cost>,
+        val neighborhoodUpdates: Cost,
+        val dependencyCreations: Cost,
+    ) {
+        /**
+         * Prints the summary on [output], listing the [top] most expensive reaction types.
+         */
+        fun print(output: PrintStream, top: Int = DEFAULT_TOP) = with(output) {
+            println("Steps: ${steps.describe()}")
+            println("Neighborhood updates: ${neighborhoodUpdates.describe()}")
+            println("Dependency creations: ${dependencyCreations.describe()}")
+            monitors.forEach { (type, cost) -> println("Output monitor $type: ${cost.describe()}") }
+            println("Top ${minOf(top, reactions.size)} of ${reactions.size} reaction types by cost:")
+            println(HEADER.format("total ms", "executions", "exec ms", "update ms", "fan-out", "type"))
+            reactions.take(top).forEach {
+                println(
+                    ROW.format(
+                        it.totalTime.millis,
+                        it.executions,
+                        it.executionTime.millis,
+                        it.updateTime.millis,
+                        it.meanFanOut,
+                        it.type,
+                    ),
+                )
+            }
+        }
+
+        private fun Cost.describe() = "%d in %.3f ms".format(count, time.millis)
+    }
+
+    /**
+     * Reads and summarizes the [recording].
+     */
+    fun summarize(recording: Path): Summary {
+        val reactions = LinkedHashMap<String, ReactionCost>()
+        val monitors = LinkedHashMap<String, Cost>()
+        var steps = Cost()
+        var neighborhoodUpdates = Cost()
+        var dependencyCreations = Cost()
+        RecordingFile(recording).use { file ->
+            while (file.hasMoreEvents()) {
+                val event = file.readEvent()
+                when (event.eventType.name) {
+                    ReactionExecutionEvent.NAME -> reactions.update(event.type("reactionType")) {
+                        copy(executions = executions + 1, executionTime = executionTime + event.duration)
+                    }
+                    ReactionUpdateEvent.NAME -> reactions.update(event.type("reactionType")) {
+                        copy(
+                            updates = updates + 1,
+                            updateTime = updateTime + event.duration,
+                            dependencies = dependencies + event.getInt("dependencies"),
+                        )
+                    }
+                    OutputMonitorEvent.NAME -> event.type("monitorType").let {
+                        monitors[it] = monitors.getOrDefault(it, Cost()) + event
+                    }
+                    StepEvent.NAME -> steps += event
+                    NEIGHBORHOOD_UPDATE -> neighborhoodUpdates += event
+                    DependencyCreationEvent.NAME -> dependencyCreations += event
+                }
+            }
+        }
+        return Summary(
+            reactions.values.sortedByDescending { it.totalTime },
+            steps,
+            monitors,
+            neighborhoodUpdates,
+            dependencyCreations,
+        )
+    }
+
+    /**
+     * Prints the summary of the recording in `args[0]`, listing the `args[1]` most expensive reaction types.
+     */
+    @JvmStatic
+    fun main(args: Array<String>) {
+        require(args.size in 1..2) { "Usage: FlightRecordingSummary <recording.jfr> [number of reaction types]" }
+        val top = args.getOrNull(1)?.let { requireNotNull(it.toIntOrNull()) { "Not a number: $it" } } ?: DEFAULT_TOP
+        summarize(Paths.get(args[0])).print(System.out, top)
+    }
+
+    private fun RecordedEvent.type(field: String): String = getClass(field)?.name ?: "unknown"
+
+    private fun MutableMap<String, ReactionCost>.update(type: String, change: ReactionCost.() -> ReactionCost) {
+        this[type] = getOrElse(type) { ReactionCost(type) }.change()
+    }
+
+    private val Duration.millis: Double get() = toNanos() / NANOS_PER_MILLI
+}
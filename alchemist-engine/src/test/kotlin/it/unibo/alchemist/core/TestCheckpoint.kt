@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core
+
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.optional.shouldBeEmpty
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.shouldNotBe
+import it.unibo.alchemist.boundary.OutputMonitor
+import it.unibo.alchemist.model.Actionable
+import it.unibo.alchemist.model.Dependency
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.Time
+import it.unibo.alchemist.model.actions.BrownianMove
+import it.unibo.alchemist.model.biochemistry.BiochemistryIncarnation
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment
+import it.unibo.alchemist.model.linkingrules.ConnectWithinDistance
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import it.unibo.alchemist.model.reactions.Event
+import it.unibo.alchemist.model.timedistributions.ExponentialTime
+import org.apache.commons.math3.random.MersenneTwister
+import org.apache.commons.math3.random.RandomGenerator
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import kotlin.io.path.createTempFile
+import kotlin.io.path.deleteIfExists
+import kotlin.io.path.outputStream
+
+class TestCheckpoint : StringSpec(
+    {
+        /*
+         * Nodes exchange molecules with a random neighbor, or within themselves if local, and move randomly.
+         */
+        fun createEnvironment(local: Boolean = false): Environment<Double, Euclidean2DPosition> {
+            val random = MersenneTwister(1)
+            val incarnation = BiochemistryIncarnation()
+            val environment = Continuous2DEnvironment(incarnation)
+            environment.linkingRule = ConnectWithinDistance(1.5)
+            for (x in 0 until 5) {
+                for (y in 0 until 5) {
+                    val node = incarnation.createNode(random, environment, null)
+                    node.setConcentration(incarnation.createMolecule("a"), 100.0)
+                    listOf(if (local) "[a] --> [b]" else "[a] --> [b in neighbor]", "[b] --> [a]").forEach {
+                        node.addReaction(
+                            incarnation.createReaction(random, environment, node, ExponentialTime(1.0, random), it),
+                        )
+                    }
+                    node.addReaction(
+                        Event(node, ExponentialTime(0.1, random)).apply {
+                            actions = listOf(BrownianMove(environment, node, random, 0.5))
+                        },
+                    )
+                    environment.addNode(node, Euclidean2DPosition(x.toDouble(), y.toDouble()))
+                }
+            }
+            return environment
+        }
+        fun Environment<Double, Euclidean2DPosition>.state() = nodes.map { node ->
+            Triple(node.id, getPosition(node), node.contents.mapKeys { it.key.name })
+        }
+        /*
+         * Runs action between steps, once the target step is reached.
+         */
+        fun Simulation<Double, Euclidean2DPosition>.checkpointAt(target: Long, action: (Simulation<*, *>) -> Unit) =
+            addOutputMonitor(
+                object : OutputMonitor<Double, Euclidean2DPosition> {
+                    override fun observesEnvironment() = false
+
+                    override fun stepDone(
+                        environment: Environment<Double, Euclidean2DPosition>,
+                        reaction: Actionable<Double>?,
+                        time: Time,
+                        step: Long,
+                    ) {
+                        if (step == target - 1) {
+                            schedule { action(this@checkpointAt) }
+                        }
+                    }
+                },
+            )
+        "a restored simulation should continue exactly as the original one" {
+            val original = Engine(createEnvironment(), STEPS)
+            val checkpoint = ByteArrayOutputStream()
+            original.checkpointAt(STEPS / 2) { it.checkpoint(checkpoint) }
+            original.play()
+            original.run()
+            original.error.shouldBeEmpty()
+            val restored = Engine.restore<Double, Euclidean2DPosition>(ByteArrayInputStream(checkpoint.toByteArray()))
+            restored.step shouldBe STEPS / 2
+            restored.environment shouldNotBe original.environment
+            restored.play()
+            restored.run()
+            restored.error.shouldBeEmpty()
+            restored.step shouldBe original.step
+            restored.time shouldBe original.time
+            restored.environment.state() shouldBe original.environment.state()
+        }
+        "every scheduler should be restored as it was" {
+            listOf(
+                { ArrayIndexedPriorityQueue<Double>() },
+                { QuaternaryHeapScheduler() },
+                { CalendarQueueScheduler() },
+                { CohortScheduler() },
+            ).forEach { scheduler ->
+                val original = Engine(createEnvironment(), scheduler(), STEPS, Time.INFINITY)
+                val checkpoint = ByteArrayOutputStream()
+                original.checkpointAt(STEPS / 2) { it.checkpoint(checkpoint) }
+                original.play()
+                original.run()
+                original.error.shouldBeEmpty()
+                val restored = Engine.restore<Double, Euclidean2DPosition>(
+                    ByteArrayInputStream(checkpoint.toByteArray()),
+                )
+                restored.play()
+                restored.run()
+                restored.error.shouldBeEmpty()
+                restored.time shouldBe original.time
+                restored.environment.state() shouldBe original.environment.state()
+            }
+        }
+        "restored simulations should keep tracking the movement of nodes" {
+            /*
+             * Local reactions draw no random numbers while executing, so they can run in parallel,
+             * while movements can not
+             */
+            fun parallelEngine() =
+                Engine(createEnvironment(local = true), ArrayIndexedPriorityQueue(), STEPS, Time.INFINITY, 4, 0.1)
+            val original = parallelEngine()
+            val checkpoint = ByteArrayOutputStream()
+            original.checkpointAt(STEPS / 2) { it.checkpoint(checkpoint) }
+            original.play()
+            original.run()
+            original.error.shouldBeEmpty()
+            val restored = Engine.restore<Double, Euclidean2DPosition>(ByteArrayInputStream(checkpoint.toByteArray()))
+            restored.environment.nodes
+                .flatMap { it.reactions }
+                .flatMap { it.outboundDependencies }
+                .count { it === Dependency.MOVEMENT } shouldBe restored.environment.nodeCount
+            restored.play()
+            restored.run()
+            restored.error.shouldBeEmpty()
+            restored.step shouldBe original.step
+            restored.environment.state() shouldBe original.environment.state()
+            val sequential = Engine(createEnvironment(local = true), STEPS).apply {
+                play()
+                run()
+            }
+            sequential.environment.state() shouldBe original.environment.state()
+        }
+        "checkpoint files should be restorable" {
+            val original = Engine(createEnvironment(), STEPS)
+            val file = createTempFile("alchemist-checkpoint")
+            try {
+                original.checkpointAt(STEPS / 2) { simulation -> file.outputStream().use { simulation.checkpoint(it) } }
+                original.play()
+                original.run()
+                val restored = Engine.restore<Double, Euclidean2DPosition>(file)
+                restored.play()
+                restored.run()
+                restored.error.shouldBeEmpty()
+                restored.environment.state() shouldBe original.environment.state()
+            } finally {
+                file.deleteIfExists()
+            }
+        }
+        "forks restored with different seeds should diverge" {
+            val original = Engine(createEnvironment(), STEPS)
+            val checkpoint = ByteArrayOutputStream()
+            original.checkpointAt(STEPS / 2) { it.checkpoint(checkpoint) }
+            original.play()
+            original.run()
+            fun fork(seed: Long) = Engine.restore<Double, Euclidean2DPosition>(
+                ByteArrayInputStream(checkpoint.toByteArray()),
+            ) { restored ->
+                restored.also { if (it is RandomGenerator) it.setSeed(seed) }
+            }.apply {
+                play()
+                run()
+                error.shouldBeEmpty()
+            }
+            fork(2).environment.state() shouldBe fork(2).environment.state()
+            fork(2).environment.state() shouldNotBe fork(3).environment.state()
+        }
+    },
+) {
+    private companion object {
+        const val STEPS = 2000L
+    }
+}
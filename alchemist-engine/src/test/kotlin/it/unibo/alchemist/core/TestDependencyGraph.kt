@@ -72,27 +72,33 @@ class TestDependencyGraph : StringSpec(
                     node(0, 0) { reactions += id to configureNode() }
                     node(0.5, 0) { reactions += id to configureNode() }
                 }
+                val implementations: Map<String, (Environment<Double, *>) -> DependencyGraph<Double>> = mapOf(
+                    "JGraphT" to ::JGraphTDependencyGraph,
+                    "compact" to ::CompactDependencyGraph,
+                )
                 with(reactions) {
-                    with(JGraphTDependencyGraph(environment)) {
-                        asSequence().flatMap { it.value.asSequence() }.map { it.value }.forEach {
-                            createDependencies(it)
-                        }
-                        "local reactions on separate nodes should be isolated" {
-                            (0..1).forEach { id ->
-                                "[a]-->[b]".inNode(id).mustHaveOutBoundDependencies(
-                                    "[a]-->[c]".inNode(id),
-                                    "[b]-->[c]".inNode(id),
-                                )
-                                "[a]-->[c]".inNode(id).mustHaveOutBoundDependencies(
-                                    "[a]-->[b]".inNode(id),
-                                    "[c]-->[b]".inNode(id),
-                                )
-                                "[b]-->[c]".inNode(id).mustHaveOutBoundDependencies(
-                                    "[c]-->[b]".inNode(id),
-                                )
-                                "[c]-->[b]".inNode(id).mustHaveOutBoundDependencies(
-                                    "[b]-->[c]".inNode(id),
-                                )
+                    implementations.forEach { (name, implementation) ->
+                        with(implementation(environment)) {
+                            asSequence().flatMap { it.value.asSequence() }.map { it.value }.forEach {
+                                createDependencies(it)
+                            }
+                            "$name: local reactions on separate nodes should be isolated" {
+                                (0..1).forEach { id ->
+                                    "[a]-->[b]".inNode(id).mustHaveOutBoundDependencies(
+                                        "[a]-->[c]".inNode(id),
+                                        "[b]-->[c]".inNode(id),
+                                    )
+                                    "[a]-->[c]".inNode(id).mustHaveOutBoundDependencies(
+                                        "[a]-->[b]".inNode(id),
+                                        "[c]-->[b]".inNode(id),
+                                    )
+                                    "[b]-->[c]".inNode(id).mustHaveOutBoundDependencies(
+                                        "[c]-->[b]".inNode(id),
+                                    )
+                                    "[c]-->[b]".inNode(id).mustHaveOutBoundDependencies(
+                                        "[b]-->[c]".inNode(id),
+                                    )
+                                }
                             }
                         }
                     }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+
+package it.unibo.alchemist.core
+
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.collections.shouldContain
+import io.kotest.matchers.longs.shouldBeGreaterThan
+import io.kotest.matchers.optional.shouldBeEmpty
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldContain
+import io.kotest.matchers.string.shouldStartWith
+import it.unibo.alchemist.boundary.OutputMonitor
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.actions.BrownianMove
+import it.unibo.alchemist.model.biochemistry.BiochemistryIncarnation
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment
+import it.unibo.alchemist.model.linkingrules.ConnectWithinDistance
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import it.unibo.alchemist.model.reactions.Event
+import it.unibo.alchemist.model.timedistributions.ExponentialTime
+import jdk.jfr.Recording
+import org.apache.commons.math3.random.MersenneTwister
+import java.io.ByteArrayOutputStream
+import java.io.PrintStream
+import java.time.Duration
+import kotlin.io.path.createTempFile
+import kotlin.io.path.deleteIfExists
+
+class TestFlightRecording : StringSpec(
+    {
+        fun createEnvironment(): Environment<Double, Euclidean2DPosition> {
+            val random = MersenneTwister(1)
+            val incarnation = BiochemistryIncarnation()
+            val environment = Continuous2DEnvironment(incarnation)
+            environment.linkingRule = ConnectWithinDistance(1.5)
+            for (x in 0 until 5) {
+                for (y in 0 until 5) {
+                    val node = incarnation.createNode(random, environment, null)
+                    node.setConcentration(incarnation.createMolecule("a"), 100.0)
+                    node.addReaction(
+                        incarnation.createReaction(
+                            random,
+                            environment,
+                            node,
+                            ExponentialTime(1.0, random),
+                            "[a] --> [a in neighbor]",
+                        ),
+                    )
+                    node.addReaction(
+                        Event(node, ExponentialTime(0.1, random)).apply {
+                            actions = listOf(BrownianMove(environment, node, random, 0.5))
+                        },
+                    )
+                    environment.addNode(node, Euclidean2DPosition(x.toDouble(), y.toDouble()))
+                }
+            }
+            return environment
+        }
+        "recorded simulations should be summarized by reaction type" {
+            val file = createTempFile("alchemist-recording", ".jfr")
+            val monitor = object : OutputMonitor<Double, Euclidean2DPosition> { }
+            try {
+                Recording().use { recording ->
+                    listOf(
+                        StepEvent.NAME,
+                        ReactionExecutionEvent.NAME,
+                        ReactionUpdateEvent.NAME,
+                        OutputMonitorEvent.NAME,
+                        DependencyCreationEvent.NAME,
+                        "it.unibo.alchemist.NeighborhoodUpdate",
+                    ).forEach { recording.enable(it).withoutStackTrace().withThreshold(Duration.ZERO) }
+                    recording.start()
+                    val simulation = Engine(createEnvironment(), STEPS)
+                    simulation.addOutputMonitor(monitor)
+                    simulation.play()
+                    simulation.run()
+                    simulation.error.shouldBeEmpty()
+                    recording.stop()
+                    recording.dump(file)
+                }
+                val summary = FlightRecordingSummary.summarize(file)
+                summary.steps.count shouldBe STEPS
+                summary.reactions.size shouldBe 2
+                summary.reactions.map { it.type } shouldContain Event::class.java.name
+                summary.reactions.sumOf { it.updates } shouldBe STEPS
+                summary.reactions.sumOf { it.dependencies } shouldBeGreaterThan 0
+                summary.monitors.keys shouldBe setOf(monitor::class.java.name)
+                summary.neighborhoodUpdates.count shouldBeGreaterThan NODES.toLong()
+                summary.dependencyCreations.count shouldBe 2L * NODES
+                val output = ByteArrayOutputStream()
+                PrintStream(output, true).use { summary.print(it) }
+                output.toString() shouldStartWith "Steps: $STEPS in"
+                output.toString() shouldContain Event::class.java.name
+            } finally {
+                file.deleteIfExists()
+            }
+        }
+    },
+) {
+    private companion object {
+        const val STEPS = 1000L
+        const val NODES = 25
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core
+
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.optional.shouldBeEmpty
+import io.kotest.matchers.shouldBe
+import it.unibo.alchemist.model.Context
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.Reaction
+import it.unibo.alchemist.model.Time
+import it.unibo.alchemist.model.actions.BrownianMove
+import it.unibo.alchemist.model.biochemistry.BiochemistryIncarnation
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment
+import it.unibo.alchemist.model.linkingrules.ConnectWithinDistance
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import it.unibo.alchemist.model.reactions.Event
+import it.unibo.alchemist.model.timedistributions.ExponentialTime
+import org.apache.commons.math3.random.MersenneTwister
+import kotlin.random.Random
+
+class TestIncrementalDependencies : StringSpec(
+    {
+        val implementations: Map<String, (Environment<Double, *>) -> DependencyGraph<Double>> = mapOf(
+            "JGraphT" to ::JGraphTDependencyGraph,
+            "compact" to ::CompactDependencyGraph,
+        )
+        implementations.forEach { (name, implementation) ->
+            "$name: edges should link exactly the reactions writing what others read" {
+                val random = MersenneTwister(1)
+                val incarnation = BiochemistryIncarnation()
+                val environment = Continuous2DEnvironment(incarnation)
+                environment.linkingRule = ConnectWithinDistance(1.0)
+                val descriptors = listOf(
+                    "[a] --> [b]",
+                    "[b] --> [a in neighbor]",
+                    "[a in neighbor] --> [c]",
+                    "[c] --> [a]",
+                )
+                for (x in 0 until 5) {
+                    for (y in 0 until 5) {
+                        val node = incarnation.createNode(random, environment, null)
+                        descriptors.shuffled(Random(random.nextLong())).take(2).forEach {
+                            node.addReaction(
+                                incarnation.createReaction(random, environment, node, ExponentialTime(1.0, random), it),
+                            )
+                        }
+                        environment.addNode(node, Euclidean2DPosition(x.toDouble(), y.toDouble()))
+                    }
+                }
+                val reactions = environment.nodes.flatMap { it.reactions }
+                val graph = implementation(environment).apply { reactions.forEach { createDependencies(it) } }
+                fun Reaction<Double>.dependsOn(writer: Reaction<Double>) = inboundDependencies.any { inbound ->
+                    writer.outboundDependencies.any { inbound.dependsOn(it) || it.makesDependent(inbound) }
+                }
+                fun Reaction<Double>.reads() = environment.getNeighborhood(node).neighbors
+                    .takeIf { inputContext == Context.NEIGHBORHOOD }.orEmpty() + node
+                fun Reaction<Double>.writes() = environment.getNeighborhood(node).neighbors
+                    .takeIf { outputContext == Context.NEIGHBORHOOD }.orEmpty() + node
+                reactions.forEach { writer ->
+                    val expected = reactions.filter { reader ->
+                        reader != writer && reader.dependsOn(writer) && reader.reads().any { it in writer.writes() }
+                    }
+                    graph.outboundDependencies(writer).toSet() shouldBe expected.toSet()
+                }
+            }
+            "$name: edges updated while nodes move should match those of a graph built from scratch" {
+                val random = MersenneTwister(1)
+                val incarnation = BiochemistryIncarnation()
+                val environment = Continuous2DEnvironment(incarnation)
+                environment.linkingRule = ConnectWithinDistance(1.5)
+                for (x in 0 until 6) {
+                    for (y in 0 until 6) {
+                        val node = incarnation.createNode(random, environment, null)
+                        node.setConcentration(incarnation.createMolecule("a"), 100.0)
+                        listOf("[a] --> [b in neighbor]", "[b in neighbor] --> [a]", "[b] --> [c]").forEach {
+                            node.addReaction(
+                                incarnation.createReaction(random, environment, node, ExponentialTime(1.0, random), it),
+                            )
+                        }
+                        node.addReaction(
+                            Event(node, ExponentialTime(1.0, random)).apply {
+                                actions = listOf(BrownianMove(environment, node, random, 1.0))
+                            },
+                        )
+                        environment.addNode(node, Euclidean2DPosition(x.toDouble(), y.toDouble()))
+                    }
+                }
+                val graph = implementation(environment)
+                val engine = Engine(environment, graph, ArrayIndexedPriorityQueue(), 5000, Time.INFINITY)
+                engine.play()
+                engine.run()
+                engine.error.shouldBeEmpty()
+                val reactions = environment.nodes.flatMap { it.reactions }
+                val fromScratch = implementation(environment).apply { reactions.forEach { createDependencies(it) } }
+                reactions.forEach {
+                    graph.outboundDependencies(it).toSet() shouldBe fromScratch.outboundDependencies(it).toSet()
+                }
+            }
+        }
+    },
+)
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core
+
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.collections.shouldHaveSize
+import io.kotest.matchers.ints.shouldBeLessThan
+import io.kotest.matchers.longs.shouldBeGreaterThan
+import io.kotest.matchers.optional.shouldBeEmpty
+import io.kotest.matchers.shouldBe
+import it.unibo.alchemist.boundary.OutputMonitor
+import it.unibo.alchemist.boundary.SamplingPolicy
+import it.unibo.alchemist.model.Actionable
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.Reaction
+import it.unibo.alchemist.model.Time
+import it.unibo.alchemist.model.TimeDistribution
+import it.unibo.alchemist.model.biochemistry.BiochemistryIncarnation
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment
+import it.unibo.alchemist.model.linkingrules.ConnectWithinDistance
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import it.unibo.alchemist.model.timedistributions.DiracComb
+import it.unibo.alchemist.model.timedistributions.ExponentialTime
+import it.unibo.alchemist.model.times.DoubleTime
+import org.apache.commons.math3.random.MersenneTwister
+import java.lang.reflect.Proxy
+
+class TestParallelEngine : StringSpec(
+    {
+        val steps = 10_000L
+        /*
+         * Runs a grid of nodes with two local reactions each, recording the sequence of events and the final state.
+         * Samples of the environment are taken every time unit, if requested.
+         */
+        fun run(
+            parallelism: Int,
+            lookahead: Double,
+            synchronous: Boolean,
+            tileSize: Double = 0.0,
+            exponential: Boolean = false,
+            initialConcentration: Double = 1000.0,
+            reactions: List<String> = listOf("[a] --> [b]", "[b] --> [c]"),
+            scheduler: Scheduler<Double> = QuaternaryHeapScheduler(),
+            sampleEnvironment: Boolean = false,
+        ): Run {
+            val random = MersenneTwister(1)
+            val incarnation = BiochemistryIncarnation()
+            val environment = Continuous2DEnvironment(incarnation)
+            environment.linkingRule = ConnectWithinDistance(1.5)
+            for (x in 0 until 10) {
+                for (y in 0 until 10) {
+                    val node = incarnation.createNode(random, environment, null)
+                    node.setConcentration(incarnation.createMolecule("a"), initialConcentration)
+                    reactions.forEach {
+                        val timeDistribution: TimeDistribution<Double> = when {
+                            exponential -> ExponentialTime<Double>(1.0, random)
+                            synchronous -> DiracComb(Time.ZERO, 1.0 + random.nextInt(2))
+                            else -> DiracComb(DoubleTime(random.nextDouble()), 1.0 + random.nextInt(2))
+                        }
+                        node.addReaction(incarnation.createReaction(random, environment, node, timeDistribution, it))
+                    }
+                    environment.addNode(node, Euclidean2DPosition(x.toDouble(), y.toDouble()))
+                }
+            }
+            val events = mutableListOf<String>()
+            val samples = mutableListOf<String>()
+            val engine = Engine(environment, scheduler, steps, Time.INFINITY, parallelism, lookahead, tileSize)
+            engine.addOutputMonitor(
+                object : OutputMonitor<Double, Euclidean2DPosition> {
+                    override fun observesEnvironment() = false
+
+                    override fun stepDone(
+                        environment: Environment<Double, Euclidean2DPosition>,
+                        reaction: Actionable<Double>?,
+                        time: Time,
+                        step: Long,
+                    ) {
+                        val node = (reaction as Reaction<Double>).node
+                        events += "$step@$time: ${node.id}/${node.reactions.indexOf(reaction)}"
+                    }
+                },
+            )
+            if (sampleEnvironment) {
+                val b = incarnation.createMolecule("b")
+                engine.addOutputMonitor(
+                    object : OutputMonitor<Double, Euclidean2DPosition> {
+                        override fun getSamplingPolicy() = SamplingPolicy.everyTime(1.0)
+
+                        override fun stepDone(
+                            environment: Environment<Double, Euclidean2DPosition>,
+                            reaction: Actionable<Double>?,
+                            time: Time,
+                            step: Long,
+                        ) {
+                            samples += "$step@$time: ${environment.nodes.sumOf { it.getConcentration(b) }}"
+                        }
+                    },
+                )
+            }
+            engine.play()
+            engine.run()
+            engine.error.shouldBeEmpty()
+            return Run(events, environment.nodes.map { "${it.id}: ${it.contents}" }, samples, engine.parallelExecutions)
+        }
+        "the parallel engine should reproduce the sequential trajectory of synchronous reactions" {
+            val (sequentialEvents, sequentialState) = run(parallelism = 1, lookahead = 0.0, synchronous = true)
+            val (parallelEvents, parallelState, _, parallelExecutions) =
+                run(parallelism = 4, lookahead = 0.0, synchronous = true)
+            sequentialEvents shouldHaveSize steps.toInt()
+            parallelEvents shouldBe sequentialEvents
+            parallelState shouldBe sequentialState
+            parallelExecutions shouldBeGreaterThan 0L
+        }
+        "the parallel engine should reproduce the sequential trajectory within the lookahead window" {
+            val (sequentialEvents, sequentialState) = run(parallelism = 1, lookahead = 0.0, synchronous = false)
+            val (parallelEvents, parallelState, _, parallelExecutions) =
+                run(parallelism = 4, lookahead = 0.4, synchronous = false)
+            sequentialEvents shouldHaveSize steps.toInt()
+            parallelEvents shouldBe sequentialEvents
+            parallelState shouldBe sequentialState
+            parallelExecutions shouldBeGreaterThan 0L
+        }
+        "the partitioned engine should reproduce the sequential trajectory" {
+            val (sequentialEvents, sequentialState) = run(parallelism = 1, lookahead = 0.0, synchronous = false)
+            val (parallelEvents, parallelState, _, parallelExecutions) =
+                run(parallelism = 4, lookahead = 0.4, synchronous = false, tileSize = 4.0)
+            sequentialEvents shouldHaveSize steps.toInt()
+            parallelEvents shouldBe sequentialEvents
+            parallelState shouldBe sequentialState
+            parallelExecutions shouldBeGreaterThan 0L
+        }
+        "the parallel engine should reproduce the sequential trajectory of chained exponential reactions" {
+            /*
+             * Committing a reaction reschedules the other reaction of its node, and often the reaction itself,
+             * within the lookahead window. The molecules run out before the final step.
+             */
+            fun runExponential(parallelism: Int, lookahead: Double) =
+                run(parallelism, lookahead, synchronous = false, exponential = true, initialConcentration = 20.0)
+            val (sequentialEvents, sequentialState) = runExponential(parallelism = 1, lookahead = 0.0)
+            val (parallelEvents, parallelState, _, parallelExecutions) =
+                runExponential(parallelism = 4, lookahead = 0.05)
+            sequentialEvents.size shouldBeLessThan steps.toInt()
+            parallelEvents.zip(sequentialEvents).forEach { (parallel, sequential) -> parallel shouldBe sequential }
+            parallelEvents shouldHaveSize sequentialEvents.size
+            parallelState shouldBe sequentialState
+            parallelExecutions shouldBeGreaterThan 0L
+        }
+        "reactions that are not parallelizable should be executed in order on the simulation thread" {
+            /*
+             * The last reaction moves c to a neighbor picked with the shared random generator.
+             */
+            val reactions = listOf("[a] --> [b]", "[b] --> [c]", "[c] --> [c in neighbor]")
+            val (sequentialEvents, sequentialState) =
+                run(parallelism = 1, lookahead = 0.0, synchronous = false, reactions = reactions)
+            val (parallelEvents, parallelState, _, parallelExecutions) =
+                run(parallelism = 4, lookahead = 0.4, synchronous = false, reactions = reactions)
+            parallelEvents shouldBe sequentialEvents
+            parallelState shouldBe sequentialState
+            parallelExecutions shouldBeGreaterThan 0L
+        }
+        "monitors observing the environment should observe the sequential states" {
+            val sequential = run(parallelism = 1, lookahead = 0.0, synchronous = false, sampleEnvironment = true)
+            val parallel = run(parallelism = 4, lookahead = 0.4, synchronous = false, sampleEnvironment = true)
+            parallel.samples shouldBe sequential.samples
+            parallel.events shouldBe sequential.events
+            parallel.parallelExecutions shouldBeGreaterThan 0L
+        }
+        "the indexed priority queue should predict its upcoming reactions" {
+            val sequential =
+                run(parallelism = 1, lookahead = 0.0, synchronous = false, scheduler = ArrayIndexedPriorityQueue())
+            val parallel =
+                run(parallelism = 4, lookahead = 0.4, synchronous = false, scheduler = ArrayIndexedPriorityQueue())
+            parallel.events shouldBe sequential.events
+            parallel.state shouldBe sequential.state
+            parallel.parallelExecutions shouldBeGreaterThan 0L
+        }
+        "only bidimensional environments should be partitioned into tiles" {
+            @Suppress("UNCHECKED_CAST")
+            val environment = Proxy.newProxyInstance(
+                Environment::class.java.classLoader,
+                arrayOf(Environment::class.java),
+            ) { _, method, _ ->
+                check(method.name == "getDimensions") { "Unexpected call to ${method.name}" }
+                3
+            } as Environment<Double, Euclidean2DPosition>
+            shouldThrow<IllegalArgumentException> {
+                Engine(environment, QuaternaryHeapScheduler(), steps, Time.INFINITY, 4, 0.4, 4.0)
+            }
+        }
+    },
+)
+
+private data class Run(
+    val events: List<String>,
+    val state: List<String>,
+    val samples: List<String>,
+    val parallelExecutions: Long,
+)
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core
+
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.doubles.shouldBeGreaterThan
+import io.kotest.matchers.doubles.shouldBeLessThanOrEqual
+import io.kotest.matchers.optional.shouldBeEmpty
+import io.kotest.matchers.shouldBe
+import it.unibo.alchemist.boundary.OutputMonitor
+import it.unibo.alchemist.boundary.SamplingPolicy
+import it.unibo.alchemist.model.Actionable
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.Time
+import it.unibo.alchemist.model.biochemistry.BiochemistryIncarnation
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import it.unibo.alchemist.model.reactions.Event
+import it.unibo.alchemist.model.times.DoubleTime
+import it.unibo.alchemist.model.timedistributions.DiracComb
+import org.apache.commons.math3.random.MersenneTwister
+
+class TestSamplingPolicies : StringSpec(
+    {
+        class Recorder(private val policy: SamplingPolicy) : OutputMonitor<Double, Euclidean2DPosition> {
+            val steps = mutableListOf<Long>()
+
+            override fun getSamplingPolicy() = policy
+
+            override fun stepDone(
+                environment: Environment<Double, Euclidean2DPosition>,
+                reaction: Actionable<Double>?,
+                time: Time,
+                step: Long,
+            ) {
+                steps += step
+            }
+        }
+        fun run(vararg monitors: OutputMonitor<Double, Euclidean2DPosition>) {
+            val incarnation = BiochemistryIncarnation()
+            val environment = Continuous2DEnvironment(incarnation)
+            val node = incarnation.createNode(MersenneTwister(1), environment, null)
+            // Four events per time unit, the n-th step happens at time n / 4
+            node.addReaction(Event(node, DiracComb(Time.ZERO, 4.0)))
+            environment.addNode(node, Euclidean2DPosition(0.0, 0.0))
+            val engine = Engine(environment, STEPS, Time.INFINITY)
+            monitors.forEach(engine::addOutputMonitor)
+            engine.play()
+            engine.run()
+            engine.error.shouldBeEmpty()
+        }
+        "monitors should be notified of every step by default" {
+            val recorder = Recorder(SamplingPolicy.everyStep())
+            run(recorder)
+            recorder.steps shouldBe (0 until STEPS).toList()
+        }
+        "monitors should be notified only of the sampled steps" {
+            val bySteps = Recorder(SamplingPolicy.everySteps(10))
+            val byTime = Recorder(SamplingPolicy.everyTime(1.0))
+            val byEither = Recorder(
+                SamplingPolicy.anyOf(listOf(SamplingPolicy.everySteps(10), SamplingPolicy.everyTime(1.0))),
+            )
+            run(bySteps, byTime, byEither)
+            bySteps.steps shouldBe (0 until STEPS step 10).toList()
+            byTime.steps shouldBe (0 until STEPS step 4).toList()
+            byEither.steps shouldBe (bySteps.steps + byTime.steps).distinct().sorted()
+        }
+        "monitors sampling specific reactions should be notified only of their execution" {
+            val matching = Recorder(SamplingPolicy.onReactions { it is Event<*> })
+            val notMatching = Recorder(SamplingPolicy.onReactions { it !is Event<*> })
+            run(matching, notMatching)
+            matching.steps shouldBe (0 until STEPS).toList()
+            notMatching.steps shouldBe emptyList()
+        }
+        "step and time samplers should expose their next trigger" {
+            val bySteps = SamplingPolicy.everySteps(10).newSampler()
+            bySteps.shouldSample(null, Time.ZERO, 0) shouldBe true
+            bySteps.nextStep() shouldBe 10L
+            bySteps.nextTime() shouldBe Double.POSITIVE_INFINITY
+            val byTime = SamplingPolicy.everyTime(1.0).newSampler()
+            byTime.shouldSample(null, DoubleTime(0.5), 0) shouldBe true
+            byTime.nextStep() shouldBe Long.MAX_VALUE
+            byTime.nextTime() shouldBeLessThanOrEqual 1.0
+            byTime.nextTime() shouldBeGreaterThan 0.5
+            val byEither = SamplingPolicy.anyOf(
+                listOf(SamplingPolicy.everySteps(10), SamplingPolicy.everyTime(1.0)),
+            ).newSampler()
+            byEither.shouldSample(null, DoubleTime(0.5), 0) shouldBe true
+            byEither.nextStep() shouldBe 10L
+            byEither.nextTime() shouldBe byTime.nextTime()
+        }
+        "samplers should not be consulted before their next trigger" {
+            var invocations = 0
+            val policy = object : SamplingPolicy() {
+                override fun newSampler() = object : SamplingPolicy.Sampler {
+                    private var next = Long.MIN_VALUE
+
+                    override fun shouldSample(reaction: Actionable<*>?, time: Time, step: Long): Boolean {
+                        invocations++
+                        next = step + 10
+                        return true
+                    }
+
+                    override fun nextStep() = next
+
+                    override fun nextTime() = Double.POSITIVE_INFINITY
+                }
+            }
+            val recorder = Recorder(policy)
+            run(recorder)
+            invocations shouldBe 10
+            recorder.steps shouldBe (0 until STEPS step 10).toList()
+        }
+    },
+) {
+    private companion object {
+        const val STEPS = 100L
+    }
+}
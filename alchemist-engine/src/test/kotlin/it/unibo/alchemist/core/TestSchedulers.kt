@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core
+
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import it.unibo.alchemist.model.Actionable
+import it.unibo.alchemist.model.Time
+import it.unibo.alchemist.model.biochemistry.BiochemistryIncarnation
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment
+import it.unibo.alchemist.model.nodes.GenericNode
+import it.unibo.alchemist.model.reactions.Event
+import it.unibo.alchemist.model.timedistributions.DiracComb
+import it.unibo.alchemist.model.timedistributions.ExponentialTime
+import it.unibo.alchemist.model.times.DoubleTime
+import org.apache.commons.math3.random.MersenneTwister
+
+class TestSchedulers : StringSpec(
+    {
+        val environment = Continuous2DEnvironment(BiochemistryIncarnation())
+        val node = GenericNode(environment)
+        fun checkOrderingOf(scheduler: Scheduler<Double>, breaksTiesByInsertion: Boolean = true) {
+            val random = MersenneTwister(1)
+            val insertionOrder = mutableMapOf<Actionable<Double>, Int>()
+            val scheduled = mutableListOf<Actionable<Double>>()
+            fun add() {
+                // Few distinct start times and rates, to stress ties
+                val start = DoubleTime(random.nextInt(10).toDouble())
+                val reaction = Event(node, DiracComb(start, 1.0 + random.nextInt(3)))
+                insertionOrder[reaction] = insertionOrder.size
+                scheduled += reaction
+                scheduler.addReaction(reaction)
+            }
+            repeat(100) { add() }
+            repeat(10_000) {
+                val choice = random.nextInt(10)
+                when {
+                    choice == 0 || scheduled.isEmpty() -> add()
+                    choice == 1 -> scheduler.removeReaction(scheduled.removeAt(random.nextInt(scheduled.size)))
+                    else -> {
+                        val expected = scheduled.minWith(
+                            compareBy<Actionable<Double>> { it.tau }.thenBy { insertionOrder.getValue(it) },
+                        )
+                        val next = checkNotNull(scheduler.getNext())
+                        if (breaksTiesByInsertion) {
+                            next shouldBeSameInstanceAs expected
+                        } else {
+                            next.tau shouldBe expected.tau
+                        }
+                        next.update(next.tau, true, environment)
+                        scheduler.updateReaction(next)
+                    }
+                }
+            }
+            scheduled.forEach { scheduler.removeReaction(it) }
+            scheduler.getNext() shouldBe null
+        }
+        "the indexed priority queue should pick reactions by time" {
+            checkOrderingOf(ArrayIndexedPriorityQueue(), breaksTiesByInsertion = false)
+        }
+        "the quaternary heap should pick reactions by time, breaking ties by insertion order" {
+            checkOrderingOf(QuaternaryHeapScheduler())
+        }
+        "the calendar queue should pick reactions by time, breaking ties by insertion order" {
+            checkOrderingOf(CalendarQueueScheduler())
+        }
+        "the cohort scheduler should pick reactions by time, breaking ties by insertion order" {
+            checkOrderingOf(CohortScheduler())
+        }
+        "all the schedulers should execute the same reactions in the same order" {
+            val random = MersenneTwister(1)
+            val reactions = List(200) {
+                // Shared start times and rates produce many ties, exponential reactions interleave with them
+                val timeDistribution = when (it % 4) {
+                    3 -> ExponentialTime(1.0, random)
+                    else -> DiracComb(DoubleTime(random.nextInt(5).toDouble()), 1.0 + it % 2)
+                }
+                Event(node, timeDistribution)
+            }
+            val schedulers = listOf<Scheduler<Double>>(
+                QuaternaryHeapScheduler(),
+                CalendarQueueScheduler(),
+                CohortScheduler(),
+            )
+            schedulers.forEach { scheduler -> reactions.forEach { scheduler.addReaction(it) } }
+            repeat(10_000) {
+                val next = checkNotNull(schedulers.first().next)
+                schedulers.forEach { it.next shouldBeSameInstanceAs next }
+                next.update(next.tau, true, environment)
+                schedulers.forEach { it.updateReaction(next) }
+            }
+        }
+        "without ties, the indexed priority queue should execute the same reactions as the other schedulers" {
+            val random = MersenneTwister(1)
+            val reactions = List(200) {
+                // Drawing the first putative time avoids ties at the start
+                Event(node, ExponentialTime(1.0 + it % 3, random)).apply { update(Time.ZERO, true, environment) }
+            }
+            val schedulers = listOf(
+                ArrayIndexedPriorityQueue<Double>(),
+                QuaternaryHeapScheduler(),
+                CalendarQueueScheduler(),
+                CohortScheduler(),
+            )
+            schedulers.forEach { scheduler -> reactions.forEach { scheduler.addReaction(it) } }
+            repeat(10_000) {
+                val next = checkNotNull(schedulers.first().next)
+                schedulers.forEach { it.next shouldBeSameInstanceAs next }
+                next.update(next.tau, true, environment)
+                schedulers.forEach { it.updateReaction(next) }
+            }
+        }
+        "the cohort scheduler should list the upcoming reactions in execution order" {
+            val scheduler = CohortScheduler<Double>()
+            val random = MersenneTwister(1)
+            val scheduled = List(300) {
+                // Interleaved cohorts sharing the start times, plus some reactions of their own
+                val timeDistribution = when (it % 3) {
+                    2 -> ExponentialTime(1.0, random)
+                    else -> DiracComb(DoubleTime(random.nextInt(5).toDouble()), 1.0 + it % 3)
+                }
+                Event(node, timeDistribution).also { scheduler.addReaction(it) }
+            }
+            repeat(50) {
+                scheduler.upcoming.asSequence().toList() shouldBe scheduled.sortedBy { it.tau }
+                repeat(100) {
+                    val next = checkNotNull(scheduler.next)
+                    next.update(next.tau, true, environment)
+                    scheduler.updateReaction(next)
+                }
+            }
+        }
+    },
+)
@@ -10,11 +10,19 @@
 package it.unibo.alchemist.model.environments
 
 import it.unibo.alchemist.model.Incarnation
+import it.unibo.alchemist.model.Node
 import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import org.danilopianini.util.FlexibleQuadTree
+import org.danilopianini.util.SpatialIndex
 
 /**
  * Implementation of [Euclidean2DEnvironment].
+ * Nodes are located through the provided [spatialIndex], a quadtree by default;
+ * dense and uniform deployments linked by a single range can rather use a
+ * [it.unibo.alchemist.util.CellListSpatialIndex] whose cell size is that range.
  */
-open class Continuous2DEnvironment<T>(incarnation: Incarnation<T, Euclidean2DPosition>) :
-    Euclidean2DEnvironment<T>,
-    Abstract2DEnvironment<T, Euclidean2DPosition>(incarnation)
+open class Continuous2DEnvironment<T> @JvmOverloads constructor(
+    incarnation: Incarnation<T, Euclidean2DPosition>,
+    spatialIndex: SpatialIndex<Node<T>> = FlexibleQuadTree(),
+) : Euclidean2DEnvironment<T>,
+    Abstract2DEnvironment<T, Euclidean2DPosition>(incarnation, spatialIndex)
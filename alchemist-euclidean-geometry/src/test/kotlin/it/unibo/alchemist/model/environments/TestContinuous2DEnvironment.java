@@ -9,20 +9,33 @@
 package it.unibo.alchemist.model.environments;
 
 import it.unibo.alchemist.model.SupportedIncarnations;
+import it.unibo.alchemist.model.linkingrules.ConnectWithinDistance;
 import it.unibo.alchemist.model.linkingrules.NoLinks;
 import it.unibo.alchemist.model.nodes.GenericNode;
 import it.unibo.alchemist.model.positions.Euclidean2DPosition;
 import it.unibo.alchemist.model.Environment;
 import it.unibo.alchemist.model.Incarnation;
+import it.unibo.alchemist.model.Neighborhood;
 import it.unibo.alchemist.model.Node;
+import it.unibo.alchemist.util.CellListSpatialIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -35,6 +48,10 @@ final class TestContinuous2DEnvironment {
     private static final double [] P2_3 = {2, 3};
     private static final double [] P2_2 = {2, 2};
     private static final double TOLERANCE = 1E-15;
+    private static final int GRID_SIDE = 10;
+    private static final double COMMUNICATION_RANGE = 1.5;
+    private static final int MOVES = 200;
+    private static final int FOREIGN_ID = 2000;
     private static final Incarnation<Integer, Euclidean2DPosition> INCARNATION =
         SupportedIncarnations.<Integer, Euclidean2DPosition>get("protelis").orElseThrow();
     private Continuous2DEnvironment<Integer> environment;
@@ -121,4 +138,249 @@ final class TestContinuous2DEnvironment {
         assertEquals(Collections.singletonList(dummy2), environment.getNodesWithinRange(dummy, Math.nextUp(0)));
     }
 
+    /**
+     * Test that bulk insertion links nodes as incremental insertion does.
+     */
+    @Test
+    void testBulkInsertion() {
+        final Continuous2DEnvironment<Integer> bulk = new Continuous2DEnvironment<>(INCARNATION);
+        environment.setLinkingRule(new ConnectWithinDistance<>(COMMUNICATION_RANGE));
+        bulk.setLinkingRule(new ConnectWithinDistance<>(COMMUNICATION_RANGE));
+        final List<Node<Integer>> incremental = new ArrayList<>();
+        final Map<Node<Integer>, Euclidean2DPosition> positions = new LinkedHashMap<>();
+        for (int x = 0; x < GRID_SIDE; x++) {
+            for (int y = 0; y < GRID_SIDE; y++) {
+                final Euclidean2DPosition position = new Euclidean2DPosition(x, y);
+                final Node<Integer> node = createIntNode(INCARNATION, environment);
+                environment.addNode(node, position);
+                incremental.add(node);
+                positions.put(createIntNode(INCARNATION, bulk), position);
+            }
+        }
+        final List<Node<Integer>> added = bulk.addNodes(positions);
+        assertEquals(new ArrayList<>(positions.keySet()), added);
+        assertEquals(environment.getNodeCount(), bulk.getNodeCount());
+        for (int i = 0; i < added.size(); i++) {
+            assertEquals(
+                neighborIndexes(environment, incremental, incremental.get(i)),
+                neighborIndexes(bulk, added, added.get(i))
+            );
+        }
+    }
+
+    /**
+     * Test that neighborhoods are computed in parallel only if both the linking rule and the queries allow it.
+     */
+    @Test
+    void testParallelNeighborhoodsAreOptIn() {
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        final Continuous2DEnvironment<Integer> cellList = new Continuous2DEnvironment<>(
+            INCARNATION,
+            new CellListSpatialIndex<>(COMMUNICATION_RANGE)
+        );
+        cellList.setLinkingRule(new ConnectWithinDistance<>(COMMUNICATION_RANGE) {
+            @Override
+            public Neighborhood<Integer> computeNeighborhood(
+                final Node<Integer> center,
+                final Environment<Integer, Euclidean2DPosition> environment
+            ) {
+                threads.add(Thread.currentThread());
+                return super.computeNeighborhood(center, environment);
+            }
+        });
+        assertTrue(cellList.supportsConcurrentQueries());
+        assertFalse(environment.supportsConcurrentQueries());
+        assertFalse(cellList.getLinkingRule().isThreadSafe());
+        assertTrue(new ConnectWithinDistance<Integer, Euclidean2DPosition>(COMMUNICATION_RANGE).isThreadSafe());
+        final Map<Node<Integer>, Euclidean2DPosition> positions = new LinkedHashMap<>();
+        for (int x = 0; x < GRID_SIDE; x++) {
+            for (int y = 0; y < GRID_SIDE; y++) {
+                positions.put(createIntNode(INCARNATION, cellList), new Euclidean2DPosition(x, y));
+            }
+        }
+        cellList.addNodes(positions);
+        assertEquals(Set.of(Thread.currentThread()), threads);
+    }
+
+    /**
+     * Test that nodes are found by id, including nodes whose id was generated elsewhere, also after removals.
+     */
+    @Test
+    void testNodeLookup() {
+        final Continuous2DEnvironment<Integer> other = new Continuous2DEnvironment<>(INCARNATION);
+        Node<Integer> foreign = null;
+        for (int i = 0; i < FOREIGN_ID; i++) {
+            foreign = createIntNode(INCARNATION, other);
+        }
+        environment.addNode(foreign, new Euclidean2DPosition(-1, -1));
+        final List<Node<Integer>> added = new ArrayList<>();
+        for (int i = 0; i < 2 * FOREIGN_ID; i++) {
+            final Node<Integer> node = createIntNode(INCARNATION, environment);
+            if (node.getId() != foreign.getId()) {
+                environment.addNode(node, new Euclidean2DPosition(added.size(), added.size()));
+                added.add(node);
+            }
+        }
+        for (int i = 0; i < added.size(); i += 2) {
+            environment.removeNode(added.get(i));
+        }
+        final Node<Integer> replacement = createIntNode(INCARNATION, environment);
+        environment.addNode(replacement, new Euclidean2DPosition(ZEROS));
+        assertEquals(foreign, environment.getNodeByID(foreign.getId()));
+        assertEquals(new Euclidean2DPosition(-1, -1), environment.getPosition(foreign));
+        assertEquals(replacement, environment.getNodeByID(replacement.getId()));
+        assertEquals(new Euclidean2DPosition(ZEROS), environment.getPosition(replacement));
+        for (int i = 0; i < added.size(); i++) {
+            final int id = added.get(i).getId();
+            if (i % 2 == 0) {
+                assertThrows(IllegalArgumentException.class, () -> environment.getNodeByID(id));
+            } else {
+                assertEquals(added.get(i), environment.getNodeByID(id));
+                assertEquals(new Euclidean2DPosition(i, i), environment.getPosition(added.get(i)));
+            }
+        }
+        assertEquals(added.size() / 2 + 2, environment.getNodeCount());
+    }
+
+    /**
+     * Test that moving many nodes at once links nodes as moving them one by one does.
+     */
+    @Test
+    void testBatchMovement() {
+        final Continuous2DEnvironment<Integer> batch = new Continuous2DEnvironment<>(INCARNATION);
+        environment.setLinkingRule(new ConnectWithinDistance<>(COMMUNICATION_RANGE));
+        batch.setLinkingRule(new ConnectWithinDistance<>(COMMUNICATION_RANGE));
+        final List<Node<Integer>> incremental = new ArrayList<>();
+        final List<Node<Integer>> batched = new ArrayList<>();
+        for (int x = 0; x < GRID_SIDE; x++) {
+            for (int y = 0; y < GRID_SIDE; y++) {
+                final Node<Integer> node = createIntNode(INCARNATION, environment);
+                environment.addNode(node, new Euclidean2DPosition(x, y));
+                incremental.add(node);
+                final Node<Integer> twin = createIntNode(INCARNATION, batch);
+                batch.addNode(twin, new Euclidean2DPosition(x, y));
+                batched.add(twin);
+            }
+        }
+        final Random random = new Random(1);
+        for (int step = 0; step < GRID_SIDE; step++) {
+            final Map<Node<Integer>, Euclidean2DPosition> destinations = new LinkedHashMap<>();
+            for (int i = 0; i < incremental.size(); i++) {
+                final Euclidean2DPosition destination = new Euclidean2DPosition(
+                    random.nextDouble() * GRID_SIDE,
+                    random.nextDouble() * GRID_SIDE
+                );
+                environment.moveNodeToPosition(incremental.get(i), destination);
+                destinations.put(batched.get(i), destination);
+            }
+            batch.moveNodes(destinations);
+            for (int i = 0; i < incremental.size(); i++) {
+                assertEquals(environment.getPosition(incremental.get(i)), batch.getPosition(batched.get(i)));
+                assertEquals(
+                    neighborIndexes(environment, incremental, incremental.get(i)),
+                    neighborIndexes(batch, batched, batched.get(i))
+                );
+            }
+        }
+    }
+
+    /**
+     * Test that range queries and neighborhoods stay correct while nodes move,
+     * as results are cached and selectively invalidated.
+     */
+    @Test
+    void testQueriesWhileMoving() {
+        environment.setLinkingRule(new ConnectWithinDistance<>(COMMUNICATION_RANGE));
+        final Random random = new Random(1);
+        for (int x = 0; x < GRID_SIDE; x++) {
+            for (int y = 0; y < GRID_SIDE; y++) {
+                environment.addNode(createIntNode(INCARNATION, environment), new Euclidean2DPosition(x, y));
+            }
+        }
+        final List<Euclidean2DPosition> centers = List.of(
+            new Euclidean2DPosition(2, 2),
+            new Euclidean2DPosition(5, 5),
+            new Euclidean2DPosition(7.5, 3.5)
+        );
+        for (int step = 0; step < MOVES; step++) {
+            final Node<Integer> moved = environment.getNodes().get(random.nextInt(environment.getNodeCount()));
+            environment.moveNodeToPosition(
+                moved,
+                new Euclidean2DPosition(random.nextDouble() * GRID_SIDE, random.nextDouble() * GRID_SIDE)
+            );
+            for (final Euclidean2DPosition center : centers) {
+                assertEquals(
+                    environment.getNodes().stream()
+                        .filter(node -> environment.getPosition(node).distanceTo(center) <= COMMUNICATION_RANGE)
+                        .collect(Collectors.toSet()),
+                    Set.copyOf(environment.getNodesWithinRange(center, COMMUNICATION_RANGE))
+                );
+            }
+            for (final Node<Integer> node : environment.getNodes()) {
+                assertEquals(
+                    environment.getNodes().stream()
+                        .filter(other -> other != node)
+                        .filter(other -> environment.getDistanceBetweenNodes(node, other) <= COMMUNICATION_RANGE)
+                        .collect(Collectors.toSet()),
+                    Set.copyOf(environment.getNeighborhood(node).getNeighbors())
+                );
+            }
+        }
+    }
+
+    /**
+     * Test that the k nearest nodes are the ones found by sorting all the nodes by distance.
+     */
+    @Test
+    void testKNearestNodes() {
+        checkKNearestNodes(environment);
+    }
+
+    /**
+     * Test that the search of the k nearest nodes in the cell list finds the same nodes.
+     */
+    @Test
+    void testKNearestNodesInCellList() {
+        checkKNearestNodes(
+            new Continuous2DEnvironment<>(INCARNATION, new CellListSpatialIndex<>(COMMUNICATION_RANGE))
+        );
+    }
+
+    private static void checkKNearestNodes(final Environment<Integer, Euclidean2DPosition> environment) {
+        final Random random = new Random(1);
+        for (int i = 0; i < GRID_SIDE * GRID_SIDE; i++) {
+            environment.addNode(
+                createIntNode(INCARNATION, environment),
+                new Euclidean2DPosition(random.nextDouble() * GRID_SIDE, random.nextDouble() * GRID_SIDE)
+            );
+        }
+        for (final int k : new int[] { 1, 5, 20, GRID_SIDE * GRID_SIDE }) {
+            for (final Node<Integer> center : environment.getNodes()) {
+                final List<Node<Integer>> expected = environment.getNodes().stream()
+                    .filter(node -> node != center && node.getId() % 2 == 0)
+                    .sorted(Comparator.comparingDouble(node -> environment.getDistanceBetweenNodes(center, node)))
+                    .limit(k)
+                    .collect(Collectors.toList());
+                assertEquals(
+                    expected,
+                    new ArrayList<>(environment.getKNearestNodes(center, k, node -> node.getId() % 2 == 0))
+                );
+                assertEquals(
+                    Math.min(k, environment.getNodeCount() - 1),
+                    environment.getKNearestNodes(center, k).size()
+                );
+            }
+        }
+    }
+
+    private static Set<Integer> neighborIndexes(
+        final Environment<Integer, Euclidean2DPosition> environment,
+        final List<Node<Integer>> nodes,
+        final Node<Integer> node
+    ) {
+        return environment.getNeighborhood(node).getNeighbors().stream()
+            .map(nodes::indexOf)
+            .collect(Collectors.toSet());
+    }
+
 }
@@ -30,6 +30,7 @@ object DistributedExecution : SimulationLauncher() {
             distributed == null -> Validation.Invalid("No configuration file for distributed execution")
             graphics != null -> Validation.OK(Priority.Fallback("Distributed execution will ignore graphical settings"))
             parallelism != AlchemistExecutionOptions.defaultParallelism -> incompatibleWith("custom parallelism")
+            sampler != null || halving != null -> incompatibleWith("adaptive designs of experiments")
             else -> Validation.OK()
         }
     }
@@ -39,7 +40,10 @@ object DistributedExecution : SimulationLauncher() {
             loader,
             DoubleTime(parameters.endTime),
         )
-        val simConfigs = loader.variables.cartesianProductOf(parameters.variables).map(::SimulationConfigImpl)
+        val simConfigs = loader.variables.cartesianProductOf(parameters.variables)
+            .shard(parameters.shard, parameters.shards)
+            .map(::SimulationConfigImpl)
+            .toList()
         val simulationSet = SimulationSetImpl(
             simulationConfig,
             simConfigs,
@@ -9,6 +9,10 @@
 
 import Libs.alchemist
 
+plugins {
+    alias(libs.plugins.jmh)
+}
+
 /*
  * Copyright (C) 2010-2019) Danilo Pianini and contributors listed in the main project"s alchemist/build.gradle file.
  *
@@ -36,6 +40,11 @@ dependencies {
     testImplementation(alchemist("incarnation-protelis"))
 }
 
+jmh {
+    includeTests.set(false)
+    resultFormat.set("JSON")
+}
+
 publishing.publications {
     withType<MavenPublication> {
         pom {
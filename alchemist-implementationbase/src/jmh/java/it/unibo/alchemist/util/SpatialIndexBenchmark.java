@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.util;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.danilopianini.util.FlexibleQuadTree;
+import org.danilopianini.util.SpatialIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleFunction;
+
+/**
+ * Compares the available {@link SpatialIndex} implementations on the workload of a dense environment
+ * with moving nodes: elements are spread uniformly with a constant density,
+ * they move by a fraction of the query range, and queries look for the neighbors of an element.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SpatialIndexBenchmark {
+
+    private static final int SEED = 1;
+    private static final double RANGE = 1.5;
+    private static final double MOVEMENT_RANGE = 0.5;
+    private static final double DENSITY = 1;
+
+    /**
+     * The spatial indexes under test.
+     */
+    public enum Implementation {
+        /**
+         * {@link FlexibleQuadTree}.
+         */
+        QUADTREE(range -> new FlexibleQuadTree<>()),
+        /**
+         * {@link CellListSpatialIndex}, with cells as large as the query range.
+         */
+        CELL_LIST(CellListSpatialIndex::new);
+
+        private final DoubleFunction<SpatialIndex<Integer>> factory;
+
+        Implementation(final DoubleFunction<SpatialIndex<Integer>> factory) {
+            this.factory = factory;
+        }
+
+        /**
+         * @param range the expected query range
+         * @return a new, empty index
+         */
+        public SpatialIndex<Integer> create(final double range) {
+            return factory.apply(range);
+        }
+    }
+
+    /**
+     * Spatial index implementation under test.
+     */
+    @Param({ "QUADTREE", "CELL_LIST" })
+    private Implementation implementation;
+
+    /**
+     * Number of indexed elements.
+     */
+    @Param({ "1000", "100000" })
+    private int elements;
+
+    private RandomGenerator randomGenerator;
+    private SpatialIndex<Integer> index;
+    private double side;
+    private double[][] positions;
+
+    /**
+     * Fills the index with uniformly distributed elements.
+     */
+    @Setup
+    public void setUp() {
+        randomGenerator = new MersenneTwister(SEED);
+        side = Math.sqrt(elements / DENSITY);
+        positions = new double[elements][];
+        index = fill(implementation.create(RANGE));
+    }
+
+    /**
+     * Builds a new index with all the elements.
+     *
+     * @return the index
+     */
+    @Benchmark
+    public SpatialIndex<Integer> insert() {
+        return fill(implementation.create(RANGE));
+    }
+
+    /**
+     * Moves a random element nearby, as a node performing a random walk.
+     *
+     * @return whether the element was moved
+     */
+    @Benchmark
+    public boolean move() {
+        final int element = randomGenerator.nextInt(elements);
+        final double[] start = positions[element];
+        final double[] end = {
+            clamp(start[0] + (randomGenerator.nextDouble() * 2 - 1) * MOVEMENT_RANGE),
+            clamp(start[1] + (randomGenerator.nextDouble() * 2 - 1) * MOVEMENT_RANGE),
+        };
+        positions[element] = end;
+        return index.move(element, start, end);
+    }
+
+    /**
+     * Looks for the elements within range of a random element, as when computing a neighborhood.
+     *
+     * @return the elements found
+     */
+    @Benchmark
+    public List<Integer> query() {
+        final double[] center = positions[randomGenerator.nextInt(elements)];
+        return index.query(
+            new double[] { center[0] - RANGE, center[1] + RANGE },
+            new double[] { center[0] + RANGE, center[1] - RANGE }
+        );
+    }
+
+    private SpatialIndex<Integer> fill(final SpatialIndex<Integer> target) {
+        for (int element = 0; element < elements; element++) {
+            if (positions[element] == null) {
+                positions[element] = new double[] {
+                    randomGenerator.nextDouble() * side,
+                    randomGenerator.nextDouble() * side,
+                };
+            }
+            target.insert(element, positions[element]);
+        }
+        return target;
+    }
+
+    private double clamp(final double coordinate) {
+        return Math.max(0, Math.min(side, coordinate));
+    }
+}
@@ -14,6 +14,7 @@ import it.unibo.alchemist.model.Node;
 import it.unibo.alchemist.model.Position2D;
 import org.apache.commons.math3.util.FastMath;
 import org.danilopianini.util.FlexibleQuadTree;
+import org.danilopianini.util.SpatialIndex;
 
 import static java.lang.Double.NEGATIVE_INFINITY;
 import static java.lang.Double.NaN;
@@ -39,7 +40,16 @@ public abstract class Abstract2DEnvironment<T, P extends Position2D<P>> extends
      * @param incarnation the incarnation to be used.
      */
     protected Abstract2DEnvironment(final Incarnation<T, P> incarnation) {
-        super(incarnation, new FlexibleQuadTree<>());
+        this(incarnation, new FlexibleQuadTree<>());
+    }
+
+    /**
+     * @param incarnation the incarnation to be used.
+     * @param spatialIndex the {@link SpatialIndex} used to locate nodes, e.g., a
+     *                     {@link it.unibo.alchemist.util.CellListSpatialIndex} for dense, uniform deployments.
+     */
+    protected Abstract2DEnvironment(final Incarnation<T, P> incarnation, final SpatialIndex<Node<T>> spatialIndex) {
+        super(incarnation, spatialIndex);
     }
 
     /**
@@ -116,8 +126,7 @@ public abstract class Abstract2DEnvironment<T, P extends Position2D<P>> extends
     public void moveNodeToPosition(final Node<T> node, final P newpos) {
         includeObject(newpos);
         setPosition(node, newpos);
-        updateNeighborhood(node, false);
-        ifEngineAvailable(sim -> sim.nodeMoved(node));
+        movementCompleted(node);
     }
 
     /**
@@ -8,16 +8,14 @@
  */
 package it.unibo.alchemist.model.environments;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.collect.Sets;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
 import it.unibo.alchemist.core.Simulation;
 import it.unibo.alchemist.model.SupportedIncarnations;
 import it.unibo.alchemist.model.Environment;
+import it.unibo.alchemist.model.EuclideanEnvironment;
 import it.unibo.alchemist.model.GlobalReaction;
 import it.unibo.alchemist.model.Incarnation;
 import it.unibo.alchemist.model.Layer;
@@ -26,6 +24,7 @@ import it.unibo.alchemist.model.Molecule;
 import it.unibo.alchemist.model.Neighborhood;
 import it.unibo.alchemist.model.Node;
 import it.unibo.alchemist.model.Position;
+import it.unibo.alchemist.util.CellListSpatialIndex;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.danilopianini.util.ArrayListSet;
 import org.danilopianini.util.LinkedListSet;
@@ -38,9 +37,14 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -69,13 +73,14 @@ public abstract class AbstractEnvironment<T, P extends Position<P>> implements E
 
     private static final long serialVersionUID = 0L;
     private final Map<Molecule, Layer<T, P>> layers = new LinkedHashMap<>();
-    private final TIntObjectHashMap<Neighborhood<T>> neighCache = new TIntObjectHashMap<>();
 
     private final ListSet<GlobalReaction<T>> globalReactions = new ArrayListSet<>();
     private final ListSet<Node<T>> nodes = new ArrayListSet<>();
-    private final TIntObjectHashMap<P> nodeToPos = new TIntObjectHashMap<>();
+    private final NodeRegistry<T, P> registry = new NodeRegistry<>();
     private final SpatialIndex<Node<T>> spatialIndex;
-    private transient LoadingCache<ImmutablePair<P, Double>, ListSet<Node<T>>> cache;
+    private transient RangeQueryCache<T, P> cache;
+    private transient volatile double nearestNeighborRange;
+    private transient Set<Node<T>> pendingMovements;
     private transient Incarnation<T, P> incarnation;
     private LinkingRule<T, P> rule;
     private transient Simulation<T, P> simulation;
@@ -156,6 +161,56 @@ public abstract class AbstractEnvironment<T, P extends Position<P>> implements E
         return false;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Nodes are placed one at a time, so that
+     * {@link #nodeShouldBeAdded(Node, Position)} and {@link #computeActualInsertionPosition(Node, Position)}
+     * observe the nodes added before.
+     * If the linking rule is locally consistent, neighborhoods are then computed on the final placement
+     * (see {@link #supportsConcurrentQueries()} for when they are computed in parallel),
+     * and each node is also added to the neighborhood of the nodes it is linked to.
+     * Otherwise, nodes are added one by one via {@link #addNode(Node, Position)}.
+     */
+    @Override
+    public final List<Node<T>> addNodes(final Map<Node<T>, P> positions) {
+        if (!Objects.requireNonNull(rule, "No linking rule / network model set.").isLocallyConsistent()) {
+            return Environment.super.addNodes(positions);
+        }
+        final List<Node<T>> added = new ArrayList<>(positions.size());
+        positions.forEach((node, position) -> {
+            if (nodeShouldBeAdded(node, position)) {
+                final P actualPosition = computeActualInsertionPosition(node, position);
+                setPosition(node, actualPosition);
+                if (!nodes.add(node)) {
+                    throw new IllegalArgumentException(
+                        "Node with id " + node.getId() + " was already existing in this environment."
+                    );
+                }
+                spatialIndex.insert(node, actualPosition.getCoordinates());
+                added.add(node);
+            }
+        });
+        final List<Neighborhood<T>> neighborhoods = computeNeighborhoods(added);
+        for (int i = 0; i < added.size(); i++) {
+            registry.setNeighborhood(added.get(i).getId(), neighborhoods.get(i));
+        }
+        for (final Neighborhood<T> neighborhood : neighborhoods) {
+            final Node<T> center = neighborhood.getCenter();
+            for (final Node<T> neighbor : neighborhood) {
+                final Neighborhood<T> other = registry.getNeighborhood(neighbor.getId());
+                if (!other.contains(center)) {
+                    registry.setNeighborhood(neighbor.getId(), other.add(center));
+                }
+            }
+        }
+        for (final Node<T> node : added) {
+            ifEngineAvailable(s -> s.nodeAdded(node));
+            nodeAdded(node, positions.get(node), getNeighborhood(node));
+        }
+        return added;
+    }
+
     @Override
     public final void addTerminator(final Predicate<Environment<T, P>> terminator) {
         this.terminator = this.terminator.orPredicate(terminator);
@@ -193,12 +248,40 @@ public abstract class AbstractEnvironment<T, P extends Position<P>> implements E
         if (range <= 0) {
             throw new IllegalArgumentException("Range query must be positive (provided: " + range + ")");
         }
+        return rangeCache().get(center, range);
+    }
+
+    /**
+     * Whether the queries of this environment can run concurrently, as long as the environment is not modified.
+     * The neighborhoods of nodes added or moved in batch are computed in parallel only if both this method and
+     * {@link LinkingRule#isThreadSafe()} return true, as the linking rule queries the environment,
+     * and thus its spatial index.
+     * By default, this is the case only if the spatial index is a {@link CellListSpatialIndex},
+     * whose queries only read it (the cache of range queries supports concurrent queries as well).
+     * Subclasses changing how queries are performed should override this method accordingly.
+     *
+     * @return true if queries can run concurrently
+     */
+    protected boolean supportsConcurrentQueries() {
+        return spatialIndex instanceof CellListSpatialIndex;
+    }
+
+    /*
+     * Neighborhood computation only reads the placement, and can thus proceed in parallel if allowed.
+     */
+    private List<Neighborhood<T>> computeNeighborhoods(final Collection<Node<T>> targets) {
+        rangeCache();
+        final Stream<Node<T>> stream = rule.isThreadSafe() && supportsConcurrentQueries()
+            ? targets.parallelStream()
+            : targets.stream();
+        return stream.map(node -> rule.computeNeighborhood(node, this)).collect(Collectors.toList());
+    }
+
+    private RangeQueryCache<T, P> rangeCache() {
         if (cache == null) {
-            cache = Caffeine.newBuilder()
-                .maximumSize(1000)
-                .build(pair -> runQuery(pair.left, pair.right));
+            cache = new RangeQueryCache<>(this::runQuery);
         }
-        return cache.get(new ImmutablePair<>(center, range));
+        return cache;
     }
 
     @Override
@@ -234,7 +317,7 @@ public abstract class AbstractEnvironment<T, P extends Position<P>> implements E
 
     @Override
     public final Neighborhood<T> getNeighborhood(@Nonnull final Node<T> center) {
-        final Neighborhood<T> result = neighCache.get(Objects.requireNonNull(center).getId());
+        final Neighborhood<T> result = registry.getNeighborhood(Objects.requireNonNull(center).getId());
         if (result == null) {
             if (getNodes().contains(center)) {
                 throw new IllegalStateException("The environment state is inconsistent. "
@@ -247,10 +330,11 @@ public abstract class AbstractEnvironment<T, P extends Position<P>> implements E
 
     @Override
     public final Node<T> getNodeByID(final int id) {
-        return (nodes.size() > 1000 ? nodes.parallelStream() : nodes.stream())
-                .filter(n -> n.getId() == id)
-                .findAny()
-                .orElseThrow(() -> new IllegalArgumentException("Node with id " + id + "does not exist in environment"));
+        final Node<T> node = registry.getNode(id);
+        if (node == null) {
+            throw new IllegalArgumentException("Node with id " + id + " does not exist in environment");
+        }
+        return node;
     }
 
     @Override
@@ -284,10 +368,77 @@ public abstract class AbstractEnvironment<T, P extends Position<P>> implements E
         return getAllNodesInRange(center, range);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Euclidean environments indexed by a {@link CellListSpatialIndex} delegate the search to the index
+     * (see {@link CellListSpatialIndex#queryNearest(double[], int, Predicate)}).
+     * Otherwise, the search runs range queries on the spatial index, doubling the range around the center
+     * until the ball includes enough nodes, or until the range covers the whole environment.
+     * The first range is estimated from the distance of the nearest neighbors found by the previous searches.
+     */
+    @Override
+    public final ListSet<Node<T>> getKNearestNodes(
+        final Node<T> center,
+        final int k,
+        final Predicate<? super Node<T>> filter
+    ) {
+        if (k < 1) {
+            throw new IllegalArgumentException("The number of nodes to find must be positive, got " + k);
+        }
+        final P position = getPosition(center);
+        if (spatialIndex instanceof CellListSpatialIndex && this instanceof EuclideanEnvironment) {
+            final List<Node<T>> nearest = ((CellListSpatialIndex<Node<T>>) spatialIndex).queryNearest(
+                position.getCoordinates(),
+                k,
+                candidate -> !candidate.equals(center) && filter.test(candidate)
+            );
+            final ListSet<Node<T>> result = new ArrayListSet<>(nearest.size());
+            result.addAll(nearest);
+            return result;
+        }
+        final double dimensions = position.getDimensions();
+        final double maxRange = Arrays.stream(getSizeInDistanceUnits()).max().orElse(0) * 2;
+        /*
+         * Without previous searches, assume that nodes are spread uniformly
+         */
+        final double nearestRange = nearestNeighborRange > 0
+            ? nearestNeighborRange
+            : maxRange / 2 / Math.pow(nodes.size(), 1 / dimensions);
+        double range = nearestRange * Math.pow(k, 1 / dimensions);
+        while (true) {
+            final boolean exhaustive = !(range < maxRange);
+            final List<Node<T>> candidates = exhaustive ? nodes : spatialIndex.query(
+                position.boundingBox(range).stream().map(Position::getCoordinates).toArray(double[][]::new)
+            );
+            final List<ImmutablePair<Node<T>, Double>> found = new ArrayList<>(candidates.size());
+            for (final Node<T> candidate : candidates) {
+                if (!candidate.equals(center) && filter.test(candidate)) {
+                    final double distance = getPosition(candidate).distanceTo(position);
+                    if (exhaustive || distance <= range) {
+                        found.add(new ImmutablePair<>(candidate, distance));
+                    }
+                }
+            }
+            if (exhaustive || found.size() >= k) {
+                found.sort(Comparator.comparingDouble(ImmutablePair::getRight));
+                final ListSet<Node<T>> result = new ArrayListSet<>(Math.min(k, found.size()));
+                for (final ImmutablePair<Node<T>, Double> neighbor : found.subList(0, Math.min(k, found.size()))) {
+                    result.add(neighbor.getLeft());
+                }
+                if (found.size() >= k && found.get(k - 1).getRight() > 0) {
+                    nearestNeighborRange = found.get(k - 1).getRight() / Math.pow(k, 1 / dimensions);
+                }
+                return result;
+            }
+            range *= 2;
+        }
+    }
+
     @Nonnull
     @Override
     public final P getPosition(final Node<T> node) {
-        final var position = nodeToPos.get(Objects.requireNonNull(node).getId());
+        final var position = registry.getPosition(Objects.requireNonNull(node).getId());
         if (position == null) {
             final var nodeExists = nodes.contains(node);
             if (nodeExists) {
@@ -343,9 +494,9 @@ public abstract class AbstractEnvironment<T, P extends Position<P>> implements E
         Optional.ofNullable(getSimulation()).ifPresent(action);
     }
 
-    private void invalidateCache() {
+    private void invalidateCache(final P position) {
         if (cache != null) {
-            cache.invalidateAll();
+            cache.changed(position);
         }
     }
 
@@ -419,7 +570,7 @@ public abstract class AbstractEnvironment<T, P extends Position<P>> implements E
 
     private Queue<Operation> recursiveOperation(final Node<T> origin) {
         final Neighborhood<T> newNeighborhood = rule.computeNeighborhood(Objects.requireNonNull(origin), this);
-        final Neighborhood<T> oldNeighborhood = neighCache.put(origin.getId(), newNeighborhood);
+        final Neighborhood<T> oldNeighborhood = registry.setNeighborhood(origin.getId(), newNeighborhood);
         return toQueue(origin, oldNeighborhood, newNeighborhood);
     }
 
@@ -430,23 +581,22 @@ public abstract class AbstractEnvironment<T, P extends Position<P>> implements E
             ifEngineAvailable(s -> s.neighborRemoved(origin, destination));
         }
         final Neighborhood<T> newNeighborhood = rule.computeNeighborhood(Objects.requireNonNull(destination), this);
-        final Neighborhood<T> oldNeighborhood = neighCache.put(destination.getId(), newNeighborhood);
+        final Neighborhood<T> oldNeighborhood = registry.setNeighborhood(destination.getId(), newNeighborhood);
         return toQueue(destination, oldNeighborhood, newNeighborhood);
     }
 
     @Override
     public final void removeNode(@Nonnull final Node<T> node) {
-        invalidateCache();
         nodes.remove(Objects.requireNonNull(node));
-        final P pos = nodeToPos.remove(node.getId());
+        final Neighborhood<T> neigh = registry.getNeighborhood(node.getId());
+        final P pos = registry.remove(node.getId());
+        invalidateCache(pos);
         spatialIndex.remove(node, pos.getCoordinates());
         /*
          * Neighborhood update
          */
-        final Neighborhood<T> neigh = neighCache.remove(node.getId());
         for (final Node<T> n : neigh) {
-            final Neighborhood<T> target = neighCache.remove(n.getId());
-            neighCache.put(n.getId(), target.remove(node));
+            registry.setNeighborhood(n.getId(), registry.getNeighborhood(n.getId()).remove(node));
         }
         /*
          * Update all the reactions which may have been affected by the node
@@ -478,9 +628,12 @@ public abstract class AbstractEnvironment<T, P extends Position<P>> implements E
      *            its new position
      */
     protected final void setPosition(final Node<T> n, final P p) {
-        final P pos = nodeToPos.put(Objects.requireNonNull(n).getId(), Objects.requireNonNull(p));
+        final P pos = registry.setPosition(Objects.requireNonNull(n), Objects.requireNonNull(p));
         if (!p.equals(pos)) {
-            invalidateCache();
+            invalidateCache(p);
+            if (pos != null) {
+                invalidateCache(pos);
+            }
         }
         if (pos != null && !spatialIndex.move(n, pos.getCoordinates(), p.getCoordinates())) {
             throw new IllegalArgumentException("Tried to move a node not previously present in the environment: \n"
@@ -523,6 +676,7 @@ public abstract class AbstractEnvironment<T, P extends Position<P>> implements E
      *            true if the node is a new node, false otherwise
      */
     protected final void updateNeighborhood(final Node<T> node, final boolean isNewNode) {
+        final NeighborhoodUpdateEvent record = NeighborhoodUpdateEvent.start();
         /*
          * The following optimization allows to define as local the context of
          * reactions which are actually including a move, which should be
@@ -530,37 +684,7 @@ public abstract class AbstractEnvironment<T, P extends Position<P>> implements E
          * detached, all the dependencies are updated, ensuring soundness.
          */
         if (Objects.requireNonNull(rule, "No linking rule / network model set.").isLocallyConsistent()) {
-            final Neighborhood<T> newNeighborhood = rule.computeNeighborhood(Objects.requireNonNull(node), this);
-            final Neighborhood<T> oldNeighborhood = neighCache.put(node.getId(), newNeighborhood);
-            /*
-             * Remove the node from all lost neighbors' neighborhoods.
-             */
-            if (oldNeighborhood != null) {
-                StreamSupport.stream(oldNeighborhood.spliterator(), false)
-                        .filter(formerNeighbor -> !newNeighborhood.contains(formerNeighbor))
-                        .map(this::getNeighborhood)
-                        .filter(neigh -> neigh.contains(node))
-                        .forEachOrdered(neighborhoodToChange -> {
-                            final Node<T> formerNeighbor = neighborhoodToChange.getCenter();
-                            neighCache.put(formerNeighbor.getId(), neighborhoodToChange.remove(node));
-                            if (!isNewNode) {
-                                ifEngineAvailable(s -> s.neighborRemoved(node, formerNeighbor));
-                            }
-                        });
-            }
-            /*
-             * Add the node to all gained neighbors' neighborhoods
-             */
-            for (final Node<T> newNeighbor: Sets.difference(newNeighborhood.getNeighbors(),
-                    Optional.ofNullable(oldNeighborhood)
-                            .map(Neighborhood::getNeighbors)
-                            .map(it -> (Set<? extends Node<T>>) it)
-                            .orElse(Collections.emptySet()))) {
-                neighCache.put(newNeighbor.getId(), neighCache.get(newNeighbor.getId()).add(node));
-                if (!isNewNode) {
-                    ifEngineAvailable(s -> s.neighborAdded(node, newNeighbor));
-                }
-            }
+            replaceNeighborhood(rule.computeNeighborhood(Objects.requireNonNull(node), this), isNewNode);
         } else {
             final Queue<Operation> operations = recursiveOperation(node);
             final TIntSet processed = new TIntHashSet(getNodeCount());
@@ -575,6 +699,95 @@ public abstract class AbstractEnvironment<T, P extends Position<P>> implements E
                 }
             }
         }
+        if (record != null) {
+            record.end(node.getId(), getNeighborhood(node).size(), isNewNode);
+        }
+    }
+
+    /*
+     * Stores the new neighborhood of a node, and keeps the neighborhoods of its former and new neighbors consistent.
+     * Only valid for locally consistent linking rules.
+     */
+    private void replaceNeighborhood(final Neighborhood<T> newNeighborhood, final boolean isNewNode) {
+        final Node<T> node = newNeighborhood.getCenter();
+        final Neighborhood<T> oldNeighborhood = registry.setNeighborhood(node.getId(), newNeighborhood);
+        /*
+         * Remove the node from all lost neighbors' neighborhoods.
+         */
+        if (oldNeighborhood != null) {
+            StreamSupport.stream(oldNeighborhood.spliterator(), false)
+                    .filter(formerNeighbor -> !newNeighborhood.contains(formerNeighbor))
+                    .map(this::getNeighborhood)
+                    .filter(neigh -> neigh.contains(node))
+                    .forEachOrdered(neighborhoodToChange -> {
+                        final Node<T> formerNeighbor = neighborhoodToChange.getCenter();
+                        registry.setNeighborhood(formerNeighbor.getId(), neighborhoodToChange.remove(node));
+                        if (!isNewNode) {
+                            ifEngineAvailable(s -> s.neighborRemoved(node, formerNeighbor));
+                        }
+                    });
+        }
+        /*
+         * Add the node to all gained neighbors' neighborhoods
+         */
+        for (final Node<T> newNeighbor: Sets.difference(newNeighborhood.getNeighbors(),
+                Optional.ofNullable(oldNeighborhood)
+                        .map(Neighborhood::getNeighbors)
+                        .map(it -> (Set<? extends Node<T>>) it)
+                        .orElse(Collections.emptySet()))) {
+            registry.setNeighborhood(newNeighbor.getId(), registry.getNeighborhood(newNeighbor.getId()).add(node));
+            if (!isNewNode) {
+                ifEngineAvailable(s -> s.neighborAdded(node, newNeighbor));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Nodes are moved one at a time via {@link #moveNodeToPosition(Node, Position)},
+     * so that subclasses constraining movements observe the nodes moved before.
+     * Neighborhoods are updated once all the nodes have been moved
+     * (see {@link #supportsConcurrentQueries()} for when they are computed in parallel),
+     * and the simulation is notified of all the movements at once.
+     */
+    @Override
+    public final void moveNodes(@Nonnull final Map<Node<T>, P> positions) {
+        if (pendingMovements != null) {
+            throw new IllegalStateException("Nodes are already being moved in " + this);
+        }
+        final Set<Node<T>> moved = new LinkedHashSet<>(positions.size());
+        pendingMovements = moved;
+        try {
+            positions.forEach(this::moveNodeToPosition);
+        } finally {
+            pendingMovements = null;
+        }
+        if (Objects.requireNonNull(rule, "No linking rule / network model set.").isLocallyConsistent()) {
+            for (final Neighborhood<T> neighborhood : computeNeighborhoods(moved)) {
+                replaceNeighborhood(neighborhood, false);
+            }
+        } else {
+            moved.forEach(node -> updateNeighborhood(node, false));
+        }
+        ifEngineAvailable(s -> s.nodesMoved(moved));
+    }
+
+    /**
+     * After a node movement, updates the neighborhoods and notifies the running simulation.
+     * If the node is moved as part of {@link #moveNodes(Map)}, both operations are deferred
+     * until all the nodes have been moved.
+     *
+     * @param node
+     *            the node that has been moved
+     */
+    protected final void movementCompleted(final Node<T> node) {
+        if (pendingMovements == null) {
+            updateNeighborhood(node, false);
+            ifEngineAvailable(s -> s.nodeMoved(node));
+        } else {
+            pendingMovements.add(node);
+        }
     }
 
     private void writeObject(final ObjectOutputStream out) throws IOException {
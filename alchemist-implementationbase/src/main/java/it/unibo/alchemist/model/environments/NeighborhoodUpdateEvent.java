@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.environments;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the recomputation of the neighborhood of a node in an {@link AbstractEnvironment}.
+ */
+@Name(NeighborhoodUpdateEvent.NAME)
+@Label("Neighborhood Update")
+@Category({ "Alchemist", "Environment" })
+@Description("The recomputation of the neighborhood of a node, after it has been added or moved")
+final class NeighborhoodUpdateEvent extends Event {
+
+    /**
+     * The name of the event.
+     */
+    static final String NAME = "it.unibo.alchemist.NeighborhoodUpdate";
+    private static final EventType TYPE = EventType.getEventType(NeighborhoodUpdateEvent.class);
+
+    @Label("Node")
+    private int node;
+
+    @Label("Neighbors")
+    @Description("The size of the new neighborhood")
+    private int neighbors;
+
+    @Label("New Node")
+    @Description("Whether the node has just been added")
+    private boolean newNode;
+
+    /**
+     * @return a new event, already begun, or null if the event is not being recorded
+     */
+    static NeighborhoodUpdateEvent start() {
+        if (TYPE.isEnabled()) {
+            final NeighborhoodUpdateEvent event = new NeighborhoodUpdateEvent();
+            event.begin();
+            return event;
+        }
+        return null;
+    }
+
+    /**
+     * Ends and commits the event.
+     *
+     * @param node the id of the node
+     * @param neighbors the size of the new neighborhood
+     * @param newNode whether the node has just been added
+     */
+    void end(final int node, final int neighbors, final boolean newNode) {
+        end();
+        if (shouldCommit()) {
+            this.node = node;
+            this.neighbors = neighbors;
+            this.newNode = newNode;
+            commit();
+        }
+    }
+}
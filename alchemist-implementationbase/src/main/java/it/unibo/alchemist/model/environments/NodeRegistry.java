@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.model.environments;
+
+import gnu.trove.impl.Constants;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import it.unibo.alchemist.model.Neighborhood;
+import it.unibo.alchemist.model.Node;
+import it.unibo.alchemist.model.Position;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Per-node state of an {@link AbstractEnvironment}: the nodes, their positions, and their neighborhoods.
+ * Every node gets a dense slot when its position is first set, and slots of removed nodes get recycled,
+ * so that the state is kept in arrays indexed by slot rather than in hash maps.
+ * Node ids are mapped to slots through an array as well, as long as they are dense enough
+ * (as the ones generated by the environment are): other ids fall back to a hash map.
+ * Once serialized, only the registered nodes are written, along with their positions and neighborhoods:
+ * slots and indexes get rebuilt when the registry is read back.
+ *
+ * @param <T> concentration type
+ * @param <P> position type
+ */
+final class NodeRegistry<T, P extends Position<P>> implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAXIMUM_ID_GAP = 1024;
+
+    private transient TIntIntMap sparseSlots = newSparseSlots();
+    private transient int[] denseSlots = filled(new int[INITIAL_CAPACITY], 0);
+    private transient Object[] nodes = new Object[INITIAL_CAPACITY];
+    private transient Object[] positions = new Object[INITIAL_CAPACITY];
+    private transient Object[] neighborhoods = new Object[INITIAL_CAPACITY];
+    private transient int[] free = new int[INITIAL_CAPACITY];
+    private transient int freeCount;
+    private transient int used;
+
+    /**
+     * @param id the id of the node
+     * @return the node with the provided id, or null if there is no such node
+     */
+    @SuppressWarnings("unchecked")
+    Node<T> getNode(final int id) {
+        final int slot = slotOf(id);
+        return slot == NONE ? null : (Node<T>) nodes[slot];
+    }
+
+    /**
+     * @param id the id of the node
+     * @return the position of the node, or null if the node is not registered
+     */
+    @SuppressWarnings("unchecked")
+    P getPosition(final int id) {
+        final int slot = slotOf(id);
+        return slot == NONE ? null : (P) positions[slot];
+    }
+
+    /**
+     * Sets the position of a node, registering the node if required.
+     *
+     * @param node the node
+     * @param position the new position
+     * @return the previous position, or null if the node was not registered
+     */
+    @SuppressWarnings("unchecked")
+    P setPosition(final Node<T> node, final P position) {
+        int slot = slotOf(node.getId());
+        if (slot == NONE) {
+            slot = allocate();
+            nodes[slot] = node;
+            index(node.getId(), slot);
+        }
+        final P previous = (P) positions[slot];
+        positions[slot] = position;
+        return previous;
+    }
+
+    /**
+     * @param id the id of the node
+     * @return the neighborhood of the node, or null if it has not been computed yet
+     */
+    @SuppressWarnings("unchecked")
+    Neighborhood<T> getNeighborhood(final int id) {
+        final int slot = slotOf(id);
+        return slot == NONE ? null : (Neighborhood<T>) neighborhoods[slot];
+    }
+
+    /**
+     * Sets the neighborhood of a registered node.
+     *
+     * @param id the id of the node
+     * @param neighborhood the new neighborhood
+     * @return the previous neighborhood, or null if it had not been computed yet
+     */
+    @SuppressWarnings("unchecked")
+    Neighborhood<T> setNeighborhood(final int id, final Neighborhood<T> neighborhood) {
+        final int slot = slotOf(id);
+        if (slot == NONE) {
+            throw new IllegalStateException("Node " + id + " has no position, hence it can not have neighbors");
+        }
+        final Neighborhood<T> previous = (Neighborhood<T>) neighborhoods[slot];
+        neighborhoods[slot] = neighborhood;
+        return previous;
+    }
+
+    /**
+     * Unregisters a node, releasing its slot.
+     *
+     * @param id the id of the node
+     * @return the last position of the node, or null if the node was not registered
+     */
+    @SuppressWarnings("unchecked")
+    P remove(final int id) {
+        final int slot = slotOf(id);
+        if (slot == NONE) {
+            return null;
+        }
+        final P position = (P) positions[slot];
+        nodes[slot] = null;
+        positions[slot] = null;
+        neighborhoods[slot] = null;
+        if (id >= 0 && id < denseSlots.length) {
+            denseSlots[id] = NONE;
+        } else {
+            sparseSlots.remove(id);
+        }
+        free[freeCount] = slot;
+        freeCount++;
+        return position;
+    }
+
+    private int slotOf(final int id) {
+        return id >= 0 && id < denseSlots.length ? denseSlots[id] : sparseSlots.get(id);
+    }
+
+    private void index(final int id, final int slot) {
+        if (id >= 0 && id >= denseSlots.length && id < Math.max(denseSlots.length, used) * 2 + MAXIMUM_ID_GAP) {
+            final int previousLength = denseSlots.length;
+            denseSlots = filled(Arrays.copyOf(denseSlots, Math.max(id + 1, previousLength * 2)), previousLength);
+            /*
+             * Sparse ids that now fall within the dense range get moved
+             */
+            for (final int sparse : sparseSlots.keys()) {
+                if (sparse >= 0 && sparse < denseSlots.length) {
+                    denseSlots[sparse] = sparseSlots.remove(sparse);
+                }
+            }
+        }
+        if (id >= 0 && id < denseSlots.length) {
+            denseSlots[id] = slot;
+        } else {
+            sparseSlots.put(id, slot);
+        }
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            freeCount--;
+            return free[freeCount];
+        }
+        if (used == nodes.length) {
+            final int capacity = nodes.length * 2;
+            nodes = Arrays.copyOf(nodes, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            neighborhoods = Arrays.copyOf(neighborhoods, capacity);
+            free = Arrays.copyOf(free, capacity);
+        }
+        final int slot = used;
+        used++;
+        return slot;
+    }
+
+    private void writeObject(final ObjectOutputStream output) throws IOException {
+        output.defaultWriteObject();
+        output.writeInt(used - freeCount);
+        for (int slot = 0; slot < used; slot++) {
+            if (nodes[slot] != null) {
+                output.writeObject(nodes[slot]);
+                output.writeObject(positions[slot]);
+                output.writeObject(neighborhoods[slot]);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        final int count = input.readInt();
+        final int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(count, 1)) * 2);
+        sparseSlots = newSparseSlots();
+        denseSlots = filled(new int[capacity], 0);
+        nodes = new Object[capacity];
+        positions = new Object[capacity];
+        neighborhoods = new Object[capacity];
+        free = new int[capacity];
+        freeCount = 0;
+        used = 0;
+        for (int entry = 0; entry < count; entry++) {
+            final Node<T> node = (Node<T>) input.readObject();
+            setPosition(node, (P) input.readObject());
+            final Neighborhood<T> neighborhood = (Neighborhood<T>) input.readObject();
+            if (neighborhood != null) {
+                setNeighborhood(node.getId(), neighborhood);
+            }
+        }
+    }
+
+    private static TIntIntMap newSparseSlots() {
+        return new TIntIntHashMap(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, NONE, NONE);
+    }
+
+    private static int[] filled(final int[] slots, final int from) {
+        Arrays.fill(slots, from, slots.length, NONE);
+        return slots;
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.model.environments;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gnu.trove.map.TLongLongMap;
+import gnu.trove.map.hash.TLongLongHashMap;
+import it.unibo.alchemist.model.Node;
+import it.unibo.alchemist.model.Position;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.danilopianini.util.ListSet;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Caches the results of range queries in an {@link AbstractEnvironment},
+ * invalidating them selectively rather than at every change.
+ * Space is split in a hashed uniform grid, and every cell records the last time a node entered, left,
+ * or moved within it: a cached query is still valid if none of the cells overlapping its bounding box
+ * changed after the query was run.
+ * Hence, a node moving only invalidates the queries around its former and new positions.
+ * <p>
+ * The side of the cells is half the side of the bounding box of the first cached query,
+ * namely its range, expressed in the units of the coordinates.
+ * Queries whose bounding box spans too many cells are not cached.
+ * Distinct cells may share the same hash: in this case, they get invalidated together, which is always safe.
+ *
+ * @param <T> concentration type
+ * @param <P> position type
+ */
+final class RangeQueryCache<T, P extends Position<P>> {
+
+    private static final int MAXIMUM_SIZE = 1000;
+    private static final int MAXIMUM_CELLS = 64;
+    private static final long MIXER = 0x9E37_79B9_7F4A_7C15L;
+
+    private final Cache<ImmutablePair<P, Double>, Entry<T>> cache = Caffeine.newBuilder()
+        .maximumSize(MAXIMUM_SIZE)
+        .build();
+    private final TLongLongMap lastChange = new TLongLongHashMap();
+    private final BiFunction<P, Double, ListSet<Node<T>>> query;
+    private volatile double cellSize = Double.NaN;
+    private long time;
+
+    /**
+     * @param query the actual range query
+     */
+    RangeQueryCache(final BiFunction<P, Double, ListSet<Node<T>>> query) {
+        this.query = query;
+    }
+
+    /**
+     * Returns the nodes within range of the center, running the query only if no valid result is cached.
+     * Concurrent invocations are allowed, as long as no change is recorded meanwhile.
+     *
+     * @param center the center of the query
+     * @param range the range of the query
+     * @return the nodes within range
+     */
+    ListSet<Node<T>> get(final P center, final double range) {
+        final long[] cells = cellsOf(center.boundingBox(range));
+        if (cells == null) {
+            return query.apply(center, range);
+        }
+        final ImmutablePair<P, Double> key = new ImmutablePair<>(center, range);
+        final Entry<T> cached = cache.getIfPresent(key);
+        if (cached != null && isValid(cached, cells)) {
+            return cached.result;
+        }
+        final long computedAt = time;
+        final ListSet<Node<T>> result = query.apply(center, range);
+        cache.put(key, new Entry<>(result, computedAt));
+        return result;
+    }
+
+    /**
+     * Records that a node entered, left, or moved within the cell including the provided position.
+     *
+     * @param position the position
+     */
+    void changed(final P position) {
+        if (!Double.isNaN(cellSize)) {
+            time++;
+            lastChange.put(cellOf(position.getCoordinates()), time);
+        }
+    }
+
+    private boolean isValid(final Entry<T> entry, final long[] cells) {
+        for (final long cell : cells) {
+            if (lastChange.get(cell) > entry.computedAt) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Returns the hashes of the cells overlapping the provided bounding box, or null if they are too many.
+     */
+    private long[] cellsOf(final List<P> boundingBox) {
+        final int dimensions = boundingBox.get(0).getDimensions();
+        final double[] min = boundingBox.get(0).getCoordinates().clone();
+        final double[] max = min.clone();
+        for (final P corner : boundingBox) {
+            final double[] coordinates = corner.getCoordinates();
+            for (int dimension = 0; dimension < dimensions; dimension++) {
+                min[dimension] = Math.min(min[dimension], coordinates[dimension]);
+                max[dimension] = Math.max(max[dimension], coordinates[dimension]);
+            }
+        }
+        final double size = cellSize(min, max);
+        if (Double.isNaN(size)) {
+            return null;
+        }
+        final long[] first = new long[dimensions];
+        final long[] last = new long[dimensions];
+        long count = 1;
+        for (int dimension = 0; dimension < dimensions; dimension++) {
+            first[dimension] = coordinateOf(min[dimension], size);
+            last[dimension] = coordinateOf(max[dimension], size);
+            final long extent = last[dimension] - first[dimension] + 1;
+            if (extent <= 0 || extent > MAXIMUM_CELLS) {
+                return null;
+            }
+            count *= extent;
+            if (count > MAXIMUM_CELLS) {
+                return null;
+            }
+        }
+        final long[] cells = new long[(int) count];
+        final long[] current = first.clone();
+        for (int cell = 0; cell < cells.length; cell++) {
+            cells[cell] = hash(current);
+            /*
+             * Next cell, as in an odometer
+             */
+            int dimension = 0;
+            while (dimension < dimensions && current[dimension] == last[dimension]) {
+                current[dimension] = first[dimension];
+                dimension++;
+            }
+            if (dimension < dimensions) {
+                current[dimension]++;
+            }
+        }
+        return cells;
+    }
+
+    /*
+     * The first cacheable query determines the size of the cells.
+     */
+    private double cellSize(final double[] min, final double[] max) {
+        if (Double.isNaN(cellSize)) {
+            synchronized (this) {
+                if (Double.isNaN(cellSize)) {
+                    double side = 0;
+                    for (int dimension = 0; dimension < min.length; dimension++) {
+                        side = Math.max(side, max[dimension] - min[dimension]);
+                    }
+                    if (side > 0 && Double.isFinite(side)) {
+                        cellSize = side / 2;
+                    }
+                }
+            }
+        }
+        return cellSize;
+    }
+
+    private long cellOf(final double[] coordinates) {
+        final long[] cell = new long[coordinates.length];
+        for (int dimension = 0; dimension < coordinates.length; dimension++) {
+            cell[dimension] = coordinateOf(coordinates[dimension], cellSize);
+        }
+        return hash(cell);
+    }
+
+    private static long coordinateOf(final double value, final double size) {
+        return (long) Math.floor(value / size);
+    }
+
+    private static long hash(final long[] cell) {
+        long hash = 1;
+        for (final long coordinate : cell) {
+            hash = (hash ^ coordinate) * MIXER;
+        }
+        return hash;
+    }
+
+    private static final class Entry<T> {
+        private final ListSet<Node<T>> result;
+        private final long computedAt;
+
+        private Entry(final ListSet<Node<T>> result, final long computedAt) {
+            this.result = result;
+            this.computedAt = computedAt;
+        }
+    }
+}
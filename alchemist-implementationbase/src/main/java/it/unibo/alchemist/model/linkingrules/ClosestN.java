@@ -10,21 +10,16 @@ package it.unibo.alchemist.model.linkingrules;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.collect.MinMaxPriorityQueue;
-import com.google.common.primitives.Doubles;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import it.unibo.alchemist.util.BugReporting;
 import it.unibo.alchemist.model.neighborhoods.Neighborhoods;
 import it.unibo.alchemist.model.Environment;
 import it.unibo.alchemist.model.LinkingRule;
 import it.unibo.alchemist.model.Neighborhood;
 import it.unibo.alchemist.model.Node;
 import it.unibo.alchemist.model.Position;
+
 import org.apache.commons.math3.util.FastMath;
-import org.danilopianini.util.stream.SmallestN;
-import org.jooq.lambda.tuple.Tuple2;
 
-import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
@@ -34,6 +29,7 @@ import java.util.stream.Stream;
 /**
  * Non local-consistent rule that connect the closest N nodes together.
  * Two nodes get connected if either one belongs to the set of the ten devices closest to the other.
+ * The closest nodes are found through {@link Environment#getKNearestNodes(Node, int, java.util.function.Predicate)}.
  * 
  * @param <T> Concentration type
  * @param <P> {@link Position} type
@@ -41,7 +37,6 @@ import java.util.stream.Stream;
 public class ClosestN<T, P extends Position<P>> implements LinkingRule<T, P> {
 
     private static final long serialVersionUID = 2L;
-    private static final double CONNECTION_RANGE_TOLERANCE = 1.1;
     private final int n, expectedNodes, maxNodes;
     @SuppressFBWarnings("SE_TRANSIENT_FIELD_NOT_RESTORED")
     private transient Cache<Node<T>, Double> ranges;
@@ -54,8 +49,11 @@ public class ClosestN<T, P extends Position<P>> implements LinkingRule<T, P> {
      *            (used for optimization)
      * @param maxNodes
      *            the maximum number of nodes for which the connection range
-     *            will be cached
+     *            will be cached by {@link #setRange(Node, double)}
+     * @deprecated use {@link #ClosestN(int, int)}, as the closest nodes are found by the environment,
+     *             and the connection ranges are only cached for subclasses still relying on them
      */
+    @Deprecated
     public ClosestN(final int n, final int expectedNodes, final int maxNodes) {
         if (n < 1) {
             throw new IllegalArgumentException("The parameter must be an integer greater than 0");
@@ -72,6 +70,7 @@ public class ClosestN<T, P extends Position<P>> implements LinkingRule<T, P> {
      *            how many nodes are expected to be inserted in the environment
      *            (used for optimization)
      */
+    @SuppressWarnings("deprecation")
     public ClosestN(final int n, final int expectedNodes) {
         this(n, expectedNodes, expectedNodes);
     }
@@ -84,15 +83,6 @@ public class ClosestN<T, P extends Position<P>> implements LinkingRule<T, P> {
         this(n, 0);
     }
 
-    private Cache<Node<T>, Double> ranges() {
-        if (ranges == null) {
-            ranges = CacheBuilder.newBuilder()
-                .maximumSize(maxNodes)
-                .build();
-        }
-        return ranges;
-    }
-
     @Override
     public final Neighborhood<T> computeNeighborhood(final Node<T> center, final Environment<T, P> environment) {
         if (environment.getNodeCount() < expectedNodes || !nodeIsEnabled(center)) {
@@ -121,36 +111,16 @@ public class ClosestN<T, P extends Position<P>> implements LinkingRule<T, P> {
         if (!nodeIsEnabled(center)) {
             return Stream.empty();
         }
-        double currentRange = getRange(environment, center);
-        Set<Node<T>> inRange;
-        final double maxRange = Doubles.max(environment.getSizeInDistanceUnits()) * 2;
-        do {
-            inRange = (environment.getNodeCount() > n && currentRange < maxRange
-                    ? nodesInRange(environment, center, currentRange).stream()
-                    : environment.getNodes().stream())
-                        .filter(n -> !n.equals(center) && nodeIsEnabled(n))
-                        .collect(Collectors.toCollection(LinkedHashSet::new));
-            currentRange *= 2;
-        } while (inRange.size() < n && inRange.size() < environment.getNodeCount() - 1 && currentRange < maxRange * 2);
-        if (inRange.isEmpty()) {
-            return Stream.empty();
-        }
-        final MinMaxPriorityQueue<Tuple2<Double, Node<T>>> closestN = inRange.stream()
-                .map(node -> new Tuple2<>(environment.getDistanceBetweenNodes(center, node), node))
-                .collect(new SmallestN<>(n));
-        final var farthestNode = closestN.peekLast();
-        if (farthestNode == null) {
-            final var debugDetails = new HashMap<String, Object>();
-            debugDetails.put("farthestNode", null);
-            debugDetails.put("inRange", inRange);
-            debugDetails.put("closestN", closestN);
-            BugReporting.reportBug(
-                "neighbors were found, but no neighbor was included in the list",
-                debugDetails
-            );
+        return environment.getKNearestNodes(center, n, this::nodeIsEnabled).stream();
+    }
+
+    private Cache<Node<T>, Double> ranges() {
+        if (ranges == null) {
+            ranges = CacheBuilder.newBuilder()
+                .maximumSize(maxNodes)
+                .build();
         }
-        setRange(center, Math.max(Double.MIN_VALUE, farthestNode.v1()) * CONNECTION_RANGE_TOLERANCE);
-        return closestN.stream().map(Tuple2::v2);
+        return ranges;
     }
 
     /**
@@ -159,7 +129,10 @@ public class ClosestN<T, P extends Position<P>> implements LinkingRule<T, P> {
      * @param node the {@link Node}
      * @param range the communication range
      * @return the set of nodes within the communication range
+     * @deprecated the closest nodes are found through {@link Environment#getKNearestNodes(Node, int)},
+     *             use {@link Environment#getNodesWithinRange(Node, double)} for range queries
      */
+    @Deprecated
     protected final Set<Node<T>> nodesInRange(
             final Environment<T, ?> environment,
             final Node<T> node, final double range
@@ -178,15 +151,25 @@ public class ClosestN<T, P extends Position<P>> implements LinkingRule<T, P> {
         return true;
     }
 
+    @Override
+    public final boolean isLocallyConsistent() {
+        return false;
+    }
+
     /**
-     * Gets the communication range of a node.
+     * Gets the communication range of a node: the one set via {@link #setRange(Node, double)}, if cached,
+     * or an estimation otherwise.
+     * This rule no longer uses it, as the closest nodes are found by the environment.
      * 
      * @param environment
      *            the environment
      * @param center
      *            the node
      * @return the communication range
+     * @deprecated the closest nodes are found through {@link Environment#getKNearestNodes(Node, int)},
+     *             which estimates the range on its own
      */
+    @Deprecated
     protected final double getRange(final Environment<T, ?> environment, final Node<T> center) {
         try {
             /*
@@ -212,22 +195,21 @@ public class ClosestN<T, P extends Position<P>> implements LinkingRule<T, P> {
     }
 
     /**
-     * Sets a communication range for a node. Used for optimization purposes.
+     * Sets a communication range for a node.
+     * This rule no longer uses it, as the closest nodes are found by the environment.
      * 
      * @param center
      *            the node
      * @param range
      *            the range
+     * @deprecated the closest nodes are found through {@link Environment#getKNearestNodes(Node, int)},
+     *             which estimates the range on its own
      */
+    @Deprecated
     protected final void setRange(final Node<T> center, final double range) {
         ranges().put(center, range);
     }
 
-    @Override
-    public final boolean isLocallyConsistent() {
-        return false;
-    }
-
     /**
      * @return the number of neighbors
      */
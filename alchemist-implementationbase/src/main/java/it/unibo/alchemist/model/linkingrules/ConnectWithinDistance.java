@@ -43,10 +43,20 @@ public class ConnectWithinDistance<T, P extends Position<P>> extends AbstractLoc
         return Neighborhoods.make(environment, center, environment.getNodesWithinRange(center, range));
     }
 
+    /**
+     * This rule only queries the environment, and is thus thread safe.
+     * Subclasses changing the way a neighborhood is computed are not considered thread safe,
+     * unless they override this method.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return getClass() == ConnectWithinDistance.class;
+    }
+
     /**
      * @return the range
      */
-    protected final double getRange() {
+    public final double getRange() {
         return range;
     }
 
@@ -51,6 +51,20 @@ public abstract class AbstractReaction<T> implements Reaction<T> {
      */
     private static final byte MARGIN = 20;
     private static final ListSet<Dependency> EVERYTHING = ImmutableListSet.of(Dependency.EVERYTHING);
+    /*
+     * Whether a subclass changes how conditions get checked or actions get executed.
+     */
+    private static final ClassValue<Boolean> CUSTOM_EXECUTION = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            try {
+                return type.getMethod("canExecute").getDeclaringClass() != AbstractReaction.class
+                    || type.getMethod("execute").getDeclaringClass() != AbstractReaction.class;
+            } catch (final NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
     private static final long serialVersionUID = 1L;
     private final int hash;
     private List<? extends Action<T>> actions = new ArrayList<>(0);
@@ -116,7 +130,7 @@ public abstract class AbstractReaction<T> implements Reaction<T> {
 
     @Override
     public final int compareTo(final Actionable<T> o) {
-        return getTau().compareTo(o.getTau());
+        return Double.compare(getTauAsDouble(), o.getTauAsDouble());
     }
 
     @Override
@@ -134,6 +148,35 @@ public abstract class AbstractReaction<T> implements Reaction<T> {
         }
     }
 
+    /**
+     * The default implementation is parallelizable if all its conditions and actions are,
+     * unless a subclass overrides {@link #canExecute()} or {@link #execute()}:
+     * such subclasses must override this method as well in order to get executed in parallel.
+     *
+     * @return true if this reaction can get executed in parallel with reactions on other nodes
+     */
+    @Override
+    public boolean isParallelizable() {
+        return !CUSTOM_EXECUTION.get(getClass()) && conditionsAndActionsAreParallelizable();
+    }
+
+    /**
+     * @return true if all the conditions and the actions of this reaction are parallelizable
+     */
+    protected final boolean conditionsAndActionsAreParallelizable() {
+        for (final Condition<T> condition : conditions) {
+            if (!condition.isParallelizable()) {
+                return false;
+            }
+        }
+        for (final Action<T> action : actions) {
+            if (!action.isParallelizable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Override only if you need to implement extremely tricky behaviours. Must be overridden along with
      * {@link #setActions(List)}.
@@ -204,6 +247,11 @@ public abstract class AbstractReaction<T> implements Reaction<T> {
         return timeDistribution.getNextOccurence();
     }
 
+    @Override
+    public final double getTauAsDouble() {
+        return timeDistribution.getNextOccurrenceAsDouble();
+    }
+
     @Nonnull
     @Override
     public final TimeDistribution<T> getTimeDistribution() {
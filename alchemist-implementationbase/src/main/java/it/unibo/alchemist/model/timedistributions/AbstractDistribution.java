@@ -12,28 +12,34 @@ import it.unibo.alchemist.model.Environment;
 import it.unibo.alchemist.model.Node;
 import it.unibo.alchemist.model.Time;
 import it.unibo.alchemist.model.TimeDistribution;
+import it.unibo.alchemist.model.times.DoubleTime;
 
 /**
  * This class provides, through a template method pattern, an utility that
  * ensures that the distribution does not trigger events before its initial
  * scheduling time.
+ * The next occurrence is stored as a double: subclasses setting it through {@link #setNextOccurrence(double)}
+ * do not build any {@link Time}, which is created only if {@link #getNextOccurence()} gets called.
  * 
  * @param <T> concentration type
  */
 public abstract class AbstractDistribution<T> implements TimeDistribution<T> {
 
     private static final long serialVersionUID = -8906648194668569179L;
-    private Time tau;
+    private double tau;
+    private Time tauTime; // null until requested after tau changed
     private boolean schedulable;
     private final Time startTime;
+    private final double startAsDouble;
 
     /**
      * @param start
      *            initial time
      */
     public AbstractDistribution(final Time start) {
-        tau = start;
+        setNextOccurrence(start);
         startTime = start;
+        startAsDouble = start.toDouble();
     }
 
     /**
@@ -43,7 +49,19 @@ public abstract class AbstractDistribution<T> implements TimeDistribution<T> {
      *            the new time
      */
     protected final void setNextOccurrence(final Time t) {
+        this.tau = t.toDouble();
+        this.tauTime = t;
+    }
+
+    /**
+     * Allows subclasses to set the next putative time, without building a {@link Time}. Use with care.
+     *
+     * @param t
+     *            the new time
+     */
+    protected final void setNextOccurrence(final double t) {
         this.tau = t;
+        this.tauTime = null;
     }
 
     @Override
@@ -53,7 +71,7 @@ public abstract class AbstractDistribution<T> implements TimeDistribution<T> {
             final double additionalParameter,
             final Environment<T, ?> environment
     ) {
-        if (!schedulable && currentTime.compareTo(startTime) >= 0) {
+        if (!schedulable && Double.compare(currentTime.toDouble(), startAsDouble) >= 0) {
             /*
              * If the simulation time is beyond the startTime for this reaction,
              * it can start being scheduled normally.
@@ -69,6 +87,14 @@ public abstract class AbstractDistribution<T> implements TimeDistribution<T> {
 
     @Override
     public final Time getNextOccurence() {
+        if (tauTime == null) {
+            tauTime = tau == Double.POSITIVE_INFINITY ? Time.INFINITY : new DoubleTime(tau);
+        }
+        return tauTime;
+    }
+
+    @Override
+    public final double getNextOccurrenceAsDouble() {
         return tau;
     }
 
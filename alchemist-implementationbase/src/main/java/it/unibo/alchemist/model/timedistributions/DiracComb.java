@@ -48,6 +48,11 @@ public class DiracComb<T> extends AbstractDistribution<T> {
         return 1 / timeInterval;
     }
 
+    @Override
+    public final double getPeriod() {
+        return timeInterval;
+    }
+
     @Override
     protected final void updateStatus(
             final Time currentTime,
@@ -55,7 +60,7 @@ public class DiracComb<T> extends AbstractDistribution<T> {
             final double param,
             final Environment<T, ?> environment) {
         if (executed) {
-            setNextOccurrence(new DoubleTime(currentTime.toDouble() + timeInterval));
+            setNextOccurrence(currentTime.toDouble() + timeInterval);
         }
     }
 
@@ -17,6 +17,9 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import it.unibo.alchemist.model.Environment;
 import it.unibo.alchemist.model.Time;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
 /**
  * Markovian events.
  * 
@@ -24,6 +27,23 @@ import it.unibo.alchemist.model.Time;
  */
 public class ExponentialTime<T> extends AbstractDistribution<T> {
 
+    /*
+     * Whether a class overrides genTime, in which case the next occurrence is computed through it.
+     */
+    private static final ClassValue<Boolean> CUSTOM_GEN_TIME = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            for (Class<?> current = type; current != ExponentialTime.class; current = current.getSuperclass()) {
+                for (final Method method : current.getDeclaredMethods()) {
+                    if ("genTime".equals(method.getName())
+                        && Arrays.equals(method.getParameterTypes(), new Class<?>[] { double.class })) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    };
     private static final long serialVersionUID = 5216987069271114818L;
     private double oldPropensity = -1;
     @SuppressFBWarnings(value = "SE_BAD_FIELD", justification = "All the random engines provided by Apache are Serializable")
@@ -77,14 +97,16 @@ public class ExponentialTime<T> extends AbstractDistribution<T> {
     private void update(final double newpropensity, final boolean isMu, final Time curTime) {
         assert !Double.isNaN(newpropensity);
         assert !Double.isNaN(oldPropensity);
+        final double now = curTime.toDouble();
         if (isMu) {
-            final Time dt = genTime(newpropensity);
-            setNextOccurrence(curTime.plus(dt));
+            if (CUSTOM_GEN_TIME.get(getClass())) {
+                setNextOccurrence(curTime.plus(genTime(newpropensity)));
+            } else {
+                setNextOccurrence(now + uniformToExponential(newpropensity));
+            }
         } else {
             if (oldPropensity != newpropensity) {
-                final Time sub = getNextOccurence().minus(curTime);
-                final Time mul = sub.times(oldPropensity / newpropensity);
-                setNextOccurrence(mul.plus(curTime));
+                setNextOccurrence((getNextOccurrenceAsDouble() - now) * (oldPropensity / newpropensity) + now);
             }
         }
     }
@@ -93,7 +115,8 @@ public class ExponentialTime<T> extends AbstractDistribution<T> {
      * @param propensity
      *            the current propensity for the reaction
      * @return the next occurrence time for the reaction, in case this is the
-     *         reaction which have been executed.
+     *         reaction which have been executed. If this method is not overridden,
+     *         the next occurrence is computed without building {@link Time} objects.
      */
     protected Time genTime(final double propensity) {
         return new DoubleTime(uniformToExponential(propensity));
@@ -0,0 +1,405 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.util;
+
+import gnu.trove.impl.Constants;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import org.danilopianini.util.SpatialIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.function.Predicate;
+
+/**
+ * A bidimensional {@link SpatialIndex} backed by a hashed uniform grid (a cell list).
+ * Space is split in square cells of side {@code cellSize}, and only the cells with some element are stored.
+ * Insertions, removals, and moves take constant time,
+ * and range queries only visit the cells overlapping the queried area.
+ * The index performs best when elements are spread rather uniformly,
+ * and queries have a range close to the cell size,
+ * as in dense deployments linked by a single communication range.
+ * Nearest neighbor searches (see {@link #queryNearest(double[], int, Predicate)}) visit the cells
+ * in rings around the queried point, hence their cost depends on the distance of the neighbors, not on the range.
+ * <p>
+ * Elements are kept in primitive arrays, and they must be unique, as the nodes of an environment are:
+ * positions provided for removals are ignored, as every element has a single position.
+ *
+ * @param <O> the type of the indexed elements
+ */
+public final class CellListSpatialIndex<O> implements SpatialIndex<O> {
+
+    private static final long serialVersionUID = 1L;
+    private static final int DIMENSIONS = 2;
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final double cellSize;
+    private final TLongIntMap heads = new TLongIntHashMap(
+        Constants.DEFAULT_CAPACITY,
+        Constants.DEFAULT_LOAD_FACTOR,
+        Long.MIN_VALUE,
+        NONE
+    );
+    private final TObjectIntMap<O> slots = new TObjectIntHashMap<>(
+        Constants.DEFAULT_CAPACITY,
+        Constants.DEFAULT_LOAD_FACTOR,
+        NONE
+    );
+    private Object[] elements = new Object[INITIAL_CAPACITY];
+    private double[] xs = new double[INITIAL_CAPACITY];
+    private double[] ys = new double[INITIAL_CAPACITY];
+    private long[] cells = new long[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int[] previous = new int[INITIAL_CAPACITY];
+    private int[] free = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int used;
+
+    /**
+     * @param cellSize
+     *            the side of the cells, ideally the range of most queries
+     *            (e.g., the communication range of the nodes)
+     */
+    public CellListSpatialIndex(final double cellSize) {
+        if (!(cellSize > 0 && Double.isFinite(cellSize))) {
+            throw new IllegalArgumentException("The cell size must be positive and finite, got " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * @return the side of the cells
+     */
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    @Override
+    public void insert(final O element, final double... position) {
+        checkDimensions(position);
+        if (slots.containsKey(element)) {
+            throw new IllegalArgumentException(element + " is already indexed");
+        }
+        final int slot = allocate();
+        elements[slot] = element;
+        xs[slot] = position[0];
+        ys[slot] = position[1];
+        link(slot, cellOf(position[0], position[1]));
+        slots.put(element, slot);
+    }
+
+    @Override
+    public boolean remove(final O element, final double... position) {
+        final int slot = slots.remove(element);
+        if (slot == NONE) {
+            return false;
+        }
+        unlink(slot);
+        elements[slot] = null;
+        free[freeCount] = slot;
+        freeCount++;
+        return true;
+    }
+
+    @Override
+    public boolean move(final O element, final double[] start, final double[] end) {
+        checkDimensions(end);
+        final int slot = slots.get(element);
+        if (slot == NONE) {
+            return false;
+        }
+        final long cell = cellOf(end[0], end[1]);
+        if (cell != cells[slot]) {
+            unlink(slot);
+            link(slot, cell);
+        }
+        xs[slot] = end[0];
+        ys[slot] = end[1];
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The queried area is the smallest axis-aligned rectangle containing all the provided points.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<O> query(final double[]... parallelotope) {
+        if (parallelotope.length == 0) {
+            throw new IllegalArgumentException("At least a point is required to describe the area to query");
+        }
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (final double[] point : parallelotope) {
+            checkDimensions(point);
+            minX = Math.min(minX, point[0]);
+            minY = Math.min(minY, point[1]);
+            maxX = Math.max(maxX, point[0]);
+            maxY = Math.max(maxY, point[1]);
+        }
+        final List<O> result = new ArrayList<>();
+        final int firstColumn = coordinateOf(minX);
+        final int lastColumn = coordinateOf(maxX);
+        final int firstRow = coordinateOf(minY);
+        final int lastRow = coordinateOf(maxY);
+        final long queriedCells = ((long) lastColumn - firstColumn + 1) * ((long) lastRow - firstRow + 1);
+        if (queriedCells > heads.size()) {
+            /*
+             * Visiting the elements is cheaper than visiting the cells
+             */
+            for (int slot = 0; slot < used; slot++) {
+                if (elements[slot] != null && isInside(slot, minX, minY, maxX, maxY)) {
+                    result.add((O) elements[slot]);
+                }
+            }
+        } else {
+            /*
+             * Long counters, as cells may lie at the (saturated) border of the grid
+             */
+            for (long column = firstColumn; column <= lastColumn; column++) {
+                for (long row = firstRow; row <= lastRow; row++) {
+                    for (int slot = heads.get(key((int) column, (int) row)); slot != NONE; slot = next[slot]) {
+                        if (isInside(slot, minX, minY, maxX, maxY)) {
+                            result.add((O) elements[slot]);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the {@code k} elements nearest to the provided point (by Euclidean distance) among those satisfying
+     * the filter. Cells are visited in square rings around the cell of the point, and the search stops as soon as
+     * the farthest of the {@code k} nearest elements found is not farther than the cells yet to visit.
+     * If a ring has more cells than the non-empty ones, the elements are rather visited directly.
+     *
+     * @param point
+     *            the center of the search
+     * @param k
+     *            the number of elements to find
+     * @param filter
+     *            the elements that can be found
+     * @return the {@code k} nearest elements, or all the elements satisfying the filter if they are fewer,
+     *         sorted by increasing distance from the point
+     */
+    public List<O> queryNearest(final double[] point, final int k, final Predicate<? super O> filter) {
+        checkDimensions(point);
+        if (k < 1) {
+            throw new IllegalArgumentException("The number of elements to find must be positive, got " + k);
+        }
+        final NearestSearch search = new NearestSearch(point[0], point[1], k, filter);
+        final long column = coordinateOf(point[0]);
+        final long row = coordinateOf(point[1]);
+        search.visitCell(column, row);
+        for (long ring = 1; !search.isComplete(column, row, ring - 1); ring++) {
+            if (8 * ring > heads.size()) {
+                search.visitAll();
+                break;
+            }
+            for (long cell = column - ring; cell <= column + ring; cell++) {
+                search.visitCell(cell, row - ring);
+                search.visitCell(cell, row + ring);
+            }
+            for (long cell = row - ring + 1; cell < row + ring; cell++) {
+                search.visitCell(column - ring, cell);
+                search.visitCell(column + ring, cell);
+            }
+        }
+        return search.result();
+    }
+
+    @Override
+    public int getDimensions() {
+        return DIMENSIONS;
+    }
+
+    private boolean isInside(
+        final int slot,
+        final double minX,
+        final double minY,
+        final double maxX,
+        final double maxY
+    ) {
+        return xs[slot] >= minX && xs[slot] <= maxX && ys[slot] >= minY && ys[slot] <= maxY;
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            freeCount--;
+            return free[freeCount];
+        }
+        if (used == elements.length) {
+            final int capacity = elements.length * 2;
+            elements = Arrays.copyOf(elements, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            cells = Arrays.copyOf(cells, capacity);
+            next = Arrays.copyOf(next, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+            free = Arrays.copyOf(free, capacity);
+        }
+        final int slot = used;
+        used++;
+        return slot;
+    }
+
+    private void link(final int slot, final long cell) {
+        final int head = heads.get(cell);
+        next[slot] = head;
+        previous[slot] = NONE;
+        if (head != NONE) {
+            previous[head] = slot;
+        }
+        heads.put(cell, slot);
+        cells[slot] = cell;
+    }
+
+    private void unlink(final int slot) {
+        final int before = previous[slot];
+        final int after = next[slot];
+        if (before == NONE) {
+            if (after == NONE) {
+                heads.remove(cells[slot]);
+            } else {
+                heads.put(cells[slot], after);
+            }
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+    }
+
+    private long cellOf(final double x, final double y) {
+        return key(coordinateOf(x), coordinateOf(y));
+    }
+
+    /*
+     * The conversion saturates, hence far away elements share the cells at the border of the grid.
+     */
+    private int coordinateOf(final double value) {
+        return (int) Math.floor(value / cellSize);
+    }
+
+    private static long key(final int column, final int row) {
+        return ((long) column << Integer.SIZE) | (row & 0xFFFF_FFFFL);
+    }
+
+    private static void checkDimensions(final double[] position) {
+        if (position.length != DIMENSIONS) {
+            throw new IllegalArgumentException(
+                "Expected a bidimensional position, got " + position.length + " coordinates"
+            );
+        }
+    }
+
+    /*
+     * The state of a nearest neighbor search: the nearest elements found so far, the farthest first.
+     */
+    private final class NearestSearch {
+
+        private final double x;
+        private final double y;
+        private final int k;
+        private final Predicate<? super O> filter;
+        private final Queue<Candidate> nearest = new PriorityQueue<>(
+            Comparator.comparingDouble((Candidate it) -> it.distance).reversed()
+        );
+
+        private NearestSearch(final double x, final double y, final int k, final Predicate<? super O> filter) {
+            this.x = x;
+            this.y = y;
+            this.k = k;
+            this.filter = filter;
+        }
+
+        /*
+         * True if k elements have been found, and none in the cells out of the ring can be nearer.
+         */
+        private boolean isComplete(final long column, final long row, final long ring) {
+            if (nearest.size() < k) {
+                return false;
+            }
+            final double border = Math.min(
+                Math.min(x - (column - ring) * cellSize, (column + ring + 1) * cellSize - x),
+                Math.min(y - (row - ring) * cellSize, (row + ring + 1) * cellSize - y)
+            );
+            return nearest.element().distance <= border;
+        }
+
+        private void visitCell(final long column, final long row) {
+            if (column >= Integer.MIN_VALUE && column <= Integer.MAX_VALUE
+                && row >= Integer.MIN_VALUE && row <= Integer.MAX_VALUE
+            ) {
+                for (int slot = heads.get(key((int) column, (int) row)); slot != NONE; slot = next[slot]) {
+                    visit(slot);
+                }
+            }
+        }
+
+        private void visitAll() {
+            nearest.clear();
+            for (int slot = 0; slot < used; slot++) {
+                if (elements[slot] != null) {
+                    visit(slot);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void visit(final int slot) {
+            if (filter.test((O) elements[slot])) {
+                final double dx = xs[slot] - x;
+                final double dy = ys[slot] - y;
+                final double distance = Math.sqrt(dx * dx + dy * dy);
+                if (nearest.size() < k) {
+                    nearest.add(new Candidate(slot, distance));
+                } else if (distance < nearest.element().distance) {
+                    nearest.remove();
+                    nearest.add(new Candidate(slot, distance));
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<O> result() {
+            final Candidate[] sorted = nearest.toArray(new Candidate[0]);
+            Arrays.sort(sorted, Comparator.comparingDouble(it -> it.distance));
+            final List<O> result = new ArrayList<>(sorted.length);
+            for (final Candidate candidate : sorted) {
+                result.add((O) elements[candidate.slot]);
+            }
+            return result;
+        }
+    }
+
+    private static final class Candidate {
+
+        private final int slot;
+        private final double distance;
+
+        private Candidate(final int slot, final double distance) {
+            this.slot = slot;
+            this.distance = distance;
+        }
+    }
+}
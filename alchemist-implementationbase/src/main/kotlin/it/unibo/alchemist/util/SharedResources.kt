@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.util
+
+import org.slf4j.LoggerFactory
+import java.io.InputStream
+import java.lang.ref.Cleaner
+import java.security.MessageDigest
+import java.util.concurrent.ConcurrentHashMap
+import java.util.function.Supplier
+
+/**
+ * A JVM-wide cache of heavy, immutable resources (such as maps, navigation graphs, or parsed images)
+ * shared by the simulations running in the same JVM, e.g., during a batch.
+ * Resources are identified by their type, the hash of the content they are built from
+ * (see [contentHash]), and any further parameter affecting their construction.
+ * Every resource is built once, even if requested concurrently, and it is reference-counted:
+ * each request is bound to an owner (typically, the environment using the resource),
+ * and the resource is dropped (and closed, if [AutoCloseable]) once all of its owners have been garbage collected.
+ *
+ * Shared resources must not be modified by their users.
+ */
+object SharedResources {
+
+    private const val BUFFER_SIZE = 1 shl 16
+    private val logger = LoggerFactory.getLogger(SharedResources::class.java)
+    private val cleaner = Cleaner.create()
+    private val entries = ConcurrentHashMap<Key, Entry>()
+
+    /**
+     * The number of resources currently shared.
+     */
+    @JvmStatic
+    val size: Int get() = entries.size
+
+    /**
+     * Returns the resource of the given [type] built from the content with hash [contentHash]
+     * and the given [parameters], building it with [loader] if no other owner is currently using it.
+     * The resource is retained until [owner] gets garbage collected.
+     */
+    @JvmStatic
+    @Suppress("UNCHECKED_CAST")
+    fun <R : Any> acquire(
+        owner: Any,
+        type: Class<in R>,
+        contentHash: String,
+        parameters: List<*>,
+        loader: Supplier<out R>,
+    ): R {
+        val key = Key(type, contentHash, parameters)
+        val entry = checkNotNull(entries.compute(key) { _, existing -> (existing ?: Entry()).apply { references++ } })
+        val resource = runCatching { entry.get(loader) }.onFailure { release(key, entry) }.getOrThrow()
+        cleaner.register(owner) { release(key, entry) }
+        return resource as R
+    }
+
+    /**
+     * Computes the SHA-256 hash of the content of [input], which gets consumed but not closed.
+     */
+    @JvmStatic
+    fun contentHash(input: InputStream): String {
+        val digest = MessageDigest.getInstance("SHA-256")
+        val buffer = ByteArray(BUFFER_SIZE)
+        var read = input.read(buffer)
+        while (read >= 0) {
+            digest.update(buffer, 0, read)
+            read = input.read(buffer)
+        }
+        return digest.digest().joinToString(separator = "") { "%02x".format(it) }
+    }
+
+    /**
+     * Computes the SHA-256 hash of [content].
+     */
+    @JvmStatic
+    fun contentHash(content: ByteArray): String = contentHash(content.inputStream())
+
+    private fun release(key: Key, entry: Entry) {
+        var dropped = false
+        entries.computeIfPresent(key) { _, current ->
+            if (current === entry) {
+                entry.references--
+                dropped = entry.references == 0
+            }
+            current.takeUnless { dropped }
+        }
+        if (dropped) {
+            (entry.resource as? AutoCloseable)?.let { resource ->
+                runCatching { resource.close() }.onFailure { logger.warn("Could not close {}", resource, it) }
+            }
+        }
+    }
+
+    private data class Key(val type: Class<*>, val contentHash: String, val parameters: List<*>)
+
+    /*
+     * References are only updated within the atomic operations of the map.
+     */
+    private class Entry {
+        var references = 0
+
+        @Volatile
+        var resource: Any? = null
+            private set
+
+        fun get(loader: Supplier<out Any>): Any = resource ?: synchronized(this) {
+            resource ?: loader.get().also { resource = it }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.model.timedistributions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import it.unibo.alchemist.model.Time;
+import it.unibo.alchemist.model.times.DoubleTime;
+import org.apache.commons.math3.random.MersenneTwister;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the next occurrence computed on doubles is consistent with its {@link Time} representation.
+ */
+class TestExponentialTime {
+
+    private static final double RATE = 2;
+
+    /**
+     * The next occurrence, as a double and as a {@link Time}, must be the same.
+     */
+    @Test
+    void testNextOccurrenceViews() {
+        final ExponentialTime<Double> distribution = new ExponentialTime<>(RATE, new MersenneTwister(1));
+        distribution.update(new DoubleTime(1), true, RATE, null);
+        final double next = distribution.getNextOccurrenceAsDouble();
+        assertTrue(next > 1);
+        assertEquals(new DoubleTime(next), distribution.getNextOccurence());
+        assertSame(distribution.getNextOccurence(), distribution.getNextOccurence());
+    }
+
+    /**
+     * A change of propensity must rescale the remaining time.
+     */
+    @Test
+    void testRescaling() {
+        final ExponentialTime<Double> distribution = new ExponentialTime<>(RATE, new MersenneTwister(1));
+        distribution.update(new DoubleTime(1), true, RATE, null);
+        final double next = distribution.getNextOccurrenceAsDouble();
+        distribution.update(new DoubleTime(1), false, 2 * RATE, null);
+        assertEquals((next - 1) / 2 + 1, distribution.getNextOccurrenceAsDouble());
+        assertEquals(distribution.getNextOccurrenceAsDouble(), distribution.getNextOccurence().toDouble());
+    }
+
+    /**
+     * A null propensity must unschedule the reaction.
+     */
+    @Test
+    void testUnscheduling() {
+        final ExponentialTime<Double> distribution = new ExponentialTime<>(RATE, new MersenneTwister(1));
+        distribution.update(new DoubleTime(1), true, RATE, null);
+        distribution.update(new DoubleTime(1), false, 0, null);
+        assertEquals(Double.POSITIVE_INFINITY, distribution.getNextOccurrenceAsDouble());
+        assertSame(Time.INFINITY, distribution.getNextOccurence());
+    }
+
+    /**
+     * Subclasses overriding {@link ExponentialTime#genTime(double)} must keep generating the next occurrence.
+     */
+    @Test
+    void testCustomGenTime() {
+        final ExponentialTime<Double> distribution = new ExponentialTime<>(RATE, new MersenneTwister(1)) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected Time genTime(final double propensity) {
+                return new DoubleTime(1 / propensity);
+            }
+        };
+        distribution.update(new DoubleTime(1), true, RATE, null);
+        assertEquals(1 + 1 / RATE, distribution.getNextOccurrenceAsDouble());
+    }
+}
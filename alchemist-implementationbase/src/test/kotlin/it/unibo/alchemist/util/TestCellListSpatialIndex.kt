@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.util
+
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.booleans.shouldBeFalse
+import io.kotest.matchers.booleans.shouldBeTrue
+import io.kotest.matchers.collections.shouldBeEmpty
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.shouldBe
+import org.apache.commons.math3.random.MersenneTwister
+import org.danilopianini.util.FlexibleQuadTree
+import kotlin.math.sqrt
+
+class TestCellListSpatialIndex : StringSpec(
+    {
+        "queries should match the ones of a quadtree while elements move" {
+            val random = MersenneTwister(1)
+            val cellList = CellListSpatialIndex<Int>(RANGE)
+            val quadTree = FlexibleQuadTree<Int>()
+            fun randomPosition() = doubleArrayOf(random.nextDouble() * SIDE, random.nextDouble() * SIDE)
+            val positions = MutableList(ELEMENTS) { randomPosition() }
+            positions.forEachIndexed { element, position ->
+                cellList.insert(element, *position)
+                quadTree.insert(element, *position)
+            }
+            repeat(STEPS) {
+                val element = random.nextInt(ELEMENTS)
+                val destination = randomPosition()
+                cellList.move(element, positions[element], destination).shouldBeTrue()
+                quadTree.move(element, positions[element], destination)
+                positions[element] = destination
+                val center = randomPosition()
+                val area = arrayOf(
+                    doubleArrayOf(center[0] - RANGE, center[1] + RANGE),
+                    doubleArrayOf(center[0] + RANGE, center[1] - RANGE),
+                )
+                cellList.query(*area).toSet() shouldBe quadTree.query(*area).toSet()
+            }
+        }
+        "nearest elements should be the ones found by sorting all the elements by distance" {
+            val random = MersenneTwister(1)
+            val index = CellListSpatialIndex<Int>(RANGE)
+            val positions = List(ELEMENTS) { doubleArrayOf(random.nextDouble() * SIDE, random.nextDouble() * SIDE) }
+            positions.forEachIndexed { element, position -> index.insert(element, *position) }
+            index.insert(ELEMENTS, Double.MAX_VALUE, Double.MAX_VALUE)
+            listOf(1, 10, ELEMENTS / 2, ELEMENTS + 1).forEach { k ->
+                repeat(STEPS / 10) {
+                    val center = doubleArrayOf(random.nextDouble() * SIDE, random.nextDouble() * SIDE)
+                    val expected = positions.indices
+                        .filter { it % 3 != 0 }
+                        .sortedBy {
+                            val dx = positions[it][0] - center[0]
+                            val dy = positions[it][1] - center[1]
+                            sqrt(dx * dx + dy * dy)
+                        }
+                        .take(k)
+                    index.queryNearest(center, k) { it % 3 != 0 && it < ELEMENTS } shouldBe expected
+                }
+            }
+        }
+        "removed elements should not be found" {
+            val index = CellListSpatialIndex<String>(1.0)
+            index.insert("a", 0.5, 0.5)
+            index.insert("b", 0.6, 0.6)
+            index.remove("a", 0.5, 0.5).shouldBeTrue()
+            index.remove("a", 0.5, 0.5).shouldBeFalse()
+            index.move("a", doubleArrayOf(0.5, 0.5), doubleArrayOf(1.0, 1.0)).shouldBeFalse()
+            index.query(doubleArrayOf(0.0, 0.0), doubleArrayOf(1.0, 1.0)) shouldContainExactly listOf("b")
+            index.insert("a", -3.0, -3.0)
+            index.query(doubleArrayOf(-4.0, -4.0), doubleArrayOf(-2.0, -2.0)) shouldContainExactly listOf("a")
+        }
+        "far away elements should be found" {
+            val index = CellListSpatialIndex<String>(1.0)
+            val far = doubleArrayOf(Double.MAX_VALUE, -Double.MAX_VALUE)
+            index.insert("far", *far)
+            index.query(doubleArrayOf(0.0, 0.0), doubleArrayOf(1.0, 1.0)).shouldBeEmpty()
+            index.query(far, doubleArrayOf(Double.MAX_VALUE, 0.0)) shouldContainExactly listOf("far")
+            index.query(far, far) shouldContainExactly listOf("far")
+        }
+        "elements should be unique" {
+            val index = CellListSpatialIndex<String>(1.0)
+            index.insert("a", 0.0, 0.0)
+            shouldThrow<IllegalArgumentException> { index.insert("a", 1.0, 1.0) }
+        }
+    },
+) {
+    private companion object {
+        const val ELEMENTS = 1000
+        const val STEPS = 2000
+        const val SIDE = 30.0
+        const val RANGE = 1.5
+    }
+}
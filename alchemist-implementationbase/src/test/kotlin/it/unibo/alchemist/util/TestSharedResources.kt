@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.util
+
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.shouldNotBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import io.kotest.matchers.types.shouldNotBeSameInstanceAs
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+class TestSharedResources : StringSpec(
+    {
+        "resources built from the same content should be shared" {
+            val owners = List(2) { Any() }
+            val hash = SharedResources.contentHash("same content".toByteArray())
+            val resources = owners.map {
+                SharedResources.acquire(it, Resource::class.java, hash, listOf(1)) { Resource() }
+            }
+            resources[0] shouldBeSameInstanceAs resources[1]
+            val other = SharedResources.acquire(owners[0], Resource::class.java, hash, listOf(2)) { Resource() }
+            other shouldNotBeSameInstanceAs resources[0]
+        }
+        "content hashes should depend on the content only" {
+            SharedResources.contentHash("a".toByteArray()) shouldBe SharedResources.contentHash("a".byteInputStream())
+            SharedResources.contentHash("a".toByteArray()) shouldNotBe SharedResources.contentHash("b".toByteArray())
+        }
+        "concurrent requests should build the resource once" {
+            val owner = Any()
+            val builds = AtomicInteger()
+            val start = CountDownLatch(1)
+            val executor = Executors.newFixedThreadPool(THREADS)
+            try {
+                val resources = List(THREADS) {
+                    executor.submit(
+                        Callable {
+                            start.await()
+                            SharedResources.acquire(owner, Resource::class.java, "concurrent", listOf<Any>()) {
+                                builds.incrementAndGet()
+                                Thread.sleep(BUILD_MILLIS)
+                                Resource()
+                            }
+                        },
+                    )
+                }
+                start.countDown()
+                resources.map { it.get() }.distinct().size shouldBe 1
+                builds.get() shouldBe 1
+            } finally {
+                executor.shutdown()
+            }
+        }
+        "failed builds should not be cached" {
+            val owner = Any()
+            shouldThrow<IllegalStateException> {
+                SharedResources.acquire<Resource>(owner, Resource::class.java, "failing", listOf(0)) {
+                    error("build failure")
+                }
+            }
+            val recovered = SharedResources.acquire(owner, Resource::class.java, "failing", listOf(0)) { Resource() }
+            recovered shouldNotBe null
+        }
+    },
+) {
+    private class Resource
+
+    private companion object {
+        const val THREADS = 8
+        const val BUILD_MILLIS = 100L
+    }
+}
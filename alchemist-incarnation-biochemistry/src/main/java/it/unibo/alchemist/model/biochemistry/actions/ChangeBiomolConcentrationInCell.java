@@ -58,6 +58,11 @@ public final class ChangeBiomolConcentrationInCell extends AbstractActionOnSingl
         return Context.LOCAL; 
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
     @Override
     public String toString() {
          if (deltaC >= 0) {
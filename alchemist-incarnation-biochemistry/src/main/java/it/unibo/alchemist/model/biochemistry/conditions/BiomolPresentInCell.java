@@ -28,4 +28,9 @@ public class BiomolPresentInCell extends GenericMoleculePresent<Double> {
         super(node, biomol, concentration);
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return getClass() == BiomolPresentInCell.class;
+    }
+
 }
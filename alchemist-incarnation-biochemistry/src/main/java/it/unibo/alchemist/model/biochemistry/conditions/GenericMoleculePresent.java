@@ -65,6 +65,16 @@ public class GenericMoleculePresent<T extends Number> extends
                 .doubleValue();
     }
 
+    /**
+     * Subclasses may read more than the local concentration, and must opt in on their own.
+     *
+     * @return true if this condition is exactly a {@link GenericMoleculePresent}
+     */
+    @Override
+    public boolean isParallelizable() {
+        return getClass() == GenericMoleculePresent.class;
+    }
+
     /**
      * {@inheritDoc}
      */
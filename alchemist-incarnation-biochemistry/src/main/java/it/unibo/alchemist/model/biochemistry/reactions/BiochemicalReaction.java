@@ -121,6 +121,16 @@ public final class BiochemicalReaction extends ChemicalReaction<Double> {
         }
     }
 
+    /**
+     * Reactions picking a neighbor draw from the shared random generator, hence they are not parallelizable.
+     *
+     * @return true if no neighbor condition is present, and all the conditions and actions are parallelizable
+     */
+    @Override
+    public boolean isParallelizable() {
+        return !neighborConditionsPresent && conditionsAndActionsAreParallelizable();
+    }
+
     @Override
     public void setConditions(@Nonnull final List<? extends Condition<Double>> conditions) {
         super.setConditions(conditions);
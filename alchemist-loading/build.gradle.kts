@@ -17,6 +17,10 @@ import Libs.incarnation
  * GNU General Public License) with a linking exception)
  * as described in the file LICENSE in the Alchemist distribution"s top directory.
  */
+plugins {
+    alias(libs.plugins.jmh)
+}
+
 dependencies {
     api(alchemist("implementationbase"))
     api(alchemist("api"))
@@ -46,6 +50,13 @@ dependencies {
 
     testRuntimeOnly(incarnation("sapere"))
     testRuntimeOnly(incarnation("protelis"))
+
+    jmhImplementation(incarnation("biochemistry"))
+}
+
+jmh {
+    includeTests.set(false)
+    resultFormat.set("JSON")
 }
 
 tasks.withType<Test> {
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.exporters;
+
+import it.unibo.alchemist.boundary.Exporter;
+import it.unibo.alchemist.boundary.exportfilters.CommonFilters;
+import it.unibo.alchemist.boundary.extractors.MoleculeReader;
+import it.unibo.alchemist.model.Environment;
+import it.unibo.alchemist.model.Node;
+import it.unibo.alchemist.model.biochemistry.BiochemistryIncarnation;
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.positions.Euclidean2DPosition;
+import it.unibo.alchemist.model.times.DoubleTime;
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the file exporters on a sample with a column per node,
+ * as produced by a {@link MoleculeReader} without aggregators.
+ * Each invocation exports one sample.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExporterBenchmark {
+
+    private static final int SEED = 1;
+    private static final String MOLECULE = "a";
+
+    /**
+     * Exporter under test.
+     */
+    @Param({ "CSV", "BUFFERED_CSV", "COLUMNAR" })
+    private Format format;
+
+    /**
+     * Number of nodes, and thus of exported columns.
+     */
+    @Param({ "1000", "100000" })
+    private int nodes;
+
+    private Environment<Double, Euclidean2DPosition> environment;
+    private Exporter<Double, Euclidean2DPosition> exporter;
+    private File folder;
+    private long step;
+
+    /**
+     * Builds the environment and the exporter, writing in a temporary folder.
+     *
+     * @throws IOException if the folder can not be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final RandomGenerator randomGenerator = new MersenneTwister(SEED);
+        final BiochemistryIncarnation incarnation = new BiochemistryIncarnation();
+        environment = new Continuous2DEnvironment<>(incarnation);
+        for (int i = 0; i < nodes; i++) {
+            final Node<Double> node = incarnation.createNode(randomGenerator, environment, null);
+            node.setConcentration(incarnation.createMolecule(MOLECULE), randomGenerator.nextDouble());
+            environment.addNode(node, new Euclidean2DPosition(i, 0));
+        }
+        folder = Files.createTempDirectory("alchemist-export-benchmark").toFile();
+        exporter = format.create(folder.getAbsolutePath());
+        exporter.bindVariables(Map.of());
+        exporter.bindDataExtractors(List.of(
+            new it.unibo.alchemist.boundary.extractors.Time(),
+            new MoleculeReader(MOLECULE, null, incarnation, CommonFilters.NOFILTER.getFilteringPolicy(), List.of())
+        ));
+        exporter.setup(environment);
+    }
+
+    /**
+     * Closes the exporter, and deletes the exported file.
+     *
+     * @throws IOException if the file can not be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        exporter.close(environment, new DoubleTime(step), step);
+        for (final File file : Objects.requireNonNull(folder.listFiles())) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(folder.toPath());
+    }
+
+    /**
+     * Exports a sample, one time unit after the previous one.
+     */
+    @Benchmark
+    public void export() {
+        step++;
+        exporter.update(environment, null, new DoubleTime(step), step);
+    }
+
+    /**
+     * Available exporters.
+     */
+    public enum Format {
+        /**
+         * {@link CSVExporter}, writing synchronously.
+         */
+        CSV {
+            @Override
+            Exporter<Double, Euclidean2DPosition> create(final String folder) {
+                return new CSVExporter<>("benchmark", 1.0, folder);
+            }
+        },
+        /**
+         * {@link CSVExporter}, writing on a background thread.
+         */
+        BUFFERED_CSV {
+            @Override
+            Exporter<Double, Euclidean2DPosition> create(final String folder) {
+                return new CSVExporter<>("benchmark", 1.0, folder, "csv", false, false, 64);
+            }
+        },
+        /**
+         * {@link ColumnarExporter}.
+         */
+        COLUMNAR {
+            @Override
+            Exporter<Double, Euclidean2DPosition> create(final String folder) {
+                return new ColumnarExporter<>("benchmark", 1.0, folder);
+            }
+        };
+
+        abstract Exporter<Double, Euclidean2DPosition> create(String folder);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.loader;
+
+import it.unibo.alchemist.boundary.InitializedEnvironment;
+import it.unibo.alchemist.boundary.LoadAlchemist;
+import it.unibo.alchemist.boundary.Loader;
+import it.unibo.alchemist.model.positions.Euclidean2DPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time required to load a simulation from an already parsed specification,
+ * as it happens for each run of a batch.
+ * Each invocation loads the simulation for a different point of the parameter space.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoadingBenchmark {
+
+    private static final int SEEDS = 1000;
+    private static final int RATES = 10;
+
+    private Loader loader;
+    private int run;
+
+    /**
+     * Parses the specification.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        loader = LoadAlchemist.from(
+            Objects.requireNonNull(LoadingBenchmark.class.getResource("/loading-benchmark.yml"))
+        );
+    }
+
+    /**
+     * Loads the simulation for the next point of the parameter space.
+     *
+     * @return the loaded environment
+     */
+    @Benchmark
+    public InitializedEnvironment<Double, Euclidean2DPosition> loadRun() {
+        run++;
+        return loader.<Double, Euclidean2DPosition>getWith(Map.of("seed", run % SEEDS, "rate", 1 + run % RATES));
+    }
+}
@@ -59,6 +59,20 @@ public interface Loader extends Serializable {
      */
     <T, P extends Position<P>> InitializedEnvironment<T, P> getWith(Map<String, ?> values);
 
+    /**
+     * Returns whether the scenario defined with the provided values differs from the one defined with the default
+     * values only in the seed of the simulation random generator and in the exports.
+     * If so, the two simulations start from the same state, and only the random choices made while running differ.
+     *
+     * @param values
+     *            a map specifying name-value bindings for the variables in this
+     *            scenario
+     * @return true if the values only affect the simulation seed and the exports
+     */
+    default boolean differsOnlyInSeeds(final Map<String, ?> values) {
+        return values.isEmpty();
+    }
+
     /**
      * Allows to access the currently defined constants, namely variables defined in the simulation file whose value is
      * constant and does not depend on the value of any free variable (directly or indirectly).
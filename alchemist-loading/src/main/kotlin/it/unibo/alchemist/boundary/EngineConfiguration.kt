@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary
+
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.linkingrules.ConnectWithinDistance
+
+/**
+ * How the simulation engine executes reactions:
+ * with [parallelism] threads (1 runs the simulation sequentially),
+ * considering for parallel execution the reactions scheduled within [lookahead] from the next one,
+ * and grouping them by the tiles of side [tileSize] the environment is partitioned into (0 does not partition it).
+ * If [tileSize] is null, the side of the tiles is derived from the environment by [tileSizeFor].
+ */
+data class EngineConfiguration(
+    val parallelism: Int = 1,
+    val lookahead: Double = 0.0,
+    val tileSize: Double? = null,
+) {
+    init {
+        require(parallelism >= 1) { "At least one thread is required, but parallelism is $parallelism" }
+        require(lookahead >= 0) { "The lookahead must be non-negative, but it is $lookahead" }
+        require(tileSize == null || (tileSize.isFinite() && tileSize >= 0)) {
+            "The tile size must be finite and non-negative: $tileSize"
+        }
+    }
+
+    /**
+     * The side of the tiles partitioning the [environment]: [tileSize], if specified.
+     * Otherwise, parallel engines partition bidimensional environments linked by a [ConnectWithinDistance] rule
+     * into tiles [TILE_SIDE_IN_RANGES] times its range wide, so that most footprints (spanning up to two hops)
+     * lie within a tile; the other environments are not partitioned.
+     */
+    fun tileSizeFor(environment: Environment<*, *>): Double = tileSize ?: environment.linkingRule
+        .let { it as? ConnectWithinDistance<*, *> }
+        ?.takeIf { parallelism > 1 && environment.dimensions == 2 }
+        ?.let { TILE_SIDE_IN_RANGES * it.range }
+        ?: 0.0
+
+    private companion object {
+        /**
+         * The side of the tiles derived from the range of the linking rule, in ranges.
+         */
+        private const val TILE_SIDE_IN_RANGES = 4
+    }
+}
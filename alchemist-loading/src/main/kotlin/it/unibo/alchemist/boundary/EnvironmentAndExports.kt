@@ -9,6 +9,7 @@
 
 package it.unibo.alchemist.boundary
 
+import it.unibo.alchemist.core.Scheduler
 import it.unibo.alchemist.model.Environment
 import it.unibo.alchemist.model.Position
 
@@ -18,4 +19,6 @@ import it.unibo.alchemist.model.Position
 data class EnvironmentAndExports<T, P : Position<P>>(
     override val environment: Environment<T, P>,
     override val exporters: List<Exporter<T, P>>,
+    override val scheduler: Scheduler<T>? = null,
+    override val engine: EngineConfiguration = EngineConfiguration(),
 ) : InitializedEnvironment<T, P>
@@ -36,6 +36,13 @@ interface Exporter<T, P : Position<P>> {
      */
     fun bindVariables(variables: Map<String, *>)
 
+    /**
+     * The steps this exporter should be updated on, see [OutputMonitor.getSamplingPolicy].
+     * [update] may still be invoked on further steps, and should ignore them.
+     * Defaults to every step.
+     */
+    val samplingPolicy: SamplingPolicy get() = SamplingPolicy.everyStep()
+
     /**
      *  Prepare the export environment.
      *  This method is called only once upon simulation initialization.
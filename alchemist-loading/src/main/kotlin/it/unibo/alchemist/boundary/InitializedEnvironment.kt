@@ -9,6 +9,7 @@
 
 package it.unibo.alchemist.boundary
 
+import it.unibo.alchemist.core.Scheduler
 import it.unibo.alchemist.model.Environment
 import it.unibo.alchemist.model.Position
 
@@ -27,4 +28,14 @@ interface InitializedEnvironment<T, P : Position<P>> {
      * The data exporters for this environment.
      */
     val exporters: List<Exporter<T, P>>
+
+    /**
+     * The [Scheduler] requested for this environment, or null if the simulation engine default should be used.
+     */
+    val scheduler: Scheduler<T>? get() = null
+
+    /**
+     * How the simulation engine should execute the reactions, sequentially by default.
+     */
+    val engine: EngineConfiguration get() = EngineConfiguration()
 }
@@ -11,6 +11,7 @@ package it.unibo.alchemist.boundary.exporters
 
 import it.unibo.alchemist.boundary.Exporter
 import it.unibo.alchemist.boundary.Extractor
+import it.unibo.alchemist.boundary.SamplingPolicy
 import it.unibo.alchemist.boundary.Variable
 import it.unibo.alchemist.boundary.exporters.AbstractExporter.Companion.DEFAULT_INTERVAL
 import it.unibo.alchemist.model.Actionable
@@ -54,6 +55,16 @@ abstract class AbstractExporter<T, P : Position<P>> (
         const val DEFAULT_INTERVAL: Double = 1.0
     }
 
+    /**
+     * Samples the first step reaching each multiple of the sampling interval.
+     */
+    final override val samplingPolicy: SamplingPolicy =
+        if (samplingInterval > 0 && samplingInterval.isFinite()) {
+            SamplingPolicy.everyTime(samplingInterval)
+        } else {
+            SamplingPolicy.everyStep()
+        }
+
     final override fun bindDataExtractors(dataExtractors: List<Extractor<*>>) {
         require(!this::dataExtractors.isInitialized) {
             "Re-binding data extractors is forbidden. Currently bound: ${this.dataExtractors}"
@@ -10,6 +10,8 @@
 package it.unibo.alchemist.boundary.exporters
 
 import com.google.common.base.Charsets
+import it.unibo.alchemist.boundary.Extractor
+import it.unibo.alchemist.boundary.extractors.AbstractDoubleExporter
 import it.unibo.alchemist.model.Actionable
 import it.unibo.alchemist.model.Environment
 import it.unibo.alchemist.model.Position
@@ -18,12 +20,16 @@ import it.unibo.alchemist.model.times.DoubleTime
 import it.unibo.alchemist.util.BugReporting
 import org.slf4j.LoggerFactory
 import java.io.File
-import java.io.PrintStream
+import java.io.OutputStreamWriter
+import java.io.Writer
+import java.nio.file.Files
+import java.nio.file.Paths
 import java.text.SimpleDateFormat
 import java.util.Date
 import java.util.Locale
 import java.util.SortedMap
 import java.util.TimeZone
+import java.util.zip.GZIPOutputStream
 import kotlin.io.path.absolutePathString
 import kotlin.io.path.createTempDirectory
 import kotlin.reflect.KClass
@@ -31,11 +37,19 @@ import kotlin.reflect.KClass
 /**
  * Writes on file data provided by a number of {@link Extractor}s. Produces a
  * CSV with '#' as comment character.e
+ * Values of [AbstractDoubleExporter]s are captured raw, and formatted when written:
+ * with a positive [bufferSize], formatting, compression, and writing happen on a background thread,
+ * and the file content is the same as when writing synchronously.
  * @param fileNameRoot the starting name of the file to export data to.
  * @param interval the sampling time, defaults to [AbstractExporter.DEFAULT_INTERVAL].
  * @param exportPath if no path is specified it will generate the file inside a temporary folder.
  * @param appendTime if true it will always generate a new file, false to overwrite.
  * @param fileExtension the extension for the exported files, by default 'csv'
+ * @param compress if true, the file is compressed with gzip, and '.gz' is appended to its extension.
+ * @param bufferSize the number of lines that can be waiting to be written by the background thread.
+ * If zero (default), lines are written synchronously by the simulation thread.
+ * @param blockWhenFull if true (default), the simulation waits for the background thread
+ * when [bufferSize] lines are waiting to be written; if false, further lines are buffered in memory.
  */
 class CSVExporter<T, P : Position<P>> @JvmOverloads constructor(
     private val fileNameRoot: String = "",
@@ -44,9 +58,17 @@ class CSVExporter<T, P : Position<P>> @JvmOverloads constructor(
         .also { logger.warn("No output folder specified but export required. Alchemist will export data in $it") },
     val fileExtension: String = "csv",
     private val appendTime: Boolean = false,
+    val compress: Boolean = false,
+    val bufferSize: Int = 0,
+    val blockWhenFull: Boolean = true,
 ) : AbstractExporter<T, P>(interval) {
 
-    private lateinit var outputPrintStream: PrintStream
+    private lateinit var output: Writer
+    private lateinit var pipeline: CSVPipeline
+
+    init {
+        require(bufferSize >= 0) { "The buffer size must be non-negative, but got $bufferSize" }
+    }
 
     override fun setup(environment: Environment<T, P>) {
         if (!File(exportPath).exists()) {
@@ -61,70 +83,55 @@ class CSVExporter<T, P : Position<P>> @JvmOverloads constructor(
             "No fileNameRoot provided for exporting data, no variables in the environment, and timestamp unset:" +
                 "the file name would be empty. Please provide a file name."
         }
-        outputPrintStream = PrintStream("$path$filePrefix.$fileExtension", Charsets.UTF_8.name())
-        with(outputPrintStream) {
-            println(SEPARATOR)
-            print("# Alchemist log file - simulation started at: ")
-            print(now())
-            println(" #")
-            println(SEPARATOR)
-            println('#')
-            print("# ")
-            println(verboseVariablesDescriptor)
-            println('#')
-            println("# The columns have the following meaning: ")
-            print("# ")
+        val file = Paths.get("$path$filePrefix.$fileExtension${if (compress) ".gz" else ""}")
+        val stream = Files.newOutputStream(file).let { if (compress) GZIPOutputStream(it, BUFFER_BYTES) else it }
+        output = OutputStreamWriter(stream, Charsets.UTF_8).buffered(BUFFER_BYTES)
+        with(output) {
+            writeLine(SEPARATOR)
+            write("# Alchemist log file - simulation started at: ")
+            write(now())
+            writeLine(" #")
+            writeLine(SEPARATOR)
+            writeLine("#")
+            write("# ")
+            writeLine(verboseVariablesDescriptor)
+            writeLine("#")
+            writeLine("# The columns have the following meaning: ")
+            write("# ")
             dataExtractors.flatMap {
                 it.columnNames
             }.forEach {
-                print(it)
-                print(" ")
+                write(it)
+                write(" ")
             }
-            outputPrintStream.println()
+            writeLine()
         }
+        pipeline = CSVPipeline("CSVExporter for $file", output, dataExtractors, bufferSize, blockWhenFull)
         exportData(environment, null, DoubleTime(), 0)
     }
 
     override fun exportData(environment: Environment<T, P>, reaction: Actionable<T>?, time: Time, step: Long) {
-        val line: String = dataExtractors.joinToString(separator = " ") { extractor ->
-            val data = extractor.extractDataAsText(environment, reaction, time, step)
-            val names = extractor.columnNames
-            when {
-                data.size <= 1 -> data.values.joinToString(" ")
-                // Labels and keys match
-                data.size == names.size && data.keys.containsAll(names) -> names.joinToString(" ") {
-                    requireNotNull(data[it]) {
-                        BugReporting.reportBug(
-                            "Bug in ${this::class.simpleName}",
-                            mapOf("key" to it, "data" to data),
-                        )
-                    }
-                }
-                // If the labels do not match keys, require predictable iteration order
-                else -> {
-                    require(data.hasPredictableIteration) {
-                        BugReporting.reportBug(
-                            """
-                            Extractor "${extractor::class.simpleName}" is likely bugged:
-                            1. the set of labels $names does not match the keys ${data.keys}, but iteration may fail as
-                            2. it returned a map with non-predictable iteration order of type ${data::class.simpleName}"
-                            """.trimIndent(),
-                        )
-                    }
-                    data.values.joinToString(" ")
-                }
+        val row = pipeline.acquire()
+        dataExtractors.forEachIndexed { index, extractor ->
+            if (extractor is AbstractDoubleExporter) {
+                // AbstractDoubleExporter's text is the formatted data, in the same order
+                row.setValues(index, extractor.checkedValues(extractor.extractData(environment, reaction, time, step)))
+            } else {
+                val data = extractor.extractDataAsText(environment, reaction, time, step)
+                row.setText(index, extractor.checkedValues(data).joinToString(" "))
             }
         }
-        outputPrintStream.println(line)
+        pipeline.publish(row)
     }
 
     override fun close(environment: Environment<T, P>, time: Time, step: Long) {
-        with(outputPrintStream) {
-            println(SEPARATOR)
-            print("# End of data export. Simulation finished at: ")
-            print(now())
-            println(" #")
-            println(SEPARATOR)
+        pipeline.close()
+        with(output) {
+            writeLine(SEPARATOR)
+            write("# End of data export. Simulation finished at: ")
+            write(now())
+            writeLine(" #")
+            writeLine(SEPARATOR)
             close()
         }
     }
@@ -152,8 +159,51 @@ class CSVExporter<T, P : Position<P>> @JvmOverloads constructor(
             SortedMap::class,
         )
 
-        private val Map<String, Any>.hasPredictableIteration get() = mapsWithPredictableIteration.any { kclass ->
+        private val Map<String, *>.hasPredictableIteration get() = mapsWithPredictableIteration.any { kclass ->
             kclass.java.isAssignableFrom(this::class.java)
         }
+
+        private const val BUFFER_BYTES = 1 shl 16
+
+        private fun Map<String, *>.keysMatch(extractor: Extractor<*>) =
+            size == extractor.columnNames.size && keys.containsAll(extractor.columnNames)
+
+        /*
+         * The values of the map, ordered as by orderedValues,
+         * after checking that their order is predictable if the keys do not match the column names.
+         */
+        private fun <V : Any> Extractor<*>.checkedValues(data: Map<String, V>): Collection<V> {
+            require(data.size <= 1 || data.keysMatch(this) || data.hasPredictableIteration) {
+                BugReporting.reportBug(
+                    """
+                    Extractor "${this::class.simpleName}" is likely bugged:
+                    1. the set of labels $columnNames does not match the keys ${data.keys}, but iteration may fail as
+                    2. it returned a map with non-predictable iteration order of type ${data::class.simpleName}"
+                    """.trimIndent(),
+                )
+            }
+            return orderedValues(data)
+        }
+
+        /*
+         * The values of a single-valued map, those sorted as the column names if the keys match, or the values
+         * in iteration order otherwise.
+         */
+        private fun <V : Any> Extractor<*>.orderedValues(data: Map<String, V>): Collection<V> = when {
+            data.size <= 1 || !data.keysMatch(this) -> data.values
+            else -> columnNames.map {
+                requireNotNull(data[it]) {
+                    BugReporting.reportBug(
+                        "Bug in ${CSVExporter::class.simpleName}",
+                        mapOf("key" to it, "data" to data),
+                    )
+                }
+            }
+        }
+
+        private fun Writer.writeLine(text: String = "") {
+            write(text)
+            write(System.lineSeparator())
+        }
     }
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.exporters
+
+import it.unibo.alchemist.boundary.Extractor
+import it.unibo.alchemist.boundary.extractors.AbstractDoubleExporter
+import java.io.IOException
+import java.io.UncheckedIOException
+import java.io.Writer
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.LinkedBlockingQueue
+import kotlin.concurrent.thread
+
+/**
+ * A line of a CSV export, filled on the simulation thread and formatted when written.
+ * Values extracted by [AbstractDoubleExporter]s are stored raw, those of other extractors are stored as text.
+ */
+internal class CSVRow(extractors: Int) {
+    private val texts = arrayOfNulls<String>(extractors)
+    private val sizes = IntArray(extractors)
+    private var values = DoubleArray(extractors)
+    private var size = 0
+
+    /**
+     * Stores the text produced by the [extractor]-th extractor.
+     */
+    fun setText(extractor: Int, text: String) {
+        texts[extractor] = text
+    }
+
+    /**
+     * Stores the raw [data] produced by the [extractor]-th extractor.
+     */
+    fun setValues(extractor: Int, data: Collection<Double>) {
+        if (size + data.size > values.size) {
+            values = values.copyOf(maxOf(size + data.size, 2 * values.size))
+        }
+        data.forEach { values[size++] = it }
+        sizes[extractor] = data.size
+    }
+
+    /**
+     * Writes this row on [output], formatting the raw values with the respective [extractors].
+     */
+    fun writeTo(output: Writer, extractors: List<Extractor<*>>) {
+        var offset = 0
+        extractors.forEachIndexed { index, extractor ->
+            if (index > 0) {
+                output.write(" ")
+            }
+            val text = texts[index]
+            if (text != null) {
+                output.write(text)
+            } else {
+                val formatter = extractor as AbstractDoubleExporter
+                for (value in 0 until sizes[index]) {
+                    if (value > 0) {
+                        output.write(" ")
+                    }
+                    output.write(formatter.format(values[offset + value]))
+                }
+                offset += sizes[index]
+            }
+        }
+        output.write(System.lineSeparator())
+    }
+
+    /**
+     * Prepares this row for reuse.
+     */
+    fun clear() {
+        texts.fill(null)
+        size = 0
+    }
+}
+
+/**
+ * Writes [CSVRow]s on [output].
+ * If [capacity] is zero, rows are written as soon as they are published.
+ * Otherwise, [capacity] preallocated rows are cycled between the producer and a background writer thread:
+ * if [blockWhenFull], the producer waits for the writer once they are all in flight,
+ * otherwise it allocates further rows, trading memory for throughput.
+ */
+internal class CSVPipeline(
+    private val name: String,
+    private val output: Writer,
+    private val extractors: List<Extractor<*>>,
+    capacity: Int,
+    private val blockWhenFull: Boolean,
+) {
+    private val free = ArrayBlockingQueue<CSVRow>(maxOf(capacity, 1))
+    private val pending = LinkedBlockingQueue<CSVRow>()
+
+    @Volatile
+    private var failure: Throwable? = null
+
+    private val writer: Thread?
+
+    init {
+        require(capacity >= 0) { "The buffer capacity of $name must be non-negative, but got $capacity" }
+        repeat(maxOf(capacity, 1)) { free.add(CSVRow(extractors.size)) }
+        writer = if (capacity == 0) null else thread(name = "$name-writer", isDaemon = true) { drain() }
+    }
+
+    /**
+     * Returns an empty row to be filled and then [publish]ed.
+     */
+    fun acquire(): CSVRow {
+        checkFailure()
+        return when {
+            writer == null || blockWhenFull -> free.take()
+            else -> free.poll() ?: CSVRow(extractors.size)
+        }
+    }
+
+    /**
+     * Schedules [row] for writing.
+     */
+    fun publish(row: CSVRow) {
+        if (writer == null) {
+            write(row)
+        } else {
+            pending.put(row)
+        }
+    }
+
+    /**
+     * Waits for all the published rows to be written. Further rows can not be published.
+     */
+    fun close() {
+        if (writer != null) {
+            pending.put(END)
+            writer.join()
+        }
+        checkFailure()
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun drain() {
+        while (true) {
+            val row = pending.take()
+            if (row === END) {
+                return
+            }
+            if (failure == null) {
+                try {
+                    row.writeTo(output, extractors)
+                } catch (e: Throwable) {
+                    // Rows must keep flowing back, or a producer blocked in acquire() would never wake up
+                    failure = e
+                }
+            }
+            row.clear()
+            free.offer(row)
+        }
+    }
+
+    private fun write(row: CSVRow) {
+        try {
+            row.writeTo(output, extractors)
+        } catch (e: IOException) {
+            failure = e
+        } finally {
+            row.clear()
+            free.add(row)
+        }
+        checkFailure()
+    }
+
+    private fun checkFailure() {
+        when (val cause = failure) {
+            null -> Unit
+            is IOException -> throw UncheckedIOException("Unable to write the data exported by $name", cause)
+            else -> throw IllegalStateException("Unable to write the data exported by $name", cause)
+        }
+    }
+
+    private companion object {
+        private val END = CSVRow(0)
+    }
+}
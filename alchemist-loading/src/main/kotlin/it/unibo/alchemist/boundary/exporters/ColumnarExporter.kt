@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.exporters
+
+import it.unibo.alchemist.boundary.exporters.ColumnarFormat.writeSignedVarLong
+import it.unibo.alchemist.boundary.exporters.ColumnarFormat.writeText
+import it.unibo.alchemist.boundary.exporters.ColumnarFormat.writeVarInt
+import it.unibo.alchemist.boundary.exporters.ColumnarFormat.writeVarLong
+import it.unibo.alchemist.model.Actionable
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.Position
+import it.unibo.alchemist.model.Time
+import it.unibo.alchemist.model.times.DoubleTime
+import org.slf4j.LoggerFactory
+import java.io.BufferedOutputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.nio.file.Files
+import java.nio.file.Paths
+import kotlin.io.path.absolutePathString
+import kotlin.io.path.createTempDirectory
+
+/**
+ * Writes on file the data provided by a number of [it.unibo.alchemist.boundary.Extractor]s,
+ * in a compact binary format organized in chunks of columns (see [ColumnarReader]).
+ * Every sample has a time and a step, and a column for each key of the extracted data:
+ * numeric values are stored as doubles, other values as dictionary-encoded text.
+ * A new chunk begins every [chunkSize] samples, and whenever the columns change (e.g., as nodes are added).
+ * Chunks with many columns hold fewer samples, so that the values buffered in memory are about a million at most.
+ *
+ * @param fileNameRoot the starting name of the file to export data to.
+ * @param interval the sampling time, defaults to [AbstractExporter.DEFAULT_INTERVAL].
+ * @param exportPath if no path is specified it will generate the file inside a temporary folder.
+ * @param fileExtension the extension for the exported files, by default 'alccol'
+ * @param appendTime if true it will always generate a new file, false to overwrite.
+ * @param chunkSize the maximum number of samples per chunk.
+ */
+class ColumnarExporter<T, P : Position<P>> @JvmOverloads constructor(
+    private val fileNameRoot: String = "",
+    val interval: Double = DEFAULT_INTERVAL,
+    val exportPath: String = createTempDirectory("alchemist-export").absolutePathString()
+        .also { logger.warn("No output folder specified but export required. Alchemist will export data in $it") },
+    val fileExtension: String = "alccol",
+    private val appendTime: Boolean = false,
+    val chunkSize: Int = DEFAULT_CHUNK_SIZE,
+) : AbstractExporter<T, P>(interval) {
+
+    private lateinit var output: DataOutputStream
+    private val names = HashMap<String, Int>()
+    private val times = DoubleArray(chunkSize)
+    private val steps = LongArray(chunkSize)
+    private var columns: List<Column> = emptyList()
+    private var rows = 0
+    private var chunkRows = chunkSize
+
+    /*
+     * Reused while extracting each sample.
+     */
+    private val sampleNames = ArrayList<String>()
+    private val sampleValues = ArrayList<Any>()
+
+    init {
+        require(chunkSize > 0) { "The chunk size must be positive, but got $chunkSize" }
+    }
+
+    override fun setup(environment: Environment<T, P>) {
+        if (!File(exportPath).exists()) {
+            File(exportPath).mkdirs()
+        }
+        val path = if (exportPath.endsWith(File.separator)) exportPath else "${exportPath}${File.separator}"
+        val time = if (appendTime) "${System.currentTimeMillis()}" else ""
+        val filePrefix = listOf(fileNameRoot, variablesDescriptor, time)
+            .filter(String::isNotBlank)
+            .joinToString(separator = "_")
+        require(filePrefix.isNotEmpty()) {
+            "No fileNameRoot provided for exporting data, no variables in the environment, and timestamp unset:" +
+                "the file name would be empty. Please provide a file name."
+        }
+        output = DataOutputStream(
+            BufferedOutputStream(Files.newOutputStream(Paths.get("$path$filePrefix.$fileExtension")), BUFFER_BYTES),
+        )
+        output.writeInt(ColumnarFormat.MAGIC)
+        output.writeByte(ColumnarFormat.VERSION.toInt())
+        output.writeText(verboseVariablesDescriptor)
+        exportData(environment, null, DoubleTime(), 0)
+    }
+
+    override fun exportData(environment: Environment<T, P>, reaction: Actionable<T>?, time: Time, step: Long) {
+        sampleNames.clear()
+        sampleValues.clear()
+        dataExtractors.forEach { extractor ->
+            extractor.extractData(environment, reaction, time, step).forEach { (name, value) ->
+                sampleNames.add(name)
+                sampleValues.add(value)
+            }
+        }
+        val sameColumns = sampleNames.size == columns.size &&
+            columns.indices.all { columns[it].accepts(sampleNames[it], sampleValues[it]) }
+        if (!sameColumns) {
+            flush()
+            chunkRows = (MAXIMUM_BUFFERED_VALUES / sampleNames.size.coerceAtLeast(1)).coerceIn(1, chunkSize)
+            columns = sampleNames.indices.map { index ->
+                val value = sampleValues[index]
+                when (value) {
+                    is Number -> DoubleColumn(sampleNames[index], chunkRows)
+                    else -> TextColumn(sampleNames[index], chunkRows)
+                }
+            }
+        }
+        times[rows] = time.toDouble()
+        steps[rows] = step
+        columns.forEachIndexed { index, column -> column.set(rows, sampleValues[index]) }
+        rows++
+        if (rows == chunkRows) {
+            flush()
+        }
+    }
+
+    override fun close(environment: Environment<T, P>, time: Time, step: Long) {
+        flush()
+        output.writeByte(ColumnarFormat.END.toInt())
+        output.close()
+    }
+
+    private fun flush() {
+        if (rows > 0) {
+            with(output) {
+                writeByte(ColumnarFormat.CHUNK.toInt())
+                writeVarInt(rows)
+                writeTimes()
+                writeVarLong(steps[0])
+                for (row in 1 until rows) {
+                    writeSignedVarLong(steps[row] - steps[row - 1])
+                }
+                writeVarInt(columns.size)
+                columns.forEach { column ->
+                    val id = names[column.name]
+                    if (id == null) {
+                        val newId = names.size
+                        names[column.name] = newId
+                        writeVarInt(newId)
+                        writeText(column.name)
+                    } else {
+                        writeVarInt(id)
+                    }
+                    column.writeTo(this, rows)
+                }
+            }
+            rows = 0
+        }
+    }
+
+    private fun DataOutputStream.writeTimes() {
+        val deltas = LinkedHashMap<Double, Int>()
+        val exact = (1 until rows).all { row ->
+            val delta = times[row] - times[row - 1]
+            deltas.getOrPut(delta) { deltas.size }
+            times[row - 1] + delta == times[row] && deltas.size < rows / 2
+        }
+        if (exact && rows > 1) {
+            writeByte(ColumnarFormat.TIME_DELTAS.toInt())
+            writeDouble(times[0])
+            writeVarInt(deltas.size)
+            deltas.keys.forEach { writeDouble(it) }
+            for (row in 1 until rows) {
+                writeVarInt(checkNotNull(deltas[times[row] - times[row - 1]]))
+            }
+        } else {
+            writeByte(ColumnarFormat.TIME_RAW.toInt())
+            for (row in 0 until rows) {
+                writeDouble(times[row])
+            }
+        }
+    }
+
+    private sealed class Column(val name: String) {
+        abstract fun accepts(name: String, value: Any): Boolean
+        abstract fun set(row: Int, value: Any)
+        abstract fun writeTo(output: DataOutputStream, rows: Int)
+    }
+
+    private class DoubleColumn(name: String, size: Int) : Column(name) {
+        private val values = DoubleArray(size)
+
+        override fun accepts(name: String, value: Any) = name == this.name && value is Number
+
+        override fun set(row: Int, value: Any) {
+            values[row] = (value as Number).toDouble()
+        }
+
+        override fun writeTo(output: DataOutputStream, rows: Int) {
+            output.writeByte(ColumnarFormat.DOUBLES.toInt())
+            for (row in 0 until rows) {
+                output.writeDouble(values[row])
+            }
+        }
+    }
+
+    private class TextColumn(name: String, size: Int) : Column(name) {
+        private val values = arrayOfNulls<String>(size)
+
+        override fun accepts(name: String, value: Any) = name == this.name && value !is Number
+
+        override fun set(row: Int, value: Any) {
+            values[row] = value.toString()
+        }
+
+        override fun writeTo(output: DataOutputStream, rows: Int) {
+            val dictionary = LinkedHashMap<String, Int>()
+            val indexes = IntArray(rows) { dictionary.getOrPut(checkNotNull(values[it])) { dictionary.size } }
+            output.writeByte(ColumnarFormat.TEXTS.toInt())
+            output.writeVarInt(dictionary.size)
+            dictionary.keys.forEach { output.writeText(it) }
+            indexes.forEach { output.writeVarInt(it) }
+        }
+    }
+
+    companion object {
+        /**
+         * Default maximum number of samples per chunk.
+         */
+        const val DEFAULT_CHUNK_SIZE = 1024
+
+        private const val BUFFER_BYTES = 1 shl 16
+
+        private const val MAXIMUM_BUFFERED_VALUES = 1 shl 20
+
+        private val logger = LoggerFactory.getLogger(ColumnarExporter::class.java)
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.exporters
+
+import java.io.DataInput
+import java.io.DataOutput
+import java.nio.charset.StandardCharsets
+
+/**
+ * Layout of the files written by [ColumnarExporter] and read by [ColumnarReader].
+ * All numbers are big-endian; variable-length integers use 7 bits per byte, least significant group first,
+ * and signed ones are zig-zag encoded.
+ *
+ *     file   := MAGIC VERSION variables:text (CHUNK chunk)* END
+ *     chunk  := rows:varint time step columns:varint (name column)*
+ *     time   := TIME_RAW double{rows}
+ *             | TIME_DELTAS first:double deltas:varint double{deltas} index:varint{rows - 1}
+ *     step   := first:varlong delta:signed-varlong{rows - 1}
+ *     name   := id:varint [text if id is new]
+ *     column := DOUBLES double{rows}
+ *             | TEXTS entries:varint text{entries} index:varint{rows}
+ *     text   := bytes:varint byte{bytes}, UTF-8 encoded
+ *
+ * Column names are dictionary-encoded across the whole file, so that they are written only once.
+ * Each time is obtained by adding one of the chunk's distinct time deltas to the previous time:
+ * deltas are used only if they reproduce all times exactly and they are fewer than half of the rows.
+ */
+internal object ColumnarFormat {
+    const val MAGIC = 0x414C4343 // ALCC
+    const val VERSION: Byte = 2
+    const val END: Byte = 0
+    const val CHUNK: Byte = 1
+    const val TIME_RAW: Byte = 0
+    const val TIME_DELTAS: Byte = 1
+    const val DOUBLES: Byte = 0
+    const val TEXTS: Byte = 1
+
+    private const val PAYLOAD_BITS = 7
+    private const val PAYLOAD = 0x7F
+    private const val CONTINUATION = 0x80
+
+    fun DataOutput.writeVarLong(value: Long) {
+        var remaining = value
+        while (remaining and PAYLOAD.toLong().inv() != 0L) {
+            writeByte((remaining and PAYLOAD.toLong()).toInt() or CONTINUATION)
+            remaining = remaining ushr PAYLOAD_BITS
+        }
+        writeByte(remaining.toInt())
+    }
+
+    fun DataOutput.writeVarInt(value: Int) = writeVarLong(value.toLong())
+
+    fun DataOutput.writeSignedVarLong(value: Long) = writeVarLong((value shl 1) xor (value shr Long.SIZE_BITS - 1))
+
+    fun DataInput.readVarLong(): Long {
+        var result = 0L
+        var shift = 0
+        do {
+            val byte = readUnsignedByte()
+            result = result or ((byte and PAYLOAD).toLong() shl shift)
+            shift += PAYLOAD_BITS
+        } while (byte and CONTINUATION != 0)
+        return result
+    }
+
+    fun DataInput.readVarInt(): Int = Math.toIntExact(readVarLong())
+
+    fun DataInput.readSignedVarLong(): Long = readVarLong().let { (it ushr 1) xor -(it and 1) }
+
+    /*
+     * Unlike writeUTF, there is no limit on the length of the text.
+     */
+    fun DataOutput.writeText(text: String) {
+        val bytes = text.toByteArray(StandardCharsets.UTF_8)
+        writeVarInt(bytes.size)
+        write(bytes)
+    }
+
+    fun DataInput.readText(): String = ByteArray(readVarInt())
+        .also { readFully(it) }
+        .toString(StandardCharsets.UTF_8)
+}
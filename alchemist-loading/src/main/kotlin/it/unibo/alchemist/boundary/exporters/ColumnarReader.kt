@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.exporters
+
+import it.unibo.alchemist.boundary.exporters.ColumnarFormat.readSignedVarLong
+import it.unibo.alchemist.boundary.exporters.ColumnarFormat.readText
+import it.unibo.alchemist.boundary.exporters.ColumnarFormat.readVarInt
+import it.unibo.alchemist.boundary.exporters.ColumnarFormat.readVarLong
+import java.io.BufferedInputStream
+import java.io.Closeable
+import java.io.DataInputStream
+import java.io.InputStream
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Reads the files written by [ColumnarExporter], one chunk at a time.
+ */
+class ColumnarReader(input: InputStream) : Closeable {
+
+    constructor(path: Path) : this(Files.newInputStream(path))
+
+    private val input = DataInputStream(BufferedInputStream(input))
+    private val names = ArrayList<String>()
+    private var ended = false
+
+    /**
+     * The description of the variables of the exported simulation.
+     */
+    val variables: String
+
+    init {
+        val magic = this.input.readInt()
+        require(magic == ColumnarFormat.MAGIC) { "Not a columnar export: unexpected magic number $magic" }
+        val version = this.input.readByte()
+        require(version == ColumnarFormat.VERSION) { "Unsupported columnar export version $version" }
+        variables = this.input.readText()
+    }
+
+    /**
+     * Reads the next chunk, or returns null if the export is over.
+     */
+    fun nextChunk(): Chunk? = when {
+        ended -> null
+        else -> when (val tag = input.readByte()) {
+            ColumnarFormat.END -> null.also { ended = true }
+            ColumnarFormat.CHUNK -> readChunk()
+            else -> error("Corrupted columnar export: unexpected tag $tag")
+        }
+    }
+
+    /**
+     * The chunks that have not been read yet.
+     */
+    fun chunks(): Sequence<Chunk> = generateSequence { nextChunk() }
+
+    override fun close() = input.close()
+
+    private fun readChunk(): Chunk = with(input) {
+        val rows = readVarInt()
+        val times = readTimes(rows)
+        val steps = LongArray(rows)
+        if (rows > 0) {
+            steps[0] = readVarLong()
+            for (row in 1 until rows) {
+                steps[row] = steps[row - 1] + readSignedVarLong()
+            }
+        }
+        val columns = LinkedHashMap<String, List<Any>>()
+        repeat(readVarInt()) {
+            val id = readVarInt()
+            val name = if (id == names.size) readText().also { names.add(it) } else names[id]
+            columns[name] = when (val type = readByte()) {
+                ColumnarFormat.DOUBLES -> DoubleArray(rows) { readDouble() }.asList()
+                ColumnarFormat.TEXTS -> {
+                    val dictionary = List(readVarInt()) { readText() }
+                    List(rows) { dictionary[readVarInt()] }
+                }
+                else -> error("Corrupted columnar export: unexpected column type $type")
+            }
+        }
+        Chunk(times, steps, columns)
+    }
+
+    private fun readTimes(rows: Int): DoubleArray = with(input) {
+        when (val encoding = readByte()) {
+            ColumnarFormat.TIME_RAW -> DoubleArray(rows) { readDouble() }
+            ColumnarFormat.TIME_DELTAS -> {
+                val times = DoubleArray(rows)
+                times[0] = readDouble()
+                val deltas = DoubleArray(readVarInt()) { readDouble() }
+                for (row in 1 until rows) {
+                    times[row] = times[row - 1] + deltas[readVarInt()]
+                }
+                times
+            }
+            else -> error("Corrupted columnar export: unexpected time encoding $encoding")
+        }
+    }
+
+    /**
+     * A group of consecutive samples sharing the same columns.
+     *
+     * @param time the time of each sample
+     * @param step the step of each sample
+     * @param columns the values of each sample, by column name, in export order:
+     * numeric values are [Double]s, other values [String]s
+     */
+    class Chunk(val time: DoubleArray, val step: LongArray, val columns: Map<String, List<Any>>) {
+        /**
+         * The number of samples.
+         */
+        val size: Int get() = time.size
+    }
+}
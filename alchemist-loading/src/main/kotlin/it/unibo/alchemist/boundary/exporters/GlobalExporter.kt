@@ -11,6 +11,7 @@ package it.unibo.alchemist.boundary.exporters
 
 import it.unibo.alchemist.boundary.Exporter
 import it.unibo.alchemist.boundary.OutputMonitor
+import it.unibo.alchemist.boundary.SamplingPolicy
 import it.unibo.alchemist.model.Actionable
 import it.unibo.alchemist.model.Environment
 import it.unibo.alchemist.model.Position
@@ -32,6 +33,8 @@ class GlobalExporter<T, P : Position<P>>(
         }
     }
 
+    override fun getSamplingPolicy(): SamplingPolicy = SamplingPolicy.anyOf(exporters.map { it.samplingPolicy })
+
     override fun stepDone(environment: Environment<T, P>, reaction: Actionable<T>?, time: Time, step: Long) {
         exporters.forEach {
             it.update(environment, reaction, time, step)
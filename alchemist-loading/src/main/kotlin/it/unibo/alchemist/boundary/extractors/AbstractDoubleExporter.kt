@@ -32,8 +32,9 @@ abstract class AbstractDoubleExporter @JvmOverloads constructor(val precision: I
 
     /**
      * Uses this formatter to format some Double-encoded [data].
+     * Exporters may use it to defer the conversion of the values returned by [extractData].
      */
-    protected fun format(data: Double): String = precision?.run {
+    fun format(data: Double): String = precision?.run {
         String.format(Locale.ENGLISH, formatString, data)
     } ?: data.toString()
 
@@ -39,37 +39,41 @@ internal abstract class LoadingSystem(
     override fun <T : Any?, P : Position<P>> getWith(values: MutableMap<String, *>) =
         SingleUseLoader(originalContext, originalRoot).environmentWith<T, P>(values)
 
+    override fun differsOnlyInSeeds(values: Map<String, *>): Boolean {
+        /*
+         * Variable definitions, private keys (usually anchors), and exports get replaced by different values
+         * without altering the scenario
+         */
+        fun scenarioWith(values: Map<String, *>): Map<String, *> =
+            SingleUseLoader(originalContext, originalRoot).modelWith(values)
+                .filterKeys { it != DocumentRoot.variables && it != DocumentRoot.export && !it.startsWith("_") }
+                .mapValues { (key, value) ->
+                    if (key == DocumentRoot.seeds && value is Map<*, *>) {
+                        value - DocumentRoot.Seeds.simulation
+                    } else {
+                        value
+                    }
+                }
+        return scenarioWith(values) == scenarioWith(emptyMap<String, Any>())
+    }
+
     private inner class SingleUseLoader(originalContext: Context, private val originalRoot: Map<String, *>) {
 
         private val context: Context = originalContext.child()
         private val mutex = Semaphore(1)
         private var consumed = false
 
+        /**
+         * Returns the simulation model with the variables set at the provided [values].
+         */
+        fun modelWith(values: Map<String, *>): Map<String, Any> {
+            consume()
+            return injected(values).first
+        }
+
         fun <T : Any?, P : Position<P>> environmentWith(values: Map<String, *>): EnvironmentAndExports<T, P> {
-            try {
-                mutex.acquireUninterruptibly()
-                check(!consumed) {
-                    "This loader has already been consumed! This is a bug in Alchemist"
-                }
-                consumed = true
-            } finally {
-                mutex.release()
-            }
-            val unknownVariableNames = values.keys - variables.keys
-            require(unknownVariableNames.isEmpty()) {
-                "Unknown variables provided: $unknownVariableNames." +
-                    " Valid names: ${variables.keys}. Provided: ${values.keys}"
-            }
-            var root = originalRoot
-            // VARIABLE REIFICATION
-            val variableValues = variables.mapValues { (name, previous) ->
-                if (values.containsKey(name)) values[name] else previous.default
-            }
-            val knownValues: Map<String, Any?> = computeAllKnownValues(constants + variableValues)
-            logger.debug("Known values: {}", knownValues)
-            knownValues.forEach { (name, value) -> context.fixVariableValue(name, value) }
-            root = SimulationModel.inject(context, root)
-            logger.debug("Complete simulation model: {}", root)
+            consume()
+            val (root, variableValues) = injected(values)
             // SEEDS
             val (scenarioRNG, simulationRNG) = SimulationModel.visitSeeds(context, root[DocumentRoot.seeds])
             setCurrentRandomGenerator(simulationRNG)
@@ -132,6 +136,11 @@ internal abstract class LoadingSystem(
             } else {
                 logger.debug("Deployment descriptors: {}", deploymentDescriptors)
             }
+            // SCHEDULER
+            val scheduler = SimulationModel.visitScheduler<T>(context, root[DocumentRoot.scheduler])
+            logger.debug("Scheduler: {}", scheduler)
+            val engine = SimulationModel.visitEngine(context, root[DocumentRoot.engine])
+            logger.debug("Engine: {}", engine)
             // EXPORTS
             val exporters = SimulationModel.visitRecursively<Exporter<T, P>>(
                 context,
@@ -140,7 +149,40 @@ internal abstract class LoadingSystem(
                 SimulationModel.visitSingleExporter(incarnation, context, it)
             }
             exporters.forEach { it.bindVariables(variableValues) }
-            return EnvironmentAndExports(environment, exporters)
+            return EnvironmentAndExports(environment, exporters, scheduler, engine)
+        }
+
+        private fun consume() {
+            try {
+                mutex.acquireUninterruptibly()
+                check(!consumed) {
+                    "This loader has already been consumed! This is a bug in Alchemist"
+                }
+                consumed = true
+            } finally {
+                mutex.release()
+            }
+        }
+
+        /*
+         * Fixes the values of the variables, returning the model with the values injected and the variable values.
+         */
+        private fun injected(values: Map<String, *>): Pair<Map<String, Any>, Map<String, Any?>> {
+            val unknownVariableNames = values.keys - variables.keys
+            require(unknownVariableNames.isEmpty()) {
+                "Unknown variables provided: $unknownVariableNames." +
+                    " Valid names: ${variables.keys}. Provided: ${values.keys}"
+            }
+            // VARIABLE REIFICATION
+            val variableValues = variables.mapValues { (name, previous) ->
+                if (values.containsKey(name)) values[name] else previous.default
+            }
+            val knownValues: Map<String, Any?> = computeAllKnownValues(constants + variableValues)
+            logger.debug("Known values: {}", knownValues)
+            knownValues.forEach { (name, value) -> context.fixVariableValue(name, value) }
+            val root = SimulationModel.inject(context, originalRoot)
+            logger.debug("Complete simulation model: {}", root)
+            return root to variableValues
         }
 
         private fun <T, P : Position<P>> loadGlobalProgramsOnEnvironment(
@@ -256,6 +298,7 @@ internal abstract class LoadingSystem(
                 environment.linkingRule = composedLinkingRule
                 contextualize<LinkingRule<T, P>>(composedLinkingRule)
             }
+            val deployed = LinkedHashMap<Node<T>, P>()
             deployment.stream().forEach { position ->
                 val node = SimulationModel.visitNode(simulationRNG, incarnation, environment, context, nodeDescriptor)
                 contextualize(node)
@@ -267,10 +310,12 @@ internal abstract class LoadingSystem(
                 // PROGRAMS
                 loadProgramsOnNode(simulationRNG, incarnation, environment, node, position, descriptor)
                 node.properties.forEach { decontextualize(it) }
-                environment.addNode(node, position)
-                logger.debug("Added node {} at {}", node.id, position)
+                deployed[node] = position
                 decontextualize(node)
             }
+            environment.addNodes(deployed).forEach { node ->
+                logger.debug("Added node {} at {}", node.id, deployed[node])
+            }
         }
 
         private fun computeAllKnownValues(allVariableValues: Map<String, Any?>): Map<String, *> {
@@ -11,6 +11,7 @@ package it.unibo.alchemist.boundary.loader
 
 import arrow.core.Either
 import it.unibo.alchemist.boundary.DependentVariable
+import it.unibo.alchemist.boundary.EngineConfiguration
 import it.unibo.alchemist.boundary.ExportFilter
 import it.unibo.alchemist.boundary.Exporter
 import it.unibo.alchemist.boundary.Extractor
@@ -30,6 +31,7 @@ import it.unibo.alchemist.boundary.loader.util.TypeSearch
 import it.unibo.alchemist.boundary.variables.Constant
 import it.unibo.alchemist.boundary.variables.JSR223Variable
 import it.unibo.alchemist.boundary.variables.LinearVariable
+import it.unibo.alchemist.core.Scheduler
 import it.unibo.alchemist.model.Action
 import it.unibo.alchemist.model.Actionable
 import it.unibo.alchemist.model.Condition
@@ -525,6 +527,33 @@ internal object SimulationModel {
             }
         }
 
+    fun <T> visitScheduler(context: Context, root: Any?): Scheduler<T>? =
+        root?.let {
+            visitBuilding<Scheduler<T>>(context, root)?.getOrThrow() ?: cantBuildWith<Scheduler<T>>(root, JavaType)
+        }
+
+    fun visitEngine(context: Context, root: Any?): EngineConfiguration =
+        when (root) {
+            null -> EngineConfiguration()
+            is Map<*, *> -> {
+                require(DocumentRoot.Engine.validateDescriptor(root))
+                val defaults = EngineConfiguration()
+                EngineConfiguration(
+                    parallelism = root[DocumentRoot.Engine.parallelism]?.coerceToDouble(context)?.let { threads ->
+                        threads.toInt().also {
+                            require(it.toDouble() == threads) { "Not a valid number of threads: $threads" }
+                        }
+                    } ?: defaults.parallelism,
+                    lookahead = root[DocumentRoot.Engine.lookahead]?.coerceToDouble(context) ?: defaults.lookahead,
+                    tileSize = root[DocumentRoot.Engine.tileSize]?.coerceToDouble(context) ?: defaults.tileSize,
+                )
+            }
+            else -> throw IllegalArgumentException(
+                "Not a valid ${DocumentRoot.engine} section: $root. Expected " +
+                    DocumentRoot.Engine.validKeys.map { it to "<a number>" },
+            )
+        }
+
     fun <T, P : Position<P>> visitNode(
         randomGenerator: RandomGenerator,
         incarnation: Incarnation<T, P>,
@@ -149,6 +149,14 @@ internal object DocumentRoot : SyntaxElement {
             },
         )
     }
+    object Engine : SyntaxElement {
+        val parallelism by OwnName
+        val lookahead by OwnName
+        const val tileSize = "tile-size"
+        override val validDescriptors = setOf(
+            validDescriptor { optional(parallelism, lookahead, tileSize) },
+        )
+    }
     object Seeds : SyntaxElement {
         val scenario by OwnName
         val simulation by OwnName
@@ -166,12 +174,14 @@ internal object DocumentRoot : SyntaxElement {
         )
     }
     val deployments by OwnName
+    val engine by OwnName
     val environment by OwnName
     val export by OwnName
     val incarnation by OwnName
     val layers by OwnName
     const val linkingRule = "network-model"
     const val remoteDependencies = "remote-dependencies"
+    val scheduler by OwnName
     val seeds by OwnName
     val terminate by OwnName
     val variables by OwnName
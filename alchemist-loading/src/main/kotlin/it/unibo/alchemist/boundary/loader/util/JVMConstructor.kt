@@ -17,6 +17,7 @@ import org.danilopianini.jirf.InstancingImpossibleException
 import org.slf4j.LoggerFactory
 import java.lang.reflect.Constructor
 import java.lang.reflect.Modifier
+import java.util.concurrent.ConcurrentHashMap
 import kotlin.reflect.KClass
 import kotlin.reflect.KParameter
 import kotlin.reflect.full.valueParameters
@@ -55,7 +56,14 @@ class NamedParametersConstructor(
 
     override fun <T : Any> parametersFor(target: KClass<T>, factory: Factory): List<*> {
         val providedNames = parametersMap.map { it.key.toString() }
-        val singletons = factory.singletonObjects.keys
+        val singletons = factory.singletonObjects.keys.toSet()
+        val resolution = NamedResolution(providedNames, singletons.map { it.name }.toSet())
+        return resolvedNames.get(target.java).computeIfAbsent(resolution) {
+            resolveNames(target, providedNames, singletons)
+        }.mapNotNull { parametersMap[it] }
+    }
+
+    private fun resolveNames(target: KClass<*>, providedNames: List<String>, singletons: Set<Class<*>>): List<String?> {
         val constructorsWithOrderedParameters = target.constructors.map { constructor ->
             constructor.valueParameters.filterNot { it.type.jvmErasure.java in singletons }.sortedBy { it.index }
         }
@@ -84,7 +92,7 @@ class NamedParametersConstructor(
             |Available constructors have the following *named* parameters:
             """.trimMargin() + constructorsWithOrderedParameters.description()
         }
-        return usableConstructors.first().mapNotNull { parametersMap[it.name] }
+        return usableConstructors.first().map { it.name }
     }
 
     private fun Collection<KParameter>.namedParametersDescriptor() = "$size-ary constructor: " +
@@ -93,6 +101,22 @@ class NamedParametersConstructor(
         }
 
     override fun toString(): String = "$typeName($parametersMap)"
+
+    private data class NamedResolution(
+        val providedNames: List<String>,
+        val singletons: Set<String>,
+    )
+
+    private companion object {
+        /*
+         * Constructor resolution through Kotlin reflection is costly, and it is the same for every run of a batch.
+         * Resolutions are attached to the target class, so that they do not keep unloaded classes alive,
+         * and failures are not cached (computeIfAbsent does not store anything if the resolution throws).
+         */
+        private val resolvedNames = object : ClassValue<MutableMap<NamedResolution, List<String?>>>() {
+            override fun computeValue(type: Class<*>) = ConcurrentHashMap<NamedResolution, List<String?>>()
+        }
+    }
 }
 
 internal data class TypeSearch<out T>(val typeName: String, val targetType: Class<out T>) {
@@ -150,41 +174,48 @@ sealed class JVMConstructor(val typeName: String) {
      * returning a [Result<T>].
      */
     fun <T : Any> buildAny(type: Class<out T>, factory: Factory): Result<T> {
-        val typeSearch = TypeSearch(typeName, type)
-        val perfectMatches = typeSearch.perfectMatches
-        return when (perfectMatches.size) {
-            0 -> {
-                val subOptimalMatches = typeSearch.subOptimalMatches
-                when (subOptimalMatches.size) {
-                    0 -> Result.failure(
-                        IllegalStateException(
-                            """
-                            |No valid match for type $typeName among subtypes of ${type.simpleName}.
-                            |Valid subtypes are: ${typeSearch.subTypes.map { it.simpleName }}
-                            """.trimMargin(),
-                        ),
-                    )
-                    1 -> {
+        val resolutions = resolvedTypes.get(type)
+        val resolution = resolutions[typeName] ?: TypeSearch(typeName, type).resolve().also {
+            if (it.type.isSuccess) {
+                resolutions[typeName] = it
+            }
+        }
+        @Suppress("UNCHECKED_CAST")
+        return resolution.type.fold(
+            onSuccess = { target ->
+                val kotlinTarget = target.kotlin as KClass<T>
+                when {
+                    resolution.perfect -> runCatching { newInstance(kotlinTarget, factory) }
+                    else -> {
                         logger.warn(
                             "{} has been selected even though it is not a perfect match for {}",
-                            subOptimalMatches.first().name,
+                            target.name,
                             typeName,
                         )
-                        Result.success(newInstance(subOptimalMatches.first().kotlin, factory))
+                        Result.success(newInstance(kotlinTarget, factory))
                     }
-                    else -> Result.failure(
-                        IllegalStateException(
-                            "Multiple matches for $typeName as subtype of ${type.simpleName}: " +
-                                "${perfectMatches.map { it.name }}. Disambiguation is required.",
-                        ),
-                    )
                 }
-            }
-            1 -> runCatching { newInstance(perfectMatches.first().kotlin, factory) }
-            else -> Result.failure(
-                IllegalStateException("Multiple perfect matches for $typeName: ${perfectMatches.map { it.name }}"),
+            },
+            onFailure = { Result.failure(it) },
+        )
+    }
+
+    private fun TypeSearch<*>.resolve(): TypeResolution = when (perfectMatches.size) {
+        0 -> when (subOptimalMatches.size) {
+            0 -> TypeResolution.failure(
+                """
+                |No valid match for type $typeName among subtypes of ${targetType.simpleName}.
+                |Valid subtypes are: ${subTypes.map { it.simpleName }}
+                """.trimMargin(),
+            )
+            1 -> TypeResolution(Result.success(subOptimalMatches.first()), perfect = false)
+            else -> TypeResolution.failure(
+                "Multiple matches for $typeName as subtype of ${targetType.simpleName}: " +
+                    "${perfectMatches.map { it.name }}. Disambiguation is required.",
             )
         }
+        1 -> TypeResolution(Result.success(perfectMatches.first()), perfect = true)
+        else -> TypeResolution.failure("Multiple perfect matches for $typeName: ${perfectMatches.map { it.name }}")
     }
 
     private fun CreationResult<*>.logErrors(logger: (String, Array<Any?>) -> Unit) {
@@ -314,8 +345,26 @@ sealed class JVMConstructor(val typeName: String) {
         }
     }
 
+    /*
+     * The outcome of the search of a type by name.
+     */
+    private class TypeResolution(val type: Result<Class<*>>, val perfect: Boolean) {
+        companion object {
+            fun failure(message: String) = TypeResolution(Result.failure(IllegalStateException(message)), false)
+        }
+    }
+
     companion object {
         private val logger = LoggerFactory.getLogger(JVMConstructor::class.java)
+
+        /*
+         * Type names are resolved once per JVM rather than once per object built, as they do not depend on the run.
+         * Resolutions are attached to the requested type, so that they do not keep unloaded classes alive,
+         * and only successful resolutions are cached.
+         */
+        private val resolvedTypes = object : ClassValue<MutableMap<String, TypeResolution>>() {
+            override fun computeValue(type: Class<*>) = ConcurrentHashMap<String, TypeResolution>()
+        }
         private fun Constructor<*>.shorterToString() =
             declaringClass.simpleName + parameterTypes.joinToString(prefix = "(", postfix = ")") { it.simpleName }
     }
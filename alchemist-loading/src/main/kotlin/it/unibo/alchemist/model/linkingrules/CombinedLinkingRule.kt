@@ -25,6 +25,8 @@ class CombinedLinkingRule<T, P : Position<P>>(
 
     private val isConsistent by lazy { subRules.all { it.isLocallyConsistent } }
 
+    private val threadSafe by lazy { subRules.all { it.isThreadSafe } }
+
     override fun computeNeighborhood(center: Node<T>, environment: Environment<T, P>) = Neighborhoods.make(
         environment,
         center,
@@ -33,4 +35,6 @@ class CombinedLinkingRule<T, P : Position<P>>(
     )
 
     override fun isLocallyConsistent() = isConsistent
+
+    override fun isThreadSafe() = threadSafe
 }
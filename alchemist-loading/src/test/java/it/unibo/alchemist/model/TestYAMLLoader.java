@@ -52,6 +52,23 @@ class TestYAMLLoader {
         environment.forEach(n -> n.forEach(r -> assertTrue(r.getTimeDistribution() instanceof AnyRealDistribution)));
     }
 
+    /**
+     * Tests environments with a custom spatial index.
+     */
+    @Test
+    <P extends Position<P>> void testCellListSpatialIndex() {
+        @SuppressWarnings("unchecked")
+        final Environment<Object, P> environment = (Environment<Object, P>) testNoVar("synthetic/celllist.yml");
+        assertFalse(environment.getNodes().isEmpty());
+        for (final Node<Object> node : environment) {
+            final P position = environment.getPosition(node);
+            final long expected = environment.getNodes().stream()
+                .filter(other -> !other.equals(node) && environment.getPosition(other).distanceTo(position) <= 1.5)
+                .count();
+            assertEquals(expected, environment.getNeighborhood(node).size());
+        }
+    }
+
     /**
      * Test loading a custom node class.
      */
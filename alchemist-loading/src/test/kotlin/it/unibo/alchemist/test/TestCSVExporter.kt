@@ -9,8 +9,10 @@
 
 package it.unibo.alchemist.test
 
+import io.kotest.assertions.throwables.shouldThrow
 import io.kotest.core.spec.style.FreeSpec
 import io.kotest.matchers.file.shouldExist
+import io.kotest.matchers.ints.shouldBeGreaterThan
 import io.kotest.matchers.nulls.shouldNotBeNull
 import io.kotest.matchers.regex.shouldMatch
 import io.kotest.matchers.shouldBe
@@ -18,8 +20,12 @@ import io.kotest.matchers.string.shouldContain
 import io.kotest.matchers.string.shouldNotBeEmpty
 import it.unibo.alchemist.boundary.InitializedEnvironment
 import it.unibo.alchemist.boundary.exporters.CSVExporter
+import it.unibo.alchemist.boundary.exporters.CSVPipeline
+import it.unibo.alchemist.boundary.extractors.Time
 import it.unibo.alchemist.model.Position
 import java.io.File
+import java.io.Writer
+import java.util.zip.GZIPInputStream
 
 class TestCSVExporter<T, P : Position<P>> : FreeSpec({
     "CSV files" - {
@@ -71,9 +77,39 @@ class TestCSVExporter<T, P : Position<P>> : FreeSpec({
         exporterFirstLine.shouldNotBeEmpty()
         exporterFirstLine.shouldContain("0 1 2 3")
     }
+    "buffered and compressed exports should contain the same data of synchronous ones" {
+        val initialized: InitializedEnvironment<T, P> = loadAlchemist("testCSVExporterAsync.yml")
+        initialized.createSimulation().runInCurrentThread()
+        fun CSVExporter<T, P>.dataLines(): List<String> {
+            // Each exporter writes in its own temporary folder
+            val file = File(exportPath).listFiles().orEmpty().single()
+            val input = file.inputStream().let { if (compress) GZIPInputStream(it) else it }
+            return input.bufferedReader().useLines { lines -> lines.filterNot { it.startsWith("#") }.toList() }
+        }
+        val (synchronous, asynchronous, compressed) = initialized.csvExporters().map { it.dataLines() }
+        synchronous.size shouldBeGreaterThan 1
+        asynchronous shouldBe synchronous
+        compressed shouldBe synchronous
+    }
+    "a failing background writer should make the producer fail instead of blocking it" {
+        val broken = object : Writer() {
+            override fun write(buffer: CharArray, offset: Int, length: Int) = throw IllegalStateException("broken")
+
+            override fun flush() = Unit
+
+            override fun close() = Unit
+        }
+        val pipeline = CSVPipeline("broken", broken, listOf(Time()), 1, true)
+        shouldThrow<IllegalStateException> {
+            repeat(ROWS) { pipeline.publish(pipeline.acquire().apply { setText(0, "row") }) }
+            pipeline.close()
+        }
+    }
 }) {
     /* common utility functions */
     companion object {
+        private const val ROWS = 10
+
         fun <T, P : Position<P>> InitializedEnvironment<T, P>.csvExporters(): List<CSVExporter<T, P>> =
             exporters.filterIsInstance<CSVExporter<T, P>>()
     }
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.test
+
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.ints.shouldBeGreaterThan
+import io.kotest.matchers.shouldBe
+import it.unibo.alchemist.boundary.InitializedEnvironment
+import it.unibo.alchemist.boundary.exporters.CSVExporter
+import it.unibo.alchemist.boundary.exporters.ColumnarExporter
+import it.unibo.alchemist.boundary.exporters.ColumnarFormat.readText
+import it.unibo.alchemist.boundary.exporters.ColumnarFormat.writeText
+import it.unibo.alchemist.boundary.exporters.ColumnarReader
+import it.unibo.alchemist.model.Position
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+
+class TestColumnarExporter<T, P : Position<P>> : StringSpec({
+    "columnar exports should contain the same data of CSV exports" {
+        val initialized: InitializedEnvironment<T, P> = loadAlchemist("testColumnarExporter.yml")
+        initialized.createSimulation().runInCurrentThread()
+        val csv = initialized.exporters.filterIsInstance<CSVExporter<T, P>>().single()
+        val columnar = initialized.exporters.filterIsInstance<ColumnarExporter<T, P>>().single()
+        // Each exporter writes in its own temporary folder
+        val expected = File(csv.exportPath).listFiles().orEmpty().single()
+            .readLines()
+            .filterNot { it.startsWith("#") }
+        val chunks = ColumnarReader(File(columnar.exportPath).listFiles().orEmpty().single().toPath()).use {
+            it.chunks().toList()
+        }
+        chunks.size shouldBeGreaterThan 1
+        val actual = chunks.flatMap { chunk ->
+            chunk.columns["time"] shouldBe chunk.time.asList()
+            (0 until chunk.size).map { row -> chunk.columns.values.joinToString(" ") { it[row].toString() } }
+        }
+        actual shouldBe expected
+    }
+    "texts should not be limited in length" {
+        val text = "\u00e8".repeat(UShort.MAX_VALUE.toInt())
+        val bytes = ByteArrayOutputStream()
+        DataOutputStream(bytes).use { it.writeText(text) }
+        DataInputStream(ByteArrayInputStream(bytes.toByteArray())).readText() shouldBe text
+    }
+})
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.test
+
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+import it.unibo.alchemist.boundary.EngineConfiguration
+import it.unibo.alchemist.boundary.LoadAlchemist
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import org.kaikikm.threadresloader.ResourceLoader
+
+class TestEngineConfiguration : StringSpec({
+    "the engine section should configure parallel execution" {
+        val loader = LoadAlchemist.from(ResourceLoader.getResource("testEngine.yml"))
+        loader.getDefault<Any, Euclidean2DPosition>().engine shouldBe EngineConfiguration(4, 0.5, 10.0)
+        loader.getWith<Any, Euclidean2DPosition>(mapOf("lookahead" to 1.0)).engine shouldBe
+            EngineConfiguration(4, 1.0, 10.0)
+    }
+    "simulations should run sequentially by default" {
+        val loader = LoadAlchemist.from(ResourceLoader.getResource("testSpecificPositions.yml"))
+        loader.getDefault<Any, Euclidean2DPosition>().engine shouldBe EngineConfiguration()
+    }
+    "the tile size should be derived from the range of the linking rule" {
+        val loader = LoadAlchemist.from(ResourceLoader.getResource("testEngineTiles.yml"))
+        val simulation = loader.getDefault<Any, Euclidean2DPosition>()
+        simulation.engine shouldBe EngineConfiguration(parallelism = 4)
+        simulation.engine.tileSizeFor(simulation.environment) shouldBe 10.0
+        simulation.engine.copy(tileSize = 1.0).tileSizeFor(simulation.environment) shouldBe 1.0
+        simulation.engine.copy(parallelism = 1).tileSizeFor(simulation.environment) shouldBe 0.0
+    }
+})
@@ -21,6 +21,7 @@ import it.unibo.alchemist.model.Incarnation;
 import it.unibo.alchemist.model.maps.MapEnvironment;
 import it.unibo.alchemist.model.Node;
 import it.unibo.alchemist.model.Route;
+import it.unibo.alchemist.util.SharedResources;
 import org.jooq.lambda.Unchecked;
 import org.kaikikm.threadresloader.ResourceLoader;
 import org.slf4j.Logger;
@@ -29,7 +30,11 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -40,6 +45,8 @@ import java.util.concurrent.TimeUnit;
  * subclasses to decide how to provide map data (e.g. loading from disk or rely
  * on online services). The data is then stored in-memory for performance
  * reasons.
+ * The routing service is shared among the environments using the same map
+ * in the same JVM (see {@link SharedResources}).
  *
  * @param <T> concentration type
  */
@@ -357,7 +364,22 @@ public final class OSMEnvironment<T>
                         + "nor it can be loaded from the classpath as a Resource"
                 );
             }
-            navigator = new GraphHopperRoutingService(map);
+            /*
+             * The routing service is shared with all the environments using the same map in this JVM
+             */
+            final String contentHash;
+            try (InputStream content = map.openStream()) {
+                contentHash = SharedResources.contentHash(content);
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Could not read " + map, e);
+            }
+            navigator = SharedResources.acquire(
+                this,
+                GraphHopperRoutingService.class,
+                contentHash,
+                List.of(),
+                () -> new GraphHopperRoutingService(map)
+            );
         }
         return navigator;
     }
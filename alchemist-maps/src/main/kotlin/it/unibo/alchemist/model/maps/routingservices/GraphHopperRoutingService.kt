@@ -40,12 +40,13 @@ import kotlin.io.path.createTempDirectory
 
 /**
  * [RoutingService] implementation based on GraphHopper.
+ * Routing can be queried concurrently, hence a single instance can serve multiple simulations.
  */
 class GraphHopperRoutingService @JvmOverloads constructor(
     map: URL,
     workingDirectory: File = defaultWorkingDirectory(map.openStream()),
     override val defaultOptions: GraphHopperOptions = Companion.defaultOptions,
-) : RoutingService<GeoPosition, GraphHopperOptions> {
+) : RoutingService<GeoPosition, GraphHopperOptions>, AutoCloseable {
 
     private val graphHopper: GraphHopper
     private val accessFilters: LoadingCache<GraphHopperOptions, AccessFilter>
@@ -124,6 +125,11 @@ class GraphHopperRoutingService @JvmOverloads constructor(
         TODO("On-the-fly parsing of navigation options is still to be implemented")
     }
 
+    /**
+     * Releases the storage of the underlying GraphHopper instance.
+     */
+    override fun close() = graphHopper.close()
+
     companion object {
         private val logger = LoggerFactory.getLogger(GraphHopperRoutingService::class.java)
         private val lockfileLock = Semaphore(1)
@@ -13,16 +13,20 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import it.unibo.alchemist.model.obstacles.RectObstacle2D;
 import it.unibo.alchemist.model.positions.Euclidean2DPosition;
 import it.unibo.alchemist.model.Incarnation;
+import it.unibo.alchemist.util.SharedResources;
 import org.kaikikm.threadresloader.ResourceLoader;
 
 import javax.imageio.ImageIO;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -131,21 +135,58 @@ public class ImageEnvironment<T> extends Continuous2DObstacles<T> {
             final double dy
     ) throws IOException {
         super(incarnation);
-        InputStream resource = ResourceLoader.getResourceAsStream(path);
-        if (resource == null) {
-            final var file = new File(path);
-            if (file.exists()) {
-                resource = new FileInputStream(file);
-            } else {
-                throw new IllegalArgumentException("Nor resource " + path + " nor file " + file.getAbsolutePath() + " exist");
-            }
-        }
-        final BufferedImage img = ImageIO.read(resource);
-        findMarkedRegions(obstacleColor, img).forEach(obstacle ->
-            addObstacle(mapToEnv(obstacle, zoom, dx, dy, img.getHeight()))
+        final MarkedRegions obstacles = loadMarkedRegions(path, obstacleColor);
+        obstacles.getRegions().forEach(obstacle ->
+            addObstacle(mapToEnv(obstacle, zoom, dx, dy, obstacles.getHeight()))
         );
     }
 
+    /**
+     * Loads the image at the given path, and finds all the regions marked with a given color.
+     * Images are identified by their content, and the regions found are shared
+     * among all the environments loading the same image in the same JVM (see {@link SharedResources}).
+     *
+     * @param path
+     *              the path where to load the image, either a resource or a local file path.
+     * @param color
+     *              the RGB representation of the marker color.
+     * @return
+     *              the regions marked with the given color, in image coordinates.
+     * @throws IOException
+     *              if the image can not be read.
+     */
+    protected final MarkedRegions loadMarkedRegions(final String path, final int color) throws IOException {
+        final byte[] content;
+        try (InputStream resource = openImage(path)) {
+            content = resource.readAllBytes();
+        }
+        final String hash = SharedResources.contentHash(content);
+        try {
+            return SharedResources.acquire(this, MarkedRegions.class, hash, List.of(getClass(), color), () -> {
+                try {
+                    final BufferedImage img = ImageIO.read(new ByteArrayInputStream(content));
+                    return new MarkedRegions(hash, img.getWidth(), img.getHeight(), findMarkedRegions(color, img));
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static InputStream openImage(final String path) throws IOException {
+        final InputStream resource = ResourceLoader.getResourceAsStream(path);
+        if (resource != null) {
+            return resource;
+        }
+        final var file = new File(path);
+        if (file.exists()) {
+            return new FileInputStream(file);
+        }
+        throw new IllegalArgumentException("Nor resource " + path + " nor file " + file.getAbsolutePath() + " exist");
+    }
+
     /**
      * Finds all the regions marked with a given color.
      *
@@ -258,4 +299,56 @@ public class ImageEnvironment<T> extends Continuous2DObstacles<T> {
                 -obs.height * zoom);
     }
 
+    /**
+     * The regions of an image marked with a given color, in image coordinates.
+     * Instances are shared among environments, and must not be modified.
+     */
+    protected static final class MarkedRegions {
+
+        private final String contentHash;
+        private final int width;
+        private final int height;
+        private final List<RectObstacle2D<Euclidean2DPosition>> regions;
+
+        private MarkedRegions(
+            final String contentHash,
+            final int width,
+            final int height,
+            final List<RectObstacle2D<Euclidean2DPosition>> regions
+        ) {
+            this.contentHash = contentHash;
+            this.width = width;
+            this.height = height;
+            this.regions = Collections.unmodifiableList(regions);
+        }
+
+        /**
+         * @return the hash of the content of the image (see {@link SharedResources#contentHash(byte[])})
+         */
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        /**
+         * @return the width of the image
+         */
+        public int getWidth() {
+            return width;
+        }
+
+        /**
+         * @return the height of the image
+         */
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * @return the marked regions
+         */
+        public List<RectObstacle2D<Euclidean2DPosition>> getRegions() {
+            return regions;
+        }
+    }
+
 }
@@ -16,6 +16,7 @@ import it.unibo.alchemist.boundary.LoadAlchemist
 import it.unibo.alchemist.boundary.Loader
 import it.unibo.alchemist.boundary.OutputMonitor
 import it.unibo.alchemist.boundary.exporters.GlobalExporter
+import it.unibo.alchemist.core.ArrayIndexedPriorityQueue
 import it.unibo.alchemist.core.Engine
 import it.unibo.alchemist.core.Simulation
 import it.unibo.alchemist.model.Position
@@ -65,7 +66,8 @@ fun loadAlchemistFromResource(simulationResource: String): Loader {
 fun <T, P : Position<P>> InitializedEnvironment<T, P>.createSimulation(
     finalTime: Time = Time.INFINITY,
     finalStep: Long = Long.MAX_VALUE,
-) = Engine(environment, finalStep, finalTime).apply { addOutputMonitor(GlobalExporter(exporters)) }
+) = Engine(environment, scheduler ?: ArrayIndexedPriorityQueue(), finalStep, finalTime)
+    .apply { addOutputMonitor(GlobalExporter(exporters)) }
 
 /**
  * Runs an existing [Simulation] in the current thread.
@@ -37,11 +37,18 @@ object Alchemist {
     private const val VARIABLES = "var"
     private const val BATCH = 'b'
     private const val FXUI = "fxui"
+    private const val FORK = "ft"
     private const val DISTRIBUTED = 'd'
+    private const val ENGINE_THREADS = "et"
     private const val GRAPHICS = 'g'
+    private const val HALVING = "hv"
     private const val HELP = 'h'
+    private const val LOOKAHEAD = "la"
+    private const val SAMPLER = "sm"
     private const val SERVER = 's'
+    private const val SHARD = "sh"
     private const val PARALLELISM = 'p'
+    private const val TILE_SIZE = "ts"
     private const val TIME = 't'
     private const val YAML = 'y'
     private const val WEB = 'w'
@@ -80,6 +87,9 @@ object Alchemist {
     private var isNormalExecution = true
 
     private inline fun <reified T : Number> CommandLine.hasNumeric(name: Char, converter: String.() -> T?): T? =
+        hasNumeric(name.toString(), converter)
+
+    private inline fun <reified T : Number> CommandLine.hasNumeric(name: String, converter: String.() -> T?): T? =
         getOptionValue(name)?.let {
             val value = converter(it)
             when {
@@ -225,6 +235,15 @@ object Alchemist {
         exitWith(status)
     }
 
+    private val CommandLine.shard: Pair<Int, Int>?
+        get() = getOptionValue(SHARD)?.let { value ->
+            value.split('/')
+                .mapNotNull { it.trim().toIntOrNull() }
+                .takeIf { it.size == 2 && it[1] > 0 && it[0] in 0 until it[1] }
+                ?.let { (index, count) -> index to count }
+                ?: exitBecause("Not a valid shard: $value, expected i/n with 0 <= i < n", ExitStatus.INVALID_CLI)
+        }
+
     private val CommandLine.toAlchemist: AlchemistExecutionOptions
         get() = AlchemistExecutionOptions(
             server = getOptionValue(SERVER),
@@ -233,14 +252,22 @@ object Alchemist {
             distributed = getOptionValue(DISTRIBUTED),
             endTime = hasNumeric(TIME, kotlin.String::toDoubleOrNull)
                 ?: AlchemistExecutionOptions.defaultEndTime,
+            forkTime = hasNumeric(FORK, kotlin.String::toDoubleOrNull),
             graphics = getOptionValue(GRAPHICS),
             fxui = hasOption(FXUI),
             web = hasOption(WEB),
             headless = hasOption(HEADLESS),
             parallelism = hasNumeric(PARALLELISM, kotlin.String::toIntOrNull)
                 ?: AlchemistExecutionOptions.defaultParallelism,
+            engineParallelism = hasNumeric(ENGINE_THREADS, kotlin.String::toIntOrNull),
+            lookahead = hasNumeric(LOOKAHEAD, kotlin.String::toDoubleOrNull),
+            tileSize = hasNumeric(TILE_SIZE, kotlin.String::toDoubleOrNull),
             variables = getOptionValues(VARIABLES)?.toList().orEmpty(),
             configuration = getOptionValue(YAML),
+            shard = shard?.first ?: 0,
+            shards = shard?.second ?: 1,
+            sampler = getOptionValue(SAMPLER),
+            halving = getOptionValue(HALVING),
         )
 
     private enum class ExitStatus {
@@ -23,7 +23,21 @@ package it.unibo.alchemist
  * @property help true if print help function is selected
  * @property server if launched as Alchemist grid node server, the path to the configuration file. Null otherwise.
  * @property parallelism parallel threads used for running locally. Defaults to [defaultParallelism]
+ * @property engineParallelism if not null, threads used by each simulation to execute independent reactions,
+ * overriding the engine configuration of the simulation file. Defaults to null
+ * @property lookahead if not null, the time window within which reactions are candidates for parallel execution,
+ * overriding the engine configuration of the simulation file. Defaults to null
+ * @property tileSize if not null, the side of the tiles the environment is partitioned into for parallel execution,
+ * overriding the engine configuration of the simulation file (0 disables partitioning). Defaults to null
  * @property endTime final simulation time. Defaults to [defaultEndTime]
+ * @property forkTime if not null, batches run the simulation once with the default variable values up to this time,
+ * then fork a copy for each combination of the batch variables. Defaults to null
+ * @property shard zero-based index of the shard of the batch combinations to run. Defaults to 0
+ * @property shards number of shards the batch combinations are split into. Defaults to 1 (the whole batch)
+ * @property sampler if not null, the design of experiments picking the batch combinations to run,
+ * in the form strategy:points[:seed]. Defaults to null (all combinations)
+ * @property halving if not null, the metric driving the successive halving of the batch combinations,
+ * in the form max:metric or min:metric. Defaults to null
  */
 data class AlchemistExecutionOptions(
     val configuration: String? = null,
@@ -37,7 +51,15 @@ data class AlchemistExecutionOptions(
     val help: Boolean = false,
     val server: String? = null,
     val parallelism: Int = defaultParallelism,
+    val engineParallelism: Int? = null,
+    val lookahead: Double? = null,
+    val tileSize: Double? = null,
     val endTime: Double = defaultEndTime,
+    val forkTime: Double? = null,
+    val shard: Int = 0,
+    val shards: Int = 1,
+    val sampler: String? = null,
+    val halving: String? = null,
 ) {
     /**
      * returns true if all options are set to their default value.
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.launch
+
+import it.unibo.alchemist.AlchemistExecutionOptions
+import it.unibo.alchemist.boundary.InitializedEnvironment
+import it.unibo.alchemist.boundary.Loader
+import it.unibo.alchemist.core.Simulation
+import org.slf4j.LoggerFactory
+import java.io.Serializable
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+/**
+ * Executes batches locally, in a headless environment, running an adaptive design of experiments
+ * rather than the whole cartesian product of the batch variables.
+ * The candidate combinations are either all the combinations, or those picked by a [ParameterSampler];
+ * if [SuccessiveHalving] is requested, candidates run in rounds of growing duration,
+ * and only the best half according to an exported metric proceeds to the next round.
+ * Every round restarts its candidates from scratch with the same seeds, hence every candidate gets exported
+ * up to the time it was discarded at, and the last one up to the end time.
+ */
+object AdaptiveSimulationLauncher : SimulationLauncher() {
+
+    override val name = "Alchemist adaptive batch runner"
+    private val logger = LoggerFactory.getLogger(this::class.java)
+
+    override fun additionalValidation(currentOptions: AlchemistExecutionOptions) = with(currentOptions) {
+        when {
+            sampler == null && halving == null -> requires("a sampling strategy or successive halving")
+            graphics != null -> incompatibleWith("graphical effects")
+            distributed != null -> incompatibleWith("distributed execution")
+            forkTime != null -> incompatibleWith("forking simulations")
+            shards != 1 -> incompatibleWith("sharded batches")
+            halving != null && !endTime.isFinite() -> requires("a finite end time for successive halving")
+            else ->
+                runCatching {
+                    sampler?.let(ParameterSampler::parse)
+                    halving?.let(SuccessiveHalving::parse)
+                }.fold(
+                    onSuccess = { Validation.OK(Priority.High("Adaptive design of experiments requested")) },
+                    onFailure = { Validation.Invalid(it.message ?: "Invalid adaptive design of experiments") },
+                )
+        }
+    }
+
+    override fun launch(loader: Loader, parameters: AlchemistExecutionOptions) {
+        val sweep = loader.variables.cartesianProductOf(parameters.variables)
+        val sampler = parameters.sampler?.let(ParameterSampler::parse)
+        var candidates = sampler?.sample(sweep) ?: sweep.toList()
+        logger.info("Running {} out of {} combinations ({})", candidates.size, sweep.size, sampler ?: "all")
+        var count = 0
+        val executor = Executors.newFixedThreadPool(parameters.parallelism) {
+            Thread(it).apply { name = "alchemist-adaptive-executor-${count++}" }
+        }
+        try {
+            when (val halving = parameters.halving?.let(SuccessiveHalving::parse)) {
+                null -> executor.runRound(loader, parameters, candidates, parameters.endTime, null)
+                else -> {
+                    val rounds = halving.rounds(candidates.size)
+                    for (round in 0 until rounds) {
+                        val horizon = halving.horizon(round, rounds, parameters.endTime)
+                        logger.info("Round {}/{}: {} candidates up to {}", round + 1, rounds, candidates.size, horizon)
+                        val scores = executor.runRound(loader, parameters, candidates, horizon, halving.metric)
+                        if (round < rounds - 1) {
+                            candidates = halving.survivors(scores).map { candidates[it] }
+                        } else {
+                            logger.info("Best combination: {} with {} = {}", candidates[0], halving.metric, scores[0])
+                        }
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    /*
+     * Runs the candidates in parallel up to the horizon, and returns the value of the metric at the end of each run
+     * (NaN if there is no metric).
+     */
+    private fun ExecutorService.runRound(
+        loader: Loader,
+        parameters: AlchemistExecutionOptions,
+        candidates: List<Map<String, Serializable?>>,
+        horizon: Double,
+        metric: String?,
+    ): List<Double> {
+        val runs = invokeAll(
+            candidates.map { variables ->
+                Callable {
+                    val initialized: InitializedEnvironment<Any, Nothing> = loader.getWith(variables)
+                    val simulation = prepareSimulation(initialized, parameters, horizon)
+                    simulation.play()
+                    simulation.run()
+                    simulation.error.ifPresent { throw it }
+                    logger.info("Simulation with {} completed successfully", variables)
+                    metric?.let { initialized.valueOf(it, simulation) } ?: Double.NaN
+                }
+            },
+        )
+        val failures = runs.zip(candidates).mapNotNull { (run, variables) ->
+            try {
+                run.get()
+                null
+            } catch (failure: ExecutionException) {
+                logger.error("Failure in Simulation with $variables", failure.cause)
+                failure.cause ?: failure
+            }
+        }
+        if (failures.isNotEmpty()) {
+            throw failures.reduce { previous, other ->
+                previous.addSuppressed(other)
+                previous
+            }
+        }
+        return runs.map { it.get() }
+    }
+
+    /*
+     * Reads the metric through the data extractors of the exporters.
+     */
+    private fun InitializedEnvironment<Any, Nothing>.valueOf(metric: String, simulation: Simulation<*, *>): Double {
+        val extractors = exporters.flatMap { it.dataExtractors }
+        val extractor = extractors.firstOrNull { metric in it.columnNames }
+            ?: error("No exported column is named $metric, available: ${extractors.flatMap { it.columnNames }}")
+        val values = extractor.extractData(environment, null, simulation.time, simulation.step)
+        return when (val metricValue = values[metric]) {
+            is Number -> metricValue.toDouble()
+            else -> error("The exported value of $metric is not a number: $metricValue")
+        }
+    }
+}
@@ -13,20 +13,29 @@ import it.unibo.alchemist.AlchemistExecutionOptions
 import it.unibo.alchemist.boundary.Loader
 import org.slf4j.LoggerFactory
 import java.awt.GraphicsEnvironment
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.ConcurrentLinkedQueue
 import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.Semaphore
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 
 /**
  * Executes simulations locally in a headless environment.
+ * If a fork time is specified, the simulation runs up to that time once for each combination of the batch variables
+ * altering the scenario, and the batch simulations continue from there, each on a copy of the state reached
+ * with its own values of such variables.
  */
 object HeadlessSimulationLauncher : SimulationLauncher() {
 
     override val name = "Alchemist headless runner"
+    private const val QUEUED_PER_THREAD = 2
     private val logger = LoggerFactory.getLogger(this::class.java)
 
     override fun additionalValidation(currentOptions: AlchemistExecutionOptions) = with(currentOptions) {
         when {
+            sampler != null || halving != null -> incompatibleWith("adaptive designs of experiments")
             headless || GraphicsEnvironment.isHeadless() -> Validation.OK()
             graphics != null ->
                 Validation.OK(
@@ -63,22 +72,70 @@ object HeadlessSimulationLauncher : SimulationLauncher() {
             Thread(it).apply { name = "alchemist-executor-${count++}" }
         }
         val errorQueue = ConcurrentLinkedQueue<Throwable>()
-        val cartesianProduct = loader.variables.cartesianProductOf(parameters.variables)
-        cartesianProduct.forEach { variables ->
-            executor.submit {
-                runCatching { prepareSimulation<Any, Nothing>(loader, parameters, variables) }
-                    .onFailure { logger.error("Error during the preparation of the simulation: $variables", it) }
-                    .mapCatching { simulation ->
-                        simulation.play()
-                        simulation.run()
-                        simulation.error.ifPresent { throw it }
-                        logger.info("Simulation with {} completed successfully", variables)
+        val sweep = loader.variables.cartesianProductOf(parameters.variables)
+        val shardSize = sweep.shardSize(parameters.shard, parameters.shards)
+        if (parameters.shards > 1) {
+            logger.info(
+                "Running shard {}/{}: {} of {} simulations",
+                parameters.shard,
+                parameters.shards,
+                shardSize,
+                sweep.size,
+            )
+        }
+        val prefixes = parameters.forkTime?.let { forkTime ->
+            val scenarioVariables = loader.variablesAlteringTheScenario(parameters.variables)
+            SharedPrefixes(sweep.shard(parameters.shard, parameters.shards), scenarioVariables) { scenario ->
+                runUpTo<Any, Nothing>(loader, parameters, forkTime, scenario).also {
+                    if (it == null) {
+                        logger.warn("The simulation with {} ended before {}, it will not be forked", scenario, forkTime)
                     }
-                    .onFailure {
-                        logger.error("Failure in Simulation with $variables", it)
-                        errorQueue.add(it)
-                        executor.shutdownNow()
+                }
+            }.also {
+                logger.info("Forking {} simulations at {} from {} shared states", shardSize, forkTime, it.size)
+            }
+        }
+        /*
+         * Combinations are generated as the executor frees up, so that memory does not grow with the batch size
+         */
+        val slots = Semaphore(QUEUED_PER_THREAD * parameters.parallelism)
+        fun awaitSlot(): Boolean {
+            while (!executor.isShutdown) {
+                if (slots.tryAcquire(1, TimeUnit.SECONDS)) {
+                    return true
+                }
+            }
+            return false
+        }
+        sweep.shard(parameters.shard, parameters.shards).takeWhile { awaitSlot() }.forEach { variables ->
+            try {
+                executor.submit {
+                    runCatching {
+                        when (val checkpoint = prefixes?.checkpointFor(variables)) {
+                            null -> prepareSimulation<Any, Nothing>(loader, parameters, variables)
+                            else -> forkSimulation<Any, Nothing>(loader, checkpoint, variables)
+                        }
                     }
+                        .onFailure { logger.error("Error during the preparation of the simulation: $variables", it) }
+                        .mapCatching { simulation ->
+                            simulation.play()
+                            simulation.run()
+                            simulation.error.ifPresent { throw it }
+                            logger.info("Simulation with {} completed successfully", variables)
+                        }
+                        .onFailure {
+                            logger.error("Failure in Simulation with $variables", it)
+                            errorQueue.add(it)
+                            executor.shutdownNow()
+                        }
+                    slots.release()
+                }
+            } catch (interrupted: RejectedExecutionException) {
+                /*
+                 * The executor got shut down by a failure after the slot had been acquired
+                 */
+                logger.debug("Batch interrupted, simulation with {} not started", variables, interrupted)
+                slots.release()
             }
         }
         executor.shutdown()
@@ -90,4 +147,47 @@ object HeadlessSimulationLauncher : SimulationLauncher() {
             }
         }
     }
+    /*
+     * The states at the fork time shared by the combinations with the same values of the variables
+     * altering the scenario. Each state is computed once, when first needed,
+     * and released once all the combinations sharing it got forked.
+     */
+    private class SharedPrefixes(
+        combinations: Sequence<Map<String, *>>,
+        private val scenarioVariables: Set<String>,
+        private val runUpTo: (Map<String, *>) -> ByteArray?,
+    ) {
+
+        private val prefixes: MutableMap<Map<String, *>, Prefix> = ConcurrentHashMap(
+            combinations.groupingBy(::scenarioOf).eachCount()
+                .mapValues { (scenario, forks) -> Prefix(scenario, forks) },
+        )
+
+        /**
+         * The number of distinct states.
+         */
+        val size: Int = prefixes.size
+
+        /**
+         * Returns the checkpoint the simulation with the provided [variables] should be forked from,
+         * running the shared prefix if needed, or null if the simulation ends before the fork time.
+         */
+        fun checkpointFor(variables: Map<String, *>): ByteArray? {
+            val scenario = scenarioOf(variables)
+            val prefix = checkNotNull(prefixes[scenario]) { "No simulations left to fork with $variables" }
+            val checkpoint = prefix.checkpoint.value
+            if (prefix.forks.decrementAndGet() == 0) {
+                prefixes.remove(scenario)
+            }
+            return checkpoint
+        }
+
+        private fun scenarioOf(variables: Map<String, *>): Map<String, *> =
+            variables.filterKeys(scenarioVariables::contains)
+
+        private inner class Prefix(scenario: Map<String, *>, forks: Int) {
+            val forks = AtomicInteger(forks)
+            val checkpoint: Lazy<ByteArray?> = lazy { runUpTo(scenario) }
+        }
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.launch
+
+import org.apache.commons.math3.random.MersenneTwister
+import org.apache.commons.math3.random.SobolSequenceGenerator
+import org.apache.commons.math3.util.MathArrays
+import java.io.Serializable
+
+/**
+ * A design of experiments, picking a subset of the combinations of a [ParameterSweep]
+ * that covers the space of the batch variables evenly.
+ * Points are drawn in the unit hypercube, one dimension per variable,
+ * and every coordinate is mapped onto the values of the corresponding variable.
+ * As variables have finitely many values, different points may map onto the same combination:
+ * duplicates are dropped, hence samplers may return fewer combinations than requested.
+ */
+sealed class ParameterSampler(
+    /**
+     * The number of points to draw.
+     */
+    val points: Int,
+) {
+
+    init {
+        require(points > 0) { "The number of points must be positive, got $points" }
+    }
+
+    /**
+     * Returns the sampled combinations of the [sweep], without duplicates.
+     * If the sweep is not larger than the requested [points], all of its combinations are returned.
+     */
+    fun sample(sweep: ParameterSweep): List<Map<String, Serializable?>> = when {
+        sweep.size <= points -> sweep.toList()
+        else -> unitPoints(sweep.levels.size)
+            .map { point ->
+                sweep.at(
+                    IntArray(point.size) { dimension ->
+                        val levels = sweep.levels[dimension]
+                        (point[dimension] * levels).toInt().coerceAtMost(levels - 1)
+                    },
+                )
+            }
+            .distinct()
+    }
+
+    /**
+     * Draws the [points] in the unit hypercube with the given number of [dimensions].
+     */
+    protected abstract fun unitPoints(dimensions: Int): List<DoubleArray>
+
+    /**
+     * Latin hypercube sampling: each variable range is split into [points] strata,
+     * and every stratum of every variable gets exactly one point.
+     * The design is randomized, reproducibly, through [seed].
+     */
+    class LatinHypercube(points: Int, private val seed: Long = 0) : ParameterSampler(points) {
+        override fun unitPoints(dimensions: Int): List<DoubleArray> {
+            val random = MersenneTwister(seed)
+            val strata = List(dimensions) { MathArrays.natural(points).also { MathArrays.shuffle(it, random) } }
+            return List(points) { point ->
+                DoubleArray(dimensions) { dimension -> (strata[dimension][point] + random.nextDouble()) / points }
+            }
+        }
+
+        override fun toString() = "LatinHypercube(points=$points, seed=$seed)"
+    }
+
+    /**
+     * Sampling along a Sobol low-discrepancy sequence, deterministic by construction.
+     */
+    class Sobol(points: Int) : ParameterSampler(points) {
+        override fun unitPoints(dimensions: Int): List<DoubleArray> {
+            val sequence = SobolSequenceGenerator(dimensions)
+            return List(points) { sequence.nextVector() }
+        }
+
+        override fun toString() = "Sobol(points=$points)"
+    }
+
+    companion object {
+
+        /**
+         * Parses a sampler specification in the form `strategy:points[:seed]`,
+         * where strategy is either `lhs` (see [LatinHypercube]) or `sobol` (see [Sobol]).
+         */
+        @JvmStatic
+        fun parse(specification: String): ParameterSampler {
+            val parts = specification.split(':').map { it.trim() }
+            val points = requireNotNull(parts.getOrNull(1)?.toIntOrNull()?.takeIf { parts.size <= 3 }) {
+                "Invalid sampler $specification, expected strategy:points[:seed]"
+            }
+            val seed = parts.getOrNull(2)?.let {
+                requireNotNull(it.toLongOrNull()) { "Invalid seed $it in sampler $specification" }
+            }
+            return when (parts.first().lowercase()) {
+                "lhs" -> LatinHypercube(points, seed ?: 0)
+                "sobol" -> {
+                    require(seed == null) { "Sobol sampling is deterministic, and takes no seed: $specification" }
+                    Sobol(points)
+                }
+                else -> throw IllegalArgumentException(
+                    "Unknown sampling strategy in $specification, valid strategies are: lhs, sobol",
+                )
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.launch
+
+import it.unibo.alchemist.boundary.Variable
+import java.io.Serializable
+
+/**
+ * The combinations of values of the batch [variables] selected among the [available] ones,
+ * enumerated lazily and deterministically: the combination with index k is computed on demand,
+ * with the last variable changing fastest.
+ * Only the values of each variable are kept in memory, hence sweeps can be arbitrarily large.
+ * If no variable is selected, the sweep contains the sole empty combination.
+ */
+class ParameterSweep(
+    available: Map<String, Variable<*>>,
+    variables: Collection<String>,
+) : Iterable<Map<String, Serializable?>> {
+
+    private val names: List<String> = variables.toList()
+
+    private val values: List<List<Serializable?>> = names.map { variableName ->
+        available[variableName]?.toList()
+            ?: throw IllegalArgumentException(
+                "$variableName does not exist among the variables. Valid values are: $available",
+            )
+    }
+
+    /**
+     * The number of combinations.
+     */
+    val size: Long = values
+        .fold(1L) { product, variableValues -> Math.multiplyExact(product, variableValues.size.toLong()) }
+        .takeUnless { it == 0L }
+        ?: 1L
+
+    /**
+     * The number of values of each selected variable, in order of selection.
+     */
+    val levels: List<Int> = values.map { it.size }
+
+    /**
+     * Returns the combination with the given [index].
+     */
+    operator fun get(index: Long): Map<String, Serializable?> {
+        require(index in 0 until size) { "Invalid index $index for a sweep of size $size" }
+        val levelIndexes = IntArray(names.size)
+        var remainder = index
+        for (variable in names.indices.reversed()) {
+            val variableLevels = levels[variable].coerceAtLeast(1)
+            levelIndexes[variable] = (remainder % variableLevels).toInt()
+            remainder /= variableLevels
+        }
+        return at(levelIndexes)
+    }
+
+    /**
+     * Returns the combination picking, for each selected variable, the value with the corresponding index
+     * among [levelIndexes] (see [levels]).
+     */
+    fun at(levelIndexes: IntArray): Map<String, Serializable?> {
+        require(levelIndexes.size == names.size) { "Expected ${names.size} indexes, got ${levelIndexes.size}" }
+        if (values.any { it.isEmpty() }) {
+            return emptyMap()
+        }
+        return names.indices.associate { names[it] to values[it][levelIndexes[it]] }
+    }
+
+    /**
+     * Returns the combinations belonging to the shard with the given zero-based [index] out of [count] shards.
+     * Combinations are dealt round-robin in enumeration order, so that shards differ in size by one at most.
+     * Shards are not stratified: a shard may not cover every value of a variable
+     * (e.g., with as many shards as values of the last variable, each shard gets a single value of it).
+     * The shards partition the sweep, and every shard can be computed independently.
+     */
+    fun shard(index: Int, count: Int): Sequence<Map<String, Serializable?>> {
+        require(count > 0 && index in 0 until count) { "Invalid shard $index/$count" }
+        return generateSequence(index.toLong()) { it + count }.takeWhile { it < size }.map(::get)
+    }
+
+    /**
+     * The number of combinations of the shard with the given zero-based [index] out of [count] shards.
+     */
+    fun shardSize(index: Int, count: Int): Long {
+        require(count > 0 && index in 0 until count) { "Invalid shard $index/$count" }
+        return if (index < size) (size - index + count - 1) / count else 0
+    }
+
+    override fun iterator(): Iterator<Map<String, Serializable?>> = shard(0, 1).iterator()
+
+    override fun toString(): String = "ParameterSweep(${names.zip(values).toMap()})"
+}
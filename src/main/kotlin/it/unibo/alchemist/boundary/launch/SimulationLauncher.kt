@@ -9,20 +9,28 @@
 
 package it.unibo.alchemist.boundary.launch
 
-import com.google.common.collect.Lists
 import it.unibo.alchemist.AlchemistExecutionOptions
+import it.unibo.alchemist.boundary.EngineConfiguration
 import it.unibo.alchemist.boundary.InitializedEnvironment
 import it.unibo.alchemist.boundary.LoadAlchemist
 import it.unibo.alchemist.boundary.Loader
+import it.unibo.alchemist.boundary.OutputMonitor
 import it.unibo.alchemist.boundary.Variable
 import it.unibo.alchemist.boundary.exporters.GlobalExporter
+import it.unibo.alchemist.core.ArrayIndexedPriorityQueue
 import it.unibo.alchemist.core.Engine
 import it.unibo.alchemist.core.Simulation
+import it.unibo.alchemist.model.Actionable
+import it.unibo.alchemist.model.Environment
 import it.unibo.alchemist.model.Position
+import it.unibo.alchemist.model.Time
 import it.unibo.alchemist.model.times.DoubleTime
+import org.apache.commons.math3.random.RandomGenerator
 import org.kaikikm.threadresloader.ResourceLoader
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
 import java.io.File
-import java.io.Serializable
+import java.util.SplittableRandom
 
 /**
  * A launcher stub for simulation execution.
@@ -50,36 +58,136 @@ abstract class SimulationLauncher : AbstractLauncher() {
         launch(loader, parameters)
     }
 
-    protected fun Map<String, Variable<*>>.cartesianProductOf(
-        variables: Collection<String>,
-    ): List<Map<String, Serializable?>> {
-        val variableValues = variables.map { variableName ->
-            this[variableName]
-                ?.map { variableName to it }
-                ?: throw IllegalArgumentException(
-                    "$variableName does not exist among the variables. Valid values are: $this",
-                )
-        }.toList()
-        return Lists.cartesianProduct(variableValues).map { it.toMap() }.takeUnless { it.isEmpty() }
-            ?: listOf(emptyMap())
-    }
+    /**
+     * Returns the combinations of values of the selected batch [variables], as a lazily enumerated [ParameterSweep].
+     */
+    protected fun Map<String, Variable<*>>.cartesianProductOf(variables: Collection<String>): ParameterSweep =
+        ParameterSweep(this, variables)
 
     protected fun <T, P : Position<P>> prepareSimulation(
         loader: Loader,
         parameters: AlchemistExecutionOptions,
         variables: Map<String, *>,
+    ): Simulation<T, P> = prepareSimulation(loader.getWith(variables), parameters, parameters.endTime)
+
+    /**
+     * Creates a simulation of the [initialized] environment that runs up to [endTime],
+     * attaching its exporters.
+     * The engine is configured as requested by the [initialized] environment, unless the [parameters] override it.
+     */
+    protected fun <T, P : Position<P>> prepareSimulation(
+        initialized: InitializedEnvironment<T, P>,
+        parameters: AlchemistExecutionOptions,
+        endTime: Double,
     ): Simulation<T, P> {
+        val simulation = createEngine(initialized, parameters, endTime)
+        if (initialized.exporters.isNotEmpty()) {
+            simulation.addOutputMonitor(GlobalExporter(initialized.exporters))
+        }
+        return simulation
+    }
+
+    /**
+     * Runs the simulation with the provided [variables] (and the default values of the others) up to [forkTime],
+     * and returns a checkpoint of its state (see [Simulation.checkpoint]) from which simulations can get forked.
+     * The checkpoint is taken after the first event at or after [forkTime].
+     * Returns null if the simulation ends before reaching [forkTime].
+     * Exporters are not attached, as each fork has its own.
+     */
+    protected fun <T, P : Position<P>> runUpTo(
+        loader: Loader,
+        parameters: AlchemistExecutionOptions,
+        forkTime: Double,
+        variables: Map<String, *> = emptyMap<String, Any>(),
+    ): ByteArray? {
         val initialized: InitializedEnvironment<T, P> = loader.getWith(variables)
-        val simulation = Engine(
+        val simulation = createEngine(initialized, parameters, parameters.endTime)
+        val checkpoint = ByteArrayOutputStream()
+        simulation.addOutputMonitor(
+            object : OutputMonitor<T, P> {
+                private var forked = false
+
+                override fun stepDone(
+                    environment: Environment<T, P>,
+                    reaction: Actionable<T>?,
+                    time: Time,
+                    step: Long,
+                ) {
+                    if (!forked && time.toDouble() >= forkTime) {
+                        forked = true
+                        simulation.schedule {
+                            simulation.checkpoint(checkpoint)
+                            simulation.terminate()
+                        }
+                    }
+                }
+            },
+        )
+        simulation.play()
+        simulation.run()
+        simulation.error.ifPresent { throw it }
+        return checkpoint.takeIf { it.size() > 0 }?.toByteArray()
+    }
+
+    private fun <T, P : Position<P>> createEngine(
+        initialized: InitializedEnvironment<T, P>,
+        parameters: AlchemistExecutionOptions,
+        endTime: Double,
+    ): Engine<T, P> {
+        val engine = with(initialized.engine) {
+            EngineConfiguration(
+                parameters.engineParallelism ?: parallelism,
+                parameters.lookahead ?: lookahead,
+                parameters.tileSize ?: tileSize,
+            )
+        }
+        return Engine(
             initialized.environment,
-            DoubleTime(parameters.endTime),
+            initialized.scheduler ?: ArrayIndexedPriorityQueue(),
+            Long.MAX_VALUE,
+            DoubleTime(endTime),
+            engine.parallelism,
+            engine.lookahead,
+            engine.tileSizeFor(initialized.environment),
         )
-        if (initialized.exporters.isNotEmpty()) {
-            simulation.addOutputMonitor(GlobalExporter(initialized.exporters))
+    }
+
+    /**
+     * Forks a simulation from a [checkpoint] produced by [runUpTo],
+     * attaching the exporters the [loader] creates for the provided [variables].
+     * The variables can not alter the state at the fork, which is shared by all forks:
+     * they name the exports, and they seed the random generators of the fork.
+     * Hence, the checkpoint must have been taken with the same values of the [variables] altering the scenario
+     * (see [variablesAlteringTheScenario]).
+     */
+    protected fun <T, P : Position<P>> forkSimulation(
+        loader: Loader,
+        checkpoint: ByteArray,
+        variables: Map<String, *>,
+    ): Simulation<T, P> {
+        val seeds = SplittableRandom(variables.toSeed())
+        val simulation = Engine.restore<T, P>(ByteArrayInputStream(checkpoint)) { restored ->
+            restored.also { if (it is RandomGenerator) it.setSeed(seeds.nextLong()) }
+        }
+        val exporters = loader.getWith<T, P>(variables).exporters
+        if (exporters.isNotEmpty()) {
+            simulation.addOutputMonitor(GlobalExporter(exporters))
         }
         return simulation
     }
 
+    /**
+     * Returns the batch [variables] altering more than the simulation seed and the exports
+     * (see [Loader.differsOnlyInSeeds]): simulations differing in their values can not share a state to fork.
+     * Each value of each variable is checked once, with the other variables at their default values,
+     * regardless of the number of combinations.
+     */
+    protected fun Loader.variablesAlteringTheScenario(variables: Collection<String>): Set<String> =
+        variables.filterTo(linkedSetOf()) { name ->
+            val variable = requireNotNull(this.variables[name]) { "Unknown variable $name" }
+            variable.any { value -> !differsOnlyInSeeds(mapOf(name to value)) }
+        }
+
     /**
      * Launches a simulation using the provided [loader] and option [parameters].
      */
@@ -89,4 +197,19 @@ abstract class SimulationLauncher : AbstractLauncher() {
      * Allows subclasses to perform further checks before getting executed. Defaults to simply return [Validation.OK]
      */
     abstract fun additionalValidation(currentOptions: AlchemistExecutionOptions): Validation
+
+    private companion object {
+        private const val FNV_OFFSET_BASIS = -0x340d631b7bdddcdbL
+        private const val FNV_PRIME = 0x100000001b3L
+        private const val BYTE_MASK = 0xFFL
+
+        /*
+         * 64-bit FNV-1a hash of the values sorted by name: distinct combinations are very unlikely to collide,
+         * and the seeds do not depend on the other combinations in the batch.
+         */
+        private fun Map<String, *>.toSeed(): Long = toSortedMap().entries
+            .joinToString(separator = "\u0000") { (name, value) -> "$name=$value" }
+            .toByteArray()
+            .fold(FNV_OFFSET_BASIS) { hash, byte -> (hash xor (byte.toLong() and BYTE_MASK)) * FNV_PRIME }
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.launch
+
+import kotlin.math.ceil
+import kotlin.math.log2
+import kotlin.math.pow
+
+/**
+ * Successive halving: all candidates run for a short time, the best half (according to the exported [metric])
+ * runs twice as long, and so on, until the last candidate standing runs up to the end time.
+ * Candidates are ranked on the value of [metric] at the end of each round,
+ * [maximize]d or minimized; candidates with a NaN metric rank last, ties preserve the order of the candidates.
+ */
+data class SuccessiveHalving(
+    /**
+     * The name of the exported column the candidates are ranked by.
+     */
+    val metric: String,
+    /**
+     * Whether greater values of the [metric] are better.
+     */
+    val maximize: Boolean,
+) {
+
+    /**
+     * The number of rounds required to bring the given number of [candidates] down to one.
+     */
+    fun rounds(candidates: Int): Int {
+        require(candidates > 0) { "There must be at least a candidate" }
+        return ceil(log2(candidates.toDouble())).toInt() + 1
+    }
+
+    /**
+     * The time up to which the candidates of the given [round] (zero-based) run,
+     * out of the given number of [rounds] ending at [endTime].
+     */
+    fun horizon(round: Int, rounds: Int, endTime: Double): Double {
+        require(round in 0 until rounds) { "Invalid round $round out of $rounds" }
+        return endTime / 2.0.pow(rounds - 1 - round)
+    }
+
+    /**
+     * Returns the indexes of the [scores] surviving a round, namely the best half, rounding up, in ranking order.
+     */
+    fun survivors(scores: List<Double>): List<Int> {
+        val ranking = scores.indices.sortedBy { index ->
+            val score = scores[index]
+            when {
+                score.isNaN() -> Double.POSITIVE_INFINITY
+                maximize -> -score
+                else -> score
+            }
+        }
+        return ranking.take((scores.size + 1) / 2)
+    }
+
+    companion object {
+
+        /**
+         * Parses a successive halving specification in the form `max:metric` or `min:metric`.
+         */
+        @JvmStatic
+        fun parse(specification: String): SuccessiveHalving {
+            val direction = specification.substringBefore(':').trim().lowercase()
+            val metric = specification.substringAfter(':', missingDelimiterValue = "").trim()
+            require(direction in setOf("max", "min") && metric.isNotEmpty()) {
+                "Invalid successive halving $specification, expected max:metric or min:metric"
+            }
+            return SuccessiveHalving(metric, direction == "max")
+        }
+    }
+}
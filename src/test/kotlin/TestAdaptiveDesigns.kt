@@ -0,0 +1,71 @@
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.collections.shouldHaveSize
+import io.kotest.matchers.ints.shouldBeLessThanOrEqual
+import io.kotest.matchers.shouldBe
+import it.unibo.alchemist.boundary.Variable
+import it.unibo.alchemist.boundary.launch.ParameterSampler
+import it.unibo.alchemist.boundary.launch.ParameterSweep
+import it.unibo.alchemist.boundary.launch.SuccessiveHalving
+import it.unibo.alchemist.boundary.variables.LinearVariable
+
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+class TestAdaptiveDesigns : StringSpec({
+    val variables: Map<String, Variable<*>> = mapOf(
+        "a" to LinearVariable(0.0, 0.0, 99.0, 1.0),
+        "b" to LinearVariable(0.0, 0.0, 99.0, 1.0),
+        "c" to LinearVariable(0.0, 0.0, 9.0, 1.0),
+    )
+    val sweep = ParameterSweep(variables, variables.keys)
+    "latin hypercubes should pick each value of a variable at most once" {
+        val sample = ParameterSampler.parse("lhs:$POINTS").sample(sweep)
+        sample shouldHaveSize POINTS
+        listOf("a", "b").forEach { name -> sample.map { it[name] }.distinct() shouldHaveSize POINTS }
+        sample.toSet().all { it in sweep.toSet() } shouldBe true
+    }
+    "samplers should be reproducible" {
+        listOf("lhs:$POINTS:1", "sobol:$POINTS").forEach {
+            ParameterSampler.parse(it).sample(sweep) shouldBe ParameterSampler.parse(it).sample(sweep)
+        }
+        ParameterSampler.parse("lhs:$POINTS:1").sample(sweep) shouldBe
+            ParameterSampler.LatinHypercube(POINTS, 1).sample(sweep)
+    }
+    "sobol sampling should not exceed the requested points" {
+        ParameterSampler.parse("sobol:$POINTS").sample(sweep).size shouldBeLessThanOrEqual POINTS
+    }
+    "samplers larger than the sweep should return the whole sweep" {
+        val small = ParameterSweep(variables, listOf("c"))
+        ParameterSampler.parse("sobol:$POINTS").sample(small) shouldContainExactly small.toList()
+    }
+    "invalid samplers should be rejected" {
+        listOf("lhs", "lhs:x", "grid:10", "sobol:10:1", "lhs:0", "lhs:1:2:3").forEach {
+            shouldThrow<IllegalArgumentException> { ParameterSampler.parse(it) }
+        }
+    }
+    "successive halving should keep the best half" {
+        val maximizing = SuccessiveHalving.parse("max:score")
+        maximizing.survivors(listOf(1.0, Double.NaN, 3.0, 2.0, 0.0)) shouldContainExactly listOf(2, 3, 0)
+        SuccessiveHalving.parse("min:score").survivors(listOf(1.0, Double.NaN, 3.0, 2.0)) shouldContainExactly
+            listOf(0, 3)
+        maximizing.rounds(1) shouldBe 1
+        maximizing.rounds(5) shouldBe 4
+        maximizing.horizon(0, 4, 8.0) shouldBe 1.0
+        maximizing.horizon(3, 4, 8.0) shouldBe 8.0
+    }
+    "invalid successive halvings should be rejected" {
+        listOf("score", "max:", "best:score").forEach {
+            shouldThrow<IllegalArgumentException> { SuccessiveHalving.parse(it) }
+        }
+    }
+})
+
+private const val POINTS = 20
@@ -60,6 +60,53 @@ class TestCLI : StringSpec({
             status shouldBe 0
         }
     }
+    "execution of a batch forked from a shared prefix should work" {
+        runWithOptions("-y", "forkedsimulation.yml", "-b", "-var", "seed", "-t", "20", "-ft", "10") {
+            status shouldBe 0
+        }
+    }
+    "forking over variables altering the scenario should fork from a state per scenario" {
+        runWithOptions("-y", "forkedsimulation.yml", "-b", "-var", "seed,initial", "-t", "20", "-ft", "10") {
+            status shouldBe 0
+        }
+    }
+    "forking after the end of the simulation should run the batch normally" {
+        runWithOptions("-y", "simplesimulation.yml", "-b", "-var", "fiz,baz", "-ft", "10") {
+            status shouldBe 0
+        }
+    }
+    "execution of a shard of a batch should work" {
+        runWithOptions("-y", "simplesimulation.yml", "-b", "-var", "fiz,baz", "--shard", "1/3") {
+            status shouldBe 0
+        }
+    }
+    "invalid shards should be rejected" {
+        runWithOptions("-y", "simplesimulation.yml", "-b", "-var", "fiz,baz", "--shard", "3/3") {
+            status shouldBe 1
+        }
+    }
+    "execution of a sampled batch should work" {
+        runWithOptions("-y", "simplesimulation.yml", "-b", "-var", "fiz,baz", "--sampler", "lhs:5") {
+            status shouldBe 0
+        }
+    }
+    "execution of a batch through successive halving should work" {
+        runWithOptions("-y", "adaptivesimulation.yml", "-b", "-var", "rate,seed", "-t", "8", "--halving", "max:b[sum]") {
+            status shouldBe 0
+        }
+    }
+    "successive halving without end time should be rejected" {
+        runWithOptions("-y", "adaptivesimulation.yml", "-b", "-var", "rate", "--halving", "max:b[sum]") {
+            status shouldBe 1
+        }
+    }
+    "execution of a batch with a parallel engine should work" {
+        runWithOptions(
+            "-y", "simplesimulation.yml", "-b", "-var", "fiz,baz", "--engine-threads", "2", "--lookahead", "0.5",
+        ) {
+            status shouldBe 0
+        }
+    }
     "execution with no option should print help" {
         runWithOptions {
             status shouldBe 1
@@ -0,0 +1,54 @@
+import com.google.common.collect.Lists
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.shouldBe
+import it.unibo.alchemist.boundary.Variable
+import it.unibo.alchemist.boundary.launch.ParameterSweep
+import it.unibo.alchemist.boundary.variables.ArbitraryVariable
+
+/*
+ * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+class TestParameterSweep : StringSpec({
+    val variables: Map<String, Variable<*>> = mapOf(
+        "a" to ArbitraryVariable(0.0, 1.0, 2.0, 3.0),
+        "b" to ArbitraryVariable(0.0, 1.0, 2.0),
+        "c" to ArbitraryVariable(0.0, 1.0, 2.0, 3.0, 4.0),
+    )
+    val selected = listOf("a", "c", "b")
+    "sweeps should enumerate the cartesian product" {
+        val sweep = ParameterSweep(variables, selected)
+        val expected = Lists.cartesianProduct(selected.map { name -> variables.getValue(name).map { name to it } })
+            .map { it.toMap() }
+        sweep.size shouldBe expected.size.toLong()
+        sweep.toList() shouldContainExactly expected
+    }
+    "shards should partition the sweep" {
+        val sweep = ParameterSweep(variables, selected)
+        val shards = List(SHARDS) { sweep.shard(it, SHARDS).toList() }
+        shards.forEachIndexed { index, shard -> shard.size.toLong() shouldBe sweep.shardSize(index, SHARDS) }
+        shards.flatten().toSet() shouldBe sweep.toSet()
+        shards.sumOf { it.size } shouldBe sweep.size.toInt()
+        shards.maxOf { it.size } - shards.minOf { it.size } shouldBe 1
+    }
+    "shards larger than the sweep should be empty" {
+        val sweep = ParameterSweep(variables, listOf("b"))
+        sweep.shardSize(SHARDS - 1, SHARDS) shouldBe 0
+        sweep.shard(SHARDS - 1, SHARDS).toList() shouldBe emptyList()
+    }
+    "selecting no variable should produce a single run" {
+        ParameterSweep(variables, emptyList()).toList() shouldBe listOf(emptyMap())
+    }
+    "unknown variables should be rejected" {
+        shouldThrow<IllegalArgumentException> { ParameterSweep(variables, listOf("d")) }
+    }
+})
+
+private const val SHARDS = 7